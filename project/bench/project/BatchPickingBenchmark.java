@@ -0,0 +1,106 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compares picking requests one at a time with batch picking, on the same random orders: the
+ * distance walked per request and the picks per hour of a <code>PickTimeModel</code>.
+ *
+ *
+ * <p>For each batch size, the orders are placed, then a single picker works through the picking
+ * queue, picking exactly the fascia it is told to and going to Marshaling after each trip. Each
+ * run is simulated with traversal table routing and with distance routing. Logging is switched
+ * off.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>BatchPickingBenchmark [orders] [seed] [batchSize...]</code>; by default 8000 orders,
+ * seed 1, and batches of 1, 2, 4 and 8 requests.
+ */
+public class BatchPickingBenchmark {
+
+  /**
+   * @param args - The number of orders, the seed and the batch sizes.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+    int[] batchSizes = {1, 2, 4, 8};
+    if (args.length > 2) {
+      batchSizes = new int[args.length - 2];
+      for (int i = 2; i < args.length; i++) {
+        batchSizes[i - 2] = Integer.parseInt(args[i]);
+      }
+    }
+    ((ch.qos.logback.classic.Logger) LoggerFactory
+        .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+    Path directory = BenchmarkWorkloads.copyDataFiles("batch");
+    try {
+      List<String> orderCommands =
+          BenchmarkWorkloads.stockedOrders(new SimulationContext(directory), orders, seed);
+      PickTimeModel model = new PickTimeModel();
+      for (boolean distanceRouting : new boolean[] {false, true}) {
+        double baseline = 0;
+        for (int batchSize : batchSizes) {
+          SimulationContext context = new SimulationContext(directory);
+          context.setDistanceRouting(distanceRouting);
+          context.setPickingBatchSize(batchSize);
+          Simulator simulator = new Simulator(context);
+          simulator.runSimulation(orderCommands);
+          long[] totals = pickEverything(simulator);
+          long distance = totals[0];
+          long picks = totals[1];
+          long trips = totals[2];
+          long requests = totals[3];
+          double picksPerHour = model.picksPerHour(distance, picks, trips, requests);
+          if (batchSize == batchSizes[0]) {
+            baseline = picksPerHour;
+          }
+          System.out.println(String.format("%-9s batch %d: %5d requests in %5d trips,"
+              + " %6.1f walked per request, %5.0f picks/hour (%+5.1f%%)",
+              distanceRouting ? "distance" : "traversal", batchSize, requests, trips,
+              (double) distance / requests, picksPerHour,
+              100 * (picksPerHour - baseline) / baseline));
+        }
+      }
+    } finally {
+      BenchmarkWorkloads.delete(directory);
+    }
+  }
+
+  /**
+   * Has one picker pick every request of the picking queue.
+   *
+   * @return The distance walked, fascia picked, trips made and requests picked.
+   */
+  private static long[] pickEverything(Simulator simulator) {
+    simulator.createWorker("Bench", "Picker");
+    Picker picker = (Picker) simulator.getDirectory().get("Bench");
+    long picks = 0;
+    long trips = 0;
+    long requests = 0;
+    picker.doNextTask();
+    while (picker.getCurrReq() != null) {
+      requests += picker instanceof BatchPicker ? ((BatchPicker) picker).getBatch().size() : 1;
+      for (String sku : new ArrayList<>(picker.getPickingOrder())) {
+        picker.pick(sku);
+        picks++;
+      }
+      picker.sendNextRequest();
+      trips++;
+      // the picker waits in the picker queue once the picking queue is empty
+      if (simulator.getRequestManager().getPickingQueue().isEmpty()) {
+        break;
+      }
+      picker.doNextTask();
+    }
+    return new long[] {picker.getWalkedDistance(), picks, trips, requests};
+  }
+}
@@ -0,0 +1,136 @@
+package project;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small benchmark harness in the style of JMH: every benchmark is run for each of its workload
+ * parameters with warm-up iterations followed by measured iterations, and the throughput and
+ * allocation rate of the measured iterations are reported.
+ *
+ *
+ * <p>Allocation is read from the HotSpot per-thread allocation counter, so the numbers cover only
+ * the benchmark thread.
+ */
+public class BenchmarkRunner {
+
+  /**
+   * One operation to measure, run against a parameterized synthetic workload.
+   */
+  public interface Benchmark {
+
+    /**
+     * @return The name printed in the report.
+     */
+    String name();
+
+    /**
+     * @return The workload parameters to run the benchmark with.
+     */
+    int[] params();
+
+    /**
+     * Prepares a fresh workload before each iteration. Not timed.
+     *
+     * @param param - The workload parameter of this run.
+     */
+    void setUp(int param) throws Exception;
+
+    /**
+     * Performs the operation <code>ops</code> times on the prepared workload.
+     *
+     * @return A value depending on the results, so the work cannot be optimized away.
+     */
+    long run(int ops) throws Exception;
+  }
+
+  /** The result of one benchmark with one parameter. */
+  public static class Result {
+    final String name;
+    final int param;
+    final double opsPerSecond;
+    final double bytesPerOp;
+    final double megabytesPerSecond;
+
+    Result(String name, int param, double opsPerSecond, double bytesPerOp,
+        double megabytesPerSecond) {
+      this.name = name;
+      this.param = param;
+      this.opsPerSecond = opsPerSecond;
+      this.bytesPerOp = bytesPerOp;
+      this.megabytesPerSecond = megabytesPerSecond;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%-40s %10d %16.0f %12.1f %12.1f", name, param, opsPerSecond,
+          bytesPerOp, megabytesPerSecond);
+    }
+  }
+
+  private static final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private int warmupIterations;
+  private int iterations;
+  private int opsPerIteration;
+  private long blackhole;
+
+  /**
+   * @param warmupIterations - Unmeasured iterations run first for each parameter.
+   * @param iterations - Measured iterations for each parameter.
+   * @param opsPerIteration - Operations performed in each iteration.
+   */
+  public BenchmarkRunner(int warmupIterations, int iterations, int opsPerIteration) {
+    this.warmupIterations = warmupIterations;
+    this.iterations = iterations;
+    this.opsPerIteration = opsPerIteration;
+  }
+
+  /**
+   * Runs every benchmark with every one of its parameters, printing each result as it is known.
+   *
+   * @return The results, in the order they were measured.
+   */
+  public List<Result> runAll(List<Benchmark> benchmarks) throws Exception {
+    List<Result> results = new ArrayList<>();
+    System.out.println(String.format("%-40s %10s %16s %12s %12s", "benchmark", "param", "ops/s",
+        "B/op", "MB/s alloc"));
+    for (Benchmark benchmark : benchmarks) {
+      for (int param : benchmark.params()) {
+        Result result = run(benchmark, param);
+        System.out.println(result);
+        results.add(result);
+      }
+    }
+    if (blackhole == 42) {
+      System.out.println("");
+    }
+    return results;
+  }
+
+  private Result run(Benchmark benchmark, int param) throws Exception {
+    for (int i = 0; i < warmupIterations; i++) {
+      benchmark.setUp(param);
+      blackhole += benchmark.run(opsPerIteration);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long nanos = 0;
+    long bytes = 0;
+    for (int i = 0; i < iterations; i++) {
+      benchmark.setUp(param);
+      long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      blackhole += benchmark.run(opsPerIteration);
+      nanos += System.nanoTime() - start;
+      bytes += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    }
+
+    long ops = (long) iterations * opsPerIteration;
+    double seconds = nanos / 1e9;
+    return new Result(benchmark.name(), param, ops / seconds, (double) bytes / ops,
+        bytes / seconds / (1 << 20));
+  }
+}
@@ -0,0 +1,132 @@
+package project;
+
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * The data directories and order commands the simulation benchmarks run on.
+ */
+final class BenchmarkWorkloads {
+
+  private static final String[] DATA_FILES =
+      {"translation.csv", "initial.csv", "traversal_table.csv"};
+
+  private static final String[] ZONES = {"A", "B"};
+  private static final int AISLES = 8;
+  private static final int RACKS = 10;
+  private static final int LEVELS = 2;
+
+  private BenchmarkWorkloads() {}
+
+  /**
+   * @return A new directory holding copies of the data files in the working directory.
+   */
+  static Path copyDataFiles(String prefix) throws Exception {
+    Path directory = Files.createTempDirectory(prefix);
+    for (String file : DATA_FILES) {
+      Files.copy(Paths.get(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return directory;
+  }
+
+  /**
+   * Deletes a directory created for a benchmark and the files written in it.
+   */
+  static void delete(Path directory) throws Exception {
+    for (Path file : Files.newDirectoryStream(directory)) {
+      Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * @return Order commands for random fascia that are both on the picking floor.
+   */
+  static List<String> stockedOrders(SimulationContext context, int orders, long seed)
+      throws Exception {
+    TraversalIndex index = context.getTraversalIndex();
+    ArrayList<String[]> stocked = new ArrayList<>();
+    Scanner scanner = new Scanner(new FileInputStream(context.getTranslationTable()));
+    scanner.nextLine(); // skip the header
+    while (scanner.hasNextLine()) {
+      String[] row = scanner.nextLine().split(",");
+      if (row.length == 4 && index.getRank(row[2]) >= 0 && index.getRank(row[3]) >= 0) {
+        stocked.add(row);
+      }
+    }
+    scanner.close();
+
+    Random random = new Random(seed);
+    List<String> commands = new ArrayList<>(orders);
+    for (int i = 0; i < orders; i++) {
+      String[] row = stocked.get(random.nextInt(stocked.size()));
+      commands.add("Order " + row[1] + " " + row[0]);
+    }
+    return commands;
+  }
+
+  /**
+   * Writes the data files of a generated picking floor into <code>directory</code>: 2 zones of 8
+   * aisles of 10 racks with 2 levels, one SKU per location, and nothing in stock. The front and
+   * back fascia of colour <code>Ci</code> are SKUs <code>2i - 1</code> and <code>2i</code>.
+   *
+   * @param extraAisles - The number of aisles at the start of zone A whose SKUs are also stocked
+   *        on 2 more levels of the aisles that many aisles further.
+   * @return The number of colours.
+   */
+  static int writeFloor(Path directory, int extraAisles) throws Exception {
+    ArrayList<String> table = new ArrayList<>();
+    int sku = 0;
+    for (String zone : ZONES) {
+      for (int aisle = 0; aisle < AISLES; aisle++) {
+        for (int rack = 0; rack < RACKS; rack++) {
+          for (int level = 0; level < LEVELS; level++) {
+            table.add(String.join(",", zone, "" + aisle, "" + rack, "" + level, "" + ++sku));
+          }
+        }
+      }
+    }
+    for (int aisle = 0; aisle < extraAisles; aisle++) {
+      for (int rack = 0; rack < RACKS; rack++) {
+        for (int level = 0; level < LEVELS; level++) {
+          table.add(String.join(",", ZONES[0], "" + (aisle + extraAisles), "" + rack,
+              "" + (LEVELS + level), "" + (aisle * RACKS * LEVELS + rack * LEVELS + level + 1)));
+        }
+      }
+    }
+    ArrayList<String> translation = new ArrayList<>();
+    translation.add("Colour,Model,SKU (front),SKU (back)");
+    for (int colour = 1; colour <= sku / 2; colour++) {
+      translation.add(String.join(",", "C" + colour, "S", "" + (2 * colour - 1),
+          "" + 2 * colour));
+    }
+    Files.write(directory.resolve("traversal_table.csv"), table, StandardCharsets.UTF_8);
+    Files.write(directory.resolve("translation.csv"), translation, StandardCharsets.UTF_8);
+    Files.write(directory.resolve("initial.csv"), new ArrayList<String>(),
+        StandardCharsets.UTF_8);
+    return sku / 2;
+  }
+
+  /**
+   * @param skew - 1 to order every colour as often, or more to order the first colours of the
+   *        table the most often.
+   * @return Order commands for random colours of a floor written by <code>writeFloor</code>.
+   */
+  static List<String> colourOrders(int colours, int orders, long seed, double skew) {
+    Random random = new Random(seed);
+    List<String> commands = new ArrayList<>(orders);
+    for (int i = 0; i < orders; i++) {
+      int colour = 1 + (int) (colours * Math.pow(random.nextDouble(), skew));
+      commands.add("Order S C" + colour);
+    }
+    return commands;
+  }
+}
@@ -0,0 +1,136 @@
+package project;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local load-test client for <code>CommandServer</code>. Several clients each send a command
+ * file over and over, keeping a window of commands in flight, and count the acknowledgements.
+ *
+ *
+ * <p>Usage: <code>CommandServerBenchmark [clients] [commandsPerClient] [commandFile] [port]</code>.
+ * Without a port, a server with a new <code>Simulator</code> is started in this JVM. Run with a
+ * quiet logging configuration to measure the server rather than the log appenders.
+ */
+public class CommandServerBenchmark {
+
+  /** The number of commands a client sends before waiting for their acknowledgements. */
+  private static final int WINDOW = 1024;
+
+  /**
+   * @param args - The number of clients, commands per client, command file and server port.
+   */
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    final long commandsPerClient = args.length > 1 ? Long.parseLong(args[1]) : 200_000L;
+    String commandFile = args.length > 2 ? args[2] : "zmd_std.txt";
+
+    CommandServer server = null;
+    Thread serverThread = null;
+    int port;
+    if (args.length > 3) {
+      port = Integer.parseInt(args[3]);
+    } else {
+      server = new CommandServer(new Simulator(), 0);
+      port = server.getPort();
+      serverThread = new Thread(server, "command-server");
+      serverThread.start();
+    }
+
+    final List<String> commands = Files.readAllLines(Paths.get(commandFile),
+        StandardCharsets.UTF_8);
+    final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+        port);
+    final AtomicLong acknowledged = new AtomicLong();
+    final AtomicLong invalid = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+
+    List<Thread> threads = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int c = 0; c < clients; c++) {
+      Thread client = new Thread(() -> {
+        try {
+          sendCommands(address, commands, commandsPerClient, acknowledged, invalid, failed);
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }, "client-" + c);
+      threads.add(client);
+      client.start();
+    }
+    for (Thread client : threads) {
+      client.join();
+    }
+    long elapsed = System.nanoTime() - start;
+
+    if (server != null) {
+      server.close();
+      serverThread.join();
+    }
+    System.out.println(String.format("%d clients, %d commands acknowledged (%d invalid, %d failed)"
+        + " in %.2f s: %.0f commands/s", clients, acknowledged.get(), invalid.get(), failed.get(),
+        elapsed / 1e9, acknowledged.get() / (elapsed / 1e9)));
+  }
+
+  private static void sendCommands(InetSocketAddress address, List<String> commands,
+      long total, AtomicLong acknowledged, AtomicLong invalid, AtomicLong failed)
+      throws IOException {
+    try (SocketChannel channel = SocketChannel.open(address)) {
+      channel.socket().setTcpNoDelay(true);
+      ByteBuffer out = ByteBuffer.allocate(1 << 16);
+      ByteBuffer in = ByteBuffer.allocate(1 << 16);
+      long sent = 0;
+      int next = 0;
+      while (sent < total) {
+        int window = (int) Math.min(WINDOW, total - sent);
+        for (int i = 0; i < window; i++) {
+          byte[] line = (commands.get(next) + "\n").getBytes(StandardCharsets.UTF_8);
+          next = (next + 1) % commands.size();
+          if (out.remaining() < line.length) {
+            out.flip();
+            while (out.hasRemaining()) {
+              channel.write(out);
+            }
+            out.clear();
+          }
+          out.put(line);
+        }
+        out.flip();
+        while (out.hasRemaining()) {
+          channel.write(out);
+        }
+        out.clear();
+        sent += window;
+
+        int acks = 0;
+        while (acks < window) {
+          if (channel.read(in) < 0) {
+            throw new IOException("Server closed the connection");
+          }
+          in.flip();
+          while (in.hasRemaining()) {
+            byte b = in.get();
+            if (b == 'I') {
+              invalid.incrementAndGet();
+            } else if (b == 'E') {
+              failed.incrementAndGet();
+            } else if (b == '\n') {
+              acks++;
+            }
+          }
+          in.clear();
+        }
+        acknowledged.addAndGet(acks);
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package project;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compares pickers following the shortest tours of the route engine with pickers re-routing
+ * around crowded aisles (<code>SimulationContext.setCongestionPenalty</code>), with 5, 20 and 50
+ * pickers sharing the picking floor.
+ *
+ *
+ * <p>The picking floor is generated: 2 zones of 8 aisles of 10 racks with 2 levels, one SKU per
+ * location, and the SKUs of the first two aisles are also stocked on 2 more levels of the next two
+ * aisles. Demand is skewed towards the SKUs at the start of the traversal table, so the first
+ * aisles get most of the traffic. The same orders are placed for every run, routed by the route engine,
+ * then the pickers work one fascia at a time, always moving on the picker with the least work so
+ * far, as if they worked at the same time. Each step takes the time of a
+ * <code>PickTimeModel</code>, and walking into an aisle costs <code>BLOCKING_SECONDS</code> more
+ * for every other picker standing in it. The number of fascia picked per hour by all the pickers
+ * together is printed. Logging is switched off.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>CongestionBenchmark [orders] [seed] [penalty] [pickers...]</code>; by default 8000 orders,
+ * seed 1, a penalty of 4 and 5, 20 and 50 pickers.
+ */
+public class CongestionBenchmark {
+
+  /** The time lost walking into an aisle for each other picker standing in it. */
+  static final double BLOCKING_SECONDS = 15;
+
+  /**
+   * @param args - The number of orders, the seed, the penalty and the numbers of pickers.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+    int penalty = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+    ArrayList<Integer> pickerCounts = new ArrayList<>();
+    for (int i = 3; i < args.length; i++) {
+      pickerCounts.add(Integer.parseInt(args[i]));
+    }
+    if (pickerCounts.isEmpty()) {
+      Collections.addAll(pickerCounts, 5, 20, 50);
+    }
+    ((ch.qos.logback.classic.Logger) LoggerFactory
+        .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+    Path directory = Files.createTempDirectory("congestion");
+    try {
+      int colours = BenchmarkWorkloads.writeFloor(directory, 2);
+      List<String> orderCommands = BenchmarkWorkloads.colourOrders(colours, orders, seed, 2);
+      PickTimeModel model = new PickTimeModel();
+      for (int pickers : pickerCounts) {
+        double[] baseline = null;
+        for (int runPenalty : new int[] {0, penalty}) {
+          SimulationContext context = new SimulationContext(directory);
+          context.setDistanceRouting(true);
+          context.setCongestionPenalty(runPenalty);
+          Simulator simulator = new Simulator(context);
+          simulator.runSimulation(orderCommands);
+          double[] totals = pickEverything(simulator, pickers, model);
+          double picksPerHour = totals[1] * 3600 / totals[2];
+          System.out.println(String.format("%2d pickers, penalty %2d: %5.2f walked per fascia,"
+              + " %5.1f min blocked per trip, %6.0f picks/hour%s", pickers, runPenalty,
+              totals[0] / totals[1], totals[3] / 60 / totals[4], picksPerHour,
+              baseline == null ? "" : String.format(" (%+.1f%%)",
+                  100 * (picksPerHour / baseline[0] - 1))));
+          if (baseline == null) {
+            baseline = new double[] {picksPerHour};
+          }
+        }
+      }
+    } finally {
+      BenchmarkWorkloads.delete(directory);
+    }
+  }
+
+  /**
+   * Has the pickers work one fascia at a time until none of them has a task left, always moving
+   * on the picker with the least work so far.
+   *
+   * @return The distance walked, fascia picked, the time until the last trip ends, the time lost
+   *         to blocking, both in seconds, and the number of trips.
+   */
+  private static double[] pickEverything(Simulator simulator, int count, PickTimeModel model)
+      throws Exception {
+    LocationCatalog catalog = simulator.getContext().getLocationCatalog();
+    ArrayList<Picker> pickers = new ArrayList<>(count);
+    double[] clocks = new double[count];
+    for (int i = 0; i < count; i++) {
+      simulator.createWorker("Bench" + i, "Picker");
+      Picker picker = (Picker) simulator.getDirectory().get("Bench" + i);
+      picker.doNextTask();
+      pickers.add(picker);
+    }
+    long picks = 0;
+    long trips = 0;
+    double blocked = 0;
+    while (true) {
+      int next = -1;
+      for (int i = 0; i < count; i++) {
+        if (pickers.get(i).getCurrReq() != null && (next < 0 || clocks[i] < clocks[next])) {
+          next = i;
+        }
+      }
+      if (next < 0) {
+        break;
+      }
+      Picker picker = pickers.get(next);
+      long walked = picker.getWalkedDistance();
+      int aisle = catalog.getAisle(picker.getPosition());
+      if (!picker.getDonePicking()) {
+        picker.pick(picker.getPickingOrder().get(picker.getCurrIndex()));
+        clocks[next] += model.seconds(picker.getWalkedDistance() - walked, 1, 0, 0);
+        picks++;
+        int newAisle = catalog.getAisle(picker.getPosition());
+        if (newAisle != aisle) {
+          for (Picker other : pickers) {
+            if (other != picker && other.getCurrReq() != null
+                && catalog.getAisle(other.getPosition()) == newAisle) {
+              clocks[next] += BLOCKING_SECONDS;
+              blocked += BLOCKING_SECONDS;
+            }
+          }
+        }
+      } else {
+        picker.sendNextRequest();
+        clocks[next] += model.seconds(picker.getWalkedDistance() - walked, 0, 1, 1);
+        trips++;
+        picker.doNextTask();
+      }
+    }
+
+    long distance = 0;
+    double makespan = 0;
+    for (int i = 0; i < count; i++) {
+      distance += pickers.get(i).getWalkedDistance();
+      makespan = Math.max(makespan, clocks[i]);
+    }
+    return new double[] {distance, picks, makespan, blocked, trips};
+  }
+}
@@ -0,0 +1,473 @@
+package project;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Benchmarks of the simulator hot paths, each run on synthetic workloads with one or more
+ * parameters:
+ *
+ * <ul>
+ * <li><code>Simulator.parseCommand</code>: complete order-to-truck cycles of commands; the
+ * parameter is the percentage of malformed lines mixed in.</li>
+ * <li><code>OrderManager.enqueue</code>: random orders; the parameter is the number of requests
+ * already waiting in the picking queue.</li>
+ * <li><code>OrderManager.generateLoadingOrder</code>: random groups of four orders; the parameter
+ * is the number of distinct groups cycled through.</li>
+ * <li><code>FasciaCatalog.getCode</code>: random orders looked up and translated; the parameter is
+ * the number of colour and model combinations in a generated translation table.</li>
+ * <li><code>WarehousePicking.optimize</code>: random requests; the parameter is the number of
+ * SKUs per request.</li>
+ * <li><code>InventoryManager.decrement</code>: random picks; the parameter is the percentage of
+ * SKUs at the replenishing threshold.</li>
+ * <li><code>RequestManager.completeRequest</code>: requests completed in loading order; the
+ * parameter is the number of orders per request.</li>
+ * <li><code>CheckerWorker.check</code>: a sequencer scanning and rescanning one request; the
+ * parameter is the number of rescans the sequencer performed earlier in its shift.</li>
+ * </ul>
+ *
+ *
+ * <p>The benchmarks run against copies of the data files in a temporary directory, so the
+ * working directory is left untouched. Logging is switched off unless the system property
+ * <code>bench.logging</code> is <code>true</code>, so the numbers measure the simulator and not
+ * the appenders.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>HotPathBenchmarks [warmupIterations] [iterations] [opsPerIteration] [nameFilter]</code>.
+ */
+public class HotPathBenchmarks {
+
+  private static final String[] DATA_FILES =
+      {"translation.csv", "initial.csv", "traversal_table.csv"};
+
+  /** Number of distinct random orders, requests or command cycles in a workload. */
+  private static final int POOL_SIZE = 4096;
+
+  private final SimulationContext context;
+  /** The rows of the translation table that can be ordered and picked. */
+  private final String[][] fascia;
+  private final ArrayList<String> stockedSkus;
+
+  private HotPathBenchmarks(SimulationContext context) throws IOException {
+    this.context = context;
+    // only orders whose fascia are both on the picking floor can be picked in full
+    TraversalIndex index = context.getTraversalIndex();
+    ArrayList<String[]> stocked = new ArrayList<>();
+    this.stockedSkus = new ArrayList<>();
+    for (String[] row : readTranslationTable(context.getTranslationTable())) {
+      if (index.getRank(row[2]) >= 0 && index.getRank(row[3]) >= 0) {
+        stocked.add(row);
+        stockedSkus.add(row[2]);
+        stockedSkus.add(row[3]);
+      }
+    }
+    this.fascia = stocked.toArray(new String[stocked.size()][]);
+  }
+
+  /**
+   * @return The <code>Colour,Model,FrontSKU,RearSKU</code> rows of the translation table.
+   */
+  private static ArrayList<String[]> readTranslationTable(String translationTable)
+      throws IOException {
+    ArrayList<String[]> rows = new ArrayList<>();
+    Scanner scanner = new Scanner(new FileInputStream(translationTable));
+    scanner.nextLine(); // skip the header
+    while (scanner.hasNextLine()) {
+      String[] row = scanner.nextLine().split(",");
+      if (row.length == 4) {
+        rows.add(row);
+      }
+    }
+    scanner.close();
+    return rows;
+  }
+
+  private Order randomOrder(Random random) {
+    String[] row = fascia[random.nextInt(fascia.length)];
+    return new Order(row[0], row[1], context);
+  }
+
+  private ArrayList<Order> randomOrderGroup(Random random, int size) {
+    ArrayList<Order> group = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      group.add(randomOrder(random));
+    }
+    return group;
+  }
+
+  private RequestManager newRequestManager() {
+    return new RequestManager(new WorkerManager(), context);
+  }
+
+  private OrderManager newOrderManager(RequestManager rm) throws IOException {
+    return new OrderManager(context.getTranslationTable(), rm, context);
+  }
+
+  /**
+   * @return The commands taking one group of four orders from intake to the truck, with
+   *         <code>invalidPercent</code> percent of malformed lines mixed in.
+   */
+  private List<String> commandCycle(Random random, OrderManager om, int invalidPercent)
+      throws IOException {
+    ArrayList<Order> group = randomOrderGroup(random, 4);
+    ArrayList<String> loadingOrder = om.generateLoadingOrder(group);
+    ArrayList<String> lines = new ArrayList<>();
+    for (Order order : group) {
+      lines.add("Order " + order.model + " " + order.colour);
+    }
+    lines.add("Picker Alice ready");
+    for (String sku : context.getTraversalIndex().sort(loadingOrder)) {
+      lines.add("Picker Alice picks " + sku);
+    }
+    lines.add("Picker Alice to Marshaling");
+    for (String worker : new String[] {"Sequencer Sue", "Loader Bob"}) {
+      lines.add(worker + " ready");
+      for (int i = 0; i < loadingOrder.size(); i++) {
+        lines.add(worker + (worker.startsWith("Loader") ? " loads" : " sequences"));
+      }
+      lines.add(worker + " approves");
+    }
+
+    ArrayList<String> mixed = new ArrayList<>(lines.size());
+    for (String line : lines) {
+      if (random.nextInt(100) < invalidPercent) {
+        mixed.add("Picker Alice picks up " + line.length());
+      }
+      mixed.add(line);
+    }
+    return mixed;
+  }
+
+  private void deleteCompletedOrders() throws IOException {
+    Files.deleteIfExists(Paths.get(context.getCompletedOrders()));
+  }
+
+  /**
+   * A benchmark whose parameters are given when it is created.
+   */
+  private abstract static class ParameterizedBenchmark implements BenchmarkRunner.Benchmark {
+    private final String name;
+    private final int[] params;
+
+    ParameterizedBenchmark(String name, int... params) {
+      this.name = name;
+      this.params = params;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public int[] params() {
+      return params;
+    }
+  }
+
+  private List<BenchmarkRunner.Benchmark> benchmarks() {
+    List<BenchmarkRunner.Benchmark> benchmarks = new ArrayList<>();
+
+    benchmarks.add(new ParameterizedBenchmark("Simulator.parseCommand", 0, 20) {
+      private Simulator simulator;
+      private String[] lines;
+
+      @Override
+      public void setUp(int invalidPercent) throws Exception {
+        deleteCompletedOrders();
+        simulator = new Simulator(context);
+        Random random = new Random(42);
+        OrderManager om = newOrderManager(newRequestManager());
+        ArrayList<String> all = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE / 16; i++) {
+          all.addAll(commandCycle(random, om, invalidPercent));
+        }
+        lines = all.toArray(new String[all.size()]);
+      }
+
+      @Override
+      public long run(int ops) {
+        long valid = 0;
+        for (int i = 0; i < ops; i++) {
+          if (simulator.parseCommand(lines[i % lines.length])) {
+            valid++;
+          }
+        }
+        return valid;
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("OrderManager.enqueue", 0, 10_000) {
+      private OrderManager om;
+      private Order[] orders;
+
+      @Override
+      public void setUp(int waitingRequests) throws Exception {
+        om = newOrderManager(newRequestManager());
+        Random random = new Random(42);
+        orders = new Order[POOL_SIZE];
+        for (int i = 0; i < orders.length; i++) {
+          orders[i] = randomOrder(random);
+        }
+        for (int i = 0; i < waitingRequests * 4; i++) {
+          om.enqueue(orders[i % orders.length]);
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        for (int i = 0; i < ops; i++) {
+          om.enqueue(orders[i % orders.length]);
+        }
+        return om.getQueuedOrders().size();
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("OrderManager.generateLoadingOrder", 16, 4096) {
+      private OrderManager om;
+      private List<ArrayList<Order>> groups;
+
+      @Override
+      public void setUp(int distinctGroups) throws Exception {
+        om = newOrderManager(newRequestManager());
+        Random random = new Random(42);
+        groups = new ArrayList<>(distinctGroups);
+        for (int i = 0; i < distinctGroups; i++) {
+          groups.add(randomOrderGroup(random, 4));
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        long skus = 0;
+        for (int i = 0; i < ops; i++) {
+          skus += om.generateLoadingOrder(groups.get(i % groups.size())).size();
+        }
+        return skus;
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("FasciaCatalog.getCode", 48, 48_000) {
+      private FasciaCatalog catalog;
+      private String[][] orders;
+
+      @Override
+      public void setUp(int combinations) throws Exception {
+        Path table = Paths.get(context.getTranslationTable()).resolveSibling("catalog.csv");
+        ArrayList<String> lines = new ArrayList<>(combinations + 1);
+        lines.add("Colour,Model,SKU (front),SKU (back)");
+        for (int i = 0; i < combinations; i++) {
+          lines.add(String.join(",", "C" + i / 4, "M" + i % 4, "" + (2 * i + 1), "" + (2 * i + 2)));
+        }
+        Files.write(table, lines, StandardCharsets.UTF_8);
+        catalog = new FasciaCatalog(table.toString());
+        Random random = new Random(42);
+        orders = new String[POOL_SIZE][];
+        for (int i = 0; i < orders.length; i++) {
+          int combination = random.nextInt(combinations);
+          orders[i] = new String[] {"C" + combination / 4, "M" + combination % 4};
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        long codes = 0;
+        for (int i = 0; i < ops; i++) {
+          String[] order = orders[i % orders.length];
+          int code = catalog.getCode(order[0], order[1]);
+          codes += code + catalog.getFrontSku(code).length();
+        }
+        return codes;
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("WarehousePicking.optimize", 8, 32, 128) {
+      private List<ArrayList<String>> requests;
+
+      @Override
+      public void setUp(int skusPerRequest) {
+        Random random = new Random(42);
+        requests = new ArrayList<>(POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+          ArrayList<String> skus = new ArrayList<>(skusPerRequest);
+          for (int j = 0; j < skusPerRequest; j++) {
+            skus.add(stockedSkus.get(random.nextInt(stockedSkus.size())));
+          }
+          requests.add(skus);
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        long skus = 0;
+        for (int i = 0; i < ops; i++) {
+          skus += WarehousePicking.optimize(requests.get(i % POOL_SIZE)).size();
+        }
+        return skus;
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("InventoryManager.decrement", 0, 100) {
+      private InventoryManager im;
+      private String[] picks;
+
+      @Override
+      public void setUp(int lowStockPercent) throws Exception {
+        im = new InventoryManager(context.getInitialInventory(), newRequestManager(), false,
+            context);
+        Random random = new Random(42);
+        for (String sku : stockedSkus) {
+          boolean low = random.nextInt(100) < lowStockPercent;
+          im.getInventory().put(sku, low ? 5 : Integer.MAX_VALUE / 2);
+        }
+        picks = new String[POOL_SIZE];
+        for (int i = 0; i < picks.length; i++) {
+          picks[i] = stockedSkus.get(random.nextInt(stockedSkus.size()));
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        for (int i = 0; i < ops; i++) {
+          im.decrement(picks[i % picks.length]);
+        }
+        return im.getInventory().size();
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("RequestManager.completeRequest", 4, 16) {
+      private RequestManager rm;
+      private List<PickingRequest> requests;
+
+      @Override
+      public void setUp(int ordersPerRequest) throws Exception {
+        deleteCompletedOrders();
+        rm = newRequestManager();
+        OrderManager om = newOrderManager(rm);
+        Random random = new Random(42);
+        requests = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE; i++) {
+          ArrayList<Order> group = randomOrderGroup(random, ordersPerRequest);
+          requests.add(new PickingRequest(group, om.generateLoadingOrder(group), context));
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        for (int i = 0; i < ops; i++) {
+          rm.getLoadingOrder().add(requests.get(i % requests.size()));
+        }
+        for (int i = 0; i < ops; i++) {
+          rm.completeRequest(requests.get(i % requests.size()));
+        }
+        rm.closeCompletedOrders();
+        return rm.getLoadingOrder().size();
+      }
+    });
+
+    benchmarks.add(new ParameterizedBenchmark("CheckerWorker.check", 0, 1000, 10_000) {
+      private Sequencer sequencer;
+
+      @Override
+      public void setUp(int earlierRescans) throws Exception {
+        RequestManager rm = newRequestManager();
+        OrderManager om = newOrderManager(rm);
+        ArrayList<Order> group = randomOrderGroup(new Random(42), 4);
+        PickingRequest request =
+            new PickingRequest(group, om.generateLoadingOrder(group), context);
+        for (String sku : request.getPickingOrder()) {
+          request.updateFasciaState(sku);
+        }
+        rm.getSequencingQueue().add(request);
+        sequencer = new Sequencer("Sue", rm, null);
+        sequencer.requestTask();
+        for (int i = 0; i < earlierRescans; i++) {
+          for (int j = 0; j < 8; j++) {
+            sequencer.check();
+          }
+          sequencer.rescan();
+        }
+      }
+
+      @Override
+      public long run(int ops) {
+        for (int i = 0; i < ops; i++) {
+          if (sequencer.getCurrIndex() == 8) {
+            sequencer.rescan();
+          }
+          sequencer.check();
+        }
+        return sequencer.getValidFascias().size();
+      }
+    });
+
+    return benchmarks;
+  }
+
+  /**
+   * @return A new directory holding copies of the data files in the working directory.
+   */
+  private static Path copyDataFiles() throws IOException {
+    Path directory = Files.createTempDirectory("benchmark");
+    for (String file : DATA_FILES) {
+      Files.copy(Paths.get(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return directory;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    for (Path file : Files.newDirectoryStream(directory)) {
+      Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Runs the benchmarks whose names contain the filter, or all of them.
+   *
+   * @param args - Warm-up iterations, measured iterations, operations per iteration, and a
+   *        benchmark name filter; 3, 5, 20000 and all benchmarks by default.
+   * @throws Exception if the data files cannot be copied or a benchmark fails.
+   */
+  public static void main(String[] args) throws Exception {
+    int warmup = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    int ops = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+    String filter = args.length > 3 ? args[3] : "";
+
+    if (!Boolean.getBoolean("bench.logging")) {
+      ((ch.qos.logback.classic.Logger) LoggerFactory
+          .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+    }
+
+    Path directory = copyDataFiles();
+    try {
+      HotPathBenchmarks suite = new HotPathBenchmarks(new SimulationContext(directory));
+      List<BenchmarkRunner.Benchmark> selected = new ArrayList<>();
+      for (BenchmarkRunner.Benchmark benchmark : suite.benchmarks()) {
+        if (benchmark.name().contains(filter)) {
+          selected.add(benchmark);
+        }
+      }
+      System.out.println(String.format("%d warm-up and %d measured iterations of %d ops",
+          warmup, iterations, ops));
+      new BenchmarkRunner(warmup, iterations, ops).runAll(selected);
+    } finally {
+      delete(directory);
+    }
+  }
+}
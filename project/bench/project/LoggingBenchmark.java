@@ -0,0 +1,105 @@
+package project;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+
+/**
+ * Measures how many commands per second the simulator runs under different logging
+ * configurations, on the same generated workload.
+ *
+ *
+ * <p>For each configuration file, logback is reconfigured, the workload is simulated a number of
+ * times in a temporary directory, and logback is stopped so every queued event is written before
+ * the time is taken. The results are printed once all configurations have run, after any console
+ * output of the appenders.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>LoggingBenchmark [commands] [repetitions] [configurationFile...]</code>; by default
+ * 200000 commands, 3 repetitions, and <code>src/logback.xml</code> then
+ * <code>src/logback-throughput.xml</code>.
+ */
+public class LoggingBenchmark {
+
+  private static final String[] DATA_FILES =
+      {"translation.csv", "initial.csv", "traversal_table.csv"};
+
+  /**
+   * @param args - The number of commands, repetitions and the logback configuration files.
+   */
+  public static void main(String[] args) throws Exception {
+    long commands = args.length > 0 ? Long.parseLong(args[0]) : 200_000L;
+    int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+    List<String> configurations = new ArrayList<>();
+    for (int i = 2; i < args.length; i++) {
+      configurations.add(args[i]);
+    }
+    if (configurations.isEmpty()) {
+      configurations.add("src/logback.xml");
+      configurations.add("src/logback-throughput.xml");
+    }
+
+    Path directory = Files.createTempDirectory("logging");
+    List<String> results = new ArrayList<>();
+    try {
+      for (String file : DATA_FILES) {
+        Files.copy(Paths.get(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+      }
+      SimulationContext context = new SimulationContext(directory);
+      StringWriter out = new StringWriter();
+      WorkloadGenerator generator = new WorkloadGenerator(context, 1);
+      generator.setRescanRate(0.05);
+      generator.setRejectRate(0.05);
+      generator.generate(commands, out);
+      String workload = out.toString();
+
+      for (String configuration : configurations) {
+        double best = 0;
+        for (int r = 0; r < repetitions; r++) {
+          Files.deleteIfExists(Paths.get(context.getCompletedOrders()));
+          LoggerContext loggerContext = configure(configuration);
+          long start = System.nanoTime();
+          new Simulator(context).runSimulation(new StringReader(workload));
+          loggerContext.stop(); // drains the asynchronous appenders
+          double seconds = (System.nanoTime() - start) / 1e9;
+          best = Math.max(best, commands / seconds);
+        }
+        results.add(String.format("%-40s %12.0f commands/s (best of %d)", configuration, best,
+            repetitions));
+      }
+    } finally {
+      for (Path file : Files.newDirectoryStream(directory)) {
+        Files.delete(file);
+      }
+      Files.delete(directory);
+    }
+
+    System.out.println(String.format("%d generated commands", commands));
+    for (String result : results) {
+      System.out.println(result);
+    }
+  }
+
+  /**
+   * Replaces the logback configuration with the one in <code>file</code>.
+   */
+  private static LoggerContext configure(String file) throws Exception {
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    loggerContext.reset();
+    JoranConfigurator configurator = new JoranConfigurator();
+    configurator.setContext(loggerContext);
+    configurator.doConfigure(file);
+    return loggerContext;
+  }
+}
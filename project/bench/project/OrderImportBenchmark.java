@@ -0,0 +1,103 @@
+package project;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compares queuing a large dump of orders one <code>Order</code> command at a time with importing
+ * it as an order file (<code>Simulator.importOrders</code>).
+ *
+ *
+ * <p>Random orders of the translation table are written to an order file, and the same orders
+ * as <code>Order Model Colour</code> lines to a command file. Each run starts a new simulation in a
+ * temporary directory holding copies of the data files, so every run routes and numbers the same
+ * requests, and reading the file is counted in both times. The best time of the runs is printed.
+ * Logging is switched off unless the system property <code>bench.logging</code> is
+ * <code>true</code>.
+ *
+ *
+ * <p>Usage (from the "project" directory): <code>OrderImportBenchmark [orders] [runs]</code>; by
+ * default 50000 orders and 5 runs.
+ */
+public class OrderImportBenchmark {
+
+  private static final String[] DATA_FILES =
+      {"translation.csv", "initial.csv", "traversal_table.csv"};
+
+  /**
+   * @param args - The number of orders and the number of runs.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+    int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    if (!Boolean.getBoolean("bench.logging")) {
+      ((ch.qos.logback.classic.Logger) LoggerFactory
+          .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+    }
+
+    Path directory = Files.createTempDirectory("import");
+    try {
+      for (String file : DATA_FILES) {
+        Files.copy(Paths.get(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+      }
+      ArrayList<String> rows = new ArrayList<>();
+      for (String line : Files.readAllLines(directory.resolve("translation.csv"))) {
+        String[] fields = line.split(",");
+        if (fields.length == 4 && !fields[0].equals("Colour")) {
+          rows.add(fields[0] + "," + fields[1]);
+        }
+      }
+      Random random = new Random(1);
+      ArrayList<String> orderLines = new ArrayList<>(orders);
+      ArrayList<String> commands = new ArrayList<>(orders);
+      for (int i = 0; i < orders; i++) {
+        String row = rows.get(random.nextInt(rows.size()));
+        orderLines.add(row);
+        String[] fields = row.split(",");
+        commands.add("Order " + fields[1] + " " + fields[0]);
+      }
+      Path orderFile = directory.resolve("dump.csv");
+      Files.write(orderFile, orderLines, StandardCharsets.UTF_8);
+      Path commandFile = directory.resolve("dump.txt");
+      Files.write(commandFile, commands, StandardCharsets.UTF_8);
+
+      long bestCommands = Long.MAX_VALUE;
+      long bestImport = Long.MAX_VALUE;
+      int requests = 0;
+      for (int run = 0; run < runs; run++) {
+        Simulator simulator = new Simulator(new SimulationContext(directory));
+        long start = System.nanoTime();
+        for (String command : Files.readAllLines(commandFile, StandardCharsets.UTF_8)) {
+          simulator.simulate(command);
+        }
+        bestCommands = Math.min(bestCommands, System.nanoTime() - start);
+
+        simulator = new Simulator(new SimulationContext(directory));
+        start = System.nanoTime();
+        simulator.importOrders(orderFile);
+        bestImport = Math.min(bestImport, System.nanoTime() - start);
+        requests = simulator.getRequestManager().getLoadingOrder().size();
+      }
+      System.out.println(String.format("%d orders, %d requests, best of %d runs", orders,
+          requests, runs));
+      System.out.println(String.format("Order commands: %7.1f ms (%,10.0f orders/s)",
+          bestCommands / 1e6, orders * 1e9 / bestCommands));
+      System.out.println(String.format("importOrders:   %7.1f ms (%,10.0f orders/s, %.1fx)",
+          bestImport / 1e6, orders * 1e9 / bestImport, (double) bestCommands / bestImport));
+    } finally {
+      for (Path file : Files.newDirectoryStream(directory)) {
+        Files.delete(file);
+      }
+      Files.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package project;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compares replenishers restocking one location per trip, as queued, with
+ * <code>BatchReplenisher</code>s restocking several locations per trip in traversal order
+ * (<code>SimulationContext.setReplenishingBatchSize</code>). A location is queued again on every
+ * pick while it is low, so a batch size of 1 is run as well: it skips the locations that were
+ * queued twice or restocked, like larger batches, but still makes one trip per location.
+ *
+ *
+ * <p>The picking floor is generated: 2 zones of 8 aisles of 10 racks with 2 levels, one SKU per
+ * location, and demand is skewed towards the SKUs at the start of the traversal table. The same
+ * orders are placed for every batch size and picked by the same pickers, one fascia at a time,
+ * always moving on the worker with the least work so far, as if they worked at the same time. A
+ * location is queued for replenishing when it runs low, and a replenisher that is free takes the
+ * queue as soon as it holds a location. Picks and walks take the time of a
+ * <code>PickTimeModel</code>; a replenishing trip takes <code>TRIP_SECONDS</code> to fetch the
+ * fascias from the reserve at Marshaling and <code>RESTOCK_SECONDS</code> per location visited.
+ * The time to replenish a location is measured from the first time it is queued until it is
+ * restocked. Logging is switched off.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>ReplenishmentBenchmark [orders] [seed] [pickers] [replenishers] [batchSizes...]</code>;
+ * by default 8000 orders, seed 1, 20 pickers, 2 replenishers and batch sizes 1, 4 and 8. Trips
+ * saved are counted against replenishers taking one location at a time, as queued.
+ */
+public class ReplenishmentBenchmark {
+
+  /** The time to fetch the fascias of a trip from the reserve. */
+  static final double TRIP_SECONDS = 60;
+
+  /** The time to restock one location, or to find it needs nothing. */
+  static final double RESTOCK_SECONDS = 45;
+
+  /**
+   * @param args - The number of orders, the seed, the numbers of pickers and replenishers and the
+   *        batch sizes.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+    int pickers = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+    int replenishers = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+    ArrayList<Integer> batchSizes = new ArrayList<>();
+    for (int i = 4; i < args.length; i++) {
+      batchSizes.add(Integer.parseInt(args[i]));
+    }
+    if (batchSizes.isEmpty()) {
+      Collections.addAll(batchSizes, 1, 4, 8);
+    }
+    ((ch.qos.logback.classic.Logger) LoggerFactory
+        .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+    Path directory = Files.createTempDirectory("replenishment");
+    try {
+      int colours = BenchmarkWorkloads.writeFloor(directory, 0);
+      List<String> orderCommands = BenchmarkWorkloads.colourOrders(colours, orders, seed, 2);
+      batchSizes.add(0, 0);
+      long baselineTrips = 0;
+      for (int batchSize : batchSizes) {
+        Simulator simulator = new Simulator(new SimulationContext(directory));
+        simulator.runSimulation(orderCommands);
+        Run run = new Run(simulator, pickers, replenishers, batchSize);
+        run.work();
+        System.out.println(String.format("%-9s %5d trips, %5d locations restocked, %5d passed"
+            + " over, %7d walked, minutes to replenish p50 %6.1f p90 %6.1f p99 %6.1f%s",
+            batchSize == 0 ? "queued:" : String.format("batch %d:", batchSize), run.trips,
+            run.restocked, run.passedOver, run.replenisherDistance, run.percentile(50),
+            run.percentile(90), run.percentile(99), baselineTrips == 0 ? ""
+                : String.format(" (%.1f%% trips saved)",
+                    100 * (1 - (double) run.trips / baselineTrips))));
+        if (baselineTrips == 0) {
+          baselineTrips = run.trips;
+        }
+      }
+    } finally {
+      BenchmarkWorkloads.delete(directory);
+    }
+  }
+
+  /**
+   * The pickers and replenishers of one simulation, working until every request is picked and
+   * every queued location is replenished.
+   */
+  private static class Run {
+    private final PickTimeModel model = new PickTimeModel();
+    private final LocationCatalog catalog;
+    private final RequestManager rm;
+    private final InventoryManager im;
+    private final WorkerManager wm;
+    private final ArrayList<Picker> pickers = new ArrayList<>();
+    private final double[] pickerClocks;
+    private final ArrayList<Replenisher> replenishers = new ArrayList<>();
+    private final double[] replenisherClocks;
+    private final int[] replenisherPositions;
+
+    /** The time each location in the replenishing queue was queued, in queue order. */
+    private final ArrayDeque<Double> queuedAt = new ArrayDeque<>();
+
+    /** The locations waiting to be restocked and the first time they were queued. */
+    private final HashMap<String, Double> requestedAt = new HashMap<>();
+
+    /** The time each restocked location waited, in seconds. */
+    private final ArrayList<Double> waits = new ArrayList<>();
+
+    private long trips;
+    private long restocked;
+    private long passedOver;
+    private long replenisherDistance;
+
+    /**
+     * @param batchSize - The most locations per replenishing trip, or 0 for
+     *        <code>Replenisher</code>s taking the queue one location at a time.
+     */
+    Run(Simulator simulator, int pickerCount, int replenisherCount, int batchSize)
+        throws Exception {
+      catalog = simulator.getContext().getLocationCatalog();
+      rm = simulator.getRequestManager();
+      im = simulator.getInventoryManager();
+      wm = rm.getWorkerManager();
+      for (int i = 0; i < pickerCount; i++) {
+        simulator.createWorker("Picker" + i, "Picker");
+        Picker picker = (Picker) simulator.getDirectory().get("Picker" + i);
+        picker.doNextTask();
+        pickers.add(picker);
+      }
+      pickerClocks = new double[pickerCount];
+      for (int i = 0; i < replenisherCount; i++) {
+        String id = "Replenisher" + i;
+        Replenisher replenisher = batchSize == 0 ? new Replenisher(id, rm, im)
+            : new BatchReplenisher(id, rm, im, batchSize);
+        simulator.getDirectory().put(id, replenisher);
+        replenishers.add(replenisher);
+      }
+      replenisherClocks = new double[replenisherCount];
+      replenisherPositions = new int[replenisherCount];
+      Arrays.fill(replenisherPositions, catalog.getDepot());
+    }
+
+    /**
+     * @return The time a replenisher can next work, or infinity if it waits for the queue.
+     */
+    private double readyTime(int r) {
+      if (!replenishers.get(r).getIsAvail()) {
+        return replenisherClocks[r];
+      }
+      return queuedAt.isEmpty() ? Double.POSITIVE_INFINITY
+          : Math.max(replenisherClocks[r], queuedAt.peek());
+    }
+
+    void work() {
+      while (true) {
+        int picker = -1;
+        for (int i = 0; i < pickers.size(); i++) {
+          if (pickers.get(i).getCurrReq() != null
+              && (picker < 0 || pickerClocks[i] < pickerClocks[picker])) {
+            picker = i;
+          }
+        }
+        int replenisher = -1;
+        for (int r = 0; r < replenishers.size(); r++) {
+          if (readyTime(r) < Double.POSITIVE_INFINITY
+              && (replenisher < 0 || readyTime(r) < readyTime(replenisher))) {
+            replenisher = r;
+          }
+        }
+        if (replenisher >= 0
+            && (picker < 0 || readyTime(replenisher) <= pickerClocks[picker])) {
+          replenish(replenisher);
+        } else if (picker >= 0) {
+          pick(picker);
+        } else {
+          break;
+        }
+      }
+    }
+
+    private void pick(int i) {
+      Picker picker = pickers.get(i);
+      long walked = picker.getWalkedDistance();
+      int queued = rm.getReplenishQueue().size();
+      if (!picker.getDonePicking()) {
+        picker.pick(picker.getPickingOrder().get(picker.getCurrIndex()));
+        pickerClocks[i] += model.seconds(picker.getWalkedDistance() - walked, 1, 0, 0);
+      } else {
+        picker.sendNextRequest();
+        pickerClocks[i] += model.seconds(picker.getWalkedDistance() - walked, 0, 1, 1);
+        picker.doNextTask();
+      }
+      // the locations queued by the pick are at the end of the queue
+      ArrayList<String> added = new ArrayList<>(rm.getReplenishQueue());
+      for (String location : added.subList(queued, added.size())) {
+        queuedAt.add(pickerClocks[i]);
+        requestedAt.putIfAbsent(location, pickerClocks[i]);
+      }
+    }
+
+    private void replenish(int r) {
+      Replenisher replenisher = replenishers.get(r);
+      if (replenisher.getIsAvail()) {
+        replenisherClocks[r] = readyTime(r);
+        int queued = rm.getReplenishQueue().size();
+        replenisher.doNextTask();
+        // keep the replenishers off the waiting queue so this loop decides when they work
+        wm.getAvailableReplenishers().clear();
+        for (int i = rm.getReplenishQueue().size(); i < queued; i++) {
+          queuedAt.poll();
+        }
+        if (!replenisher.getIsAvail()) {
+          replenisherClocks[r] += TRIP_SECONDS;
+        }
+        return;
+      }
+
+      String location = replenisher.getReplenisherReq();
+      int code = catalog.getCode(location);
+      walk(r, code);
+      replenisherClocks[r] += RESTOCK_SECONDS;
+      Double requested = requestedAt.remove(location);
+      if (im.needsReplenishing(location)) {
+        waits.add(replenisherClocks[r] - (requested == null ? replenisherClocks[r] : requested));
+        restocked++;
+      } else {
+        passedOver++;
+      }
+      replenisher.replenish();
+      if (requested != null && im.needsReplenishing(location)) {
+        // picked below zero while it waited, so one restock was not enough
+        requestedAt.put(location, requested);
+      }
+      if (replenisher.getIsAvail()) {
+        walk(r, catalog.getDepot());
+        trips++;
+      }
+    }
+
+    private void walk(int r, int code) {
+      int distance = catalog.distance(replenisherPositions[r], code);
+      replenisherDistance += distance;
+      replenisherClocks[r] += model.seconds(distance, 0, 0, 0);
+      replenisherPositions[r] = code;
+    }
+
+    /**
+     * @return The minutes within which <code>percent</code>% of the locations were restocked.
+     */
+    double percentile(int percent) {
+      if (waits.isEmpty()) {
+        return 0;
+      }
+      ArrayList<Double> sorted = new ArrayList<>(waits);
+      Collections.sort(sorted);
+      int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+      return sorted.get(Math.max(0, index)) / 60;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares the picking tours of the <code>RouteEngine</code> with the traversal table order, on
+ * random requests of several sizes: the mean tour length of each, and the time the route engine
+ * takes per request, alone and behind a <code>RouteCache</code> large enough for the 1024
+ * requests cycled through.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>RouteEngineBenchmark [requests] [budgetMicros] [skusPerRequest...]</code>; by default
+ * 100000 requests of 8, 32 and 128 SKUs with the default budget.
+ */
+public class RouteEngineBenchmark {
+
+  /**
+   * @param args - The number of requests, the budget per request and the request sizes.
+   */
+  public static void main(String[] args) throws Exception {
+    int requests = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    long budget = args.length > 1 ? Long.parseLong(args[1]) : RouteEngine.DEFAULT_BUDGET_MICROS;
+    int[] sizes = {8, 32, 128};
+    if (args.length > 2) {
+      sizes = new int[args.length - 2];
+      for (int i = 2; i < args.length; i++) {
+        sizes[i - 2] = Integer.parseInt(args[i]);
+      }
+    }
+
+    TraversalIndex index = new TraversalIndex(TraversalIndex.DEFAULT_TABLE);
+    RouteEngine engine = new RouteEngine(TraversalIndex.DEFAULT_TABLE);
+    engine.setBudgetMicros(budget);
+    Random random = new Random(1);
+    for (int size : sizes) {
+      ArrayList<ArrayList<String>> pool = new ArrayList<>();
+      for (int r = 0; r < 1024; r++) {
+        ArrayList<String> skus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          skus.add(Integer.toString(1 + random.nextInt(index.size())));
+        }
+        pool.add(skus);
+      }
+
+      // warm up, then measure
+      for (int r = 0; r < requests; r++) {
+        engine.route(pool.get(r % pool.size()));
+      }
+      long outOfBudget = engine.getOutOfBudgetCount();
+      long start = System.nanoTime();
+      long routed = 0;
+      for (int r = 0; r < requests; r++) {
+        routed += engine.length(engine.route(pool.get(r % pool.size())));
+      }
+      long elapsed = System.nanoTime() - start;
+      RouteCache cache = new RouteCache(engine, pool.size());
+      for (int r = 0; r < requests; r++) {
+        cache.route(pool.get(r % pool.size()));
+      }
+      start = System.nanoTime();
+      for (int r = 0; r < requests; r++) {
+        cache.route(pool.get(r % pool.size()));
+      }
+      long cached = System.nanoTime() - start;
+
+      long traversal = 0;
+      for (int r = 0; r < requests; r++) {
+        traversal += engine.length(index.sort(pool.get(r % pool.size())));
+      }
+
+      System.out.println(String.format("%4d SKUs: traversal order %7.1f, route engine %7.1f"
+          + " (%5.1f%% shorter), %7.2f us/request (%5.2f cached), %d out of budget", size,
+          (double) traversal / requests, (double) routed / requests,
+          100.0 * (traversal - routed) / traversal, elapsed / 1000.0 / requests,
+          cached / 1000.0 / requests,
+          engine.getOutOfBudgetCount() - outOfBudget));
+    }
+  }
+}
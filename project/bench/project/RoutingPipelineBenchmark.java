@@ -0,0 +1,123 @@
+package project;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Measures how long order intake (<code>OrderManager.enqueue</code>) takes when every request is
+ * routed by a slow optimizer, with routes computed on the intake thread or by background routing
+ * threads.
+ *
+ *
+ * <p>The optimizer is the route engine followed by a busy wait, standing for a more expensive
+ * optimizer. For each number of routing threads, orders are queued one at a time; every fourth
+ * creates a request. The intake latency percentiles are printed, then the time a picker waits when
+ * it takes each request right after the intake, and the total time until every request is routed.
+ * Logging is switched off.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>RoutingPipelineBenchmark [orders] [routeMicros] [routingThreads...]</code>; by default
+ * 20000 orders, 200 microseconds per route, and 0, 1, 2 and 4 threads.
+ */
+public class RoutingPipelineBenchmark {
+
+  private static final String[] DATA_FILES =
+      {"translation.csv", "initial.csv", "traversal_table.csv"};
+
+  /**
+   * @param args - The number of orders, the route time and the numbers of routing threads.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    final long routeNanos = (args.length > 1 ? Long.parseLong(args[1]) : 200) * 1000;
+    int[] threadCounts = {0, 1, 2, 4};
+    if (args.length > 2) {
+      threadCounts = new int[args.length - 2];
+      for (int i = 2; i < args.length; i++) {
+        threadCounts[i - 2] = Integer.parseInt(args[i]);
+      }
+    }
+    ((ch.qos.logback.classic.Logger) LoggerFactory
+        .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+    Path directory = Files.createTempDirectory("routing");
+    try {
+      for (String file : DATA_FILES) {
+        Files.copy(Paths.get(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+      }
+      final RouteEngine engine = new RouteEngine(directory.resolve("traversal_table.csv")
+          .toString());
+      for (int threads : threadCounts) {
+        SimulationContext context = new SimulationContext(directory) {
+          @Override
+          synchronized PickRouter getPickRouter() {
+            return skus -> {
+              long end = System.nanoTime() + routeNanos;
+              ArrayList<String> route = engine.route(skus);
+              while (System.nanoTime() < end) {
+                // an expensive optimizer
+              }
+              return route;
+            };
+          }
+        };
+        context.setRoutingThreads(threads);
+        run(context, threads, orders);
+        context.setRoutingThreads(0);
+      }
+    } finally {
+      for (Path file : Files.newDirectoryStream(directory)) {
+        Files.delete(file);
+      }
+      Files.delete(directory);
+    }
+  }
+
+  private static void run(SimulationContext context, int threads, int orders) throws Exception {
+    RequestManager rm = new RequestManager(new WorkerManager(), context);
+    OrderManager om = new OrderManager(context.getTranslationTable(), rm, context);
+    String[] colours = {"White", "Red", "Beige", "Blue"};
+    String[] models = {"S", "SE", "SEL", "SES"};
+    Random random = new Random(1);
+
+    long[] latencies = new long[orders];
+    long start = System.nanoTime();
+    for (int i = 0; i < orders; i++) {
+      Order order = new Order(colours[random.nextInt(colours.length)],
+          models[random.nextInt(models.length)], context);
+      long before = System.nanoTime();
+      om.enqueue(order);
+      latencies[i] = System.nanoTime() - before;
+    }
+    long intake = System.nanoTime() - start;
+
+    // pickers take the requests in order, waiting for routes still being computed
+    long waited = 0;
+    int requests = 0;
+    PickingRequest request;
+    while ((request = rm.getPickingQueue().poll()) != null) {
+      long before = System.nanoTime();
+      request.getPickingOrder();
+      waited += System.nanoTime() - before;
+      requests++;
+    }
+    long total = System.nanoTime() - start;
+
+    Arrays.sort(latencies);
+    System.out.println(String.format("%d routing threads: intake p50 %6.1f us, p99 %6.1f us,"
+        + " max %7.1f us, %6.0f orders/s; picker wait %7.1f us/request; all %d routed in %5.2f s",
+        threads, latencies[orders / 2] / 1000.0, latencies[orders * 99 / 100] / 1000.0,
+        latencies[orders - 1] / 1000.0, orders / (intake / 1e9), waited / 1000.0 / requests,
+        requests, total / 1e9));
+  }
+}
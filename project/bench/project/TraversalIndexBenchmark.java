@@ -0,0 +1,134 @@
+package project;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Compares the in-memory <code>TraversalIndex</code> against the original implementation of
+ * <code>WarehousePicking.optimize</code>, which rescanned <code>traversal_table.csv</code> for
+ * every request.
+ *
+ *
+ * <p>Usage (from the "project" directory): <code>TraversalIndexBenchmark [requests...]</code>.
+ * Without arguments, 10k, 1M and 10M requests are timed.
+ */
+public class TraversalIndexBenchmark {
+
+  private static final long[] DEFAULT_SIZES = {10_000L, 1_000_000L, 10_000_000L};
+
+  /** Number of distinct random requests cycled through during a run. */
+  private static final int POOL_SIZE = 4096;
+
+  /**
+   * Times both implementations for each requested number of picking requests.
+   *
+   * @param args - The request counts to time; 10k, 1M and 10M if empty.
+   * @throws FileNotFoundException if traversal_table.csv is not in the working directory.
+   */
+  public static void main(String[] args) throws FileNotFoundException {
+    long[] sizes = DEFAULT_SIZES;
+    if (args.length > 0) {
+      sizes = new long[args.length];
+      for (int i = 0; i < args.length; i++) {
+        sizes[i] = Long.parseLong(args[i]);
+      }
+    }
+
+    TraversalIndex index = new TraversalIndex(TraversalIndex.DEFAULT_TABLE);
+    ArrayList<ArrayList<String>> pool = randomRequests(index, new Random(42));
+
+    // warm up both paths before measuring
+    run(pool, index, 20_000, false);
+    run(pool, index, 2_000, true);
+
+    System.out.println(String.format("%12s %16s %16s %10s", "requests", "scan (ms)",
+        "index (ms)", "speedup"));
+    for (long size : sizes) {
+      long scanNanos = run(pool, index, size, true);
+      long indexNanos = run(pool, index, size, false);
+      System.out.println(String.format("%12d %16.1f %16.1f %9.1fx", size, scanNanos / 1e6,
+          indexNanos / 1e6, (double) scanNanos / Math.max(1, indexNanos)));
+    }
+  }
+
+  /**
+   * @return The time in nanoseconds taken to order <code>requests</code> picking requests.
+   */
+  private static long run(ArrayList<ArrayList<String>> pool, TraversalIndex index,
+      long requests, boolean scan) {
+    long checksum = 0;
+    long start = System.nanoTime();
+    for (long i = 0; i < requests; i++) {
+      ArrayList<String> skus = pool.get((int) (i % POOL_SIZE));
+      ArrayList<String> ordered = scan ? scanTraversalTable(skus) : index.sort(skus);
+      checksum += ordered.size();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (checksum != requests * 8) {
+      throw new IllegalStateException("Benchmark dropped SKUs; checksum " + checksum);
+    }
+    return elapsed;
+  }
+
+  /**
+   * @return <code>POOL_SIZE</code> requests of 8 SKUs drawn from the traversal table.
+   */
+  private static ArrayList<ArrayList<String>> randomRequests(TraversalIndex index,
+      Random random) throws FileNotFoundException {
+    ArrayList<String> stocked = new ArrayList<>();
+    Scanner scanner = new Scanner(new FileInputStream(TraversalIndex.DEFAULT_TABLE));
+    while (scanner.hasNextLine()) {
+      stocked.add(scanner.nextLine().split(",")[4]);
+    }
+    scanner.close();
+
+    ArrayList<ArrayList<String>> pool = new ArrayList<>(POOL_SIZE);
+    for (int i = 0; i < POOL_SIZE; i++) {
+      ArrayList<String> skus = new ArrayList<>(8);
+      for (int j = 0; j < 8; j++) {
+        skus.add(stocked.get(random.nextInt(stocked.size())));
+      }
+      pool.add(skus);
+    }
+    return pool;
+  }
+
+  /**
+   * The original <code>WarehousePicking.optimize</code>, kept here as the baseline.
+   */
+  private static ArrayList<String> scanTraversalTable(ArrayList<String> skus) {
+    Scanner scanner = null;
+    String[] lineList;
+    ArrayList<String> returnList = new ArrayList<String>();
+
+    HashMap<String, Integer> skuAmount = new HashMap<>(80);
+    for (String sku : skus) {
+      if (skuAmount.containsKey(sku)) {
+        skuAmount.put(sku, skuAmount.get(sku) + 1);
+      } else {
+        skuAmount.put(sku, 1);
+      }
+    }
+
+    try {
+      scanner = new Scanner(new FileInputStream(TraversalIndex.DEFAULT_TABLE));
+      while (scanner.hasNextLine()) {
+        lineList = scanner.nextLine().split(",");
+        String sku = lineList[4];
+        if (skus.contains(sku)) {
+          for (int i = 0; i < skuAmount.get(sku); i++) {
+            returnList.add(sku);
+          }
+        }
+      }
+      scanner.close();
+    } catch (FileNotFoundException ex) {
+      ex.printStackTrace();
+    }
+    return returnList;
+  }
+}
@@ -0,0 +1,87 @@
+package project;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compares grouping orders into picking requests by arrival with wave planning over windows of
+ * pending orders (<code>SimulationContext.setWaveWindow</code>).
+ *
+ *
+ * <p>The picking floor is generated: 2 zones of 8 aisles of 10 racks with 2 levels, one SKU per
+ * location, and each colour has its front and rear fascia next to each other. The same random
+ * orders are placed for every window, one per command, and the requests are routed by the route
+ * engine. The total length of the tours of all requests, and the mean number of commands an
+ * order waited for its request, are printed, with the distance saved and the extra wait
+ * measured by <code>OrderManager</code> itself. Logging is switched off.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>WavePlanningBenchmark [orders] [seed] [windows...]</code>; by default 8000 orders, seed 1
+ * and windows of 8, 16 and 32 orders.
+ */
+public class WavePlanningBenchmark {
+
+  /**
+   * @param args - The number of orders, the seed and the windows.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+    ArrayList<Integer> windows = new ArrayList<>();
+    for (int i = 2; i < args.length; i++) {
+      windows.add(Integer.parseInt(args[i]));
+    }
+    if (windows.isEmpty()) {
+      Collections.addAll(windows, 8, 16, 32);
+    }
+    windows.add(0, 0);
+    ((ch.qos.logback.classic.Logger) LoggerFactory
+        .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+    Path directory = Files.createTempDirectory("waves");
+    try {
+      int colours = BenchmarkWorkloads.writeFloor(directory, 0);
+      List<String> orderCommands = BenchmarkWorkloads.colourOrders(colours, orders, seed, 1);
+      long baselineLength = 0;
+      double baselineWait = 0;
+      for (int window : windows) {
+        SimulationContext context = new SimulationContext(directory);
+        context.setDistanceRouting(true);
+        context.setWaveWindow(window);
+        Simulator simulator = new Simulator(context);
+        long start = System.nanoTime();
+        simulator.runSimulation(orderCommands);
+        long elapsed = System.nanoTime() - start;
+
+        RouteEngine engine = context.getRouteEngine();
+        long length = 0;
+        for (PickingRequest request : simulator.getRequestManager().getLoadingOrder()) {
+          length += engine.length(request.getPickingOrder());
+        }
+        OrderManager om = simulator.getOrderManager();
+        double wait = om.getMeanBatchWait();
+        if (window == 0) {
+          baselineLength = length;
+          baselineWait = wait;
+          System.out.println(String.format("by arrival: %8d walked, %5.2f commands waited per"
+              + " order, %6.0f ms", length, wait, elapsed / 1e6));
+        } else {
+          System.out.println(String.format("window %3d: %8d walked (%+.1f%%), %5.2f commands waited"
+              + " per order (%+.2f), %6.0f ms; reported: %d saved, %+.2f waited", window, length,
+              100.0 * (length - baselineLength) / baselineLength, wait, wait - baselineWait,
+              elapsed / 1e6, om.getWaveDistanceSaved(), om.getWaveExtraWait()));
+        }
+      }
+    } finally {
+      BenchmarkWorkloads.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Compares pickers roaming the whole picking floor with pickers bound to zones, on the same random
+ * orders: the distance walked per fascia and the picking times of a <code>PickTimeModel</code>.
+ *
+ *
+ * <p>The orders are placed, then the same number of pickers work until every request is sent to
+ * sequencing. Roaming pickers pick whole requests; zone pickers pick the part of a request in
+ * their zone, one zone task per trip, at the same time as the pickers of the other zones. The
+ * time until every request is picked, and the mean time from the start of the first part of a
+ * request to the end of its last part, are printed. Logging is switched off.
+ *
+ *
+ * <p>Usage (from the "project" directory):
+ * <code>ZonePickingBenchmark [orders] [seed] [pickers] [staffing]</code>; by default 8000 orders,
+ * seed 1, 4 pickers and the same share for every zone. The staffing is given as in
+ * <code>Main --zone-staffing</code>, for example <code>A=1,B=2</code>.
+ */
+public class ZonePickingBenchmark {
+
+  /**
+   * @param args - The number of orders, the seed, the number of pickers and the zone staffing.
+   */
+  public static void main(String[] args) throws Exception {
+    int orders = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+    int pickers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+    String[] staffing = args.length > 3 ? args[3].split(",") : new String[0];
+    ((ch.qos.logback.classic.Logger) LoggerFactory
+        .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+    Path directory = BenchmarkWorkloads.copyDataFiles("zone");
+    try {
+      List<String> orderCommands =
+          BenchmarkWorkloads.stockedOrders(new SimulationContext(directory), orders, seed);
+      PickTimeModel model = new PickTimeModel();
+      for (boolean zonePicking : new boolean[] {false, true}) {
+        SimulationContext context = new SimulationContext(directory);
+        context.setZonePicking(zonePicking);
+        for (String share : staffing) {
+          String[] zoneShare = share.split("=");
+          context.setZoneStaffing(zoneShare[0], Integer.parseInt(zoneShare[1]));
+        }
+        Simulator simulator = new Simulator(context);
+        simulator.runSimulation(orderCommands);
+        long[] totals = pickEverything(simulator, pickers, model);
+        long distance = totals[0];
+        long picks = totals[1];
+        long trips = totals[2];
+        long requests = simulator.getRequestManager().getSequencingQueue().size();
+        System.out.println(String.format("%-7s %d pickers: %5d requests in %5d trips,"
+            + " %5.2f walked per fascia, %5.0f picks/hour per picker, all picked in %5.1f h,"
+            + " %5.1f min per request", zonePicking ? "zones" : "roaming", pickers, requests,
+            trips, (double) distance / picks, picks * 3600.0 / totals[3] / pickers,
+            totals[3] / 3600.0, totals[4] / 60.0 / requests));
+      }
+    } finally {
+      BenchmarkWorkloads.delete(directory);
+    }
+  }
+
+  /**
+   * Has the pickers work until none of them has a task left, always moving on the picker with the
+   * least work so far, as if they worked at the same time. Each trip takes the time of
+   * <code>model</code>.
+   *
+   * @return The distance walked, fascia picked, trips made, the time until the last trip ends and
+   *         the total time from the start of the first part of each request to the end of its
+   *         last part, both in seconds.
+   */
+  private static long[] pickEverything(Simulator simulator, int count, PickTimeModel model) {
+    ArrayList<Picker> pickers = new ArrayList<>(count);
+    double[] clocks = new double[count];
+    for (int i = 0; i < count; i++) {
+      simulator.createWorker("Bench" + i, "Picker");
+      Picker picker = (Picker) simulator.getDirectory().get("Bench" + i);
+      picker.doNextTask();
+      pickers.add(picker);
+    }
+    HashMap<PickingRequest, double[]> requestTimes = new HashMap<>();
+    long picks = 0;
+    long trips = 0;
+    while (true) {
+      int next = -1;
+      for (int i = 0; i < count; i++) {
+        if (pickers.get(i).getCurrReq() != null && (next < 0 || clocks[i] < clocks[next])) {
+          next = i;
+        }
+      }
+      if (next < 0) {
+        break;
+      }
+      Picker picker = pickers.get(next);
+      PickingRequest request = picker.getCurrReq();
+      long walked = picker.getWalkedDistance();
+      ArrayList<String> skus = new ArrayList<>(picker.getPickingOrder());
+      for (String sku : skus) {
+        picker.pick(sku);
+      }
+      picker.sendNextRequest();
+      double start = clocks[next];
+      clocks[next] += model.seconds(picker.getWalkedDistance() - walked, skus.size(), 1, 1);
+      double[] times = requestTimes.get(request);
+      if (times == null) {
+        requestTimes.put(request, new double[] {start, clocks[next]});
+      } else {
+        times[0] = Math.min(times[0], start);
+        times[1] = Math.max(times[1], clocks[next]);
+      }
+      picks += skus.size();
+      trips++;
+      picker.doNextTask();
+    }
+
+    long distance = 0;
+    double makespan = 0;
+    for (int i = 0; i < count; i++) {
+      distance += pickers.get(i).getWalkedDistance();
+      makespan = Math.max(makespan, clocks[i]);
+    }
+    double leadTime = 0;
+    for (double[] times : requestTimes.values()) {
+      leadTime += times[1] - times[0];
+    }
+    return new long[] {distance, picks, trips, Math.round(makespan), Math.round(leadTime)};
+  }
+}
@@ -1,41 +1,145 @@
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import project.Checkpointer;
+import project.CommandServer;
+import project.EventLog;
+import project.SimulationContext;
 import project.Simulator;
+import project.Snapshot;
 
 public class Main {
-  
+
   /**
-   * Simulates the warehouse events listed in the file passed as an argument.
-   * @param args - The event file to simulate.
-   * @throws FileNotFoundException if the provided file does not exist.
+   * Simulates the warehouse events listed in the file passed as an argument. The file is streamed,
+   * so each event is simulated as soon as it is read. The file may be a command file or a binary
+   * event log written by <code>EventLogConverter</code>.
+   *
+   *
+   * <p>The event file may be preceded by options, described in help.txt:
+   * <ul>
+   * <li><code>--checkpoint interval directory</code>, <code>--resume snapshot</code>: snapshots of
+   * the simulation, and continuing from one.</li>
+   * <li><code>--distance-routing</code>, <code>--routing-threads n</code>,
+   * <code>--congestion-penalty p</code>: how picking tours are routed.</li>
+   * <li><code>--batch-picking k</code>, <code>--zone-picking</code>,
+   * <code>--zone-staffing A=3,B=1</code>: how pickers share the requests.</li>
+   * <li><code>--order-batch n</code>, <code>--order-max-wait c</code>,
+   * <code>--wave-window w</code>: how orders are grouped into requests.</li>
+   * <li><code>--batch-replenishing k</code>: the locations restocked per trip.</li>
+   * <li><code>--import-orders file</code>: orders queued in bulk before the first command.</li>
+   * </ul>
+   *
+   *
+   * <p>With <code>--serve port</code> instead of an event file, commands are received from local
+   * clients by a <code>CommandServer</code> until the program is stopped.
+   *
+   * @param args - The options and event file to simulate, or <code>--serve</code> and a port.
+   * @throws IOException if the provided file does not exist or cannot be read.
    */
   public static void main(String[] args) throws IOException {
+    Checkpointer checkpointer = null;
+    Snapshot snapshot = null;
+    Path orderFile = null;
+    int arg = 0;
+    while (arg < args.length - 1 && args[arg].startsWith("--") && !args[arg].equals("--serve")) {
+      if (args[arg].equals("--checkpoint")) {
+        checkpointer =
+            new Checkpointer(Paths.get(args[arg + 2]), Long.parseLong(args[arg + 1]));
+        arg += 3;
+      } else if (args[arg].equals("--distance-routing")) {
+        SimulationContext.getDefault().setDistanceRouting(true);
+        arg += 1;
+      } else if (args[arg].equals("--routing-threads")) {
+        SimulationContext.getDefault().setRoutingThreads(Integer.parseInt(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--batch-picking")) {
+        SimulationContext.getDefault().setPickingBatchSize(Integer.parseInt(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--order-batch")) {
+        SimulationContext.getDefault().setOrderBatchSize(Integer.parseInt(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--order-max-wait")) {
+        SimulationContext.getDefault().setOrderMaxWait(Long.parseLong(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--wave-window")) {
+        SimulationContext.getDefault().setWaveWindow(Integer.parseInt(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--batch-replenishing")) {
+        SimulationContext.getDefault().setReplenishingBatchSize(Integer.parseInt(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--zone-picking")) {
+        SimulationContext.getDefault().setZonePicking(true);
+        arg += 1;
+      } else if (args[arg].equals("--zone-staffing")) {
+        for (String share : args[arg + 1].split(",")) {
+          String[] zoneShare = share.split("=");
+          SimulationContext.getDefault().setZoneStaffing(zoneShare[0],
+              Integer.parseInt(zoneShare[1]));
+        }
+        arg += 2;
+      } else if (args[arg].equals("--congestion-penalty")) {
+        SimulationContext.getDefault().setCongestionPenalty(Integer.parseInt(args[arg + 1]));
+        arg += 2;
+      } else if (args[arg].equals("--import-orders")) {
+        orderFile = Paths.get(args[arg + 1]);
+        arg += 2;
+      } else if (args[arg].equals("--resume")) {
+        snapshot = Snapshot.read(Paths.get(args[arg + 1]));
+        arg += 2;
+      } else {
+        System.err.println("Unknown option: " + args[arg]);
+        System.exit(1);
+      }
+    }
+
     File completedOrderLog = new File("orders.csv");
-    if (completedOrderLog.isFile()) {
+    if (snapshot == null && completedOrderLog.isFile()) {
       completedOrderLog.delete();
     }
-    
-    Simulator simulator = new Simulator();
-    simulator.runSimulation(getCommands(args[0]));
-  }
-  
-  /**
-   * @param commandFile - The name of the command file in the working directory.
-   * @throws FileNotFoundException if commandFile is not in the working directory.
-   */
-  private static ArrayList<String> getCommands(String commandFile) throws FileNotFoundException {
-    ArrayList<String> commandList = new ArrayList<>();
-    Scanner scanner = new Scanner(new FileInputStream("zmd_cmd_err.txt"));//commandFile));
-    while (scanner.hasNextLine()) {
-      String command = scanner.nextLine();
-      commandList.add(command);
+
+    Simulator simulator = snapshot == null ? new Simulator()
+        : snapshot.restore(SimulationContext.getDefault());
+    if (orderFile != null && snapshot == null) {
+      simulator.importOrders(orderFile);
+    }
+    simulator.setCheckpointer(checkpointer);
+    if (args[arg].equals("--serve")) {
+      final CommandServer server = new CommandServer(simulator, Integer.parseInt(args[arg + 1]));
+      final Thread serverThread = Thread.currentThread();
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        // let the server save the final inventory, and the last checkpoint be written, before the
+        // JVM exits
+        server.close();
+        try {
+          serverThread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+      try {
+        server.run();
+      } finally {
+        if (checkpointer != null) {
+          checkpointer.close();
+        }
+      }
+      return;
+    }
+
+    Path commandFile = Paths.get(args[arg]);
+    try {
+      if (EventLog.isEventLog(commandFile)) {
+        simulator.replay(commandFile);
+      } else {
+        simulator.runSimulation(commandFile);
+      }
+    } finally {
+      if (checkpointer != null) {
+        checkpointer.close();
+      }
     }
-    scanner.close();
-    return commandList;
   }
 }
@@ -0,0 +1,246 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tracks how crowded the aisles of the picking floor are expected to be, from the routes of the
+ * pickers at work, and routes pickers around the crowds.
+ *
+ *
+ * <p>A picker at work is expected in the aisle it stands in and in the aisle of the next fascia
+ * of its route; the occupancy of an aisle is the number of pickers expected in it. Walking into
+ * an aisle to pick the next fascia costs <code>getPenalty()</code> for each other picker expected
+ * there, on top of the walking distance, so a picker heading for a crowded aisle picks somewhere
+ * else first, or at another location of the SKU, when the detour is short. Only the next stop is
+ * penalised: the other pickers have moved on by the time a longer route gets further, and
+ * penalising later stops by where they are expected then made routes worse in
+ * <code>CongestionBenchmark</code>.
+ *
+ *
+ * <p>The tracker is updated by the pickers, on the thread running the simulation.
+ */
+public class AisleCongestion {
+
+  private final LocationCatalog catalog;
+
+  /** The distance added to a walk into an aisle for each other picker expected in it. */
+  private final int penalty;
+
+  /** The number of pickers expected in each aisle. */
+  private final int[] occupancy;
+
+  /**
+   * The pickers at work, the aisle each one stands in and the aisles of the fascia it has left to
+   * pick, in order.
+   */
+  private final HashMap<Picker, int[]> routes = new HashMap<>();
+
+  /**
+   * Creates a tracker for the aisles of <code>catalog</code>, with no picker at work.
+   *
+   * @param penalty - The distance added to a walk into an aisle for each other picker expected in
+   *        it.
+   */
+  public AisleCongestion(LocationCatalog catalog, int penalty) {
+    if (penalty < 0) {
+      throw new IllegalArgumentException("The congestion penalty cannot be negative: " + penalty);
+    }
+    this.catalog = catalog;
+    this.penalty = penalty;
+    this.occupancy = new int[catalog.getAisleCount()];
+  }
+
+  public int getPenalty() {
+    return penalty;
+  }
+
+  /**
+   * Records that <code>picker</code>, at its current position, has <code>skus</code> left to
+   * pick, in that order, replacing the route it had.
+   */
+  public void addRoute(Picker picker, List<String> skus) {
+    removeRoute(picker);
+    int[] aisles = new int[skus.size() + 1];
+    aisles[0] = catalog.getAisle(picker.getPosition());
+    for (int s = 1; s < aisles.length; s++) {
+      aisles[s] = catalog.getAisle(catalog.getCodeOfSku(skus.get(s - 1)));
+    }
+    routes.put(picker, aisles);
+    count(aisles, 1);
+  }
+
+  /**
+   * Records that <code>picker</code> picked the next fascia of its route, in the aisle of its
+   * current position.
+   */
+  public void advance(Picker picker) {
+    int[] aisles = routes.get(picker);
+    if (aisles == null || aisles.length < 2) {
+      return;
+    }
+    count(aisles, -1);
+    int[] left = new int[aisles.length - 1];
+    System.arraycopy(aisles, 1, left, 0, left.length);
+    left[0] = catalog.getAisle(picker.getPosition());
+    routes.put(picker, left);
+    count(left, 1);
+  }
+
+  /**
+   * Records that <code>picker</code> finished its route, or gave it up.
+   */
+  public void removeRoute(Picker picker) {
+    int[] aisles = routes.remove(picker);
+    if (aisles != null) {
+      count(aisles, -1);
+    }
+  }
+
+  /**
+   * Adds <code>pickers</code> to the occupancy of the aisle a picker stands in and of the aisle of
+   * its next fascia, once if they are the same.
+   */
+  private void count(int[] aisles, int pickers) {
+    if (aisles[0] >= 0) {
+      occupancy[aisles[0]] += pickers;
+    }
+    if (aisles.length > 1 && aisles[1] >= 0 && aisles[1] != aisles[0]) {
+      occupancy[aisles[1]] += pickers;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if <code>picker</code> is expected in <code>aisle</code>.
+   */
+  private boolean isExpected(Picker picker, int aisle) {
+    int[] aisles = routes.get(picker);
+    return aisles != null && (aisles[0] == aisle || aisles.length > 1 && aisles[1] == aisle);
+  }
+
+  /**
+   * @return The number of pickers expected in <code>aisle</code>.
+   */
+  public int getOccupancy(int aisle) {
+    return occupancy[aisle];
+  }
+
+  /**
+   * @return The number of pickers with a route.
+   */
+  public int getPickerCount() {
+    return routes.size();
+  }
+
+  /**
+   * @return The penalty of <code>picker</code> walking from the location with code
+   *         <code>from</code> to the one with code <code>to</code> (the marshalling area is in no
+   *         aisle): nothing within an aisle, otherwise <code>getPenalty()</code> for each other
+   *         picker expected in the aisle walked into.
+   */
+  public int penalty(Picker picker, int from, int to) {
+    int aisle = catalog.getAisle(to);
+    if (aisle < 0 || aisle == catalog.getAisle(from)) {
+      return 0;
+    }
+    int others = occupancy[aisle] - (isExpected(picker, aisle) ? 1 : 0);
+    return penalty * others;
+  }
+
+  /**
+   * Arranges the SKUs left to pick by <code>picker</code>, at the location with code
+   * <code>from</code> (-1 for the marshalling area), in the order that costs the least walking
+   * distance back to the marshalling area plus the penalty of the first stop. The given order is
+   * improved with 2-opt moves, so it is kept if nothing is cheaper. Repeated SKUs are kept next to
+   * each other and SKUs missing from the picking floor are kept at the end.
+   *
+   * @param picker - The picker, not counted in the occupancy of the aisles.
+   * @param skus - The SKUs of the fascia left to pick, in their current order.
+   * @param from - The code of the picker's location.
+   * @return A new list holding <code>skus</code> in picking order.
+   */
+  public ArrayList<String> route(Picker picker, List<String> skus, int from) {
+    int[] stops = new int[skus.size()];
+    int[] counts = new int[skus.size()];
+    String[] stopSkus = new String[skus.size()];
+    ArrayList<String> missing = new ArrayList<>();
+    int size = 0;
+    for (String sku : skus) {
+      int location = catalog.getCodeOfSku(sku);
+      if (location < 0) {
+        missing.add(sku);
+        continue;
+      }
+      int i = 0;
+      while (i < size && stops[i] != location) {
+        i++;
+      }
+      if (i == size) {
+        stops[size] = location;
+        stopSkus[size] = sku;
+        size++;
+      }
+      counts[i]++;
+    }
+
+    int start = from < 0 ? catalog.getDepot() : from;
+    int[] tour = new int[size];
+    for (int t = 0; t < size; t++) {
+      tour[t] = t;
+    }
+    int cost = cost(picker, tour, stops, start);
+    boolean improved = true;
+    while (improved) {
+      improved = false;
+      for (int i = 0; i < size - 1; i++) {
+        for (int j = i + 1; j < size; j++) {
+          reverse(tour, i, j);
+          int reversed = cost(picker, tour, stops, start);
+          if (reversed < cost) {
+            cost = reversed;
+            improved = true;
+          } else {
+            reverse(tour, i, j);
+          }
+        }
+      }
+    }
+
+    ArrayList<String> route = new ArrayList<>(skus.size());
+    for (int t = 0; t < size; t++) {
+      for (int c = 0; c < counts[tour[t]]; c++) {
+        route.add(stopSkus[tour[t]]);
+      }
+    }
+    route.addAll(missing);
+    return route;
+  }
+
+  /**
+   * @return The walking distance of visiting the stops in the order of <code>tour</code>, from
+   *         <code>start</code> back to the marshalling area, plus the penalty of the first stop.
+   */
+  private int cost(Picker picker, int[] tour, int[] stops, int start) {
+    if (tour.length == 0) {
+      return 0;
+    }
+    int cost = penalty(picker, start, stops[tour[0]]);
+    int position = start;
+    for (int i : tour) {
+      cost += catalog.distance(position, stops[i]);
+      position = stops[i];
+    }
+    return cost + catalog.distance(position, catalog.getDepot());
+  }
+
+  private static void reverse(int[] tour, int from, int to) {
+    while (from < to) {
+      int swap = tour[from];
+      tour[from] = tour[to];
+      tour[to] = swap;
+      from++;
+      to--;
+    }
+  }
+}
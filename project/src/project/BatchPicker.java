@@ -0,0 +1,149 @@
+package project;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+
+/**
+ * A <code>Picker</code> that claims several picking requests at once and picks all their fascia
+ * along one merged route, instead of walking to Marshaling after every request.
+ *
+ *
+ * <p>When ready, the picker takes the first request of the picking queue and up to
+ * <code>batchSize - 1</code> more, if the queue holds them. The SKUs of all the requests are
+ * routed together by the simulation's <code>PickRouter</code>, and each fascia of the merged
+ * route is assigned to the tote of a request that still needs that SKU, earlier requests first.
+ * At Marshaling, the totes are sent to sequencing one request at a time, in the order they were
+ * claimed.
+ */
+public class BatchPicker extends Picker {
+
+  /** The most requests picked in one trip. */
+  private final int batchSize;
+
+  /** The requests picked in the current trip, in the order they were claimed. */
+  private ArrayList<PickingRequest> batch = new ArrayList<>();
+
+  /** The request each fascia of the merged route is picked for. */
+  private ArrayList<PickingRequest> owners;
+
+  /**
+   * Instantiates a Picker picking up to <code>batchSize</code> requests per trip.
+   */
+  public BatchPicker(String identity, RequestManager rm, InventoryManager im, int batchSize) {
+    super(identity, rm, im);
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The picking batch size must be positive: " + batchSize);
+    }
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  protected PickingRequest getRequest() {
+    batch.clear();
+    PickingRequest request;
+    while (batch.size() < batchSize && (request = rm.getPickingRequest()) != null) {
+      batch.add(request);
+    }
+    return batch.isEmpty() ? null : batch.get(0);
+  }
+
+  @Override
+  protected void process() {
+    ArrayList<String> skus = new ArrayList<>(fasciaToPick());
+    ArrayList<ArrayList<String>> needed = new ArrayList<>(batch.size());
+    for (PickingRequest request : batch) {
+      skus.addAll(request.getPickingOrder());
+      needed.add(new ArrayList<>(request.getPickingOrder()));
+    }
+    if (batch.size() > 1) {
+      logSys("{} {} picks PickingRequests {} in one trip", type, identity, getBatchIds());
+    }
+
+    try {
+      optPath = rm.getContext().getPickRouter().route(skus);
+    } catch (FileNotFoundException e) {
+      logMissingTraversalTable(e);
+      optPath = skus;
+    }
+
+    owners = new ArrayList<>(optPath.size());
+    for (String sku : optPath) {
+      int i = 0;
+      while (!needed.get(i).remove(sku)) {
+        i++;
+      }
+      owners.add(batch.get(i));
+    }
+    trackRoute();
+  }
+
+  /**
+   * The fascia of a batch stay in the merged route, which is computed again when the picker is
+   * restored from a snapshot.
+   */
+  @Override
+  protected boolean canResequence() {
+    return false;
+  }
+
+  @Override
+  protected PickingRequest requestOf(int index) {
+    return owners.get(index);
+  }
+
+  @Override
+  protected int fasciaToPick() {
+    int fascia = 0;
+    for (PickingRequest request : batch) {
+      fascia += request.getFasciaCount();
+    }
+    return fascia;
+  }
+
+  @Override
+  protected void sendNextRequest() {
+    if (currReq == null) {
+      logError("I don't need to go to Marshaling without a PickingRequest");
+
+    } else if (getDonePicking()) { // dropping off one tote per request
+      walkTo(-1);
+      for (PickingRequest request : batch) {
+        currReq = request;
+        logRequesting("Sequencing");
+        rm.sendToSequencing(request);
+      }
+      finishTask();
+      batch.clear();
+      owners = null;
+      optPath = null;
+      setDonePicking(false);
+    } else {
+      logError("I haven't finished picking my batch yet, so I shouldn't go to Marshaling area");
+    }
+  }
+
+  /**
+   * @return The ids of the requests in the current batch, separated by commas.
+   */
+  private String getBatchIds() {
+    StringBuilder ids = new StringBuilder();
+    for (PickingRequest request : batch) {
+      if (ids.length() > 0) {
+        ids.append(", ");
+      }
+      ids.append(request.getId());
+    }
+    return ids.toString();
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return The requests picked in the current trip.
+   */
+  ArrayList<PickingRequest> getBatch() {
+    return batch;
+  }
+}
@@ -0,0 +1,99 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * A <code>Replenisher</code> that claims several locations of the replenishing queue at once and
+ * restocks them all in one trip, instead of walking back after every location.
+ *
+ *
+ * <p>When ready, the replenisher takes up to <code>batchSize</code> locations off the replenishing
+ * queue, if the queue holds them, and visits them in the order of the traversal table. A location
+ * queued more than once, or restocked since it was queued, is taken off the queue without being
+ * added to the trip. Each <code>replenishes</code> command restocks the current location of the
+ * trip and moves on to the next one, and the trip ends after the last location. A location that
+ * no longer needs fascias when the replenisher gets there is passed over, as with one location per
+ * trip, so a trip can end having restocked only some of the locations it claimed.
+ */
+public class BatchReplenisher extends Replenisher {
+
+  /** The most locations restocked in one trip. */
+  private final int batchSize;
+
+  /** The locations of the current trip left to restock, the current one first. */
+  private ArrayList<String> trip = new ArrayList<>();
+
+  /**
+   * Instantiates a Replenisher restocking up to <code>batchSize</code> locations per trip.
+   */
+  public BatchReplenisher(String identity, RequestManager rm, InventoryManager im,
+      int batchSize) {
+    super(identity, rm, im);
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The replenishing batch size must be positive: "
+          + batchSize);
+    }
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  protected String getRequest() {
+    trip.clear();
+    String location;
+    while (trip.size() < batchSize && (location = rm.getReplenishingRequest()) != null) {
+      if (trip.contains(location) || !im.needsReplenishing(location)) {
+        logSys("Location {} is already claimed or restocked; no need to replenish", location);
+      } else {
+        trip.add(location);
+      }
+    }
+    LocationCatalog catalog = im.getCatalog();
+    trip.sort(Comparator.comparingInt(claimed -> {
+      int code = catalog.getCode(claimed);
+      return code < 0 ? Integer.MAX_VALUE : code;
+    }));
+    return trip.isEmpty() ? null : trip.get(0);
+  }
+
+  @Override
+  protected void process() {
+    if (trip.size() > 1) {
+      logSys("{} {} replenishes locations {} in one trip", type, identity, trip);
+    }
+  }
+
+  @Override
+  protected void sendNextRequest() {
+    trip.remove(0);
+    if (trip.isEmpty()) {
+      finishTask();
+    } else {
+      replenisherReq = trip.get(0);
+      logAssignedTask("Replenishing fascias at location: ", replenisherReq);
+    }
+  }
+
+  /**
+   * @return The most locations restocked in one trip.
+   */
+  int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return The locations of the current trip left to restock, the current one first.
+   */
+  ArrayList<String> getTrip() {
+    return trip;
+  }
+
+  @Override
+  public String toString() {
+    String strRep = super.toString();
+    if (trip.size() > 1) {
+      strRep += String.format(" (%d locations left)", trip.size());
+    }
+    return strRep;
+  }
+}
@@ -39,7 +39,7 @@ public abstract class CheckerWorker extends Worker {
    * Grants the worker another attempt to verify all SKUs in the current request.
    */
   protected void rescan() {
-    logSys(type + identity + " rescanning");
+    logSys("{}{} rescanning", type, identity);
     currIndex = 0;
     clearValidFascias();
   }
@@ -50,7 +50,7 @@ public abstract class CheckerWorker extends Worker {
   protected void check() {
     if (currReq == null) {
       logNoTask();
-    } else if (currIndex < 8) {
+    } else if (currIndex < expectedFascias.size()) {
       if (validFascias.contains(false)) {
         logSys("There's already a misplaced fascia, RESCAN or REJECT");
       } else {
@@ -62,8 +62,8 @@ public abstract class CheckerWorker extends Worker {
         if (isValid) {
           logSys("Scanned fascia is expected; Correct");
         } else {
-          logSys("Scanned fascia is not expected;\nThe expected fascia with SKU#: "
-              + expectedFascias.get(currIndex) + " is not given. RESCAN or REJECT");
+          logSys("Scanned fascia is not expected;\nThe expected fascia with SKU#: {} is not given."
+              + " RESCAN or REJECT", expectedFascias.get(currIndex));
         }
 
         validFascias.add(isValid);
@@ -71,14 +71,12 @@ public abstract class CheckerWorker extends Worker {
         currIndex++;
       }
     } else {
-      logError("I already checked all 8 fasicas");
+      logError("I already checked all {} fascias", expectedFascias.size());
     }
   }
 
   protected void clearValidFascias() {
-    for (int i = 0; i < validFascias.size(); i++) {
-      validFascias.set(i, null);
-    }
+    validFascias.clear();
   }
 
   /**
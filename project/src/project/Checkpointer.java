@@ -0,0 +1,123 @@
+package project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes a snapshot of a running simulation every given number of commands, so a long replay can
+ * later be restarted close to any command instead of from the beginning.
+ *
+ *
+ * <p>Each checkpoint is copied into memory on the simulation thread, which takes far less time
+ * than simulating the commands between two checkpoints. Compressing and writing the file happens
+ * on a background thread, one checkpoint after another. A checkpoint taken while the previous
+ * one is still waiting to be written replaces it, so at most one checkpoint waits in memory and
+ * the simulation never waits for the disk; the latest checkpoint is always written.
+ *
+ *
+ * <p>Checkpoints are written to the files <code>checkpoint-OFFSET.snap</code> of a directory,
+ * where <code>OFFSET</code> is the number of commands simulated, padded to 12 digits.
+ */
+public class Checkpointer implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(Checkpointer.class);
+
+  private final Path directory;
+  private final long interval;
+
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "checkpoint-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** The checkpoint taken and not picked up by the writer yet, or <code>null</code>. */
+  private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+
+  private final AtomicLong written = new AtomicLong();
+
+  private final AtomicLong replaced = new AtomicLong();
+
+  /**
+   * @param directory - The existing directory receiving the checkpoint files.
+   * @param interval - The number of commands between two checkpoints.
+   */
+  public Checkpointer(Path directory, long interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("The checkpoint interval must be positive: " + interval);
+    }
+    this.directory = directory;
+    this.interval = interval;
+  }
+
+  /**
+   * @return The file holding the checkpoint taken after <code>offset</code> commands.
+   */
+  public static Path checkpointFile(Path directory, long offset) {
+    return directory.resolve(String.format("checkpoint-%012d.snap", offset));
+  }
+
+  /**
+   * @return The number of checkpoint files written so far.
+   */
+  public long getWrittenCount() {
+    return written.get();
+  }
+
+  /**
+   * @return The number of checkpoints replaced by a later one before they could be written.
+   */
+  public long getReplacedCount() {
+    return replaced.get();
+  }
+
+  /**
+   * Called by <code>simulator</code> after each command; takes a checkpoint if one is due.
+   */
+  void commandSimulated(Simulator simulator) {
+    if (simulator.getOffset() % interval == 0) {
+      Snapshot previous = pending.getAndSet(Snapshot.capture(simulator));
+      if (previous == null) {
+        writer.execute(this::writePending);
+      } else {
+        // the writer has not picked up the previous checkpoint yet, and will write this one
+        replaced.incrementAndGet();
+        logger.info("Checkpoint {} replaced by checkpoint {} before it could be written",
+            previous.getOffset(), simulator.getOffset());
+      }
+    }
+  }
+
+  private void writePending() {
+    Snapshot snapshot = pending.getAndSet(null);
+    Path file = checkpointFile(directory, snapshot.getOffset());
+    try {
+      snapshot.write(file);
+      written.incrementAndGet();
+    } catch (IOException e) {
+      logger.error("Checkpoint '{}' could not be written", file, e);
+    }
+  }
+
+  /**
+   * Writes the checkpoints still waiting and stops the background thread.
+   */
+  @Override
+  public void close() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package project;
+
+/**
+ * One warehouse event, split into its parts by <code>CommandParser</code>.
+ *
+ *
+ * <p>For worker commands, <code>id</code> holds the worker's id and <code>argument</code> holds
+ * the SKU of a <code>picks</code> command. For <code>Order</code> commands, <code>id</code> holds
+ * the model and <code>argument</code> holds the colour, in the order they are written.
+ */
+public class Command {
+
+  /** Who a command is addressed to. */
+  public enum Role {
+    ORDER("Order"), PICKER("Picker"), SEQUENCER("Sequencer"), LOADER("Loader"),
+    REPLENISHER("Replenisher");
+
+    /** The word naming this role in a command. */
+    final String word;
+
+    Role(String word) {
+      this.word = word;
+    }
+  }
+
+  /** What a command asks for. */
+  public enum Verb {
+    ORDER(""), READY("ready"), PICKS("picks"), TO_MARSHALING("to Marshaling"),
+    SEQUENCES("sequences"), LOADS("loads"), RESCANS("rescans"), REJECTS("rejects"),
+    APPROVES("approves"), REPLENISHES("replenishes");
+
+    /** The words naming this verb in a command. */
+    final String word;
+
+    Verb(String word) {
+      this.word = word;
+    }
+  }
+
+  Role role;
+  String id;
+  Verb verb;
+  String argument;
+
+  /**
+   * Creates an empty command, to be filled in by <code>CommandParser.parse</code>.
+   */
+  public Command() {
+  }
+
+  /**
+   * Creates a command from its parts.
+   *
+   * @param role - Who the command is addressed to.
+   * @param id - The worker id, or the model of an order.
+   * @param verb - What the command asks for.
+   * @param argument - The picked SKU, the colour of an order, or <code>null</code>.
+   */
+  public Command(Role role, String id, Verb verb, String argument) {
+    set(role, id, verb, argument);
+  }
+
+  void set(Role role, String id, Verb verb, String argument) {
+    this.role = role;
+    this.id = id;
+    this.verb = verb;
+    this.argument = argument;
+  }
+
+  public Role getRole() {
+    return role;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Verb getVerb() {
+    return verb;
+  }
+
+  public String getArgument() {
+    return argument;
+  }
+
+  /**
+   * @return The command as it is written in a command file.
+   */
+  public String toString() {
+    StringBuilder sb = new StringBuilder(role.word).append(' ').append(id).append(' ');
+    if (verb == Verb.ORDER) {
+      return sb.append(argument).toString();
+    }
+    sb.append(verb.word);
+    if (verb == Verb.PICKS) {
+      sb.append(' ').append(argument);
+    }
+    return sb.toString();
+  }
+}
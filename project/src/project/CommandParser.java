@@ -0,0 +1,147 @@
+package project;
+
+import project.Command.Role;
+import project.Command.Verb;
+
+/**
+ * Splits a line of a command file into a <code>Command</code> in one pass over its characters.
+ *
+ *
+ * <p>The accepted lines are exactly those listed in help.txt, where every [] is one or more
+ * RegEx word characters (<code>\w</code>) and words are separated by single spaces.
+ */
+public class CommandParser {
+
+  private static final Role[] ROLES = Role.values();
+
+  private static final Verb[] SEQUENCER_VERBS = {Verb.SEQUENCES, Verb.RESCANS, Verb.REJECTS,
+      Verb.APPROVES};
+
+  private static final Verb[] LOADER_VERBS = {Verb.LOADS, Verb.RESCANS, Verb.REJECTS,
+      Verb.APPROVES};
+
+  private CommandParser() {
+  }
+
+  /**
+   * Fills in <code>out</code> with the parts of <code>line</code>. Only the worker id and the
+   * argument are allocated; <code>out</code> may be reused between calls.
+   *
+   * @param line - One line of a command file.
+   * @param out - The command to fill in. It is left unchanged if <code>line</code> is invalid.
+   * @return <code>true</code> if <code>line</code> is a valid command.
+   */
+  public static boolean parse(String line, Command out) {
+    int roleEnd = line.indexOf(' ');
+    if (roleEnd < 0) {
+      return false;
+    }
+    Role role = null;
+    for (Role r : ROLES) {
+      if (r.word.length() == roleEnd && line.startsWith(r.word)) {
+        role = r;
+        break;
+      }
+    }
+    if (role == null) {
+      return false;
+    }
+
+    int idStart = roleEnd + 1;
+    int idEnd = wordEnd(line, idStart);
+    if (idEnd == idStart || idEnd == line.length() || line.charAt(idEnd) != ' ') {
+      return false;
+    }
+    int restStart = idEnd + 1;
+
+    Verb verb;
+    String argument = null;
+    if (role == Role.ORDER) {
+      if (wordEnd(line, restStart) != line.length() || restStart == line.length()) {
+        return false;
+      }
+      verb = Verb.ORDER;
+      argument = line.substring(restStart);
+    } else if (restIs(line, restStart, Verb.READY)) {
+      verb = Verb.READY;
+    } else {
+      switch (role) {
+        case PICKER:
+          verb = pickerVerb(line, restStart);
+          if (verb == Verb.PICKS) {
+            argument = line.substring(restStart + Verb.PICKS.word.length() + 1);
+          }
+          break;
+        case SEQUENCER:
+          verb = matchRest(line, restStart, SEQUENCER_VERBS);
+          break;
+        case LOADER:
+          verb = matchRest(line, restStart, LOADER_VERBS);
+          break;
+        default:
+          verb = restIs(line, restStart, Verb.REPLENISHES) ? Verb.REPLENISHES : null;
+      }
+      if (verb == null) {
+        return false;
+      }
+    }
+
+    out.set(role, line.substring(idStart, idEnd), verb, argument);
+    return true;
+  }
+
+  /**
+   * @return <code>PICKS</code> for "picks []", <code>TO_MARSHALING</code> for "to Marshaling", or
+   *         <code>null</code> if the rest of the line is neither.
+   */
+  private static Verb pickerVerb(String line, int restStart) {
+    if (restIs(line, restStart, Verb.TO_MARSHALING)) {
+      return Verb.TO_MARSHALING;
+    }
+    String picks = Verb.PICKS.word;
+    int skuStart = restStart + picks.length() + 1;
+    if (line.startsWith(picks, restStart) && skuStart < line.length()
+        && line.charAt(skuStart - 1) == ' ' && wordEnd(line, skuStart) == line.length()) {
+      return Verb.PICKS;
+    }
+    return null;
+  }
+
+  /**
+   * @return The verb of <code>verbs</code> that the rest of the line consists of, or
+   *         <code>null</code>.
+   */
+  private static Verb matchRest(String line, int restStart, Verb[] verbs) {
+    for (Verb v : verbs) {
+      if (restIs(line, restStart, v)) {
+        return v;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return <code>true</code> if the line ends with the words of <code>verb</code>, starting at
+   *         <code>restStart</code>.
+   */
+  private static boolean restIs(String line, int restStart, Verb verb) {
+    return line.length() - restStart == verb.word.length()
+        && line.startsWith(verb.word, restStart);
+  }
+
+  /**
+   * @return The index of the first character at or after <code>start</code> that is not a RegEx
+   *         word character, or the length of the line.
+   */
+  private static int wordEnd(String line, int start) {
+    int i = start;
+    while (i < line.length() && isWordChar(line.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isWordChar(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+  }
+}
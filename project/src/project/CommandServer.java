@@ -0,0 +1,339 @@
+package project;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Accepts commands for a <code>Simulator</code> from many clients over local TCP connections, such
+ * as the scanner handhelds on the warehouse floor.
+ *
+ *
+ * <p>Clients send commands in the command file format, one per line. For every line, in order,
+ * the server replies <code>OK</code> if the command was simulated, <code>INVALID</code> if it
+ * was not recognized, or <code>ERROR</code> if simulating it failed, each followed by a newline.
+ * A failing command is logged and does not stop the server. A line longer than the input buffer
+ * is answered <code>INVALID</code> once, and the rest of it is skipped up to its newline. The
+ * last line sent before the client closes its side of the connection needs no newline.
+ *
+ *
+ * <p>A single thread runs the server. Each pass of its loop reads whatever is available on every
+ * ready connection, simulates the complete lines as one batch, and then writes the
+ * acknowledgements, so the simulator is only ever used from that thread. A client that sends
+ * commands without reading its acknowledgements is not read from while more than
+ * <code>OUT_LIMIT</code> bytes of acknowledgements wait to be sent to it.
+ */
+public class CommandServer implements Runnable, Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** The acknowledgements waiting to be sent above which a connection is not read from. */
+  static final int OUT_LIMIT = 4 * BUFFER_SIZE;
+
+  private static final byte[] OK = "OK\n".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] INVALID = "INVALID\n".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] ERROR = "ERROR\n".getBytes(StandardCharsets.US_ASCII);
+
+  private static final Logger logger = LoggerFactory.getLogger(CommandServer.class);
+
+  private Simulator simulator;
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private volatile boolean running = true;
+
+  /** The connections with complete lines read in the current pass, in the order read. */
+  private ArrayList<Connection> batch = new ArrayList<>();
+
+  /** The total number of commands received. */
+  private long commandCount;
+
+  /** The most bytes of acknowledgements waiting to be sent to a connection after a pass. */
+  private volatile int maxPendingAcks;
+
+  /**
+   * Opens a server on the loopback interface.
+   *
+   * @param simulator - The simulation receiving the commands.
+   * @param port - The port to listen on, or 0 for any free port.
+   * @throws IOException if the port cannot be opened.
+   */
+  public CommandServer(Simulator simulator, int port) throws IOException {
+    this.simulator = simulator;
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * @return The port the server is listening on.
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * @return The number of commands received so far.
+   */
+  public long getCommandCount() {
+    return commandCount;
+  }
+
+  /**
+   * @return The most bytes of acknowledgements that waited to be sent to a client after a pass.
+   */
+  int getMaxPendingAcks() {
+    return maxPendingAcks;
+  }
+
+  /**
+   * Serves clients until <code>close()</code> is called, then saves the final inventory.
+   */
+  @Override
+  public void run() {
+    logger.info("Command server listening on port {}", getPort());
+    try {
+      while (running) {
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            if (key.isReadable()) {
+              read(key);
+            }
+            if (key.isValid() && key.isWritable()) {
+              write(key);
+            }
+          }
+        }
+        simulateBatch();
+      }
+      simulator.finishRun();
+    } catch (IOException e) {
+      logger.error("Command server stopped", e);
+    } finally {
+      closeChannels();
+    }
+  }
+
+  /**
+   * Stops the server after its current pass.
+   */
+  @Override
+  public void close() {
+    running = false;
+    selector.wakeup();
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+    key.attach(new Connection(channel, key));
+  }
+
+  private void read(SelectionKey key) throws IOException {
+    Connection connection = (Connection) key.attachment();
+    int read;
+    try {
+      read = connection.channel.read(connection.in);
+    } catch (IOException e) {
+      read = -1;
+    }
+    if (read < 0) {
+      connection.closing = true;
+      if (connection.in.position() > 0) {
+        // the last line has no newline: simulate it with the batch, then disconnect
+        if (!connection.queued) {
+          connection.queued = true;
+          batch.add(connection);
+        }
+      } else if (connection.out.position() == 0) {
+        disconnect(connection);
+      } else {
+        key.interestOps(SelectionKey.OP_WRITE);
+      }
+      return;
+    }
+    if (connection.in.position() > 0 && !connection.queued) {
+      connection.queued = true;
+      batch.add(connection);
+    }
+  }
+
+  /**
+   * Simulates every complete line read in this pass, then sends the acknowledgements.
+   */
+  private void simulateBatch() throws IOException {
+    for (Connection connection : batch) {
+      ByteBuffer in = connection.in;
+      in.flip();
+      int lineStart = 0;
+      for (int i = 0; i < in.limit(); i++) {
+        if (in.get(i) == '\n') {
+          if (connection.skipping) {
+            // the end of a line too long to be a command, which was acknowledged already
+            connection.skipping = false;
+          } else {
+            acknowledge(connection, simulateLine(in, lineStart, i));
+          }
+          lineStart = i + 1;
+        }
+      }
+      if (connection.closing && lineStart < in.limit() && !connection.skipping) {
+        // the client closed its side after a last command without a newline
+        acknowledge(connection, simulateLine(in, lineStart, in.limit()));
+        lineStart = in.limit();
+      }
+      if (connection.skipping) {
+        lineStart = in.limit();
+      } else if (lineStart == 0 && in.limit() == in.capacity()) {
+        // a line longer than the buffer cannot be a valid command
+        acknowledge(connection, INVALID);
+        connection.skipping = true;
+        lineStart = in.limit();
+      }
+      in.position(lineStart);
+      in.compact();
+      connection.queued = false;
+    }
+    // the requests loaded by the batch are in orders.csv before their commands are acknowledged
+    simulator.getRequestManager().flushCompletedOrders();
+    for (Connection connection : batch) {
+      write(connection.key);
+      if (connection.out.position() > maxPendingAcks) {
+        maxPendingAcks = connection.out.position();
+      }
+    }
+    batch.clear();
+  }
+
+  /**
+   * @return The acknowledgement for the line between <code>start</code> and <code>end</code>.
+   */
+  private byte[] simulateLine(ByteBuffer in, int start, int end) {
+    if (end > start && in.get(end - 1) == '\r') {
+      end--;
+    }
+    String line = new String(in.array(), start, end - start, StandardCharsets.UTF_8);
+    commandCount++;
+    try {
+      return simulator.simulateReceived(line) ? OK : INVALID;
+    } catch (RuntimeException e) {
+      logger.error("Command '{}' could not be simulated", line, e);
+      return ERROR;
+    }
+  }
+
+  private void acknowledge(Connection connection, byte[] ack) throws IOException {
+    if (connection.out.remaining() < ack.length) {
+      flush(connection);
+      if (connection.out.remaining() < ack.length) {
+        ByteBuffer larger = ByteBuffer.allocate(connection.out.capacity() * 2);
+        connection.out.flip();
+        larger.put(connection.out);
+        connection.out = larger;
+      }
+    }
+    connection.out.put(ack);
+  }
+
+  private void write(SelectionKey key) throws IOException {
+    Connection connection = (Connection) key.attachment();
+    if (connection == null || !key.isValid()) {
+      return;
+    }
+    flush(connection);
+    if (connection.out.position() > 0) {
+      // stop reading from a client not reading its acknowledgements until they drain
+      key.interestOps(connection.closing || connection.out.position() >= OUT_LIMIT
+          ? SelectionKey.OP_WRITE : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    } else if (connection.closing) {
+      disconnect(connection);
+    } else {
+      key.interestOps(SelectionKey.OP_READ);
+    }
+  }
+
+  private void flush(Connection connection) throws IOException {
+    connection.out.flip();
+    try {
+      connection.channel.write(connection.out);
+    } catch (IOException e) {
+      connection.out.clear();
+      connection.closing = true;
+      return;
+    }
+    connection.out.compact();
+  }
+
+  private void disconnect(Connection connection) {
+    connection.key.cancel();
+    try {
+      connection.channel.close();
+    } catch (IOException e) {
+      logger.warn("Could not close client connection", e);
+    }
+  }
+
+  private void closeChannels() {
+    for (SelectionKey key : selector.keys()) {
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        logger.warn("Could not close channel", e);
+      }
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      logger.warn("Could not close selector", e);
+    }
+  }
+
+  /**
+   * The buffers of one client connection.
+   */
+  private static class Connection {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean queued;
+    private boolean closing;
+
+    /** Whether the rest of the current line is skipped, up to its newline. */
+    private boolean skipping;
+
+    Connection(SocketChannel channel, SelectionKey key) {
+      this.channel = channel;
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package project;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The binary format of a simulation event log, the compact equivalent of a command file.
+ *
+ *
+ * <p>A log starts with the 4 bytes "WHEL" and a version byte, followed by one record per
+ * command. A record starts with an opcode byte naming the role and verb of the command (the
+ * role's ordinal in the high 4 bits and the verb's ordinal in the low 4 bits), followed by:
+ * <ul>
+ * <li><code>Order</code>: the index of the (model, colour) pair.</li>
+ * <li><code>picks</code>: the index of the worker id, then the index of the SKU.</li>
+ * <li>any other verb: the index of the worker id.</li>
+ * </ul>
+ *
+ *
+ * <p>Worker ids, SKUs and (model, colour) pairs are each numbered in order of first appearance.
+ * An index equal to the number of entries seen so far introduces a new entry, whose strings
+ * follow it. Indices and string lengths are unsigned LEB128 varints; strings are UTF-8.
+ *
+ *
+ * <p>Lines that are not valid commands are kept as <code>RAW</code> records holding the line, so
+ * that replaying a log logs the same warnings as simulating the command file.
+ */
+public final class EventLog {
+
+  static final byte[] MAGIC = {'W', 'H', 'E', 'L'};
+
+  static final int VERSION = 1;
+
+  /** The opcode of a line that is not a valid command. */
+  static final int RAW = 0xFF;
+
+  private EventLog() {
+  }
+
+  /**
+   * @return The opcode of a command with the given role and verb.
+   */
+  static int opcode(Command.Role role, Command.Verb verb) {
+    return role.ordinal() << 4 | verb.ordinal();
+  }
+
+  /**
+   * @return <code>true</code> if <code>file</code> starts with the event log header.
+   * @throws IOException if <code>file</code> cannot be read.
+   */
+  public static boolean isEventLog(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      for (byte b : MAGIC) {
+        if (in.read() != b) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  static void writeVarint(OutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  static int readVarint(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint in event log");
+  }
+
+  static void writeString(OutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    writeVarint(out, bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readVarint(in)];
+    try {
+      in.readFully(bytes);
+    } catch (EOFException e) {
+      throw new IOException("Event log ends in the middle of a record", e);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
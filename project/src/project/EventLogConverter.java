@@ -0,0 +1,73 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts command files to binary event logs and back.
+ *
+ *
+ * <p>Usage: <code>EventLogConverter toBinary commands.txt commands.whel</code> or
+ * <code>EventLogConverter toText commands.whel commands.txt</code>.
+ */
+public class EventLogConverter {
+
+  /**
+   * @param args - The direction ("toBinary" or "toText"), the input file and the output file.
+   * @throws IOException if a file cannot be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      System.err.println("Usage: EventLogConverter (toBinary|toText) <input> <output>");
+      System.exit(1);
+    }
+    Path input = Paths.get(args[1]);
+    Path output = Paths.get(args[2]);
+    if (args[0].equals("toBinary")) {
+      toBinary(input, output);
+    } else if (args[0].equals("toText")) {
+      toText(input, output);
+    } else {
+      System.err.println("Unknown conversion: " + args[0]);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Encodes every line of <code>commandFile</code> into the event log <code>eventLog</code>.
+   */
+  public static void toBinary(Path commandFile, Path eventLog) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            Files.newInputStream(commandFile), StandardCharsets.UTF_8), 1 << 16);
+        EventLogWriter writer = new EventLogWriter(Files.newOutputStream(eventLog))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        writer.write(line);
+      }
+    }
+  }
+
+  /**
+   * Decodes the event log <code>eventLog</code> into a command file, one command per line.
+   */
+  public static void toText(Path eventLog, Path commandFile) throws IOException {
+    try (EventLogReader reader = new EventLogReader(Files.newInputStream(eventLog));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+            Files.newOutputStream(commandFile), StandardCharsets.UTF_8), 1 << 16)) {
+      Command command = new Command();
+      while (reader.next(command)) {
+        String line = reader.getRawLine();
+        writer.write(line != null ? line : command.toString());
+        writer.write('\n');
+      }
+    }
+  }
+}
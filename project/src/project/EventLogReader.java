@@ -0,0 +1,179 @@
+package project;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+/**
+ * Decodes the records of an <code>EventLog</code> back into commands.
+ */
+public class EventLogReader implements Closeable {
+
+  private static final Command.Role[] ROLES = Command.Role.values();
+
+  private static final Command.Verb[] VERBS = Command.Verb.values();
+
+  private DataInputStream in;
+
+  private ArrayList<String> workerIds = new ArrayList<>();
+
+  private ArrayList<String> skus = new ArrayList<>();
+
+  /** The models of the (model, colour) pairs seen so far, by index. */
+  private ArrayList<String> orderModels = new ArrayList<>();
+
+  /** The colours of the (model, colour) pairs seen so far, by index. */
+  private ArrayList<String> orderColours = new ArrayList<>();
+
+  /** The line held by the last record read, if it was a <code>RAW</code> record. */
+  private String rawLine;
+
+  /**
+   * Opens an event log, checking its header.
+   *
+   * @param in - The stream holding the log. It is closed with this reader.
+   * @throws IOException if <code>in</code> does not start with an event log header.
+   */
+  public EventLogReader(InputStream in) throws IOException {
+    this.in = new DataInputStream(new ReadBuffer(in));
+    for (byte b : EventLog.MAGIC) {
+      if (this.in.read() != b) {
+        throw new IOException("Not a warehouse event log");
+      }
+    }
+    int version = this.in.read();
+    if (version != EventLog.VERSION) {
+      throw new IOException("Unsupported event log version " + version);
+    }
+  }
+
+  /**
+   * Reads the next record. For a command, fills in <code>out</code>, reusing the strings already
+   * decoded for earlier records. For a line that is not a valid command, <code>out</code> is left
+   * unchanged and the line is available from <code>getRawLine()</code>.
+   *
+   * @param out - The command to fill in.
+   * @return <code>false</code> if the end of the log has been reached.
+   * @throws IOException if the log is malformed.
+   */
+  public boolean next(Command out) throws IOException {
+    int opcode = in.read();
+    if (opcode < 0) {
+      return false;
+    }
+    rawLine = null;
+    if (opcode == EventLog.RAW) {
+      rawLine = EventLog.readString(in);
+      return true;
+    }
+
+    int role = opcode >>> 4;
+    int verb = opcode & 0x0F;
+    if (role >= ROLES.length || verb >= VERBS.length) {
+      throw new IOException("Unknown event log opcode " + opcode);
+    }
+
+    if (VERBS[verb] == Command.Verb.ORDER) {
+      int pair = readIndex(orderModels);
+      if (pair == orderModels.size()) {
+        orderModels.add(EventLog.readString(in));
+        orderColours.add(EventLog.readString(in));
+      }
+      out.set(ROLES[role], orderModels.get(pair), VERBS[verb], orderColours.get(pair));
+      return true;
+    }
+
+    String id = readEntry(workerIds);
+    String sku = VERBS[verb] == Command.Verb.PICKS ? readEntry(skus) : null;
+    out.set(ROLES[role], id, VERBS[verb], sku);
+    return true;
+  }
+
+  /**
+   * @return The line held by the last record read, or <code>null</code> if it was a command.
+   */
+  public String getRawLine() {
+    return rawLine;
+  }
+
+  /**
+   * @return The string at the next index in the log, reading it if it is a new entry.
+   */
+  private String readEntry(ArrayList<String> dictionary) throws IOException {
+    int index = readIndex(dictionary);
+    if (index == dictionary.size()) {
+      dictionary.add(EventLog.readString(in));
+    }
+    return dictionary.get(index);
+  }
+
+  private int readIndex(ArrayList<String> dictionary) throws IOException {
+    int index = EventLog.readVarint(in);
+    if (index > dictionary.size()) {
+      throw new IOException("Event log refers to an undefined entry " + index);
+    }
+    return index;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Buffers the log like a <code>BufferedInputStream</code>, without taking a lock for every byte
+   * read, as a reader is only used by one thread.
+   */
+  private static final class ReadBuffer extends InputStream {
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+
+    ReadBuffer(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (position == limit && !fill()) {
+        return -1;
+      }
+      return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (position == limit && !fill()) {
+        return -1;
+      }
+      int read = Math.min(len, limit - position);
+      System.arraycopy(buffer, position, b, off, read);
+      position += read;
+      return read;
+    }
+
+    /**
+     * @return <code>false</code> if the end of the log has been reached.
+     */
+    private boolean fill() throws IOException {
+      int read = in.read(buffer);
+      if (read <= 0) {
+        return false;
+      }
+      position = 0;
+      limit = read;
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package project;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+
+/**
+ * Encodes command file lines as an <code>EventLog</code>.
+ */
+public class EventLogWriter implements Closeable {
+
+  private OutputStream out;
+
+  /** Worker ids as keys and their index in the log as the value. */
+  private HashMap<String, Integer> workerIds = new HashMap<>();
+
+  /** SKUs as keys and their index in the log as the value. */
+  private HashMap<String, Integer> skus = new HashMap<>();
+
+  /** "Model Colour" pairs as keys and their index in the log as the value. */
+  private HashMap<String, Integer> orderPairs = new HashMap<>();
+
+  private Command command = new Command();
+
+  /**
+   * Starts a new event log, writing its header to <code>out</code>.
+   *
+   * @param out - The stream receiving the log. It is closed with this writer.
+   */
+  public EventLogWriter(OutputStream out) throws IOException {
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    this.out.write(EventLog.MAGIC);
+    this.out.write(EventLog.VERSION);
+  }
+
+  /**
+   * Appends one line of a command file to the log.
+   *
+   * @param line - The line, without its line separator.
+   */
+  public void write(String line) throws IOException {
+    if (!CommandParser.parse(line, command)) {
+      out.write(EventLog.RAW);
+      EventLog.writeString(out, line);
+      return;
+    }
+
+    out.write(EventLog.opcode(command.role, command.verb));
+    if (command.verb == Command.Verb.ORDER) {
+      String pair = command.id + " " + command.argument;
+      if (writeIndex(orderPairs, pair)) {
+        EventLog.writeString(out, command.id);
+        EventLog.writeString(out, command.argument);
+      }
+      return;
+    }
+
+    if (writeIndex(workerIds, command.id)) {
+      EventLog.writeString(out, command.id);
+    }
+    if (command.verb == Command.Verb.PICKS && writeIndex(skus, command.argument)) {
+      EventLog.writeString(out, command.argument);
+    }
+  }
+
+  /**
+   * Writes the index of <code>key</code> in <code>dictionary</code>, adding it if it is new.
+   *
+   * @return <code>true</code> if <code>key</code> is new and its strings must follow.
+   */
+  private boolean writeIndex(HashMap<String, Integer> dictionary, String key)
+      throws IOException {
+    Integer index = dictionary.get(key);
+    if (index == null) {
+      index = dictionary.size();
+      dictionary.put(key, index);
+      EventLog.writeVarint(out, index);
+      return true;
+    }
+    EventLog.writeVarint(out, index);
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,178 @@
+package project;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Scanner;
+
+/**
+ * Numbers the colours, models and fascia SKUs of the translation table, and holds the front and
+ * rear SKU of every colour and model combination.
+ *
+ *
+ * <p>Each distinct colour and model gets a code from 0 in the order it first appears in the table,
+ * and each distinct SKU an ordinal from 0 the same way. A combination is coded
+ * <code>colour * getModelCount() + model</code>, and the ordinals of its front and rear SKUs are
+ * kept in two flat int arrays indexed by that code, with -1 for combinations the table does not
+ * list. Validating an order is then two lookups of its colour and model names, and translating it
+ * is two array reads, however many combinations the table lists.
+ */
+public class FasciaCatalog {
+
+  /** Colours as keys and their code as the value. */
+  private final HashMap<String, Integer> colourCodes = new HashMap<>(16);
+
+  /** Models as keys and their code as the value. */
+  private final HashMap<String, Integer> modelCodes = new HashMap<>(8);
+
+  /** The SKUs of the table, by ordinal. */
+  private final String[] skus;
+
+  /** The number of models: the row length of <code>front</code> and <code>rear</code>. */
+  private final int modelCount;
+
+  /** The ordinal of the front SKU of each combination, or -1 if the table does not list it. */
+  private final int[] front;
+
+  /** The ordinal of the rear SKU of each combination, or -1 if the table does not list it. */
+  private final int[] rear;
+
+  /**
+   * Reads the combinations of the provided translation table.
+   *
+   *
+   * <p>Precondition: the CSV file contains one header line, followed by one string of the format
+   * <code>Colour,Model,FrontSKU,RearSKU</code> on each subsequent line. Shorter lines are skipped,
+   * and if a combination appears on more than one line, its last line is used.
+   *
+   * @param translationTable - The CSV file associating minivan colours and models to fascia SKUs.
+   * @throws FileNotFoundException if <code>translationTable</code> does not exist.
+   */
+  public FasciaCatalog(String translationTable) throws FileNotFoundException {
+    ArrayList<int[]> rows = new ArrayList<>();
+    HashMap<String, Integer> skuOrdinals = new HashMap<>(128);
+    ArrayList<String> skuList = new ArrayList<>();
+    Scanner scanner = new Scanner(new FileInputStream(translationTable));
+    if (scanner.hasNextLine()) {
+      scanner.nextLine(); // skip the header
+    }
+    while (scanner.hasNextLine()) {
+      String[] lineList = scanner.nextLine().split(",");
+      if (lineList.length < 4) {
+        continue;
+      }
+      int[] row = new int[4];
+      row[0] = intern(colourCodes, lineList[0]);
+      row[1] = intern(modelCodes, lineList[1]);
+      for (int side = 0; side < 2; side++) {
+        String sku = lineList[2 + side];
+        Integer ordinal = skuOrdinals.get(sku);
+        if (ordinal == null) {
+          ordinal = skuList.size();
+          skuOrdinals.put(sku, ordinal);
+          skuList.add(sku);
+        }
+        row[2 + side] = ordinal;
+      }
+      rows.add(row);
+    }
+    scanner.close();
+
+    skus = skuList.toArray(new String[skuList.size()]);
+    modelCount = modelCodes.size();
+    front = new int[colourCodes.size() * modelCount];
+    rear = new int[front.length];
+    Arrays.fill(front, -1);
+    Arrays.fill(rear, -1);
+    for (int[] row : rows) {
+      int code = row[0] * modelCount + row[1];
+      front[code] = row[2];
+      rear[code] = row[3];
+    }
+  }
+
+  /**
+   * @return The code of <code>name</code> in <code>codes</code>, adding it with the next code if
+   *         it is not there yet.
+   */
+  private static int intern(HashMap<String, Integer> codes, String name) {
+    Integer code = codes.get(name);
+    if (code == null) {
+      code = codes.size();
+      codes.put(name, code);
+    }
+    return code;
+  }
+
+  /**
+   * @return The code of the combination of <code>colour</code> and <code>model</code>, or -1 if the
+   *         warehouse does not stock fascia for it.
+   */
+  public int getCode(String colour, String model) {
+    Integer colourCode = colourCodes.get(colour);
+    Integer modelCode = modelCodes.get(model);
+    if (colourCode == null || modelCode == null) {
+      return -1;
+    }
+    int code = colourCode * modelCount + modelCode;
+    return front[code] < 0 ? -1 : code;
+  }
+
+  /**
+   * @return The SKU of the front fascia of the combination with the given code.
+   */
+  public String getFrontSku(int code) {
+    return skus[front[code]];
+  }
+
+  /**
+   * @return The SKU of the rear fascia of the combination with the given code.
+   */
+  public String getRearSku(int code) {
+    return skus[rear[code]];
+  }
+
+  /**
+   * @return The ordinal of the front SKU of the combination with the given code.
+   */
+  int getFrontOrdinal(int code) {
+    return front[code];
+  }
+
+  /**
+   * @return The ordinal of the rear SKU of the combination with the given code.
+   */
+  int getRearOrdinal(int code) {
+    return rear[code];
+  }
+
+  /**
+   * @return The SKU with the given ordinal.
+   */
+  public String getSku(int ordinal) {
+    return skus[ordinal];
+  }
+
+  /**
+   * @return The number of distinct SKUs in the table.
+   */
+  public int getSkuCount() {
+    return skus.length;
+  }
+
+  /**
+   * @return The number of distinct colours in the table.
+   */
+  public int getColourCount() {
+    return colourCodes.size();
+  }
+
+  /**
+   * @return The number of distinct models in the table.
+   */
+  public int getModelCount() {
+    return modelCount;
+  }
+}
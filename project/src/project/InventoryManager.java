@@ -5,13 +5,21 @@ import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Scanner;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Monitors and maintains the number of remaining fascia on the picking floor.
  *
+ *
+ * <p>A SKU listed on several lines of the traversal table is stocked at each of those locations.
+ * Its fascia are counted and replenished per location, and each fascia is picked from the stocked
+ * location closest to the picker's route (<code>locationToPick</code>).
  */
 public class InventoryManager {
   // inventory stores SKUs as keys and the remaining fascia of that SKU as the value. 
@@ -20,9 +28,20 @@ public class InventoryManager {
   private HashMap<String, String> skus = new HashMap<String, String>();
   // locations stores SKUs of fascia as keys and the corresponding location as the value. 
   private HashMap<String, String> locations = new HashMap<String, String>();
+  // skuLocations stores the SKUs stocked at more than one location as keys and all of their
+  // locations, in the order of the traversal table, as the value.
+  private HashMap<String, ArrayList<String>> skuLocations = new HashMap<>();
+  // stock stores the locations of those SKUs as keys and the remaining fascia at that location as
+  // the value. The inventory of such a SKU is the total over its locations.
+  private HashMap<String, Integer> stock = new HashMap<>();
 
   private RequestManager rm;
 
+  // the codes of the locations and the distances between them
+  private LocationCatalog catalog;
+
+  private SimulationContext context;
+
   
   /**
    * Instantiates a IventoryManger.
@@ -37,7 +56,26 @@ public class InventoryManager {
    */
   public InventoryManager(String filePath, RequestManager rm,
       Boolean doCheck) throws FileNotFoundException {
+    this(filePath, rm, doCheck, SimulationContext.getDefault());
+  }
+
+  /**
+   * Instantiates a IventoryManger for the given simulation.
+   * 
+   * @param filePath               a file name of the .csv of the current inventory.
+   * @param rm                     an instance of a <code>RequestManager</code>
+   *                               to handle replenishing 
+   * @param doCheck                enables initial inventory checks. If true check if we
+   *                               start off lacking fascia    
+   * @param context                the simulation providing the traversal table and the
+   *                               final inventory file.
+   * @throws FileNotFoundException if <code>filePath</code> or the traversal table do not
+   *                               exist.
+   */
+  public InventoryManager(String filePath, RequestManager rm,
+      Boolean doCheck, SimulationContext context) throws FileNotFoundException {
     this.rm = rm;
+    this.context = context;
     initialiseInventory(filePath);
     if (doCheck) {
       this.checkAllFasciaLevels();
@@ -49,12 +87,12 @@ public class InventoryManager {
    * 
    * @param filePath               the path of the data file which provides the current 
    *                               state of the inventory
-   * @throws FileNotFoundException if filePath is not a valid path or if 
-   *                               <code>traversal_table.csv</code> is not in the working 
-   *                               directory 
+   * @throws FileNotFoundException if filePath is not a valid path or if the traversal table
+   *                               of the simulation does not exist
    */
   private void initialiseInventory(String filePath) throws FileNotFoundException {
-    genLocMap("traversal_table.csv");
+    genLocMap(context.getTraversalTable());
+    catalog = context.getLocationCatalog();
 
     Scanner scanner;
     scanner = new Scanner(new FileInputStream(filePath));
@@ -62,6 +100,11 @@ public class InventoryManager {
     for (String sku : skus.values()) {
       inventory.put(sku, 30); // unspecified/default locations contain full inventory
     }
+    for (ArrayList<String> skuLocs : skuLocations.values()) {
+      for (String loc : skuLocs) {
+        stock.put(loc, 30);
+      }
+    }
 
     String line;
     Integer amount;
@@ -72,16 +115,29 @@ public class InventoryManager {
       amount = Integer.parseInt(line.substring(8));
       currLoc = line.substring(0, 7);
       sku = skus.get(currLoc);
-      inventory.put(sku, amount);
+      if (stock.containsKey(currLoc)) {
+        stock.put(currLoc, amount);
+      } else {
+        inventory.put(sku, amount);
+      }
     }
     scanner.close();
+
+    for (Entry<String, ArrayList<String>> entry : skuLocations.entrySet()) {
+      int total = 0;
+      for (String loc : entry.getValue()) {
+        total += stock.get(loc);
+      }
+      inventory.put(entry.getKey(), total);
+    }
   }
 
 
   /**
    * Generate two complementary <code>hashMap</code>. One has the keys as SKU storing
    * the locations, called <code>locations</code>. The other has the keys as location storing
-   * SKUs, called <code>skus</code>.
+   * SKUs, called <code>skus</code>. A SKU on several lines is mapped to its first location, and
+   * all of its locations are kept in <code>skuLocations</code>.
    * 
    * @param trasversalTable         the path of the data file which provides trasversal table 
    * @throws FileNotFoundException  if <code>trasversalTable</code> is not a valid path
@@ -100,23 +156,32 @@ public class InventoryManager {
       sku = line.substring(8, line.length());
       fasciaLocation = line.substring(0, 7);
       skus.put(fasciaLocation, sku);
-      locations.put(sku, fasciaLocation);
+      if (locations.containsKey(sku)) {
+        if (!skuLocations.containsKey(sku)) {
+          skuLocations.put(sku, new ArrayList<>());
+          skuLocations.get(sku).add(locations.get(sku));
+        }
+        skuLocations.get(sku).add(fasciaLocation);
+      } else {
+        locations.put(sku, fasciaLocation);
+      }
     }
     scanner.close();
   }
 
 
   /**
-   * Save the current state of the <code>inventory</code> to <code>final.csv</code>.
+   * Save the current state of the <code>inventory</code> to the final inventory file of the
+   * simulation (<code>final.csv</code> by default).
    * 
    */
   public void saveInventory() throws IOException {
     String eol = System.getProperty("line.separator");
-    Writer writer = new FileWriter("final.csv");
+    Writer writer = new FileWriter(context.getFinalInventory());
     for (Entry<String, String> entry : skus.entrySet()) {
-      if (inventory.get(entry.getValue()) != 30) {
-        String location = entry.getKey();
-        String amount = inventory.get(entry.getValue()).toString();
+      String location = entry.getKey();
+      Integer amount = amountAt(entry.getValue(), location);
+      if (amount != 30) {
         writer.append(location + "," + amount + eol);
       }
     }
@@ -125,15 +190,38 @@ public class InventoryManager {
 
 
   /**
-   * Remove a fascia from the <code>inventory</code> based that the fascia's SKU.
+   * Remove a fascia from the <code>inventory</code> based that the fascia's SKU. A SKU stocked at
+   * several locations is taken from the stocked location closest to the marshalling area.
    * 
    * @param sku the unique number specifying a type of fascia.
    */
   public void decrement(String sku) {
+    if (skuLocations.containsKey(sku)) {
+      decrement(sku, locationToPick(sku, -1, -1));
+      return;
+    }
+
+    inventory.put(sku, inventory.get(sku) - 1);
+
+    this.checkFasciaLevel(sku, locations.get(sku));
+  }
+
+  /**
+   * Remove a fascia of the given SKU from the <code>inventory</code> at <code>loc</code>.
+   * 
+   * @param sku the unique number specifying a type of fascia.
+   * @param loc the location the fascia is picked at.
+   */
+  public void decrement(String sku, String loc) {
+    if (!stock.containsKey(loc)) { // the only location of the SKU
+      decrement(sku);
+      return;
+    }
 
+    stock.put(loc, stock.get(loc) - 1);
     inventory.put(sku, inventory.get(sku) - 1);
 
-    this.checkFasciaLevel(sku);
+    this.checkFasciaLevel(sku, loc);
   }
 
   /**
@@ -144,13 +232,124 @@ public class InventoryManager {
   public Boolean replenish(String loc) {
     String sku = skus.get(loc);
 
-    if (inventory.get(sku) <= 5) {
+    if (needsReplenishing(loc)) {
+      if (stock.containsKey(loc)) {
+        stock.put(loc, stock.get(loc) + 25);
+      }
       inventory.put(sku, inventory.get(sku) + 25);
       return true;
     }
     return false;
   }
 
+  /**
+   * Return whether the given location holds few enough fascias (5 or less) to be replenished.
+   * Locations that are not on the picking floor never need replenishing.
+   * 
+   * @param loc the unique location of a specifying of a fascia.
+   */
+  public boolean needsReplenishing(String loc) {
+    String sku = skus.get(loc);
+    return sku != null && amountAt(sku, loc) <= 5;
+  }
+
+  /**
+   * Return the location to pick a fascia of the given SKU at, on the way between the locations
+   * with codes <code>from</code> and <code>to</code> (-1 for the marshalling area).
+   * 
+   * @param sku the unique number specifying a type of fascia.
+   * @param from the code of the location the picker comes from.
+   * @param to the code of the location the picker goes to next.
+   */
+  public String locationToPick(String sku, int from, int to) {
+    return locationToPick(sku, from, to, null);
+  }
+
+  /**
+   * Return the location to pick a fascia of the given SKU at, on the way between the locations
+   * with codes <code>from</code> and <code>to</code> (-1 for the marshalling area). Of the
+   * locations of a SKU stocked at several locations, the one with fascia left that adds the
+   * shortest detour is chosen; the closest one if none has fascia left.
+   * 
+   * @param sku the unique number specifying a type of fascia.
+   * @param from the code of the location the picker comes from.
+   * @param to the code of the location the picker goes to next.
+   * @param zone the zone to pick in, or <code>null</code> for the whole picking floor. The first
+   *        location of the SKU is used if it has none in <code>zone</code>.
+   */
+  public String locationToPick(String sku, int from, int to, String zone) {
+    return locationToPick(sku, from, to, zone, null);
+  }
+
+  /**
+   * Return the location to pick a fascia of the given SKU at, like
+   * <code>locationToPick(sku, from, to, zone)</code>, adding an extra cost to the detour through
+   * each location, for example the congestion of its aisle.
+   * 
+   * @param sku the unique number specifying a type of fascia.
+   * @param from the code of the location the picker comes from.
+   * @param to the code of the location the picker goes to next.
+   * @param zone the zone to pick in, or <code>null</code> for the whole picking floor.
+   * @param extraCost the extra cost of picking at the location with a given code, or
+   *        <code>null</code>.
+   */
+  public String locationToPick(String sku, int from, int to, String zone,
+      IntUnaryOperator extraCost) {
+    ArrayList<String> candidates = skuLocations.get(sku);
+    if (candidates == null) {
+      return locations.get(sku);
+    }
+    int fromCode = from < 0 ? catalog.getDepot() : from;
+    int toCode = to < 0 ? catalog.getDepot() : to;
+    String best = locations.get(sku);
+    int bestDetour = Integer.MAX_VALUE;
+    boolean bestStocked = false;
+    for (String loc : candidates) {
+      int code = catalog.getCode(loc);
+      if (zone != null && !zone.equals(catalog.getZone(code))) {
+        continue;
+      }
+      int detour = catalog.distance(fromCode, code) + catalog.distance(code, toCode);
+      if (extraCost != null) {
+        detour += extraCost.applyAsInt(code);
+      }
+      boolean stocked = stock.get(loc) > 0;
+      if ((stocked && !bestStocked) || (stocked == bestStocked && detour < bestDetour)) {
+        best = loc;
+        bestDetour = detour;
+        bestStocked = stocked;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Return the locations a SKU is stocked at, in the order of the traversal table.
+   * 
+   * @param sku the unique number specifying a type of fascia.
+   */
+  public List<String> getLocationsOf(String sku) {
+    ArrayList<String> skuLocs = skuLocations.get(sku);
+    if (skuLocs != null) {
+      return Collections.unmodifiableList(skuLocs);
+    }
+    String loc = locations.get(sku);
+    return loc == null ? Collections.<String>emptyList() : Collections.singletonList(loc);
+  }
+
+  /**
+   * Return the number of fascias present at the given location.
+   * 
+   * @param loc the unique location of a specifying of a fascia.
+   */
+  protected Integer getAmountAt(String loc) {
+    return amountAt(skus.get(loc), loc);
+  }
+
+  private Integer amountAt(String sku, String loc) {
+    return stock.containsKey(loc) ? stock.get(loc) : inventory.get(sku);
+  }
+
   /**
    * Return the number of fascias present at the given SKU.
    * 
@@ -178,20 +377,24 @@ public class InventoryManager {
    */
   private void checkAllFasciaLevels() {
     for (String key : inventory.keySet()) {
-      checkFasciaLevel(key);
+      for (String loc : skuLocations.containsKey(key) ? skuLocations.get(key)
+          : Collections.singletonList(locations.get(key))) {
+        checkFasciaLevel(key, loc);
+      }
     }
   }
 
 
   /**
-   * Ensure the <code>inventory</code> is not lacking this fascia given its SKU, otherwise request
-   * to replenish.
+   * Ensure the <code>inventory</code> is not lacking this fascia at the given location,
+   * otherwise request to replenish the location.
    * 
    * @param sku the unique number specifying a type of fascia.
+   * @param loc the location of the fascia.
    */
-  private void checkFasciaLevel(String sku) {
-    if (inventory.get(sku) <= 5) {
-      this.sendReplenishRequest(locations.get(sku));
+  private void checkFasciaLevel(String sku, String loc) {
+    if (amountAt(sku, loc) <= 5) {
+      this.sendReplenishRequest(loc);
     }
   }
   
@@ -202,6 +405,10 @@ public class InventoryManager {
   protected HashMap<String, String> getLocations() {
     return locations;
   }
+
+  HashMap<String, Integer> getStock() {
+    return stock;
+  }
   
   public HashMap<String, String> getSkus() {
     return skus;
@@ -210,4 +417,28 @@ public class InventoryManager {
   public String getLocation(String sku) {
     return locations.get(sku);
   }
+
+  /**
+   * Return the codes of the locations on the picking floor and the walking distances between
+   * them.
+   */
+  public LocationCatalog getCatalog() {
+    return catalog;
+  }
+
+  /**
+   * Return the walking distance between the locations of two SKUs, or -1 if either SKU is not
+   * on the picking floor.
+   * 
+   * @param fromSku the SKU of the fascia the walk starts at.
+   * @param toSku the SKU of the fascia the walk ends at.
+   */
+  public int distance(String fromSku, String toSku) {
+    int from = catalog.getCodeOfSku(fromSku);
+    int to = catalog.getCodeOfSku(toSku);
+    if (from < 0 || to < 0) {
+      return -1;
+    }
+    return catalog.distance(from, to);
+  }
 }
@@ -0,0 +1,271 @@
+package project;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Numbers the locations of the traversal table and holds the walking distance between every pair
+ * of them.
+ *
+ *
+ * <p>Each distinct <code>Zone,Aisle,Rack,Level</code> location gets a code from 0 in the order of
+ * the table, and the marshalling area, where pickers start and finish, gets the next code
+ * (<code>getDepot()</code>). The distances between all codes are computed once, when the catalog is
+ * created, into a flat array of <code>(size() + 1)^2</code> ints; layouts with more than
+ * <code>MAX_ON_HEAP_LOCATIONS</code> locations keep the array in a direct buffer outside the heap
+ * instead. Looking up a distance is then a single array read that allocates nothing.
+ *
+ *
+ * <p>The picking floor is modelled as parallel aisles, each holding one row of racks, joined by a
+ * cross aisle at the front and one at the back. The aisles of a zone are <code>AISLE_SPACING</code>
+ * apart, zones are laid out left to right in the order they appear in the table with an extra
+ * <code>ZONE_GAP</code> between them, and racks along an aisle are one unit apart. Levels are
+ * reached without walking. The marshalling area is at the front of the floor, left of the first
+ * aisle.
+ */
+public class LocationCatalog {
+
+  /** Distance between two neighbouring aisles of a zone. */
+  static final int AISLE_SPACING = 3;
+
+  /** Extra distance between the last aisle of a zone and the first aisle of the next. */
+  static final int ZONE_GAP = 3;
+
+  /** The most locations whose distance matrix is kept on the heap (16 MB). */
+  static final int MAX_ON_HEAP_LOCATIONS = 2047;
+
+  /** Locations (<code>Zone,Aisle,Rack,Level</code>) as keys and their code as the value. */
+  private final HashMap<String, Integer> codes = new HashMap<>(80);
+
+  /** SKUs as keys and the code of their location (first row in the table) as the value. */
+  private final HashMap<String, Integer> skuCodes = new HashMap<>(80);
+
+  private final String[] locations;
+  private final String[] skus;
+
+  /** The zones of the picking floor, in the order they appear in the table. */
+  private final ArrayList<String> zones = new ArrayList<>();
+
+  /** The index in <code>zones</code> of the zone of each location. */
+  private final int[] zoneIndexes;
+
+  /** The aisle of each location, numbered from 0 zone by zone. */
+  private final int[] aisleIndexes;
+
+  /** The number of aisles of each zone. */
+  private final int aislesPerZone;
+
+  /** The number of codes, including the marshalling area: the row length of the matrix. */
+  private final int stride;
+
+  /** The distance from code <code>i</code> to code <code>j</code> at <code>i * stride + j</code>. */
+  private final int[] matrix;
+
+  /** The same distances as <code>matrix</code>, outside the heap, for large layouts. */
+  private final IntBuffer offHeapMatrix;
+
+  /**
+   * Reads the locations of the provided traversal table and computes their distances.
+   *
+   *
+   * <p>Precondition: each line of the CSV file has the format
+   * <code>Zone,Aisle,Rack,Level,SKU</code>, with whole numbers for the aisle, rack and level. If a
+   * SKU appears on more than one line, its first line is used.
+   *
+   * @param traversalTable - The CSV file listing fascia locations.
+   * @throws FileNotFoundException if <code>traversalTable</code> does not exist.
+   */
+  public LocationCatalog(String traversalTable) throws FileNotFoundException {
+    this(traversalTable, MAX_ON_HEAP_LOCATIONS);
+  }
+
+  /**
+   * Reads the traversal table, keeping the distance matrix on the heap only for up to
+   * <code>maxOnHeapLocations</code> locations.
+   */
+  LocationCatalog(String traversalTable, int maxOnHeapLocations) throws FileNotFoundException {
+    ArrayList<String[]> rows = new ArrayList<>();
+    ArrayList<String> skuList = new ArrayList<>();
+    int aisles = 0;
+    int racks = 0;
+    Scanner scanner = new Scanner(new FileInputStream(traversalTable));
+    while (scanner.hasNextLine()) {
+      String[] lineList = scanner.nextLine().split(",");
+      if (lineList.length <= 4) {
+        continue;
+      }
+      String location = String.join(",", lineList[0], lineList[1], lineList[2], lineList[3]);
+      Integer code = codes.get(location);
+      if (code == null) {
+        code = rows.size();
+        codes.put(location, code);
+        rows.add(lineList);
+        skuList.add(lineList[4]);
+        if (!zones.contains(lineList[0])) {
+          zones.add(lineList[0]);
+        }
+        aisles = Math.max(aisles, Integer.parseInt(lineList[1]) + 1);
+        racks = Math.max(racks, Integer.parseInt(lineList[2]) + 1);
+      }
+      if (!skuCodes.containsKey(lineList[4])) {
+        skuCodes.put(lineList[4], code);
+      }
+    }
+    scanner.close();
+
+    int size = rows.size();
+    stride = size + 1;
+    locations = new String[size];
+    skus = skuList.toArray(new String[size]);
+    zoneIndexes = new int[size];
+    aisleIndexes = new int[size];
+    aislesPerZone = aisles;
+    int zoneWidth = aisles * AISLE_SPACING + ZONE_GAP;
+    // the marshalling area is the last code, left of the first aisle, in front of the first rack
+    int[] aisleX = new int[stride];
+    int[] rack = new int[stride];
+    rack[size] = -1;
+    for (int i = 0; i < size; i++) {
+      String[] row = rows.get(i);
+      locations[i] = String.join(",", row[0], row[1], row[2], row[3]);
+      zoneIndexes[i] = zones.indexOf(row[0]);
+      aisleIndexes[i] = zoneIndexes[i] * aisles + Integer.parseInt(row[1]);
+      aisleX[i] = 1 + zoneIndexes[i] * zoneWidth + Integer.parseInt(row[1]) * AISLE_SPACING;
+      rack[i] = Integer.parseInt(row[2]);
+    }
+
+    if (size <= maxOnHeapLocations) {
+      matrix = new int[stride * stride];
+      offHeapMatrix = null;
+    } else {
+      matrix = null;
+      offHeapMatrix = ByteBuffer.allocateDirect(stride * stride * 4)
+          .order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+    for (int from = 0; from < stride; from++) {
+      for (int to = 0; to < stride; to++) {
+        int distance = walk(aisleX[from], rack[from], aisleX[to], rack[to], racks);
+        if (matrix != null) {
+          matrix[from * stride + to] = distance;
+        } else {
+          offHeapMatrix.put(from * stride + to, distance);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return The walking distance between two racks, through the front or back cross aisle if they
+   *         are in different aisles. Rack -1 is on the front cross aisle.
+   */
+  private static int walk(int fromX, int fromRack, int toX, int toRack, int aisleLength) {
+    if (fromX == toX) {
+      return Math.abs(fromRack - toRack);
+    }
+    int viaFront = fromRack + toRack + 2;
+    int viaBack = (aisleLength - fromRack) + (aisleLength - toRack);
+    return Math.abs(fromX - toX) + Math.min(viaFront, viaBack);
+  }
+
+  /**
+   * @return The number of locations, not counting the marshalling area.
+   */
+  public int size() {
+    return locations.length;
+  }
+
+  /**
+   * @return The code of the marshalling area, where pickers start and finish their tours.
+   */
+  public int getDepot() {
+    return locations.length;
+  }
+
+  /**
+   * @return The code of <code>location</code>, given as <code>Zone,Aisle,Rack,Level</code>, or -1
+   *         if it is not in the traversal table.
+   */
+  public int getCode(String location) {
+    Integer code = codes.get(location);
+    return code == null ? -1 : code;
+  }
+
+  /**
+   * @return The code of the location of <code>sku</code>, or -1 if the SKU is not stocked on the
+   *         picking floor.
+   */
+  public int getCodeOfSku(String sku) {
+    Integer code = skuCodes.get(sku);
+    return code == null ? -1 : code;
+  }
+
+  /**
+   * @return The <code>Zone,Aisle,Rack,Level</code> location with the given code.
+   */
+  public String getLocation(int code) {
+    return locations[code];
+  }
+
+  /**
+   * @return The zone of the location with the given code.
+   */
+  public String getZone(int code) {
+    return zones.get(zoneIndexes[code]);
+  }
+
+  /**
+   * @return The zones of the picking floor, in the order they appear in the traversal table.
+   */
+  public List<String> getZones() {
+    return Collections.unmodifiableList(zones);
+  }
+
+  /**
+   * @return The aisle of the location with the given code, from 0 to
+   *         <code>getAisleCount() - 1</code>, or -1 for the marshalling area.
+   */
+  public int getAisle(int code) {
+    return code < 0 || code >= aisleIndexes.length ? -1 : aisleIndexes[code];
+  }
+
+  /**
+   * @return The number of aisles of the picking floor: every zone has as many aisles as the
+   *         widest one.
+   */
+  public int getAisleCount() {
+    return zones.size() * aislesPerZone;
+  }
+
+  /**
+   * @return The SKU stocked at the location with the given code.
+   */
+  public String getSku(int code) {
+    return skus[code];
+  }
+
+  /**
+   * @return The walking distance between the locations with codes <code>from</code> and
+   *         <code>to</code>.
+   */
+  public int distance(int from, int to) {
+    if (matrix != null) {
+      return matrix[from * stride + to];
+    }
+    return offHeapMatrix.get(from * stride + to);
+  }
+
+  /**
+   * @return <code>true</code> if the distance matrix is kept outside the heap.
+   */
+  boolean isOffHeap() {
+    return matrix == null;
+  }
+}
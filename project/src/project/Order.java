@@ -1,35 +1,75 @@
 package project;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * An order for a pair of front and rear fascia.
  */
 public class Order {
 
-  private static int nextId = 1;
   private int id = 0;
   String model;
   String colour;
 
+  /**
+   * The code of the colour and model in the <code>FasciaCatalog</code> of the simulation, or -1
+   * until the order is looked up.
+   */
+  int fascia = -1;
+
+  /** The time the order was queued at, in commands simulated. */
+  long queuedAt;
+
   /**
    * @param colour - The colour of the fascia specified in the order.
    * @param model - The minivan model of the fascia specified in the order.
    */
   public Order(String colour, String model) {
-    this.id = nextId;
-    nextId++;
+    this(colour, model, SimulationContext.getDefault());
+  }
+
+  /**
+   * @param colour - The colour of the fascia specified in the order.
+   * @param model - The minivan model of the fascia specified in the order.
+   * @param context - The simulation numbering this order.
+   */
+  public Order(String colour, String model, SimulationContext context) {
+    this.id = context.nextOrderId();
     this.model = model;
     this.colour = colour;
   }
   
+  /**
+   * Recreates an order that was already numbered, such as one restored from a snapshot.
+   */
+  Order(int id, String colour, String model) {
+    this.id = id;
+    this.model = model;
+    this.colour = colour;
+  }
+
   protected static void setNextId(int val) {
-    nextId = val;
+    SimulationContext.getDefault().setNextOrderId(val);
   }
   
   /**
    * @return String with format "Model,Colour" followed by a line separator.
    */
   public String toString() {
-    return String.format("Order #%d: %s, %s", getId(), colour, model);
+    return "Order #" + getId() + ": " + colour + ", " + model;
+  }
+
+  /**
+   * Writes the same text as <code>toString()</code> to <code>out</code>.
+   */
+  void writeTo(Writer out) throws IOException {
+    out.write("Order #");
+    out.write(Integer.toString(id));
+    out.write(": ");
+    out.write(colour);
+    out.write(", ");
+    out.write(model);
   }
 
   public int getId() {
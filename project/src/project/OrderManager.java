@@ -1,11 +1,13 @@
 package project;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Scanner;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,18 +15,60 @@ import org.slf4j.LoggerFactory;
 /**
  * Collects incoming orders for fascia and groups them into picking requests.
  *
+ *
+ * <p>Orders are queued until the queue holds <code>getOrderBatchSize()</code> orders of the
+ * simulation, and then grouped into one <code>PickingRequest</code>. Time is counted in commands
+ * simulated (<code>tick</code>): once the oldest queued order has waited
+ * <code>getOrderMaxWait()</code> commands, or when <code>flush</code> is called at the end of a
+ * simulation, the orders queued so far are grouped into a smaller request. The time each order
+ * waited for its request is added to the batching metrics.
+ *
+ *
+ * <p>Orders can also be submitted from other threads, such as several dealer feeds, with
+ * <code>submit</code>. Submitted orders go into a lock-free intake queue, in the order each thread
+ * submitted them, and are moved into the batches by the thread running the simulation, before the
+ * next command and at the end of the run. Only that thread groups orders and creates requests, so
+ * a batch is always made of consecutive intake orders and no order is lost or grouped twice.
+ *
+ *
+ * <p>With wave planning (<code>getWaveWindow()</code> larger than the batch size), orders are
+ * queued until the window is full, and each request then groups the oldest queued order with the
+ * orders of the window that keep its tour the shortest (<code>WavePlanner</code>); the maximum
+ * wait and the end of a run send waves until the orders left are young enough, or all are sent.
+ * The orders of a request stay in the order they were received, and requests join the loading
+ * order as they are created, so the truck is loaded in the order of the requests' oldest orders.
  */
 public class OrderManager {
 
-  /**
-   * The queue of orders to be packaged into the next <code>PickingRequest</code>.
-   *
-   *
-   * <p>The queue <code>orders</code> has a capacity of 3 <code>Order</code>s. When a fourth order
-   *  is offered to <code>orders</code>, the queue is emptied and packaged as a
-   * <code>PickingRequest</code> with the fourth <code>Order</code>
-   */
-  private ArrayBlockingQueue<Order> queuedOrders = new ArrayBlockingQueue<>(3);
+  /** The orders to be packaged into the next <code>PickingRequest</code>, oldest first. */
+  private ArrayDeque<Order> queuedOrders = new ArrayDeque<>();
+
+  /** The orders submitted from any thread and not queued yet, oldest first. */
+  private final ConcurrentLinkedQueue<Order> intake = new ConcurrentLinkedQueue<>();
+
+  /** The number of commands simulated so far, the clock orders wait by. */
+  private long clock;
+
+  /** The time the oldest queued order was queued at. */
+  private long oldestQueuedAt;
+
+  /** The sum of the times the queued orders were queued at. */
+  private long queuedAtSum;
+
+  /** The number of orders grouped into requests so far. */
+  private long batchedOrderCount;
+
+  /** The number of requests created before their batch was full. */
+  private long partialBatchCount;
+
+  /** The total time the grouped orders waited for their request, in commands. */
+  private long totalBatchWait;
+
+  /** The longest time an order waited for its request, in commands. */
+  private long maxBatchWait;
+
+  /** The planner of the waves, or <code>null</code> until it is first needed. */
+  private WavePlanner wavePlanner;
 
   /**
    * The <code>RequestManager</code> to which this <code>OrderManager</code> sends its
@@ -32,11 +76,11 @@ public class OrderManager {
    */
   private RequestManager requestManager;
 
-  /**
-   * A nested <code>HashMap</code> associating minivan colours and models to the corresponding SKUs
-   * of the front and rear fascia.
-   */
-  private HashMap<String, HashMap<String, String[]>> fasciaMap;
+  /** The colours and models the warehouse stocks fascia for, and their SKUs. */
+  private FasciaCatalog fasciaCatalog;
+
+  /** The simulation numbering and routing the <code>PickingRequest</code>s of this manager. */
+  private SimulationContext context;
 
   private static final Logger logger = LoggerFactory.getLogger(OrderManager.class);
 
@@ -49,119 +93,458 @@ public class OrderManager {
    *         directory.
    */
   public OrderManager(String translationTable, RequestManager man) throws FileNotFoundException {
+    this(translationTable, man, SimulationContext.getDefault());
+  }
+
+  /**
+   * @param translationTable - <code>String</code> file path to the flat file associating minivan
+   *        colours and models to fascia SKUs.
+   * @param man - This <code>OrderManager</code> will send <code>PickingRequests</code> to this
+   *        <code>RequestManager</code>
+   * @param context - The simulation numbering and routing the new <code>PickingRequest</code>s.
+   * @throws FileNotFoundException if <code>translationTable</code> does not exist.
+   */
+  public OrderManager(String translationTable, RequestManager man, SimulationContext context)
+      throws FileNotFoundException {
+    this.context = context;
     this.requestManager = man;
-    this.fasciaMap = new HashMap<String, HashMap<String, String[]>>(80);
-    populateFasciaMap(translationTable);
+    try {
+      this.fasciaCatalog = new FasciaCatalog(translationTable);
+    } catch (FileNotFoundException e) {
+      logger.error("The file '{}' was not found in the working directory.", translationTable, e);
+      throw e;
+    }
   }
 
   /**
-   * Reads the provided translation table to assign key-value pairs to
-   * <code>OrderManager.fasciaMap</code>.
+   * Adds an <code>Order</code> to the order queue. Once the queue holds a full batch, empties the
+   * queue into a new <code>PickingRequest</code>.
    *
+   * @param order - The order to be added to the orderQueue.
+   */
+  public void enqueue(Order order) {
+    logger.info("New order queued for processing: {}", order);
+    ArrayList<Order> orderGroup = queue(order);
+    if (orderGroup != null) {
+      sendBatch(orderGroup);
+    }
+  }
+
+  /**
+   * Adds an <code>Order</code> to the order queue.
    *
-   * <p>Precondition: the provided CSV file contains one header line, followed by one string of
-   * the format <code>Colour,Model,FrontSKU,RearSKU</code> on each subsequent line.
+   * @return The orders of the next request if the queue holds a full batch, or a full window with
+   *         wave planning, or <code>null</code>.
+   */
+  private ArrayList<Order> queue(Order order) {
+    if (queuedOrders.isEmpty()) {
+      oldestQueuedAt = clock;
+    }
+    order.queuedAt = clock;
+    queuedOrders.add(order);
+    queuedAtSum += clock;
+
+    int batchSize = context.getOrderBatchSize();
+    WavePlanner planner = getWavePlanner();
+    if (planner == null) {
+      return queuedOrders.size() >= batchSize ? takeBatch() : null;
+    }
+    planner.arrived(skusOf(order), clock, batchSize);
+    return queuedOrders.size() >= context.getWaveWindow() ? takeWave(planner) : null;
+  }
+
+  /**
+   * Adds an <code>Order</code> to the intake queue, to be queued by the thread running the
+   * simulation. Can be called from any thread, and never blocks.
    *
-   * @param translationTable - The CSV file containing the fascia data in the specified format
+   * @param order - The order to be added to the intake queue.
    */
-  private void populateFasciaMap(String translationTable) throws FileNotFoundException {
-    try {
-      HashMap<String, HashMap<String, String[]>> outerMap = fasciaMap;
-      Scanner scanner = new Scanner(new FileInputStream(translationTable));
-      scanner.nextLine(); // skip the first line in the file
-
-      while (scanner.hasNextLine()) {
-        String rawLine = scanner.nextLine();
-        String[] splitLine = rawLine.split(",");
-        
-        String colour = splitLine[0];
-        String model = splitLine[1];
-        String frontSku = splitLine[2];
-        String rearSku = splitLine[3];
-        String[] skuArray = {frontSku, rearSku};
-
-        if ((outerMap).containsKey(colour)) {
-          HashMap<String, String[]> existingInnerMap = outerMap.get(colour);
-          existingInnerMap.put(model, skuArray);
-        } else {
-          HashMap<String, String[]> newInnerMap = new HashMap<>(8);
-          newInnerMap.put(model, skuArray);
-          fasciaMap.put(colour, newInnerMap);
+  public void submit(Order order) {
+    intake.offer(order);
+  }
+
+  /**
+   * Queues the orders submitted so far, oldest first, sending a request for every full batch.
+   */
+  void drainIntake() {
+    Order order;
+    while ((order = intake.poll()) != null) {
+      enqueue(order);
+    }
+  }
+
+  /**
+   * Advances the clock by one command, queues the submitted orders, and sends the queued orders for
+   * picking if the oldest one has waited as long as the simulation allows.
+   */
+  void tick() {
+    clock++;
+    drainIntake();
+    long maxWait = context.getOrderMaxWait();
+    WavePlanner planner = getWavePlanner();
+    if (planner != null) {
+      planner.tick(clock, maxWait);
+    }
+    if (maxWait > 0 && !queuedOrders.isEmpty() && clock - oldestQueuedAt >= maxWait) {
+      if (planner == null) {
+        logger.info("Orders waited {} commands for a full batch; sending the {} queued so far",
+            clock - oldestQueuedAt, queuedOrders.size());
+        sendBatch(takeBatch());
+        return;
+      }
+      logger.info("Orders waited {} commands for a full window; sending waves of the {} queued"
+          + " so far", clock - oldestQueuedAt, queuedOrders.size());
+      while (!queuedOrders.isEmpty() && clock - oldestQueuedAt >= maxWait) {
+        sendBatch(takeWave(planner));
+      }
+    }
+  }
+
+  /**
+   * Queues the submitted orders, then sends the queued orders for picking, in a request smaller
+   * than a full batch. Does nothing if no order is queued.
+   */
+  public void flush() {
+    drainIntake();
+    WavePlanner planner = getWavePlanner();
+    if (!queuedOrders.isEmpty()) {
+      logger.info("Sending the {} queued orders without waiting for a full batch",
+          queuedOrders.size());
+      if (planner == null) {
+        sendBatch(takeBatch());
+      } else {
+        while (!queuedOrders.isEmpty()) {
+          sendBatch(takeWave(planner));
         }
       }
-      scanner.close();
-    } catch (FileNotFoundException e) { 
-      logger.error(String.format("The file '%s' was not found in the working directory.",
-                               translationTable), e);
-      throw e;
+    }
+    if (planner != null) {
+      planner.flush(clock);
+      if (logger.isInfoEnabled()) {
+        logger.info("Wave planning: {} waves walked {} instead of {} grouped by arrival ({}"
+            + " saved); orders waited {} more commands on average", planner.getWaveCount(),
+            planner.getWaveLength(), planner.getBaselineLength(), planner.getDistanceSaved(),
+            String.format("%.2f", getWaveExtraWait()));
+      }
     }
   }
 
   /**
-   * Adds an <code>Order</code> to the order queue. If the queue is full, empties the elements from
-   * the queue into a new <code>PickingRequest</code> along with <code>order</code>.
+   * Adds many <code>Order</code>s to the order queue at once, such as a file of orders from a dealer
+   * feed. The orders are grouped as if they were enqueued one by one, but the new
+   * <code>PickingRequest</code>s are created in one pass, routed in parallel, and handed to the
+   * <code>RequestManager</code> together, and only a summary is logged.
    *
-   * @param order - The order to be added to the orderQueue.
+   * @param orders - The orders to be added to the orderQueue, in the order they were received.
    */
-  public void enqueue(Order order) {
-    logger.info(String.format("New order queued for processing: %s", order.toString()));
-    boolean orderAdded = queuedOrders.offer(order);
+  public void enqueueAll(Collection<Order> orders) {
+    int batchSize = context.getOrderBatchSize();
+    ArrayList<ArrayList<Order>> orderGroups = new ArrayList<>(orders.size() / batchSize + 1);
+    for (Order order : orders) {
+      ArrayList<Order> orderGroup = queue(order);
+      if (orderGroup != null) {
+        orderGroups.add(orderGroup);
+      }
+    }
+    ArrayList<PickingRequest> requests = createRequests(orderGroups);
+    logger.info("{} orders queued in bulk: {} PickingRequests created, {} orders left queued",
+        orders.size(), requests.size(), queuedOrders.size());
+    requestManager.addRequests(requests);
+  }
 
-    if (!orderAdded) {
-      // create array of queuedOrders and order
-      ArrayList<Order> orderGroup = new ArrayList<>(queuedOrders);
-      orderGroup.add(order);
+  /**
+   * Groups orders into a new <code>PickingRequest</code> and sends it to the
+   * <code>RequestManager</code>.
+   *
+   * @param orderGroup - The orders of the request, in the order they were received.
+   */
+  private void sendBatch(ArrayList<Order> orderGroup) {
+    // create PickingRequest from the array
+    ArrayList<String> loadingOrder = generateLoadingOrder(orderGroup);
+    PickingRequest newRequest;
+    try {
+      newRequest = new PickingRequest(orderGroup, loadingOrder, context);
+    } catch (FileNotFoundException e) {
+      logger.error("The traversal table '{}' was not found.", context.getTraversalTable(), e);
+      return;
+    }
+    if (logger.isInfoEnabled()) {
+      logger.info("PickingRequest {} created (Orders {})", newRequest.getId(),
+          newRequest.getOrderString());
+    }
 
-      // create PickingRequest from the array
-      ArrayList<String> loadingOrder = generateLoadingOrder(orderGroup);
-      PickingRequest newRequest = new PickingRequest(orderGroup, loadingOrder);
-      logger.info(String.format("PickingRequest %d created (Orders %s)",
-                                            newRequest.getId(), newRequest.getOrderString()));
+    // add the new PickingRequest to the queue system
+    requestManager.addRequest(newRequest);
+  }
 
-      // add the new PickingRequest to the queue system and clear the queuedOrders
-      requestManager.addRequest(newRequest);
-      queuedOrders.clear();
+  /**
+   * Empties the queued orders into a new group, counting them in the batching metrics.
+   *
+   * @return The orders queued, oldest first.
+   */
+  private ArrayList<Order> takeBatch() {
+    ArrayList<Order> orderGroup = new ArrayList<>(queuedOrders);
+    int size = orderGroup.size();
+    if (size < context.getOrderBatchSize()) {
+      partialBatchCount++;
     }
+    batchedOrderCount += size;
+    totalBatchWait += size * clock - queuedAtSum;
+    maxBatchWait = Math.max(maxBatchWait, clock - oldestQueuedAt);
+    queuedOrders.clear();
+    queuedAtSum = 0;
+    return orderGroup;
   }
 
   /**
-   * @param orderGroup - The four <code>Order</code>s to be loaded in the order they were received.
-   * @return The SKUs of all fascia to be loaded, in the order they must be loaded.
+   * Takes the orders of the next wave off the queue: the oldest queued order and the orders of the
+   * window that make its tour the shortest, counting them in the batching metrics. If the queue
+   * holds no more than a batch, takes all of it.
+   *
+   * @return The orders of the wave, in the order they were received.
    */
-  ArrayList<String> generateLoadingOrder(ArrayList<Order> orderGroup) {
-    ArrayList<String> frontFascia = new ArrayList<>();
-    ArrayList<String> rearFascia = new ArrayList<>();
+  private ArrayList<Order> takeWave(WavePlanner planner) {
+    int batchSize = context.getOrderBatchSize();
+    if (queuedOrders.size() <= batchSize) {
+      return takeBatch();
+    }
+    int windowSize = Math.min(queuedOrders.size(), context.getWaveWindow());
+    ArrayList<Order> window = new ArrayList<>(windowSize);
+    ArrayList<List<String>> windowSkus = new ArrayList<>(windowSize);
+    for (Order order : queuedOrders) {
+      if (window.size() == windowSize) {
+        break;
+      }
+      window.add(order);
+      windowSkus.add(skusOf(order));
+    }
+
+    ArrayList<Order> orderGroup = new ArrayList<>(batchSize);
+    for (int index : planner.plan(windowSkus, batchSize)) {
+      orderGroup.add(window.get(index));
+    }
+    queuedOrders.removeAll(orderGroup);
     for (Order order : orderGroup) {
-      String colour = order.colour;
-      String model = order.model;
-      String[] skuArray = fasciaMap.get(colour).get(model);
-      frontFascia.add(skuArray[0]);
-      rearFascia.add(skuArray[1]);
+      totalBatchWait += clock - order.queuedAt;
+      maxBatchWait = Math.max(maxBatchWait, clock - order.queuedAt);
+      queuedAtSum -= order.queuedAt;
+    }
+    batchedOrderCount += orderGroup.size();
+    oldestQueuedAt = queuedOrders.isEmpty() ? clock : queuedOrders.peek().queuedAt;
+    return orderGroup;
+  }
+
+  /**
+   * @return The SKUs of the rear and front fascia of <code>order</code>.
+   */
+  private List<String> skusOf(Order order) {
+    if (order.fascia < 0) {
+      order.fascia = fasciaCatalog.getCode(order.colour, order.model);
+    }
+    return Arrays.asList(fasciaCatalog.getRearSku(order.fascia),
+        fasciaCatalog.getFrontSku(order.fascia));
+  }
+
+  /**
+   * @return The planner of the waves, created the first time it is needed, or <code>null</code> if
+   *         orders are grouped by arrival.
+   */
+  WavePlanner getWavePlanner() {
+    if (context.getWaveWindow() <= context.getOrderBatchSize()) {
+      return null;
     }
+    if (wavePlanner == null) {
+      try {
+        wavePlanner = new WavePlanner(context.getLocationCatalog());
+      } catch (FileNotFoundException e) {
+        logger.error("The traversal table '{}' was not found.", context.getTraversalTable(), e);
+        return null;
+      }
+    }
+    return wavePlanner;
+  }
+
+  /**
+   * Creates one <code>PickingRequest</code> per group of orders, numbered in the order of the
+   * groups. Without routing threads in the simulation, the requests are routed in parallel here.
+   *
+   * @return The new requests, or none if the traversal table was not found.
+   */
+  private ArrayList<PickingRequest> createRequests(ArrayList<ArrayList<Order>> orderGroups) {
+    ArrayList<PickingRequest> requests = new ArrayList<>(orderGroups.size());
+    List<ArrayList<String>> loadingOrders = new ArrayList<>(orderGroups.size());
+    for (ArrayList<Order> orderGroup : orderGroups) {
+      loadingOrders.add(generateLoadingOrder(orderGroup));
+    }
+    try {
+      if (context.getRoutingPool() != null) {
+        // the routing threads route the requests in the background
+        for (int i = 0; i < orderGroups.size(); i++) {
+          requests.add(new PickingRequest(orderGroups.get(i), loadingOrders.get(i), context));
+        }
+        return requests;
+      }
+      PickRouter router = context.getPickRouter();
+      List<ArrayList<String>> pickingOrders =
+          loadingOrders.parallelStream().map(router::route).collect(Collectors.toList());
+      for (int i = 0; i < orderGroups.size(); i++) {
+        requests.add(new PickingRequest(context.nextRequestId(), orderGroups.get(i),
+            loadingOrders.get(i), pickingOrders.get(i), new ArrayList<String>()));
+      }
+    } catch (FileNotFoundException e) {
+      logger.error("The traversal table '{}' was not found.", context.getTraversalTable(), e);
+    }
+    return requests;
+  }
 
+  /**
+   * Translates orders into fascia SKUs. Each order is looked up in the catalog once, and its code
+   * kept on the order for later translations.
+   *
+   * @param orderGroup - The <code>Order</code>s to be loaded in the order they were received.
+   * @return The SKUs of all fascia to be loaded, in the order they must be loaded.
+   */
+  ArrayList<String> generateLoadingOrder(ArrayList<Order> orderGroup) {
+    ArrayList<String> loadingOrder = new ArrayList<>(2 * orderGroup.size());
     // Proper loading order: (truck front) --> [R1, R2, R3, R4] [F1, F2, F3, F4] <-- (truck rear)
-    rearFascia.addAll(frontFascia);
-    return rearFascia;
+    for (Order order : orderGroup) {
+      if (order.fascia < 0) {
+        order.fascia = fasciaCatalog.getCode(order.colour, order.model);
+      }
+      loadingOrder.add(fasciaCatalog.getRearSku(order.fascia));
+    }
+    for (Order order : orderGroup) {
+      loadingOrder.add(fasciaCatalog.getFrontSku(order.fascia));
+    }
+    return loadingOrder;
   }
 
   /**
    * @return true if the warehouse stocks fascia corresponding to the given colour and model.
    */
   boolean validOrder(String color, String model) {
-    if (fasciaMap.containsKey(color)) {
-      if (fasciaMap.get(color).containsKey(model)) {
-        return true;
-      }
-    }
-    return false;
+    return fasciaCatalog.getCode(color, model) >= 0;
   }
 
-  public ArrayBlockingQueue<Order> getQueuedOrders() {
+  /**
+   * @return The colours and models the warehouse stocks fascia for, and their SKUs.
+   */
+  FasciaCatalog getFasciaCatalog() {
+    return fasciaCatalog;
+  }
+
+  public ArrayDeque<Order> getQueuedOrders() {
     return queuedOrders;
   }
 
+  /**
+   * @return The orders submitted and not queued yet, oldest first.
+   */
+  ConcurrentLinkedQueue<Order> getIntake() {
+    return intake;
+  }
+
   protected void clearQueuedOrders() {
     queuedOrders.clear();
+    queuedAtSum = 0;
+  }
+
+  /**
+   * @return The number of commands simulated so far.
+   */
+  long getClock() {
+    return clock;
+  }
+
+  /**
+   * @return The time the oldest queued order was queued at.
+   */
+  long getOldestQueuedAt() {
+    return oldestQueuedAt;
+  }
+
+  /**
+   * @return The sum of the times the queued orders were queued at.
+   */
+  long getQueuedAtSum() {
+    return queuedAtSum;
+  }
+
+  /**
+   * Sets the clock and the times the queued orders were queued at, such as when restoring a
+   * snapshot.
+   */
+  void restoreClock(long clock, long oldestQueuedAt, long queuedAtSum) {
+    this.clock = clock;
+    this.oldestQueuedAt = oldestQueuedAt;
+    this.queuedAtSum = queuedAtSum;
+  }
+
+  /**
+   * Sets the batching metrics, such as when restoring a snapshot.
+   */
+  void restoreBatchMetrics(long batchedOrderCount, long partialBatchCount, long totalBatchWait,
+      long maxBatchWait) {
+    this.batchedOrderCount = batchedOrderCount;
+    this.partialBatchCount = partialBatchCount;
+    this.totalBatchWait = totalBatchWait;
+    this.maxBatchWait = maxBatchWait;
+  }
+
+  /**
+   * @return The number of orders grouped into picking requests so far.
+   */
+  public long getBatchedOrderCount() {
+    return batchedOrderCount;
+  }
+
+  /**
+   * @return The number of picking requests created with fewer orders than a full batch.
+   */
+  public long getPartialBatchCount() {
+    return partialBatchCount;
+  }
+
+  /**
+   * @return The total number of commands the grouped orders waited for their picking request.
+   */
+  public long getTotalBatchWait() {
+    return totalBatchWait;
+  }
+
+  /**
+   * @return The most commands an order waited for its picking request.
+   */
+  public long getMaxBatchWait() {
+    return maxBatchWait;
+  }
+
+  /**
+   * @return The mean number of commands an order waited for its picking request, or 0 if no order
+   *         was grouped yet.
+   */
+  public double getMeanBatchWait() {
+    return batchedOrderCount == 0 ? 0 : (double) totalBatchWait / batchedOrderCount;
+  }
+
+  /**
+   * @return The distance saved by wave planning over grouping the same orders by arrival, or 0 if
+   *         it is off. Only comparable once the queue was flushed.
+   */
+  public long getWaveDistanceSaved() {
+    return wavePlanner == null ? 0 : wavePlanner.getDistanceSaved();
+  }
+
+  /**
+   * @return The mean number of commands wave planning made an order wait, more than if the same
+   *         orders were grouped by arrival, or 0 if it is off. Only comparable once the queue was
+   *         flushed.
+   */
+  public double getWaveExtraWait() {
+    if (wavePlanner == null || batchedOrderCount == 0) {
+      return 0;
+    }
+    return (double) (totalBatchWait - wavePlanner.getBaselineWait()) / batchedOrderCount;
   }
 
 }
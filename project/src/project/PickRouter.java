@@ -0,0 +1,18 @@
+package project;
+
+import java.util.ArrayList;
+
+/**
+ * Decides the order in which a picker collects the fascia of a picking request.
+ */
+public interface PickRouter {
+
+  /**
+   * Arranges SKUs in the order they should be picked. Repeated SKUs are kept next to each other
+   * and SKUs missing from the picking floor are dropped.
+   *
+   * @param skus - The SKUs of the fascia to be picked.
+   * @return A new list holding the stocked SKUs of <code>skus</code> in picking order.
+   */
+  ArrayList<String> route(ArrayList<String> skus);
+}
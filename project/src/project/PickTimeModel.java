@@ -0,0 +1,59 @@
+package project;
+
+/**
+ * A simple model of the time a picker spends on the picking floor, turning walking distances and
+ * pick counts into picks per hour.
+ *
+ *
+ * <p>A trip costs a fixed time to set up at Marshaling, the walk at a constant speed, a fixed time
+ * per fascia picked, and a fixed time per tote dropped off (one tote per request). Distances are
+ * in the units of the <code>LocationCatalog</code>, one rack apart.
+ */
+public class PickTimeModel {
+
+  /** Seconds to walk one distance unit. */
+  private final double secondsPerUnit;
+  /** Seconds to take one fascia off the rack and scan it. */
+  private final double secondsPerPick;
+  /** Seconds to start a trip at Marshaling. */
+  private final double secondsPerTrip;
+  /** Seconds to drop off the tote of one request at Marshaling. */
+  private final double secondsPerTote;
+
+  /**
+   * The default model: 1.2 s per rack walked, 8 s per pick, 30 s per trip and 10 s per tote.
+   */
+  public PickTimeModel() {
+    this(1.2, 8, 30, 10);
+  }
+
+  /**
+   * @param secondsPerUnit - Seconds to walk one distance unit.
+   * @param secondsPerPick - Seconds to pick one fascia.
+   * @param secondsPerTrip - Seconds to start a trip.
+   * @param secondsPerTote - Seconds to drop off the tote of one request.
+   */
+  public PickTimeModel(double secondsPerUnit, double secondsPerPick, double secondsPerTrip,
+      double secondsPerTote) {
+    this.secondsPerUnit = secondsPerUnit;
+    this.secondsPerPick = secondsPerPick;
+    this.secondsPerTrip = secondsPerTrip;
+    this.secondsPerTote = secondsPerTote;
+  }
+
+  /**
+   * @return The seconds spent walking <code>distance</code>, picking <code>picks</code> fascia,
+   *         making <code>trips</code> trips and dropping off <code>totes</code> totes.
+   */
+  public double seconds(long distance, long picks, long trips, long totes) {
+    return distance * secondsPerUnit + picks * secondsPerPick + trips * secondsPerTrip
+        + totes * secondsPerTote;
+  }
+
+  /**
+   * @return The fascia picked per hour of work, as in <code>seconds</code>.
+   */
+  public double picksPerHour(long distance, long picks, long trips, long totes) {
+    return picks * 3600 / seconds(distance, picks, trips, totes);
+  }
+}
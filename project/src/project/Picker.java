@@ -1,13 +1,22 @@
 package project;
 
+import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 public class Picker extends Worker {
-  /** The 8 fascias that are in the arrangement that gives optimized picking. */
-  private ArrayList<String> optPath;
+  /** The fascias that are in the arrangement that gives optimized picking. */
+  protected ArrayList<String> optPath;
 
   private Boolean donePicking;
 
+  /** The code of the location the picker is at, or -1 at the marshalling area. */
+  private int position = -1;
+
+  /** The distance walked since the start of the shift, from the <code>LocationCatalog</code>. */
+  private long walkedDistance;
+
   /**
    * Instantiates a Picker Workers.
    */
@@ -20,6 +29,87 @@ public class Picker extends Worker {
   @Override
   protected void process() {
     optPath = currReq.getPickingOrder();
+    trackRoute();
+  }
+
+  @Override
+  protected void requestTask() {
+    super.requestTask();
+    if (currReq != null) {
+      resequence();
+    }
+  }
+
+  /**
+   * @return The expected occupancy of the aisles, or <code>null</code> if congestion-aware
+   *         routing is off.
+   */
+  protected AisleCongestion getCongestion() {
+    try {
+      return rm.getContext().getAisleCongestion();
+    } catch (FileNotFoundException e) {
+      logMissingTraversalTable(e);
+      return null;
+    }
+  }
+
+  /**
+   * @return The congestion penalty of walking from the picker's position to each location code,
+   *         or <code>null</code> if congestion-aware routing is off.
+   */
+  protected IntUnaryOperator congestionCost() {
+    AisleCongestion congestion = getCongestion();
+    if (congestion == null) {
+      return null;
+    }
+    return code -> congestion.penalty(this, position, code);
+  }
+
+  /**
+   * With congestion-aware routing, records that this picker is expected in the aisles of the
+   * fascia of <code>optPath</code> it has not picked yet.
+   */
+  protected void trackRoute() {
+    AisleCongestion congestion = getCongestion();
+    if (congestion != null) {
+      congestion.addRoute(this, optPath.subList(Math.min(currIndex, optPath.size()),
+          optPath.size()));
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the fascia of <code>optPath</code> not picked yet may be picked
+   *         in another order.
+   */
+  protected boolean canResequence() {
+    return true;
+  }
+
+  /**
+   * With congestion-aware routing, puts the fascia of <code>optPath</code> not picked yet, in
+   * place, in the order that keeps this picker away from the aisles the other pickers are
+   * expected in, and records the new route.
+   */
+  protected void resequence() {
+    AisleCongestion congestion = getCongestion();
+    if (congestion == null || !canResequence() || currIndex >= optPath.size()) {
+      return;
+    }
+    congestion.removeRoute(this);
+    List<String> rest = optPath.subList(currIndex, optPath.size());
+    ArrayList<String> route = congestion.route(this, rest, position);
+    rest.clear();
+    rest.addAll(route);
+    congestion.addRoute(this, rest);
+  }
+
+  @Override
+  protected void finishTask() {
+    AisleCongestion congestion = getCongestion();
+    if (congestion != null) {
+      congestion.removeRoute(this);
+    }
+    super.finishTask();
   }
 
   /**
@@ -37,21 +127,33 @@ public class Picker extends Worker {
 
       logScan(sku);
       if (optPath.contains(sku) && optPath.get(currIndex).equals(sku)) { // java uses smart compare
-        currReq.updateFasciaState(sku);
+        requestOf(currIndex).updateFasciaState(sku);
 
-        im.decrement(sku);
-        logSys(String.format("Fascia with SKU #%s is picked at %s", sku, im.getLocation(sku)));
+        String location = locationToPick(sku);
+        im.decrement(sku, location);
+        int code = im.getCatalog().getCode(location);
+        if (code >= 0) {
+          walkTo(code);
+        }
+        logSys("Fascia with SKU #{} is picked at {}", sku, location);
 
         currIndex++;
 
         checkDonePicking();
+        AisleCongestion congestion = getCongestion();
+        if (congestion != null) {
+          congestion.advance(this);
+          if (!donePicking) {
+            resequence();
+          }
+        }
       } else {
         logError("This fascia is different from what the system told me to pick");
-        logSys("Please get fascia with sku #" + optPath.get(0));
+        logSys("Please get fascia with sku #{}", optPath.get(0));
       }
 
     } else { // if done picking
-      logError("Already done picking 8 fascias");
+      logError("Already done picking {} fascias", fasciaToPick());
     }
 
   }
@@ -63,12 +165,14 @@ public class Picker extends Worker {
 
     } else if (donePicking) { // Picker going to sequencing and dropping off picked fascia
       logRequesting("Sequencing");
+      walkTo(-1);
       rm.sendToSequencing(currReq);
       finishTask();
       optPath = null;
       donePicking = false;
     } else {
-      logError("I haven't finished picking 8 fasicas yet, so I shouldn't go to Marshaling area");
+      logError("I haven't finished picking {} fascias yet, so I shouldn't go to Marshaling area",
+          fasciaToPick());
     }
   }
 
@@ -77,8 +181,75 @@ public class Picker extends Worker {
     return rm.getPickingRequest();
   }
 
+  /**
+   * Chooses where to pick the fascia at <code>currIndex</code>: the location of <code>sku</code>
+   * with fascia left that is closest to the way from the picker's position to the next fascia of
+   * the picking order, or to the marshalling area after the last one.
+   *
+   * @param sku - the sku of the fascia that the picker is picking right now
+   */
+  protected String locationToPick(String sku) {
+    return im.locationToPick(sku, position, nextCode(), null, congestionCost());
+  }
+
+  /**
+   * @return The code of the location of the fascia after the one at <code>currIndex</code>, or -1
+   *         if it is the last fascia to pick.
+   */
+  protected int nextCode() {
+    if (currIndex + 1 >= Math.min(fasciaToPick(), optPath.size())) {
+      return -1;
+    }
+    return im.getCatalog().getCodeOfSku(optPath.get(currIndex + 1));
+  }
+
+  /**
+   * Adds the walk from the picker's position to the location with the given code, or to the
+   * marshalling area for -1, to the distance walked.
+   */
+  protected void walkTo(int code) {
+    LocationCatalog catalog = im.getCatalog();
+    int from = position < 0 ? catalog.getDepot() : position;
+    int to = code < 0 ? catalog.getDepot() : code;
+    walkedDistance += catalog.distance(from, to);
+    position = code;
+  }
+
+  /**
+   * @return The distance this picker walked since the start of the shift.
+   */
+  public long getWalkedDistance() {
+    return walkedDistance;
+  }
+
+  void setWalkedDistance(long walkedDistance) {
+    this.walkedDistance = walkedDistance;
+  }
+
+  int getPosition() {
+    return position;
+  }
+
+  void setPosition(int position) {
+    this.position = position;
+  }
+
+  /**
+   * @return The request the fascia at position <code>index</code> of the picking order is for.
+   */
+  protected PickingRequest requestOf(int index) {
+    return currReq;
+  }
+
+  /**
+   * @return The number of fascia to pick before going to Marshaling.
+   */
+  protected int fasciaToPick() {
+    return currReq.getFasciaCount();
+  }
+
   private Boolean checkDonePicking() {
-    if (currIndex.equals(8)) {
+    if (currIndex.equals(fasciaToPick())) {
       donePicking = true;
       return true;
     }
@@ -88,4 +259,12 @@ public class Picker extends Worker {
   protected ArrayList<String> getPickingOrder() {
     return optPath;
   }
+
+  Boolean getDonePicking() {
+    return donePicking;
+  }
+
+  void setDonePicking(Boolean donePicking) {
+    this.donePicking = donePicking;
+  }
 }
@@ -1,21 +1,27 @@
 package project;
 
+import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class PickingRequest implements Comparable<PickingRequest> {
 
-  private static int nextId = 1;
   private int id;
 
-  /** The 8 orders grouped by this request. */
+  /** The orders grouped by this request. */
   private ArrayList<Order> orderGroup;
 
-  /** The SKU numbers of the 8 fascia contained in this request in proper loading order. */
+  /** The SKU numbers of the fascia contained in this request in proper loading order. */
   private ArrayList<String> loadingOrder;
 
-  /** The locations of the 8 fascia in this PickingRequest in the most efficient picking order. */
+  /** The locations of the fascia in this PickingRequest in the most efficient picking order. */
   private ArrayList<String> pickingOrder;
 
+  /** The picking order being computed in the background, or <code>null</code> once known. */
+  private Future<ArrayList<String>> pendingPickingOrder;
+
   /** The state of the fascia in the current order. */
   private ArrayList<String> fasciaState;
 
@@ -29,17 +35,62 @@ public class PickingRequest implements Comparable<PickingRequest> {
     this.orderGroup = orderGroup;
     this.loadingOrder = loadingOrder;
     this.pickingOrder = WarehousePicking.optimize(loadingOrder);
-    this.id = nextId;
-    nextId++;
+    this.id = SimulationContext.getDefault().nextRequestId();
     this.fasciaState = new ArrayList<String>();
     // status();
   }
+
+  /**
+   * Initialize a PickingRequest numbered and routed by the given simulation. The picking order
+   * comes from the <code>PickRouter</code> chosen by <code>context</code>, and is computed in the
+   * background if <code>context</code> has routing threads.
+   * 
+   * @param orderGroup ArrayList containing a group of orders.
+   * @param loadingOrder ArrayList containing the SKUs of the orders in loading order.
+   * @param context the simulation this request belongs to.
+   * @throws FileNotFoundException if the traversal table of <code>context</code> does not exist.
+   */
+  public PickingRequest(ArrayList<Order> orderGroup, ArrayList<String> loadingOrder,
+      SimulationContext context) throws FileNotFoundException {
+    this.orderGroup = orderGroup;
+    this.loadingOrder = loadingOrder;
+    final PickRouter router = context.getPickRouter();
+    ExecutorService routingPool = context.getRoutingPool();
+    if (routingPool == null) {
+      this.pickingOrder = router.route(loadingOrder);
+    } else {
+      this.pendingPickingOrder = routingPool.submit(() -> router.route(loadingOrder));
+    }
+    this.id = context.nextRequestId();
+    this.fasciaState = new ArrayList<String>();
+  }
   
+  /**
+   * Recreates a request that was already numbered and routed, such as one restored from a
+   * snapshot.
+   */
+  PickingRequest(int id, ArrayList<Order> orderGroup, ArrayList<String> loadingOrder,
+      ArrayList<String> pickingOrder, ArrayList<String> fasciaState) {
+    this.id = id;
+    this.orderGroup = orderGroup;
+    this.loadingOrder = loadingOrder;
+    this.pickingOrder = pickingOrder;
+    this.fasciaState = fasciaState;
+  }
+
   public PickingRequest(int id) {
     this.id = id;
     this.fasciaState = new ArrayList<String>();
   }
 
+  /**
+   * @return The number of fascia of this request: two per order, or the length of the picking
+   *         order if the loading order is unknown.
+   */
+  int getFasciaCount() {
+    return loadingOrder != null ? loadingOrder.size() : getPickingOrder().size();
+  }
+
   void updateFasciaState(String sku) {
     this.fasciaState.add(sku);
   }
@@ -60,10 +111,41 @@ public class PickingRequest implements Comparable<PickingRequest> {
     return this.loadingOrder;
   }
 
+  /**
+   * @return The picking order, waiting for it if it is still being computed in the background.
+   */
   ArrayList<String> getPickingOrder() {
+    if (pendingPickingOrder != null) {
+      boolean interrupted = false;
+      try {
+        while (pickingOrder == null) {
+          try {
+            pickingOrder = pendingPickingOrder.get();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("PickingRequest #" + id + " could not be routed",
+            e.getCause());
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      pendingPickingOrder = null;
+    }
     return this.pickingOrder;
   }
 
+  /**
+   * @return <code>true</code> if the picking order is known, so a picker taking this request does
+   *         not have to wait for it.
+   */
+  boolean isRouted() {
+    return pendingPickingOrder == null || pendingPickingOrder.isDone();
+  }
+
   ArrayList<Order> getOrders() {
     return this.orderGroup;
   }
@@ -24,7 +24,7 @@ public class Replenisher extends Worker {
     if (currentTask != null) {
       replenisherReq = currentTask;
       isAvail = false;
-      logAssignedTask("Replenishing fascias at location: " + currentTask);
+      logAssignedTask("Replenishing fascias at location: ", currentTask);
       process();
     } else {
       rm.queueWorker(this);
@@ -42,7 +42,7 @@ public class Replenisher extends Worker {
       System.out.println("no task");
     } else {
       if (!im.replenish(replenisherReq)) {
-        logSys("Location " + replenisherReq + " has enough fascias (5+); no need to replenish");
+        logSys("Location {} has enough fascias (5+); no need to replenish", replenisherReq);
       }
       sendNextRequest(); // this is really just a call to finishTask();
     }
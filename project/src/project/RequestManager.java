@@ -3,9 +3,11 @@ package project;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.AbstractCollection;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.PriorityQueue;
 
 import org.slf4j.Logger;
@@ -18,7 +20,15 @@ public class RequestManager {
   private ArrayDeque<String> replenishQueue = new ArrayDeque<>();
   private PriorityQueue<PickingRequest> loadingQueue = new PriorityQueue<>();
   private WorkerManager wm;
+  private SimulationContext context;
+
+  /** Splits requests between the zones of the picking floor, or <code>null</code>. */
+  private ZoneDispatcher zoneDispatcher;
   private static final Logger logger = LoggerFactory.getLogger(RequestManager.class);
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** The completed orders file, open for appending since the first completed request, or null. */
+  private Writer completedOrders;
 
   /**
    * Creates a new RequestManager using the provided WorkerManager.
@@ -26,7 +36,40 @@ public class RequestManager {
    * @param wm - The WorkerManager to handle Worker queues.
    */
   public RequestManager(WorkerManager wm) {
+    this(wm, SimulationContext.getDefault());
+  }
+
+  /**
+   * Creates a new RequestManager for the given simulation.
+   * 
+   * @param wm - The WorkerManager to handle Worker queues.
+   * @param context - The simulation whose completed orders file this manager writes to.
+   */
+  public RequestManager(WorkerManager wm, SimulationContext context) {
     this.wm = wm;
+    this.context = context;
+  }
+
+  WorkerManager getWorkerManager() {
+    return wm;
+  }
+
+  SimulationContext getContext() {
+    return context;
+  }
+
+  /**
+   * @return The dispatcher of zone picking, or <code>null</code> if pickers roam the whole floor.
+   */
+  ZoneDispatcher getZoneDispatcher() {
+    return zoneDispatcher;
+  }
+
+  /**
+   * Turns on zone picking with the given dispatcher, or turns it off with <code>null</code>.
+   */
+  void setZoneDispatcher(ZoneDispatcher zoneDispatcher) {
+    this.zoneDispatcher = zoneDispatcher;
   }
 
   PriorityQueue<PickingRequest> getPickingQueue() {
@@ -63,6 +106,28 @@ public class RequestManager {
     this.sendToPicking(req);
   }
 
+  /**
+   * Introduces many new <code>PickingRequest</code>s into the queueing system at once, in the order
+   * given, and notifies as many available <code>Picker</code>s as there are new requests.
+   *
+   * @param reqs - The new requests, in loading order.
+   */
+  void addRequests(Collection<PickingRequest> reqs) {
+    if (reqs.isEmpty()) {
+      return;
+    }
+    loadingOrder.addAll(reqs);
+    pickingQueue.addAll(reqs);
+    logger.info("{} PickingRequests added to Picking Queue", reqs.size());
+    for (int i = 0; i < reqs.size(); i++) {
+      Picker nextPicker = zoneDispatcher == null ? wm.nextPicker() : zoneDispatcher.nextPicker();
+      if (nextPicker == null) {
+        break;
+      }
+      nextPicker.doNextTask();
+    }
+  }
+
   /**
    * Enqueues a <code>PickingRequest</code> to the specified queue.
    */
@@ -78,8 +143,9 @@ public class RequestManager {
    */
   void sendToPicking(PickingRequest req) {
     enqueueRequest(req, pickingQueue);
-    logger.info(String.format("PickingRequest #%d added to Picking Queue", req.getId()));
-    Picker nextPicker = wm.nextPicker();
+    logger.info("PickingRequest #{} added to Picking Queue", req.getId());
+    // with zone picking, the picker woken up splits the request and wakes up the other zones
+    Picker nextPicker = zoneDispatcher == null ? wm.nextPicker() : zoneDispatcher.nextPicker();
     if (nextPicker != null) {
       nextPicker.doNextTask();
     }
@@ -93,7 +159,7 @@ public class RequestManager {
    */
   void sendToSequencing(PickingRequest req) {
     enqueueRequest(req, sequencingQueue);
-    logger.info(String.format("PickingRequest #%d added to Sequencing Queue", req.getId()));
+    logger.info("PickingRequest #{} added to Sequencing Queue", req.getId());
     Sequencer nextSequencer = wm.nextSequencer();
     if (nextSequencer != null) {
       nextSequencer.doNextTask();
@@ -109,7 +175,7 @@ public class RequestManager {
    */
   void sendToLoading(PickingRequest req) {
     enqueueRequest(req, loadingQueue);
-    logger.info(String.format("PickingRequest #%d added to Sequencing Queue", req.getId()));
+    logger.info("PickingRequest #{} added to Sequencing Queue", req.getId());
 
     Loader nextLoader = wm.nextLoader();
     if (nextLoader != null) {
@@ -142,6 +208,42 @@ public class RequestManager {
     return pickingQueue.poll();
   }
 
+  /**
+   * Finds the next task of <code>zone</code>. If the zone has none, requests are taken from the
+   * picking queue and split into zone tasks until one is for <code>zone</code>; a waiting picker
+   * of each other zone receiving a task is notified.
+   *
+   * @return The first task of <code>zone</code>, or <code>null</code> if there is none left.
+   */
+  ZoneTask getZoneTask(String zone) {
+    ZoneTask task;
+    PickingRequest req;
+    while ((task = zoneDispatcher.getTask(zone)) == null
+        && (req = pickingQueue.poll()) != null) {
+      for (ZoneTask part : zoneDispatcher.split(req)) {
+        if (!part.getZone().equals(zone)) {
+          Picker nextPicker = zoneDispatcher.nextPicker(part.getZone());
+          if (nextPicker != null) {
+            nextPicker.doNextTask();
+          }
+        }
+      }
+    }
+    return task;
+  }
+
+  /**
+   * Drops off a zone task at Marshaling. Once every part of its request is in, the request is sent
+   * to the sequencing queue.
+   *
+   * @param task - The picked zone task.
+   */
+  void consolidate(ZoneTask task) {
+    if (zoneDispatcher.consolidate(task)) {
+      sendToSequencing(task.getRequest());
+    }
+  }
+
   /**
    * @return The first <code>PickingRequest</code> in the sequencing queue or <code>null</code> if
    *         the sequencing queue is empty.
@@ -178,46 +280,80 @@ public class RequestManager {
     PickingRequest nextInLine = loadingOrder.peek();
     PickingRequest nextSequenced = loadingQueue.peek();
 
-    return (nextInLine != null) && (nextSequenced.equals(nextInLine));
+    return (nextInLine != null) && (nextInLine.equals(nextSequenced));
   }
 
   /**
    * Removes the <code>PickingRequest</code> from the queuing system and logs its completion in the
-   * file "orders.csv" in the present working directory. If "orders.csv" exists already, the new
-   * content is appended to the end of the file.
+   * completed orders file of the simulation ("orders.csv" in the present working directory by
+   * default). If the file exists already, the new content is appended to the end of the file. The
+   * file stays open, and the orders may wait in its buffer until
+   * <code>flushCompletedOrders</code> or <code>closeCompletedOrders</code>.
    * @param req - The picking request being marked as completed.
    */
   void completeRequest(PickingRequest req) {
     PickingRequest nextInLine = loadingOrder.peek();
 
     if (!req.equals(nextInLine)) {
-      logger.error(String.format(
-          "Cannot load PickingRequest #%d; " + "PickingRequest #%d must be loaded first",
-          req.getId(), nextInLine.getId()));
+      logger.error("Cannot load PickingRequest #{}; PickingRequest #{} must be loaded first",
+          req.getId(), nextInLine.getId());
     }
 
     loadingOrder.pop(); // allow the next Order to be loaded
     ArrayList<Order> orders = req.getOrders();
-    BufferedWriter bw;
-    FileWriter fw;
 
     try {
-      fw = new FileWriter("orders.csv", true);
-      bw = new BufferedWriter(fw);
+      if (completedOrders == null) {
+        completedOrders = new BufferedWriter(new FileWriter(context.getCompletedOrders(), true),
+            BUFFER_SIZE);
+      }
       for (Order o : orders) {
-        bw.write(o.toString());
+        o.writeTo(completedOrders);
       }
-      bw.close();
-      fw.close();
 
     } catch (IOException e) {
-      logger.error(String.format(
-          "Completed orders from PickingRequest #%d" + "could not be written to orders.csv",
-          req.getId()), e);
+      logger.error("Completed orders from PickingRequest #{}could not be written to orders.csv",
+          req.getId(), e);
+      closeCompletedOrders();
+    }
+  }
+
+  /**
+   * Writes the completed orders waiting in the buffer to the completed orders file.
+   */
+  void flushCompletedOrders() {
+    if (completedOrders == null) {
+      return;
+    }
+    try {
+      completedOrders.flush();
+    } catch (IOException e) {
+      logger.error("Completed orders could not be written to orders.csv", e);
+      closeCompletedOrders();
+    }
+  }
+
+  /**
+   * Writes the completed orders waiting in the buffer and closes the completed orders file, which
+   * is opened again by the next completed request.
+   */
+  void closeCompletedOrders() {
+    if (completedOrders == null) {
+      return;
+    }
+    try {
+      completedOrders.close();
+    } catch (IOException e) {
+      logger.error("Completed orders could not be written to orders.csv", e);
     }
+    completedOrders = null;
   }
 
   void queueWorker(Worker w) {
+    if (w instanceof ZonePicker && zoneDispatcher != null) {
+      zoneDispatcher.queuePicker((ZonePicker) w);
+      return;
+    }
     wm.enqueueWorker(w);
   }
 }
@@ -0,0 +1,115 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the picking orders found by another <code>PickRouter</code>, so a request with the
+ * same fascia as a recent one is routed by a single lookup.
+ *
+ *
+ * <p>Routes are keyed by the SKUs of the request sorted into a canonical order, since the routers
+ * of this package return the same picking order for any arrangement of the same SKUs. At most
+ * <code>capacity</code> routes are kept; when a new route does not fit, the least recently used
+ * one is dropped. The cache may be shared by simulations running on several threads.
+ */
+public class RouteCache implements PickRouter {
+
+  private final PickRouter router;
+  private final int capacity;
+
+  /** Canonical keys and their picking orders, least recently used first. */
+  private final LinkedHashMap<String, ArrayList<String>> routes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param router - The router computing the routes missing from the cache.
+   * @param capacity - The most routes kept.
+   */
+  public RouteCache(PickRouter router, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The route cache capacity must be positive: "
+          + capacity);
+    }
+    this.router = router;
+    this.capacity = capacity;
+    this.routes = new LinkedHashMap<String, ArrayList<String>>(capacity * 4 / 3 + 1, 0.75f,
+        true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ArrayList<String>> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * @return The key shared by every arrangement of <code>skus</code>.
+   */
+  static String key(ArrayList<String> skus) {
+    String[] sorted = skus.toArray(new String[skus.size()]);
+    Arrays.sort(sorted);
+    return String.join(",", sorted);
+  }
+
+  @Override
+  public ArrayList<String> route(ArrayList<String> skus) {
+    String key = key(skus);
+    ArrayList<String> route;
+    synchronized (routes) {
+      route = routes.get(key);
+    }
+    if (route != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+      // routed outside the lock, so other threads are not kept waiting
+      route = router.route(skus);
+      synchronized (routes) {
+        routes.put(key, route);
+      }
+    }
+    // every request gets its own list
+    return new ArrayList<>(route);
+  }
+
+  /**
+   * @return The router computing the routes missing from the cache.
+   */
+  public PickRouter getRouter() {
+    return router;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return The number of routes in the cache.
+   */
+  public int size() {
+    synchronized (routes) {
+      return routes.size();
+    }
+  }
+
+  /**
+   * @return The number of requests routed from the cache.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return The number of requests routed by the underlying router.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+}
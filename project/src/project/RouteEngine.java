@@ -0,0 +1,231 @@
+package project;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes pickers along short tours computed from the distances between the locations of the
+ * traversal table, instead of following the rows of the table. The distances come from a
+ * <code>LocationCatalog</code>; tours start and finish at its marshalling area.
+ *
+ *
+ * <p>A tour is built by always walking to the nearest remaining location, then shortened with
+ * 2-opt moves (reversing a stretch of the tour when that makes it shorter) until no move helps or
+ * the time budget per request runs out. Among locations at the same distance, the one earlier in
+ * the traversal table is visited first, so routes do not depend on the order of the request.
+ * The budget is only checked after <code>MIN_MOVES</code> moves, which is enough to finish the
+ * tour of a standard 8-fascia request; the routes of those requests are always the same, as the
+ * simulation and generated command files expect.
+ */
+public class RouteEngine implements PickRouter {
+
+  /** The default time spent improving one tour with 2-opt moves. */
+  static final long DEFAULT_BUDGET_MICROS = 50;
+
+  /**
+   * The number of 2-opt moves always tried before the time budget is checked, so that tours for
+   * small requests do not depend on how fast the machine is.
+   */
+  static final int MIN_MOVES = 4096;
+
+  private final LocationCatalog catalog;
+
+  /** The code of the tour's start and end. */
+  private final int depot;
+
+  private long budgetNanos = DEFAULT_BUDGET_MICROS * 1000;
+
+  private final AtomicLong routes = new AtomicLong();
+  private final AtomicLong totalLength = new AtomicLong();
+  private final AtomicLong outOfBudget = new AtomicLong();
+
+  /**
+   * Creates a route engine for the locations of the provided traversal table.
+   *
+   * @param traversalTable - The CSV file listing fascia locations.
+   * @throws FileNotFoundException if <code>traversalTable</code> does not exist.
+   */
+  public RouteEngine(String traversalTable) throws FileNotFoundException {
+    this(new LocationCatalog(traversalTable));
+  }
+
+  /**
+   * Creates a route engine for the locations of <code>catalog</code>.
+   */
+  public RouteEngine(LocationCatalog catalog) {
+    this.catalog = catalog;
+    this.depot = catalog.getDepot();
+  }
+
+  /**
+   * Changes the time spent improving each tour. Tours are always complete; a smaller budget only
+   * stops the 2-opt improvement sooner.
+   *
+   * @param budgetMicros - The budget per request in microseconds.
+   */
+  public void setBudgetMicros(long budgetMicros) {
+    this.budgetNanos = budgetMicros * 1000;
+  }
+
+  /**
+   * @return The number of requests routed so far.
+   */
+  public long getRouteCount() {
+    return routes.get();
+  }
+
+  /**
+   * @return The total length of the tours returned so far.
+   */
+  public long getTotalLength() {
+    return totalLength.get();
+  }
+
+  /**
+   * @return The number of tours whose improvement was cut short by the time budget.
+   */
+  public long getOutOfBudgetCount() {
+    return outOfBudget.get();
+  }
+
+  private int distance(int from, int to) {
+    return catalog.distance(from, to);
+  }
+
+  /**
+   * @return The length of the tour starting at the depot, picking <code>skus</code> in the given
+   *         order and returning to the depot. SKUs missing from the traversal table are skipped.
+   */
+  public int length(List<String> skus) {
+    int length = 0;
+    int previous = depot;
+    for (String sku : skus) {
+      int location = catalog.getCodeOfSku(sku);
+      if (location >= 0) {
+        length += distance(previous, location);
+        previous = location;
+      }
+    }
+    return length + distance(previous, depot);
+  }
+
+  @Override
+  public ArrayList<String> route(ArrayList<String> skus) {
+    long deadline = System.nanoTime() + budgetNanos;
+
+    // the distinct stocked locations, and how many fascia to pick at each
+    int[] stops = new int[skus.size()];
+    int[] counts = new int[skus.size()];
+    String[] stopSkus = new String[skus.size()];
+    int size = 0;
+    for (String sku : skus) {
+      int location = catalog.getCodeOfSku(sku);
+      if (location < 0) {
+        continue;
+      }
+      int i = 0;
+      while (i < size && stops[i] != location) {
+        i++;
+      }
+      if (i == size) {
+        stops[size] = location;
+        stopSkus[size] = sku;
+        size++;
+      }
+      counts[i]++;
+    }
+
+    // tour[0] is the depot; the tour returns to it after tour[size]
+    int[] tour = nearestNeighbourTour(stops, size);
+    if (!improve(tour, deadline)) {
+      outOfBudget.incrementAndGet();
+    }
+
+    ArrayList<String> route = new ArrayList<>(skus.size());
+    int length = 0;
+    for (int t = 1; t < tour.length; t++) {
+      int i = 0;
+      while (stops[i] != tour[t]) {
+        i++;
+      }
+      for (int c = 0; c < counts[i]; c++) {
+        route.add(stopSkus[i]);
+      }
+      length += distance(tour[t - 1], tour[t]);
+    }
+    length += distance(tour[tour.length - 1], depot);
+    routes.incrementAndGet();
+    totalLength.addAndGet(length);
+    return route;
+  }
+
+  /**
+   * @return A tour from the depot through the first <code>size</code> locations of
+   *         <code>stops</code>, always walking to the nearest location not yet visited.
+   */
+  private int[] nearestNeighbourTour(int[] stops, int size) {
+    int[] tour = new int[size + 1];
+    tour[0] = depot;
+    boolean[] visited = new boolean[size];
+    for (int t = 1; t <= size; t++) {
+      int best = -1;
+      int bestDistance = Integer.MAX_VALUE;
+      for (int i = 0; i < size; i++) {
+        if (visited[i]) {
+          continue;
+        }
+        int d = distance(tour[t - 1], stops[i]);
+        // locations are numbered in table order, which breaks ties
+        if (d < bestDistance || (d == bestDistance && stops[i] < stops[best])) {
+          best = i;
+          bestDistance = d;
+        }
+      }
+      visited[best] = true;
+      tour[t] = stops[best];
+    }
+    return tour;
+  }
+
+  /**
+   * Applies 2-opt moves to <code>tour</code> until none shortens it or the deadline passes.
+   *
+   * @return <code>false</code> if the deadline passed before the tour stopped improving.
+   */
+  private boolean improve(int[] tour, long deadline) {
+    int n = tour.length;
+    int moves = 0;
+    boolean improved = true;
+    while (improved) {
+      improved = false;
+      for (int i = 1; i < n - 1; i++) {
+        if (moves >= MIN_MOVES && System.nanoTime() > deadline) {
+          return false;
+        }
+        moves += n - 1 - i;
+        for (int j = i + 1; j < n; j++) {
+          int next = j + 1 < n ? tour[j + 1] : depot;
+          int delta = distance(tour[i - 1], tour[j]) + distance(tour[i], next)
+              - distance(tour[i - 1], tour[i]) - distance(tour[j], next);
+          if (delta < 0) {
+            reverse(tour, i, j);
+            improved = true;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void reverse(int[] tour, int from, int to) {
+    while (from < to) {
+      int swap = tour[from];
+      tour[from] = tour[to];
+      tour[to] = swap;
+      from++;
+      to--;
+    }
+  }
+}
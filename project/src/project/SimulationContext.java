@@ -0,0 +1,495 @@
+package project;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state shared by the parts of one simulation: the id counters for orders and picking
+ * requests, the data files it reads and writes, and the catalogs loaded from those files.
+ *
+ *
+ * <p>Simulations with separate contexts share nothing, so many of them can run in one JVM. The
+ * default context uses the standard file names in the working directory and is used by the
+ * constructors that do not take a context.
+ */
+public class SimulationContext {
+
+  /** The number of picking orders remembered by the route cache of a new context. */
+  public static final int DEFAULT_ROUTE_CACHE_SIZE = 4096;
+
+  private static final SimulationContext defaultContext = new SimulationContext(Paths.get(""));
+
+  private AtomicInteger nextOrderId = new AtomicInteger(1);
+  private AtomicInteger nextRequestId = new AtomicInteger(1);
+
+  private String translationTable;
+  private String initialInventory;
+  private String traversalTable;
+  private String completedOrders;
+  private String finalInventory;
+
+  /** The traversal table loaded into memory, or <code>null</code> until it is first needed. */
+  private TraversalIndex traversalIndex;
+
+  /** The locations of the traversal table, or <code>null</code> until they are first needed. */
+  private LocationCatalog locationCatalog;
+
+  /** The route engine for the traversal table, or <code>null</code> until it is first needed. */
+  private RouteEngine routeEngine;
+
+  /** Whether pickers follow the tours of the route engine instead of the traversal table. */
+  private boolean distanceRouting;
+
+  /** The most tours of the route engine remembered by the route cache; 0 turns it off. */
+  private int routeCacheSize = DEFAULT_ROUTE_CACHE_SIZE;
+
+  /** The cache in front of the current router, or <code>null</code> until it is first needed. */
+  private RouteCache routeCache;
+
+  /** The number of threads computing picking orders; 0 computes them on the calling thread. */
+  private int routingThreads;
+
+  /** The threads computing picking orders, or <code>null</code> until they are first needed. */
+  private ExecutorService routingPool;
+
+  /** The number of orders grouped into each picking request. */
+  private int orderBatchSize = 4;
+
+  /**
+   * The most commands an order waits for its batch to fill before the orders queued so far are
+   * sent for picking; 0 waits until the batch is full.
+   */
+  private long orderMaxWait;
+
+  /**
+   * The number of pending orders the next picking request is chosen from; a window no larger than
+   * the batch size groups orders by arrival.
+   */
+  private int waveWindow;
+
+  /** The most picking requests a picker takes per trip; 1 picks them one at a time. */
+  private int pickingBatchSize = 1;
+
+  /** The most locations a replenisher restocks per trip; 1 restocks them one at a time. */
+  private int replenishingBatchSize = 1;
+
+  /** Whether pickers are bound to zones and requests are split between the zones. */
+  private boolean zonePicking;
+
+  /** The staffing share of each zone for zone picking; zones missing from it have a share of 1. */
+  private HashMap<String, Integer> zoneStaffing = new HashMap<>();
+
+  /** The routing penalty for each picker expected in an aisle; 0 routes by distance only. */
+  private int congestionPenalty;
+
+  /** The expected occupancy of the aisles, or <code>null</code> until it is first needed. */
+  private AisleCongestion aisleCongestion;
+
+  /**
+   * Creates a context reading and writing the standard data files in <code>directory</code>:
+   * translation.csv, initial.csv, traversal_table.csv, orders.csv and final.csv.
+   *
+   * @param directory - The directory holding the simulation's data files.
+   */
+  public SimulationContext(Path directory) {
+    translationTable = directory.resolve("translation.csv").toString();
+    initialInventory = directory.resolve("initial.csv").toString();
+    traversalTable = directory.resolve(TraversalIndex.DEFAULT_TABLE).toString();
+    completedOrders = directory.resolve("orders.csv").toString();
+    finalInventory = directory.resolve("final.csv").toString();
+  }
+
+  /**
+   * @return The context of simulations run in the working directory.
+   */
+  public static SimulationContext getDefault() {
+    return defaultContext;
+  }
+
+  /**
+   * @return The id of the next <code>Order</code>, starting at 1.
+   */
+  int nextOrderId() {
+    return nextOrderId.getAndIncrement();
+  }
+
+  /**
+   * @return The id of the next <code>PickingRequest</code>, starting at 1.
+   */
+  int nextRequestId() {
+    return nextRequestId.getAndIncrement();
+  }
+
+  void setNextOrderId(int val) {
+    nextOrderId.set(val);
+  }
+
+  /**
+   * @return The id the next <code>Order</code> will get, without using it up.
+   */
+  int getNextOrderId() {
+    return nextOrderId.get();
+  }
+
+  /**
+   * @return The id the next <code>PickingRequest</code> will get, without using it up.
+   */
+  int getNextRequestId() {
+    return nextRequestId.get();
+  }
+
+  void setNextRequestId(int val) {
+    nextRequestId.set(val);
+  }
+
+  /**
+   * @return The traversal table of this simulation, read from disk the first time it is needed.
+   * @throws FileNotFoundException if the traversal table does not exist.
+   */
+  synchronized TraversalIndex getTraversalIndex() throws FileNotFoundException {
+    if (traversalIndex == null) {
+      traversalIndex = new TraversalIndex(traversalTable);
+    }
+    return traversalIndex;
+  }
+
+  /**
+   * @return The codes and distances of the locations in the traversal table, computed the first
+   *         time they are needed.
+   * @throws FileNotFoundException if the traversal table does not exist.
+   */
+  public synchronized LocationCatalog getLocationCatalog() throws FileNotFoundException {
+    if (locationCatalog == null) {
+      locationCatalog = new LocationCatalog(traversalTable);
+    }
+    return locationCatalog;
+  }
+
+  /**
+   * @return The route engine for the locations of the traversal table, created the first time it
+   *         is needed.
+   * @throws FileNotFoundException if the traversal table does not exist.
+   */
+  public synchronized RouteEngine getRouteEngine() throws FileNotFoundException {
+    if (routeEngine == null) {
+      routeEngine = new RouteEngine(getLocationCatalog());
+    }
+    return routeEngine;
+  }
+
+  /**
+   * @return The router deciding the picking order of new requests: the route engine behind the
+   *         route cache if distance routing is on, the traversal table order otherwise. Sorting
+   *         by traversal table order costs less than building a cache key, so it is not cached.
+   * @throws FileNotFoundException if the traversal table does not exist.
+   */
+  synchronized PickRouter getPickRouter() throws FileNotFoundException {
+    if (!distanceRouting) {
+      return getTraversalIndex();
+    }
+    if (routeCacheSize == 0) {
+      return getRouteEngine();
+    }
+    if (routeCache == null || routeCache.getRouter() != getRouteEngine()) {
+      routeCache = new RouteCache(getRouteEngine(), routeCacheSize);
+    }
+    return routeCache;
+  }
+
+  /**
+   * @return The route cache of this simulation, or <code>null</code> if no request was routed
+   *         through it yet or it is turned off.
+   */
+  public synchronized RouteCache getRouteCache() {
+    return routeCache;
+  }
+
+  public synchronized int getRouteCacheSize() {
+    return routeCacheSize;
+  }
+
+  /**
+   * Changes the number of picking orders remembered by the route cache, forgetting those
+   * remembered so far.
+   *
+   * @param routeCacheSize - The most picking orders remembered, or 0 to turn the cache off.
+   */
+  public synchronized void setRouteCacheSize(int routeCacheSize) {
+    if (routeCacheSize < 0) {
+      throw new IllegalArgumentException("The route cache size cannot be negative: "
+          + routeCacheSize);
+    }
+    this.routeCacheSize = routeCacheSize;
+    this.routeCache = null;
+  }
+
+  public synchronized boolean isDistanceRouting() {
+    return distanceRouting;
+  }
+
+  /**
+   * Chooses how new picking requests are routed: along the shortest tours found by the route
+   * engine, or in traversal table order (the default).
+   */
+  public synchronized void setDistanceRouting(boolean distanceRouting) {
+    this.distanceRouting = distanceRouting;
+  }
+
+  public synchronized int getRoutingThreads() {
+    return routingThreads;
+  }
+
+  /**
+   * Chooses where the picking orders of new requests are computed. With 0 threads (the default),
+   * a request is routed while it is created. Otherwise the request is created at once and routed
+   * by a pool of background threads, and a picker taking the request only waits if its route is
+   * not ready yet. Routes are the same either way.
+   *
+   * @param routingThreads - The number of background threads, or 0.
+   */
+  public synchronized void setRoutingThreads(int routingThreads) {
+    if (routingThreads < 0) {
+      throw new IllegalArgumentException("The number of routing threads cannot be negative: "
+          + routingThreads);
+    }
+    if (routingPool != null) {
+      // routes already submitted are still computed
+      routingPool.shutdown();
+      routingPool = null;
+    }
+    this.routingThreads = routingThreads;
+  }
+
+  /**
+   * @return The threads computing picking orders, or <code>null</code> if they are computed on
+   *         the thread creating the request.
+   */
+  synchronized ExecutorService getRoutingPool() {
+    if (routingThreads > 0 && routingPool == null) {
+      final AtomicInteger threadCount = new AtomicInteger(1);
+      routingPool = Executors.newFixedThreadPool(routingThreads, runnable -> {
+        Thread thread = new Thread(runnable, "router-" + threadCount.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return routingPool;
+  }
+
+  public synchronized int getOrderBatchSize() {
+    return orderBatchSize;
+  }
+
+  /**
+   * Chooses how many orders are grouped into each picking request from now on.
+   *
+   * @param orderBatchSize - The number of orders per request.
+   */
+  public synchronized void setOrderBatchSize(int orderBatchSize) {
+    if (orderBatchSize < 1) {
+      throw new IllegalArgumentException("The order batch size must be positive: "
+          + orderBatchSize);
+    }
+    this.orderBatchSize = orderBatchSize;
+  }
+
+  public synchronized long getOrderMaxWait() {
+    return orderMaxWait;
+  }
+
+  /**
+   * Chooses how long the orders of a batch wait for it to fill. Once the oldest queued order has
+   * waited <code>orderMaxWait</code> commands, the orders queued so far are grouped into a
+   * smaller picking request.
+   *
+   * @param orderMaxWait - The most commands an order waits, or 0 to always wait for a full batch.
+   */
+  public synchronized void setOrderMaxWait(long orderMaxWait) {
+    if (orderMaxWait < 0) {
+      throw new IllegalArgumentException("The order wait cannot be negative: " + orderMaxWait);
+    }
+    this.orderMaxWait = orderMaxWait;
+  }
+
+  public synchronized int getWaveWindow() {
+    return waveWindow;
+  }
+
+  /**
+   * Turns wave planning on or off. With a window larger than the order batch size, orders are
+   * queued until <code>waveWindow</code> are pending, and each picking request then groups the
+   * oldest of them with the pending orders that make its tour the shortest
+   * (<code>WavePlanner</code>).
+   *
+   * @param waveWindow - The number of pending orders each request is chosen from, or 0 to group
+   *        orders by arrival.
+   */
+  public synchronized void setWaveWindow(int waveWindow) {
+    if (waveWindow < 0) {
+      throw new IllegalArgumentException("The wave window cannot be negative: " + waveWindow);
+    }
+    this.waveWindow = waveWindow;
+  }
+
+  public synchronized int getPickingBatchSize() {
+    return pickingBatchSize;
+  }
+
+  /**
+   * Chooses how many picking requests each picker created from now on takes per trip. With more
+   * than 1, pickers are <code>BatchPicker</code>s.
+   *
+   * @param pickingBatchSize - The most requests per trip.
+   */
+  public synchronized void setPickingBatchSize(int pickingBatchSize) {
+    if (pickingBatchSize < 1) {
+      throw new IllegalArgumentException("The picking batch size must be positive: "
+          + pickingBatchSize);
+    }
+    this.pickingBatchSize = pickingBatchSize;
+  }
+
+  public synchronized int getReplenishingBatchSize() {
+    return replenishingBatchSize;
+  }
+
+  /**
+   * Chooses how many locations each replenisher created from now on restocks per trip. With more
+   * than 1, replenishers are <code>BatchReplenisher</code>s.
+   *
+   * @param replenishingBatchSize - The most locations per trip.
+   */
+  public synchronized void setReplenishingBatchSize(int replenishingBatchSize) {
+    if (replenishingBatchSize < 1) {
+      throw new IllegalArgumentException("The replenishing batch size must be positive: "
+          + replenishingBatchSize);
+    }
+    this.replenishingBatchSize = replenishingBatchSize;
+  }
+
+  public synchronized boolean isZonePicking() {
+    return zonePicking;
+  }
+
+  /**
+   * Turns zone picking on or off for simulations created from now on. With zone picking, pickers
+   * are <code>ZonePicker</code>s bound to one zone each, whatever the picking batch size.
+   */
+  public synchronized void setZonePicking(boolean zonePicking) {
+    this.zonePicking = zonePicking;
+  }
+
+  /**
+   * @return The staffing share of <code>zone</code>: with zone picking, new pickers are bound to
+   *         zones in proportion to their shares.
+   */
+  public synchronized int getZoneStaffing(String zone) {
+    Integer share = zoneStaffing.get(zone);
+    return share == null ? 1 : share;
+  }
+
+  /**
+   * Changes the staffing share of <code>zone</code>. For example, with shares of 3 for zone A and
+   * 1 for zone B, three of every four new pickers work in zone A.
+   *
+   * @param zone - The zone, as in the traversal table.
+   * @param share - The zone's share of the pickers.
+   */
+  public synchronized void setZoneStaffing(String zone, int share) {
+    if (share < 1) {
+      throw new IllegalArgumentException("The staffing share of a zone must be positive: "
+          + share);
+    }
+    zoneStaffing.put(zone, share);
+  }
+
+  public synchronized int getCongestionPenalty() {
+    return congestionPenalty;
+  }
+
+  /**
+   * Turns congestion-aware routing on or off. With a penalty, a picker taking a request reorders
+   * the fascia it has left to pick with <code>AisleCongestion.route</code>: walking into the aisle
+   * of the next stop, from another aisle, costs <code>congestionPenalty</code> for each other
+   * picker expected in it, on top of the walking distance. Pickers forget the expected occupancy
+   * tracked so far.
+   *
+   * @param congestionPenalty - The penalty per picker, or 0 to route by distance only.
+   */
+  public synchronized void setCongestionPenalty(int congestionPenalty) {
+    if (congestionPenalty < 0) {
+      throw new IllegalArgumentException("The congestion penalty cannot be negative: "
+          + congestionPenalty);
+    }
+    this.congestionPenalty = congestionPenalty;
+    this.aisleCongestion = null;
+  }
+
+  /**
+   * @return The expected occupancy of the aisles, created the first time it is needed, or
+   *         <code>null</code> if congestion-aware routing is off.
+   * @throws FileNotFoundException if the traversal table does not exist.
+   */
+  public synchronized AisleCongestion getAisleCongestion() throws FileNotFoundException {
+    if (congestionPenalty == 0) {
+      return null;
+    }
+    if (aisleCongestion == null) {
+      aisleCongestion = new AisleCongestion(getLocationCatalog(), congestionPenalty);
+    }
+    return aisleCongestion;
+  }
+
+  public String getTranslationTable() {
+    return translationTable;
+  }
+
+  public void setTranslationTable(String translationTable) {
+    this.translationTable = translationTable;
+  }
+
+  public String getInitialInventory() {
+    return initialInventory;
+  }
+
+  public void setInitialInventory(String initialInventory) {
+    this.initialInventory = initialInventory;
+  }
+
+  public String getTraversalTable() {
+    return traversalTable;
+  }
+
+  /**
+   * Changes the traversal table used by this simulation. Must be called before the table is
+   * first read.
+   */
+  public synchronized void setTraversalTable(String traversalTable) {
+    this.traversalTable = traversalTable;
+    this.traversalIndex = null;
+    this.locationCatalog = null;
+    this.routeEngine = null;
+    this.routeCache = null;
+  }
+
+  public String getCompletedOrders() {
+    return completedOrders;
+  }
+
+  public void setCompletedOrders(String completedOrders) {
+    this.completedOrders = completedOrders;
+  }
+
+  public String getFinalInventory() {
+    return finalInventory;
+  }
+
+  public void setFinalInventory(String finalInventory) {
+    this.finalInventory = finalInventory;
+  }
+}
@@ -0,0 +1,160 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs many independent simulations at once on a fork/join pool, one per
+ * <code>SimulationContext</code>. Used for what-if analysis, such as replaying one day of
+ * commands against several traversal tables or initial inventories.
+ *
+ *
+ * <p>Usage: <code>SimulationRunner commandFile directory...</code>. The command file is simulated
+ * once for each directory, which holds that simulation's data files and receives its output.
+ */
+public class SimulationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(SimulationRunner.class);
+
+  /**
+   * One simulation to run: its context, its command file, and once it has run, its outcome.
+   */
+  public static class Scenario {
+    private final SimulationContext context;
+    private final Path commandFile;
+    private long elapsedNanos;
+    private Exception failure;
+
+    /**
+     * @param context - The data files and id counters of the simulation.
+     * @param commandFile - The command file or event log to simulate.
+     */
+    public Scenario(SimulationContext context, Path commandFile) {
+      this.context = context;
+      this.commandFile = commandFile;
+    }
+
+    public SimulationContext getContext() {
+      return context;
+    }
+
+    /**
+     * @return The time taken by the simulation in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * @return The exception that stopped the simulation, or <code>null</code> if it completed.
+     */
+    public Exception getFailure() {
+      return failure;
+    }
+
+    private void run() {
+      long start = System.nanoTime();
+      try {
+        Simulator simulator = new Simulator(context);
+        if (EventLog.isEventLog(commandFile)) {
+          simulator.replay(commandFile);
+        } else {
+          simulator.runSimulation(commandFile);
+        }
+      } catch (IOException | RuntimeException e) {
+        logger.error("Simulation of '{}' failed", commandFile, e);
+        failure = e;
+      }
+      elapsedNanos = System.nanoTime() - start;
+    }
+  }
+
+  private ForkJoinPool pool;
+
+  /**
+   * Creates a runner using one thread per available core.
+   */
+  public SimulationRunner() {
+    this(new ForkJoinPool());
+  }
+
+  /**
+   * @param pool - The pool whose threads run the simulations.
+   */
+  public SimulationRunner(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Runs every scenario, returning once all of them have finished. A failing scenario does not
+   * stop the others; its exception is recorded in the scenario.
+   *
+   * @param scenarios - The simulations to run.
+   */
+  public void runAll(List<Scenario> scenarios) {
+    if (!scenarios.isEmpty()) {
+      pool.invoke(new ScenarioTask(scenarios, 0, scenarios.size()));
+    }
+  }
+
+  /**
+   * Runs the scenarios in <code>[from, to)</code>, splitting the range in half until a single
+   * scenario is left.
+   */
+  private static class ScenarioTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Scenario> scenarios;
+    private final int from;
+    private final int to;
+
+    ScenarioTask(List<Scenario> scenarios, int from, int to) {
+      this.scenarios = scenarios;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        scenarios.get(from).run();
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(new ScenarioTask(scenarios, from, mid), new ScenarioTask(scenarios, mid, to));
+      }
+    }
+  }
+
+  /**
+   * Simulates a command file once for each directory given.
+   *
+   * @param args - The command file, followed by the directories holding each simulation's data.
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.err.println("Usage: SimulationRunner <commandFile> <directory>...");
+      System.exit(1);
+    }
+    Path commandFile = Paths.get(args[0]);
+    List<Scenario> scenarios = new ArrayList<>();
+    for (int i = 1; i < args.length; i++) {
+      scenarios.add(new Scenario(new SimulationContext(Paths.get(args[i])), commandFile));
+    }
+
+    new SimulationRunner().runAll(scenarios);
+    for (int i = 0; i < scenarios.size(); i++) {
+      Scenario scenario = scenarios.get(i);
+      System.out.println(String.format("%s: %s in %.1f ms", args[i + 1],
+          scenario.getFailure() == null ? "completed" : "failed: " + scenario.getFailure(),
+          scenario.getElapsedNanos() / 1e6));
+    }
+  }
+}
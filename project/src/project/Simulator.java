@@ -1,12 +1,18 @@
 package project;
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,27 +22,25 @@ public class Simulator {
   private OrderManager om;
   private InventoryManager im;
   private HashMap<String, Worker> directory;
+  private SimulationContext context;
 
-  private List<Pattern> commandPatterns = Arrays.asList(
-      // Orders
-      Pattern.compile("^Order \\w+ \\w+$"),
+  /** The number of commands simulated so far, including those before a restored snapshot. */
+  private long offset;
 
-      // All workers
-      Pattern.compile("^(Picker|Sequencer|Loader|Replenisher) \\w+ ready$"),
+  /** The number of commands still to skip because they were simulated before a snapshot. */
+  private long skipCommands;
 
-      // Pickers
-      Pattern.compile("^Picker \\w+ picks \\w+$"), Pattern.compile("^Picker \\w+ to Marshaling$"),
+  /** Takes snapshots of this simulation as it runs, or <code>null</code>. */
+  private Checkpointer checkpointer;
 
-      // Sequencers
-      Pattern.compile("^Sequencer \\w+ sequences$"), Pattern.compile("^Sequencer \\w+ rescans$"),
-      Pattern.compile("^Sequencer \\w+ rejects$"), Pattern.compile("^Sequencer \\w+ approves$"),
+  /** The command being simulated; reused for every line. */
+  private final Command command = new Command();
 
-      // Loaders
-      Pattern.compile("^Loader \\w+ loads$"), Pattern.compile("^Loader \\w+ rescans$"),
-      Pattern.compile("^Loader \\w+ rejects$"), Pattern.compile("^Loader \\w+ approves$"),
+  /** The action taken for each <code>Command.Verb</code>, indexed by the verb's ordinal. */
+  private final CommandHandler[] handlers = new CommandHandler[Command.Verb.values().length];
 
-      // Replenisher
-      Pattern.compile("^Replenisher \\w+ replenishes$"));
+  /** The size in characters of the buffer used to stream command files. */
+  private static final int BUFFER_SIZE = 1 << 16;
 
   private static final Logger logger = LoggerFactory.getLogger(Simulator.class);
 
@@ -47,17 +51,35 @@ public class Simulator {
    *         directory.
    */
   public Simulator() throws FileNotFoundException {
-    rm = new RequestManager(new WorkerManager());
-    om = new OrderManager("translation.csv", rm);
-    im = new InventoryManager("initial.csv", rm, true);
+    this(SimulationContext.getDefault());
+  }
+
+  /**
+   * Create a new warehouse simulation reading and writing the data files of
+   * <code>context</code>. Simulations with different contexts can run at the same time.
+   * 
+   * @throws FileNotFoundException if the translation table, initial inventory or traversal
+   *         table of <code>context</code> do not exist.
+   */
+  public Simulator(SimulationContext context) throws FileNotFoundException {
+    this.context = context;
+    rm = new RequestManager(new WorkerManager(), context);
+    om = new OrderManager(context.getTranslationTable(), rm, context);
+    im = new InventoryManager(context.getInitialInventory(), rm, true, context);
     directory = new HashMap<String, Worker>();
+    if (context.isZonePicking()) {
+      rm.setZoneDispatcher(new ZoneDispatcher(context));
+    }
+    registerHandlers();
   }
 
   Simulator(RequestManager rm, OrderManager om, InventoryManager im) {
+    this.context = SimulationContext.getDefault();
     this.rm = rm;
     this.om = om;
     this.im = im;
     directory = new HashMap<String, Worker>();
+    registerHandlers();
   }
 
   /**
@@ -65,40 +87,216 @@ public class Simulator {
    * 
    * @param commandList - The warehouse events to simulate.
    */
-  public void runSimulation(ArrayList<String> commandList) throws IOException {
-    for (String command : commandList) {
+  public void runSimulation(Iterable<String> commandList) throws IOException {
+    runSimulation(commandList.iterator());
+  }
 
-      logger.debug(String.format("Command: %s", command));
-      parseCommand(command);
+  /**
+   * Simulates warehouse events as they are produced by <code>commands</code>, printing output to
+   * log.txt and to STDOUT.
+   * 
+   * @param commands - The warehouse events to simulate, in order.
+   */
+  public void runSimulation(Iterator<String> commands) throws IOException {
+    while (commands.hasNext()) {
+      String command = commands.next();
+      if (!alreadySimulated()) {
+        simulate(command);
+        commandSimulated();
+      }
     }
-    im.saveInventory();
+    finishRun();
   }
 
   /**
-   * Checks if a command is valid, and passes any valid command to the appropriate parser method.
+   * Simulates the warehouse events read line by line from <code>commandReader</code>. Each event
+   * is simulated as soon as its line is read, so only one line is held in memory at a time.
+   * 
+   * @param commandReader - The source of the warehouse events, one per line.
    */
-  void parseCommand(String command) {
-    if (isValidCommand(command)) {
-      String[] words = command.split(" ");
-      if (Pattern.matches("^Order \\w+ \\w+$", command)) {
-        processOrder(words[2], words[1]);
-      } else {
-        parseWorkerCommand(command);
+  public void runSimulation(Reader commandReader) throws IOException {
+    BufferedReader reader = commandReader instanceof BufferedReader
+        ? (BufferedReader) commandReader : new BufferedReader(commandReader, BUFFER_SIZE);
+    String command;
+    while ((command = reader.readLine()) != null) {
+      if (!alreadySimulated()) {
+        simulate(command);
+        commandSimulated();
       }
-    } else {
-      logInvalidCommand(command);
     }
+    finishRun();
   }
 
-  boolean isValidCommand(String command) {
-    for (Pattern p : commandPatterns) {
-      if (p.matcher(command).matches()) {
-        return true;
+  /**
+   * Simulates the warehouse events in a command file, streaming the file from disk.
+   * 
+   * @param commandFile - The file listing one warehouse event per line.
+   * @throws IOException if <code>commandFile</code> cannot be read.
+   */
+  public void runSimulation(Path commandFile) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        Files.newInputStream(commandFile), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      runSimulation(reader);
+    }
+  }
+
+  /**
+   * Simulates the warehouse events stored in a binary event log. Commands are applied as they are
+   * decoded, without being parsed from text.
+   * 
+   * @param eventLog - The event log, as written by <code>EventLogWriter</code>.
+   * @throws IOException if <code>eventLog</code> cannot be read or is not an event log.
+   */
+  public void replay(Path eventLog) throws IOException {
+    Command event = new Command();
+    try (EventLogReader reader = new EventLogReader(Files.newInputStream(eventLog))) {
+      while (reader.next(event)) {
+        if (alreadySimulated()) {
+          continue;
+        }
+        String rawLine = reader.getRawLine();
+        if (rawLine != null) {
+          simulate(rawLine);
+        } else {
+          logger.debug("Command: {}", event);
+          apply(event);
+        }
+        commandSimulated();
       }
     }
+    finishRun();
+  }
+
+  /**
+   * Ends a run of commands: the orders still waiting for a full batch are sent for picking, the
+   * completed orders file is written and closed, and the inventory is saved.
+   */
+  void finishRun() throws IOException {
+    om.flush();
+    rm.closeCompletedOrders();
+    saveInventory();
+  }
+
+  /**
+   * @return <code>true</code> if the next command was simulated before the snapshot this
+   *         simulation was restored from, and must be skipped.
+   */
+  private boolean alreadySimulated() {
+    if (skipCommands > 0) {
+      skipCommands--;
+      return true;
+    }
     return false;
   }
 
+  /**
+   * Simulates a command received from a client, which is counted like a command of a file, so
+   * checkpoints are also taken while serving. Commands received are never skipped.
+   *
+   * @param command - The warehouse event to simulate.
+   * @return <code>true</code> if the command was recognized.
+   */
+  boolean simulateReceived(String command) {
+    try {
+      return simulate(command);
+    } finally {
+      commandSimulated();
+    }
+  }
+
+  /**
+   * Counts a simulated command and takes a checkpoint if one is due.
+   */
+  private void commandSimulated() {
+    offset++;
+    if (checkpointer != null) {
+      checkpointer.commandSimulated(this);
+    }
+  }
+
+  /**
+   * @return The number of commands simulated so far, including those simulated before the
+   *         snapshot this simulation was restored from.
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Sets the number of commands simulated before the state of this simulation was restored. As
+   * many commands are skipped at the start of the next command file or event log.
+   */
+  void restoreOffset(long offset) {
+    this.offset = offset;
+    this.skipCommands = offset;
+  }
+
+  /**
+   * @param checkpointer - Takes snapshots while this simulation runs, or <code>null</code>.
+   */
+  public void setCheckpointer(Checkpointer checkpointer) {
+    this.checkpointer = checkpointer;
+  }
+
+  SimulationContext getContext() {
+    return context;
+  }
+
+  RequestManager getRequestManager() {
+    return rm;
+  }
+
+  OrderManager getOrderManager() {
+    return om;
+  }
+
+  InventoryManager getInventoryManager() {
+    return im;
+  }
+
+  /**
+   * Saves the inventory at the end of the simulation to the final inventory file.
+   */
+  public void saveInventory() throws IOException {
+    im.saveInventory();
+  }
+
+  /**
+   * Logs and simulates a single warehouse event.
+   * 
+   * @return <code>true</code> if <code>command</code> was recognized.
+   */
+  boolean simulate(String command) {
+    logger.debug("Command: {}", command);
+    return parseCommand(command);
+  }
+
+  /**
+   * Checks if a command is valid, and passes any valid command to the appropriate handler.
+   * 
+   * @return <code>true</code> if <code>line</code> is a valid command.
+   */
+  boolean parseCommand(String line) {
+    if (CommandParser.parse(line, command)) {
+      apply(command);
+      return true;
+    }
+    logInvalidCommand(line);
+    return false;
+  }
+
+  boolean isValidCommand(String command) {
+    return CommandParser.parse(command, new Command());
+  }
+
+  /**
+   * Simulates a command that has already been parsed.
+   */
+  void apply(Command command) {
+    om.tick();
+    handlers[command.verb.ordinal()].handle(command);
+  }
+
   /**
    * Creates and enqueues a new Order in the simulation. Logs an error if the Order is invalid.
    * 
@@ -106,8 +304,10 @@ public class Simulator {
    * @param model - The model specified in the simulation command.
    */
   private void processOrder(String colour, String model) {
-    if (om.validOrder(colour, model)) {
-      Order order = new Order(colour, model);
+    int fascia = om.getFasciaCatalog().getCode(colour, model);
+    if (fascia >= 0) {
+      Order order = new Order(colour, model, context);
+      order.fascia = fascia;
       om.enqueue(order);
     } else {
       logger.warn("Invalid Order command: 'Colour {}, Model {}' is not a recognized combination",
@@ -116,40 +316,131 @@ public class Simulator {
   }
 
   /**
-   * Interprets and simulates an event involving a Worker.
+   * Submits a new Order from any thread, to be queued before the next command simulated. Logs an
+   * error if the Order is invalid.
+   *
+   * @param colour - The colour of the fascia ordered.
+   * @param model - The minivan model of the fascia ordered.
+   * @return <code>true</code> if the warehouse stocks fascia for the colour and model.
    */
-  private void parseWorkerCommand(String command) {
-    String type = command.split(" ")[0];
-    String id = command.split(" ")[1];
-
-    if (Pattern.matches("\\w+ \\w+ ready", command)) {
-      if (workerExists(id, type) == null) {
-        logger.warn(id + " already exists, but is not working as a " + type);
-      } else if (!workerExists(id, type)) {
-        createWorker(id, type);
+  public boolean submitOrder(String colour, String model) {
+    int fascia = om.getFasciaCatalog().getCode(colour, model);
+    if (fascia < 0) {
+      logger.warn("Invalid Order: 'Colour {}, Model {}' is not a recognized combination", colour,
+          model);
+      return false;
+    }
+    Order order = new Order(colour, model, context);
+    order.fascia = fascia;
+    om.submit(order);
+    return true;
+  }
+
+  /**
+   * Queues every order of an order file at once, such as a dump of a dealer feed. Each line holds
+   * one order in the format <code>Colour,Model</code>, as in the translation table, and a first
+   * line starting with <code>Colour</code> is a header. The lines are validated in parallel, then
+   * numbered in the order of the file and grouped into picking requests in one pass
+   * (<code>OrderManager.enqueueAll</code>). Invalid lines are logged and skipped.
+   *
+   * @param orderFile - The file of orders to queue.
+   * @return The number of orders queued.
+   * @throws IOException if the file cannot be read.
+   */
+  public int importOrders(Path orderFile) throws IOException {
+    final List<String> lines = Files.readAllLines(orderFile, StandardCharsets.UTF_8);
+    final FasciaCatalog catalog = om.getFasciaCatalog();
+    final String[][] fields = new String[lines.size()][];
+    final int[] codes = new int[lines.size()];
+    IntStream.range(0, lines.size()).parallel().forEach(i -> {
+      fields[i] = lines.get(i).split(",");
+      codes[i] = fields[i].length == 2 ? catalog.getCode(fields[i][0], fields[i][1]) : -1;
+    });
+
+    ArrayList<Order> orders = new ArrayList<>(lines.size());
+    for (int i = 0; i < codes.length; i++) {
+      if (codes[i] >= 0) {
+        Order order = new Order(fields[i][0], fields[i][1], context);
+        order.fascia = codes[i];
+        orders.add(order);
+      } else if (!lines.get(i).isEmpty() && !(i == 0 && lines.get(i).startsWith("Colour"))) {
+        logger.warn("Invalid order on line {} of '{}': '{}' is not a recognized combination",
+            i + 1, orderFile, lines.get(i));
       }
-      directory.get(id).doNextTask();
+    }
+    om.enqueueAll(orders);
+    return orders.size();
+  }
 
-    } else if (workerExists(id, type)) { //&& (!directory.get(id).getIsAvail())) {
-      switch (type) {
-        case "Picker":
-          parsePickerCommand(command);
-          break;
-        case "Sequencer":
-          parseSequencerCommand(command);
-          break;
-        case "Loader":
-          parseLoaderCommand(command);
-          break;
-        case "Replenisher":
-          parseReplenisherCommand(command);
-          break;
-        default:
-          logInvalidCommand(command);
+  /**
+   * Fills in the dispatch table with the action taken for each verb.
+   */
+  private void registerHandlers() {
+    handlers[Command.Verb.ORDER.ordinal()] = c -> processOrder(c.argument, c.id);
+    handlers[Command.Verb.READY.ordinal()] = c -> readyWorker(c.id, c.role.word);
+    handlers[Command.Verb.PICKS.ordinal()] = c -> {
+      if (hasWorker(c)) {
+        ((Picker) directory.get(c.id)).pick(c.argument);
+      }
+    };
+    handlers[Command.Verb.TO_MARSHALING.ordinal()] = c -> {
+      if (hasWorker(c)) {
+        directory.get(c.id).sendNextRequest();
+      }
+    };
+    CommandHandler check = c -> {
+      if (hasWorker(c)) {
+        ((CheckerWorker) directory.get(c.id)).check();
+      }
+    };
+    handlers[Command.Verb.SEQUENCES.ordinal()] = check;
+    handlers[Command.Verb.LOADS.ordinal()] = check;
+    handlers[Command.Verb.RESCANS.ordinal()] = c -> {
+      if (hasWorker(c)) {
+        ((CheckerWorker) directory.get(c.id)).rescan();
+      }
+    };
+    handlers[Command.Verb.REJECTS.ordinal()] = c -> {
+      if (hasWorker(c)) {
+        ((CheckerWorker) directory.get(c.id)).sendToRepick();
       }
+    };
+    handlers[Command.Verb.APPROVES.ordinal()] = c -> {
+      if (hasWorker(c)) {
+        directory.get(c.id).sendNextRequest();
+      }
+    };
+    handlers[Command.Verb.REPLENISHES.ordinal()] = c -> {
+      if (hasWorker(c)) {
+        ((Replenisher) directory.get(c.id)).replenish();
+      }
+    };
+  }
+
+  /**
+   * Informs the system that a worker is ready, creating the worker if they do not exist yet.
+   */
+  private void readyWorker(String id, String type) {
+    if (workerExists(id, type) == null) {
+      logger.warn("{} already exists, but is not working as a {}", id, type);
+    } else if (!workerExists(id, type)) {
+      createWorker(id, type);
     }
+    directory.get(id).doNextTask();
   }
 
+  /**
+   * @return <code>true</code> if the worker named by <code>command</code> exists with the role of
+   *         the command. Logs a warning if the id belongs to a worker with a different role.
+   */
+  private boolean hasWorker(Command command) {
+    Boolean exists = workerExists(command.id, command.role.word);
+    if (exists == null) {
+      logger.warn("{} already exists, but is not working as a {}", command.id, command.role.word);
+      return false;
+    }
+    return exists;
+  }
 
   /**
    * Informs the system that the specified worker is ready.
@@ -159,7 +450,16 @@ public class Simulator {
   void createWorker(String id, String type) {
     switch (type) {
       case ("Picker"):
-        directory.put(id, new Picker(id, rm, im));
+        ZoneDispatcher zoneDispatcher = rm.getZoneDispatcher();
+        if (zoneDispatcher != null) {
+          String zone = zoneDispatcher.assignZone();
+          logger.info("Picker {} is assigned to zone {}", id, zone);
+          directory.put(id, new ZonePicker(id, rm, im, zone));
+          break;
+        }
+        int batchSize = context.getPickingBatchSize();
+        directory.put(id, batchSize > 1 ? new BatchPicker(id, rm, im, batchSize)
+            : new Picker(id, rm, im));
         break;
       case ("Loader"):
         directory.put(id, new Loader(id, rm, im));
@@ -168,75 +468,15 @@ public class Simulator {
         directory.put(id, new Sequencer(id, rm, im));
         break;
       case ("Replenisher"):
-        directory.put(id, new Replenisher(id, rm, im));
-        break;
-      default:
-        logger.error("Cannot create worker of type: " + type);
-    }
-  }
-
-  private void parsePickerCommand(String line) {
-    String[] lineSplit = line.split(" ");
-    String id = lineSplit[1];
-
-    if (Pattern.matches("^Picker " + id + " picks \\w+$", line)) {
-      String sku = line.split(" ")[3];
-      ((Picker) directory.get(id)).pick(sku);
-    } else if (Pattern.matches("^Picker " + id + " to Marshaling$", line)) {
-      directory.get(id).sendNextRequest();
-    } else {
-      logInvalidCommand(line);
-    }
-  }
-
-  private void parseSequencerCommand(String command) {
-    String id = command.split(" ")[1];
-    String action = command.split(" ")[2];
-    switch (action) {
-      case "sequences":
-        ((CheckerWorker) directory.get(id)).check();
-        break;
-      case "rescans":
-        ((CheckerWorker) directory.get(id)).rescan();
-        break;
-      case "rejects":
-        ((CheckerWorker) directory.get(id)).sendToRepick();
-        break;
-      case "approves":
-        ((CheckerWorker) directory.get(id)).sendNextRequest();
-        break;
-      default:
-        logInvalidCommand(command);
-    }
-  }
-
-  private void parseLoaderCommand(String command) {
-    String id = command.split(" ")[1];
-    String action = command.split(" ")[2];
-    switch (action) {
-      case "loads":
-        ((CheckerWorker) directory.get(id)).check();
-        break;
-      case "rescans":
-        ((CheckerWorker) directory.get(id)).rescan();
-        break;
-      case "rejects":
-        ((CheckerWorker) directory.get(id)).sendToRepick();
-        break;
-      case "approves":
-        ((CheckerWorker) directory.get(id)).sendNextRequest();
+        int tripSize = context.getReplenishingBatchSize();
+        directory.put(id, tripSize > 1 ? new BatchReplenisher(id, rm, im, tripSize)
+            : new Replenisher(id, rm, im));
         break;
       default:
-        logInvalidCommand(command);
+        logger.error("Cannot create worker of type: {}", type);
     }
   }
 
-
-  private void parseReplenisherCommand(String command) {
-    String id = command.split(" ")[1];
-    ((Replenisher) directory.get(id)).replenish();
-  }
-
   private void logInvalidCommand(String line) {
     logger.warn("Command '{}' could not be recognized. Please reformat this command.", line);
 
@@ -280,4 +520,11 @@ public class Simulator {
     om.enqueue(order);
   }
 
+  /**
+   * The action taken by the simulation for one kind of command.
+   */
+  private interface CommandHandler {
+    void handle(Command command);
+  }
+
 }
@@ -0,0 +1,611 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Proposes a new assignment of SKUs to the locations of the traversal table (a slotting) from the
+ * orders of the past, so that the fascia ordered most often, and those ordered together, are
+ * picked along short routes.
+ *
+ *
+ * <p>The history is read from a completed orders file (orders.csv), a command file or a binary
+ * event log. Its orders are grouped into picking requests four at a time, as the
+ * <code>OrderManager</code> does, giving the pick frequency of every SKU and the number of
+ * requests each pair of SKUs shares. The optimizer minimizes the mean length of the routes of
+ * those requests, walked in traversal table order from and back to the marshalling area: the
+ * SKUs are first placed by frequency, each followed by the SKU it is most often ordered with,
+ * nearest the marshalling area first. Pairs of SKUs then swap locations as long as a swap
+ * shortens the routes. The locations keep their place in the table, so only the SKU column
+ * changes.
+ *
+ *
+ * <p>Each location is assumed to hold a different SKU. SKUs that are not on the picking floor
+ * are ignored.
+ *
+ *
+ * <p>Usage: <code>SlottingOptimizer history directory outputDirectory [maxPasses]</code>. The
+ * data files of <code>directory</code> describe the warehouse as it is. The new traversal table,
+ * the initial inventory moved with its SKUs, a copy of the translation table and the migration
+ * plan (migration.csv) are written to <code>outputDirectory</code>, then the history is picked in
+ * both warehouses at the same time to compare the distance walked.
+ */
+public class SlottingOptimizer {
+
+  /** The number of orders grouped into one picking request, as in the simulation. */
+  private final int ordersPerRequest;
+
+  /** The most passes over every pair of SKUs made by <code>optimize()</code>. */
+  static final int DEFAULT_MAX_PASSES = 20;
+
+  /** Where fascia wait during a migration while their new location is being emptied. */
+  static final String STAGING = "Staging";
+
+  /** An order of a completed orders file, which may be written without line breaks. */
+  private static final Pattern COMPLETED_ORDER =
+      Pattern.compile("Order #\\d+: (\\S+), (\\S+?)(?=Order #|\\s|$)");
+
+  private final SimulationContext context;
+  private final LocationCatalog catalog;
+
+  /** Translates orders into the SKUs of their fascia. */
+  private final OrderManager translator;
+
+  /** The SKU of each location code, as in the traversal table. */
+  private final String[] slotting;
+
+  /** The index of each SKU in <code>slotting</code>. */
+  private final HashMap<String, Integer> skuIndexes = new HashMap<>(80);
+
+  /** The colour and model of every order of the history, in order. */
+  private final ArrayList<String[]> orders = new ArrayList<>();
+
+  /** The orders not yet grouped into a request. */
+  private final ArrayList<Order> group = new ArrayList<>();
+
+  /** The SKU indexes of the stocked fascia of each request of the history. */
+  private final ArrayList<int[]> requests = new ArrayList<>();
+
+  /** The number of fascia of each SKU picked in the history. */
+  private final int[] frequency;
+
+  /** The number of requests holding both SKUs, for each pair of SKU indexes. */
+  private final int[][] coOccurrence;
+
+  /**
+   * Creates an optimizer for the warehouse described by the data files of <code>context</code>,
+   * with an empty history.
+   *
+   * @throws FileNotFoundException if the translation or traversal table does not exist.
+   */
+  public SlottingOptimizer(SimulationContext context) throws FileNotFoundException {
+    this.context = context;
+    this.ordersPerRequest = context.getOrderBatchSize();
+    this.catalog = context.getLocationCatalog();
+    this.translator = new OrderManager(context.getTranslationTable(), null, context);
+    slotting = new String[catalog.size()];
+    for (int code = 0; code < slotting.length; code++) {
+      slotting[code] = catalog.getSku(code);
+      skuIndexes.put(slotting[code], code);
+    }
+    frequency = new int[slotting.length];
+    coOccurrence = new int[slotting.length][slotting.length];
+  }
+
+  /**
+   * Adds an order to the history. Every fourth order completes a picking request.
+   *
+   * @return <code>false</code> if the warehouse does not stock fascia for the order.
+   */
+  public boolean addOrder(String colour, String model) {
+    int fascia = translator.getFasciaCatalog().getCode(colour, model);
+    if (fascia < 0) {
+      return false;
+    }
+    orders.add(new String[] {colour, model});
+    Order order = new Order(orders.size(), colour, model);
+    order.fascia = fascia;
+    group.add(order);
+    if (group.size() == ordersPerRequest) {
+      ArrayList<String> skus = translator.generateLoadingOrder(group);
+      group.clear();
+      int[] request = new int[skus.size()];
+      int size = 0;
+      for (String sku : skus) {
+        Integer index = skuIndexes.get(sku);
+        if (index != null) {
+          request[size++] = index;
+          frequency[index]++;
+        }
+      }
+      request = Arrays.copyOf(request, size);
+      requests.add(request);
+      int[] distinct = Arrays.stream(request).distinct().toArray();
+      for (int i = 0; i < distinct.length; i++) {
+        for (int j = i + 1; j < distinct.length; j++) {
+          coOccurrence[distinct[i]][distinct[j]]++;
+          coOccurrence[distinct[j]][distinct[i]]++;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the orders of a completed orders file, command file or event log to the history. Lines
+   * that are not orders are skipped.
+   *
+   * @return The number of orders added.
+   * @throws IOException if <code>history</code> cannot be read.
+   */
+  public int readHistory(Path history) throws IOException {
+    int before = orders.size();
+    if (EventLog.isEventLog(history)) {
+      Command event = new Command();
+      try (EventLogReader reader = new EventLogReader(Files.newInputStream(history))) {
+        while (reader.next(event)) {
+          if (reader.getRawLine() != null) {
+            addLine(reader.getRawLine(), event);
+          } else if (event.getVerb() == Command.Verb.ORDER) {
+            addOrder(event.getArgument(), event.getId());
+          }
+        }
+      }
+    } else {
+      Command command = new Command();
+      try (BufferedReader reader = Files.newBufferedReader(history, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          addLine(line, command);
+        }
+      }
+    }
+    return orders.size() - before;
+  }
+
+  /**
+   * Adds the orders of one line of a completed orders or command file.
+   */
+  private void addLine(String line, Command command) {
+    Matcher completed = COMPLETED_ORDER.matcher(line);
+    boolean found = false;
+    while (completed.find()) {
+      addOrder(completed.group(1), completed.group(2));
+      found = true;
+    }
+    // commands are written "Order model colour"
+    if (!found && CommandParser.parse(line, command) && command.getVerb() == Command.Verb.ORDER) {
+      addOrder(command.getArgument(), command.getId());
+    }
+  }
+
+  /**
+   * @return The number of orders in the history.
+   */
+  public int getOrderCount() {
+    return orders.size();
+  }
+
+  /**
+   * @return The number of complete picking requests in the history.
+   */
+  public int getRequestCount() {
+    return requests.size();
+  }
+
+  /**
+   * @return The number of fascia with SKU <code>sku</code> picked in the history.
+   */
+  public int getFrequency(String sku) {
+    Integer index = skuIndexes.get(sku);
+    return index == null ? 0 : frequency[index];
+  }
+
+  /**
+   * @return The number of requests of the history holding both SKUs.
+   */
+  public int getCoOccurrence(String sku, String other) {
+    Integer index = skuIndexes.get(sku);
+    Integer otherIndex = skuIndexes.get(other);
+    return index == null || otherIndex == null ? 0 : coOccurrence[index][otherIndex];
+  }
+
+  /**
+   * @return The SKU of each location code in the traversal table as it is.
+   */
+  public String[] getSlotting() {
+    return slotting.clone();
+  }
+
+  /**
+   * @return The mean route length of the requests of the history if the SKUs were slotted as in
+   *         <code>newSlotting</code>, or 0 for an empty history.
+   */
+  public double expectedRouteLength(String[] newSlotting) {
+    if (requests.isEmpty()) {
+      return 0;
+    }
+    int[] locations = locationsOf(newSlotting);
+    int[] stops = new int[8];
+    long total = 0;
+    for (int[] request : requests) {
+      total += routeLength(request, locations, stops);
+    }
+    return (double) total / requests.size();
+  }
+
+  /**
+   * @return The location code of each SKU index for the given slotting.
+   */
+  private int[] locationsOf(String[] newSlotting) {
+    int[] locations = new int[newSlotting.length];
+    for (int code = 0; code < newSlotting.length; code++) {
+      locations[skuIndexes.get(newSlotting[code])] = code;
+    }
+    return locations;
+  }
+
+  /**
+   * @return The length of the route through the locations of <code>request</code>, in traversal
+   *         table order, from and back to the marshalling area.
+   */
+  private int routeLength(int[] request, int[] locations, int[] stops) {
+    if (stops.length < request.length) {
+      stops = new int[request.length];
+    }
+    for (int i = 0; i < request.length; i++) {
+      stops[i] = locations[request[i]];
+    }
+    Arrays.sort(stops, 0, request.length);
+    int depot = catalog.getDepot();
+    int length = 0;
+    int previous = depot;
+    for (int i = 0; i < request.length; i++) {
+      length += catalog.distance(previous, stops[i]);
+      previous = stops[i];
+    }
+    return length + catalog.distance(previous, depot);
+  }
+
+  /**
+   * Optimizes the slotting with at most <code>DEFAULT_MAX_PASSES</code> passes of swaps.
+   *
+   * @return The SKU of each location code in the proposed slotting.
+   */
+  public String[] optimize() {
+    return optimize(DEFAULT_MAX_PASSES);
+  }
+
+  /**
+   * Proposes a slotting whose expected route length is never longer than the current one.
+   *
+   * @param maxPasses - The most passes over every pair of SKUs looking for swaps.
+   * @return The SKU of each location code in the proposed slotting.
+   */
+  public String[] optimize(int maxPasses) {
+    int n = slotting.length;
+    int[] locations = seed();
+    if (expectedRouteLength(slottingOf(locations)) > expectedRouteLength(slotting)) {
+      locations = locationsOf(slotting);
+    }
+
+    // the requests each SKU is part of, and the current length of every request
+    ArrayList<ArrayList<Integer>> requestsOf = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      requestsOf.add(new ArrayList<>());
+    }
+    int[] lengths = new int[requests.size()];
+    int[] stops = new int[8];
+    for (int r = 0; r < requests.size(); r++) {
+      int[] request = requests.get(r);
+      for (int sku : Arrays.stream(request).distinct().toArray()) {
+        requestsOf.get(sku).add(r);
+      }
+      lengths[r] = routeLength(request, locations, stops);
+    }
+
+    int[] newLengths = new int[requests.size()];
+    int[] seen = new int[requests.size()];
+    int stamp = 0;
+    ArrayList<Integer> affected = new ArrayList<>();
+    for (int pass = 0; pass < maxPasses; pass++) {
+      boolean improved = false;
+      for (int a = 0; a < n; a++) {
+        for (int b = a + 1; b < n; b++) {
+          if (frequency[a] == 0 && frequency[b] == 0) {
+            continue;
+          }
+          swap(locations, a, b);
+          stamp++;
+          affected.clear();
+          long delta = 0;
+          for (int sku : new int[] {a, b}) {
+            for (int r : requestsOf.get(sku)) {
+              if (seen[r] != stamp) {
+                seen[r] = stamp;
+                affected.add(r);
+                newLengths[r] = routeLength(requests.get(r), locations, stops);
+                delta += newLengths[r] - lengths[r];
+              }
+            }
+          }
+          if (delta < 0) {
+            for (int r : affected) {
+              lengths[r] = newLengths[r];
+            }
+            improved = true;
+          } else {
+            swap(locations, a, b);
+          }
+        }
+      }
+      if (!improved) {
+        break;
+      }
+    }
+    return slottingOf(locations);
+  }
+
+  /**
+   * @return A first slotting: the most frequent SKU nearest the marshalling area, each followed by
+   *         the SKU it is ordered with in at least half of that SKU's requests, if there is one.
+   */
+  private int[] seed() {
+    int n = slotting.length;
+    final int depot = catalog.getDepot();
+    Integer[] codes = new Integer[n];
+    for (int code = 0; code < n; code++) {
+      codes[code] = code;
+    }
+    Arrays.sort(codes, (x, y) -> catalog.distance(depot, x) != catalog.distance(depot, y)
+        ? Integer.compare(catalog.distance(depot, x), catalog.distance(depot, y))
+        : Integer.compare(x, y));
+
+    int[] locations = new int[n];
+    boolean[] placed = new boolean[n];
+    int last = -1;
+    for (int position = 0; position < n; position++) {
+      int next = -1;
+      if (last >= 0) {
+        for (int j = 0; j < n; j++) {
+          if (!placed[j] && coOccurrence[last][j] > 0 && 2 * coOccurrence[last][j] >= frequency[j]
+              && (next < 0 || coOccurrence[last][j] > coOccurrence[last][next])) {
+            next = j;
+          }
+        }
+      }
+      if (next < 0) {
+        for (int j = 0; j < n; j++) {
+          if (!placed[j] && (next < 0 || frequency[j] > frequency[next])) {
+            next = j;
+          }
+        }
+      }
+      placed[next] = true;
+      locations[next] = codes[position];
+      last = next;
+    }
+    return locations;
+  }
+
+  private String[] slottingOf(int[] locations) {
+    String[] newSlotting = new String[locations.length];
+    for (int i = 0; i < locations.length; i++) {
+      newSlotting[locations[i]] = slotting[i];
+    }
+    return newSlotting;
+  }
+
+  private static void swap(int[] array, int i, int j) {
+    int swap = array[i];
+    array[i] = array[j];
+    array[j] = swap;
+  }
+
+  /**
+   * Plans the moves turning the current slotting into <code>newSlotting</code>. The moves form
+   * cycles: the first fascia of a cycle is moved to <code>STAGING</code>, each following fascia
+   * into the location just emptied, and the staged fascia into the last location emptied.
+   *
+   * @return The SKU, the location it leaves and the location it goes to, for every move in order.
+   */
+  public List<String[]> migrationPlan(String[] newSlotting) {
+    ArrayList<String[]> plan = new ArrayList<>();
+    boolean[] done = new boolean[slotting.length];
+    for (int start = 0; start < slotting.length; start++) {
+      if (done[start] || slotting[start].equals(newSlotting[start])) {
+        continue;
+      }
+      plan.add(new String[] {slotting[start], catalog.getLocation(start), STAGING});
+      int empty = start;
+      while (true) {
+        done[empty] = true;
+        String sku = newSlotting[empty];
+        int from = skuIndexes.get(sku);
+        if (from == start) {
+          plan.add(new String[] {sku, STAGING, catalog.getLocation(empty)});
+          break;
+        }
+        plan.add(new String[] {sku, catalog.getLocation(from), catalog.getLocation(empty)});
+        empty = from;
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Writes the warehouse with <code>newSlotting</code> to <code>directory</code>: the new traversal
+   * table, the initial inventory moved with its SKUs, a copy of the translation table, and the
+   * migration plan as migration.csv, with the quantity of fascia moved.
+   *
+   * @throws IOException if a file cannot be read or written.
+   */
+  public void write(String[] newSlotting, Path directory) throws IOException {
+    Files.createDirectories(directory);
+    SimulationContext output = new SimulationContext(directory);
+    Files.copy(Paths.get(context.getTranslationTable()), Paths.get(output.getTranslationTable()),
+        StandardCopyOption.REPLACE_EXISTING);
+
+    try (BufferedWriter table = Files.newBufferedWriter(Paths.get(output.getTraversalTable()),
+        StandardCharsets.UTF_8)) {
+      for (int code = 0; code < newSlotting.length; code++) {
+        table.write(catalog.getLocation(code) + "," + newSlotting[code]);
+        table.newLine();
+      }
+    }
+
+    int[] newLocations = locationsOf(newSlotting);
+    try (Scanner scanner = new Scanner(Files.newInputStream(
+        Paths.get(context.getInitialInventory())), "UTF-8");
+        BufferedWriter initial = Files.newBufferedWriter(Paths.get(output.getInitialInventory()),
+            StandardCharsets.UTF_8)) {
+      while (scanner.hasNextLine()) {
+        // Zone,Aisle,Rack,Level,quantity: the quantity follows its SKU to the new location
+        String line = scanner.nextLine();
+        int separator = line.lastIndexOf(',');
+        int code = separator < 0 ? -1 : catalog.getCode(line.substring(0, separator));
+        if (code < 0) {
+          continue;
+        }
+        int sku = skuIndexes.get(catalog.getSku(code));
+        initial.write(catalog.getLocation(newLocations[sku]) + line.substring(separator));
+        initial.newLine();
+      }
+    }
+
+    InventoryManager inventory =
+        new InventoryManager(context.getInitialInventory(), null, false, context);
+    try (BufferedWriter migration = Files.newBufferedWriter(directory.resolve("migration.csv"),
+        StandardCharsets.UTF_8)) {
+      migration.write("Step,SKU,From,To,Quantity");
+      migration.newLine();
+      int step = 1;
+      for (String[] move : migrationPlan(newSlotting)) {
+        migration.write(String.format("%d,%s,\"%s\",\"%s\",%d", step++, move[0], move[1],
+            move[2], inventory.getAmount(move[0])));
+        migration.newLine();
+      }
+    }
+  }
+
+  /**
+   * Places the orders of the history in a new simulation of <code>warehouse</code>, and has one
+   * picker pick every request along its picking order.
+   *
+   * @return The distance walked, the fascia picked and the trips made.
+   * @throws FileNotFoundException if a data file of <code>warehouse</code> does not exist.
+   */
+  long[] pickHistory(SimulationContext warehouse) throws FileNotFoundException {
+    Simulator simulator = new Simulator(warehouse);
+    for (String[] order : orders) {
+      simulator.getOrderManager().enqueue(new Order(order[0], order[1], warehouse));
+    }
+    simulator.createWorker("Slotting", "Picker");
+    Picker picker = (Picker) simulator.getDirectory().get("Slotting");
+    long picks = 0;
+    long trips = 0;
+    picker.doNextTask();
+    while (picker.getCurrReq() != null) {
+      for (String sku : new ArrayList<>(picker.getPickingOrder())) {
+        picker.pick(sku);
+        picks++;
+      }
+      picker.sendNextRequest();
+      trips++;
+      if (simulator.getRequestManager().getPickingQueue().isEmpty()) {
+        break;
+      }
+      picker.doNextTask();
+    }
+    return new long[] {picker.getWalkedDistance(), picks, trips};
+  }
+
+  /**
+   * Picks the history in the current warehouse and in the one written to <code>directory</code>
+   * at the same time.
+   *
+   * @return The results of <code>pickHistory</code> before and after.
+   * @throws IOException if a data file of either warehouse does not exist.
+   */
+  public long[][] compare(Path directory) throws IOException {
+    final SimulationContext after = new SimulationContext(directory);
+    List<Callable<long[]>> simulations = Arrays.asList(() -> pickHistory(context),
+        () -> pickHistory(after));
+    ExecutorService pool = Executors.newFixedThreadPool(simulations.size());
+    try {
+      List<Future<long[]>> results = pool.invokeAll(simulations);
+      return new long[][] {results.get(0).get(), results.get(1).get()};
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while comparing the slottings", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("The comparison of the slottings failed", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Proposes a slotting from a history, writes it out, and compares it with the current one.
+   *
+   * @param args - The history, the directory of the current warehouse, the output directory and
+   *        optionally the most passes.
+   * @throws IOException if a file cannot be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println(
+          "Usage: SlottingOptimizer <history> <directory> <outputDirectory> [maxPasses]");
+      System.exit(1);
+    }
+    SlottingOptimizer optimizer =
+        new SlottingOptimizer(new SimulationContext(Paths.get(args[1])));
+    optimizer.readHistory(Paths.get(args[0]));
+    int maxPasses = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MAX_PASSES;
+    String[] newSlotting = optimizer.optimize(maxPasses);
+    Path output = Paths.get(args[2]);
+    optimizer.write(newSlotting, output);
+
+    double before = optimizer.expectedRouteLength(optimizer.getSlotting());
+    double after = optimizer.expectedRouteLength(newSlotting);
+    System.out.println(String.format("%d orders, %d requests read from %s",
+        optimizer.getOrderCount(), optimizer.getRequestCount(), args[0]));
+    System.out.println(String.format("Expected route length: %.2f before, %.2f after (%+.1f%%)",
+        before, after, before == 0 ? 0 : 100 * (after - before) / before));
+    System.out.println(String.format("%d moves written to %s",
+        optimizer.migrationPlan(newSlotting).size(), output.resolve("migration.csv")));
+
+    long[][] picked = optimizer.compare(output);
+    PickTimeModel model = new PickTimeModel();
+    String[] names = {"Before", "After"};
+    for (int i = 0; i < picked.length; i++) {
+      long[] result = picked[i];
+      System.out.println(String.format("%-6s: %d fascia picked in %d trips, %.2f walked per"
+          + " fascia, %.0f picks/hour", names[i], result[1], result[2],
+          result[1] == 0 ? 0 : (double) result[0] / result[1],
+          result[1] == 0 ? 0 : model.picksPerHour(result[0], result[1], result[2], result[2])));
+    }
+  }
+}
@@ -0,0 +1,692 @@
+package project;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The complete state of a simulation after a given number of commands, from which the simulation
+ * can be restored and continued.
+ *
+ *
+ * <p>A snapshot holds the id counters, every <code>PickingRequest</code> in the queues or held by
+ * a worker, the queues of the <code>RequestManager</code> and <code>WorkerManager</code>, the
+ * workers in the directory, the zone tasks of zone picking, the inventory, the orders waiting
+ * to be grouped with the time each was queued at, the batching and wave planning metrics, the
+ * orders submitted but not queued yet, and the length of the completed orders file. A request reachable in several ways, for example from
+ * the loading order and a worker, is stored once, so it is still a single object after restoring.
+ *
+ *
+ * <p>Taking a snapshot copies the state into memory and must happen on the thread running the
+ * simulation. Compressing and writing it to a file can then happen on any thread.
+ */
+public class Snapshot {
+
+  /** "WHSS" in ASCII: the first bytes of every snapshot. */
+  static final int MAGIC = 0x57485353;
+
+  static final int VERSION = 12;
+
+  /** The number of commands simulated before the snapshot was taken. */
+  private final long offset;
+
+  /** The length in bytes of the completed orders file when the snapshot was taken. */
+  private final long completedOrdersLength;
+
+  /** The serialized state, uncompressed. */
+  private final byte[] state;
+
+  private Snapshot(long offset, long completedOrdersLength, byte[] state) {
+    this.offset = offset;
+    this.completedOrdersLength = completedOrdersLength;
+    this.state = state;
+  }
+
+  /**
+   * @return The number of commands simulated before the snapshot was taken.
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return The length in bytes of the completed orders file when the snapshot was taken.
+   */
+  public long getCompletedOrdersLength() {
+    return completedOrdersLength;
+  }
+
+  /**
+   * @return The size in bytes of the uncompressed state.
+   */
+  public int size() {
+    return state.length;
+  }
+
+  /**
+   * Copies the state of <code>simulator</code>. The completed orders waiting in the buffer of the
+   * simulation are written first, so the snapshot records the length of the whole file.
+   *
+   * @param simulator - The simulation to copy, which must not be running on another thread.
+   * @return A snapshot independent of any later change to the simulation.
+   */
+  public static Snapshot capture(Simulator simulator) {
+    simulator.getRequestManager().flushCompletedOrders();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 12);
+    try {
+      new Encoder(new DataOutputStream(bytes)).write(simulator);
+    } catch (IOException e) {
+      throw new IllegalStateException("A ByteArrayOutputStream cannot fail", e);
+    }
+    return new Snapshot(simulator.getOffset(),
+        new File(simulator.getContext().getCompletedOrders()).length(), bytes.toByteArray());
+  }
+
+  /**
+   * Writes the compressed snapshot to <code>file</code>. The snapshot is written to a temporary
+   * file first and then moved, so <code>file</code> never holds a partial snapshot.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  public void write(Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+      out.write(state);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot written by <code>write</code>.
+   *
+   * @throws IOException if the file cannot be read or is not a snapshot.
+   */
+  public static Snapshot read(Path file) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 12);
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+      byte[] buffer = new byte[1 << 16];
+      int read;
+      while ((read = in.read(buffer)) > 0) {
+        bytes.write(buffer, 0, read);
+      }
+    }
+    byte[] state = bytes.toByteArray();
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+    if (state.length < 21 || in.readInt() != MAGIC) {
+      throw new IOException(String.format("'%s' is not a simulation snapshot", file));
+    }
+    int version = in.readByte();
+    if (version != VERSION) {
+      throw new IOException(String.format("Unsupported snapshot version %d in '%s'", version,
+          file));
+    }
+    return new Snapshot(in.readLong(), in.readLong(), state);
+  }
+
+  /**
+   * Creates a simulation in the state captured by this snapshot. The translation table, initial
+   * inventory and traversal table of <code>context</code> must exist, but the inventory and the
+   * id counters are taken from the snapshot. Commands given to the restored simulation through
+   * <code>runSimulation</code> or <code>replay</code> skip the first <code>getOffset()</code>
+   * commands, which were simulated before the snapshot.
+   *
+   *
+   * <p>The completed orders file of <code>context</code> is cut back to its length when the
+   * snapshot was taken, so the requests completed after the snapshot by the interrupted run are
+   * not written twice when their commands are simulated again.
+   *
+   * @param context - The simulation the restored state belongs to.
+   * @return The restored simulation.
+   * @throws IOException if a data file of <code>context</code> is missing, or the completed
+   *         orders file cannot be cut back.
+   */
+  public Simulator restore(SimulationContext context) throws IOException {
+    Simulator simulator = new Simulator(context);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+    in.readInt();
+    in.readByte();
+    in.readLong();
+    in.readLong();
+    new Decoder(in).read(simulator);
+    simulator.restoreOffset(offset);
+    truncateCompletedOrders(new File(context.getCompletedOrders()));
+    return simulator;
+  }
+
+  /**
+   * Cuts <code>file</code> back to <code>completedOrdersLength</code> bytes if it is longer.
+   */
+  private void truncateCompletedOrders(File file) throws IOException {
+    if (file.length() <= completedOrdersLength) {
+      return;
+    }
+    try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+      out.setLength(completedOrdersLength);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      out.writeUTF(s);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeStrings(DataOutputStream out, Collection<String> strings)
+      throws IOException {
+    out.writeInt(strings == null ? -1 : strings.size());
+    if (strings != null) {
+      for (String s : strings) {
+        writeString(out, s);
+      }
+    }
+  }
+
+  private static ArrayList<String> readStrings(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      return null;
+    }
+    ArrayList<String> strings = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      strings.add(readString(in));
+    }
+    return strings;
+  }
+
+  private static void writeOrder(DataOutputStream out, Order order) throws IOException {
+    out.writeInt(order.getId());
+    writeString(out, order.colour);
+    writeString(out, order.model);
+  }
+
+  private static Order readOrder(DataInputStream in) throws IOException {
+    return new Order(in.readInt(), readString(in), readString(in));
+  }
+
+  /**
+   * Writes the state of a simulation.
+   */
+  private static class Encoder {
+    private final DataOutputStream out;
+
+    /** Each request written so far and its position in the request table. */
+    private final IdentityHashMap<PickingRequest, Integer> requests = new IdentityHashMap<>();
+    private final ArrayList<PickingRequest> requestTable = new ArrayList<>();
+
+    Encoder(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void write(Simulator simulator) throws IOException {
+      RequestManager rm = simulator.getRequestManager();
+      WorkerManager wm = rm.getWorkerManager();
+      SimulationContext context = simulator.getContext();
+
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeLong(simulator.getOffset());
+      out.writeLong(new File(context.getCompletedOrders()).length());
+      out.writeInt(context.getNextOrderId());
+      out.writeInt(context.getNextRequestId());
+
+      // the request table, so the queues and workers can refer to requests by position
+      collect(rm.getLoadingOrder());
+      collect(rm.getPickingQueue());
+      collect(rm.getSequencingQueue());
+      collect(rm.getLoadingQueue());
+      for (Worker worker : simulator.getDirectory().values()) {
+        if (worker.currReq != null) {
+          collect(worker.currReq);
+        }
+        if (worker instanceof BatchPicker) {
+          collect(((BatchPicker) worker).getBatch());
+        }
+      }
+      ZoneDispatcher zoneDispatcher = rm.getZoneDispatcher();
+      if (zoneDispatcher != null) {
+        for (String zone : zoneDispatcher.getZones()) {
+          for (ZoneTask task : zoneDispatcher.getTasks(zone)) {
+            collect(task.getRequest());
+          }
+        }
+        collect(zoneDispatcher.getOutstandingParts().keySet());
+      }
+      out.writeInt(requestTable.size());
+      for (PickingRequest request : requestTable) {
+        out.writeInt(request.getId());
+        ArrayList<Order> orders = request.getOrders();
+        out.writeInt(orders == null ? -1 : orders.size());
+        if (orders != null) {
+          for (Order order : orders) {
+            writeOrder(out, order);
+          }
+        }
+        writeStrings(out, request.getLoadingOrder());
+        writeStrings(out, request.getPickingOrder());
+        writeStrings(out, request.getFasciaState());
+      }
+
+      // queues are written in iteration order; for priority queues this is their heap order,
+      // which adding the requests back in the same order reproduces
+      writeRequests(rm.getLoadingOrder());
+      writeRequests(rm.getPickingQueue());
+      writeRequests(rm.getSequencingQueue());
+      writeRequests(rm.getLoadingQueue());
+      writeStrings(out, rm.getReplenishQueue());
+
+      out.writeInt(simulator.getDirectory().size());
+      for (Worker worker : simulator.getDirectory().values()) {
+        writeWorker(worker);
+      }
+      writeWorkerIds(wm.getAvailablePickers());
+      writeWorkerIds(wm.getAvailableSequencers());
+      writeWorkerIds(wm.getAvailableLoaders());
+      writeWorkerIds(wm.getAvailableReplenishers());
+      writeZoneDispatcher(zoneDispatcher);
+
+      InventoryManager im = simulator.getInventoryManager();
+      writeCounts(im.getInventory());
+      writeCounts(im.getStock());
+      writeMap(im.getSkus());
+      writeMap(im.getLocations());
+
+      OrderManager om = simulator.getOrderManager();
+      out.writeInt(om.getQueuedOrders().size());
+      for (Order order : om.getQueuedOrders()) {
+        writeOrder(out, order);
+        out.writeLong(order.queuedAt);
+      }
+      out.writeLong(om.getClock());
+      out.writeLong(om.getOldestQueuedAt());
+      out.writeLong(om.getQueuedAtSum());
+      out.writeLong(om.getBatchedOrderCount());
+      out.writeLong(om.getPartialBatchCount());
+      out.writeLong(om.getTotalBatchWait());
+      out.writeLong(om.getMaxBatchWait());
+      writeWavePlanner(om.getWavePlanner());
+      // other threads may still be submitting: write the orders submitted so far
+      ArrayList<Order> intake = new ArrayList<>(om.getIntake());
+      out.writeInt(intake.size());
+      for (Order order : intake) {
+        writeOrder(out, order);
+      }
+      out.flush();
+    }
+
+    private void collect(Collection<PickingRequest> queue) {
+      for (PickingRequest request : queue) {
+        collect(request);
+      }
+    }
+
+    private void collect(PickingRequest request) {
+      if (!requests.containsKey(request)) {
+        requests.put(request, requestTable.size());
+        requestTable.add(request);
+      }
+    }
+
+    private void writeZoneDispatcher(ZoneDispatcher zoneDispatcher) throws IOException {
+      out.writeBoolean(zoneDispatcher != null);
+      if (zoneDispatcher == null) {
+        return;
+      }
+      out.writeInt(zoneDispatcher.getZones().size());
+      for (String zone : zoneDispatcher.getZones()) {
+        writeString(out, zone);
+        out.writeInt(zoneDispatcher.getPickerCount(zone));
+        out.writeInt(zoneDispatcher.getTasks(zone).size());
+        for (ZoneTask task : zoneDispatcher.getTasks(zone)) {
+          out.writeInt(requests.get(task.getRequest()));
+          writeStrings(out, task.getPickingOrder());
+        }
+        writeWorkerIds(zoneDispatcher.getWaitingPickers(zone));
+      }
+      out.writeInt(zoneDispatcher.getOutstandingParts().size());
+      for (Map.Entry<PickingRequest, Integer> entry
+          : zoneDispatcher.getOutstandingParts().entrySet()) {
+        out.writeInt(requests.get(entry.getKey()));
+        out.writeInt(entry.getValue());
+      }
+    }
+
+    private void writeWavePlanner(WavePlanner planner) throws IOException {
+      out.writeBoolean(planner != null);
+      if (planner == null) {
+        return;
+      }
+      out.writeLong(planner.getWaveCount());
+      out.writeLong(planner.getWaveLength());
+      out.writeLong(planner.getBaselineLength());
+      out.writeLong(planner.getBaselineWait());
+      writeStrings(out, planner.getBaselineSkus());
+      out.writeInt(planner.getBaselineCount());
+      out.writeLong(planner.getBaselineOldestQueuedAt());
+      out.writeLong(planner.getBaselineQueuedAtSum());
+    }
+
+    private void writeRequests(Collection<PickingRequest> queue) throws IOException {
+      out.writeInt(queue.size());
+      for (PickingRequest request : queue) {
+        out.writeInt(requests.get(request));
+      }
+    }
+
+    private void writeWorker(Worker worker) throws IOException {
+      writeString(out, worker.getType());
+      writeString(out, worker.identity);
+      if (worker instanceof Picker) {
+        out.writeInt(worker instanceof BatchPicker ? ((BatchPicker) worker).getBatchSize() : 1);
+        writeString(out, worker instanceof ZonePicker ? ((ZonePicker) worker).getZone() : null);
+      } else if (worker instanceof Replenisher) {
+        out.writeInt(worker instanceof BatchReplenisher
+            ? ((BatchReplenisher) worker).getBatchSize() : 1);
+      }
+      out.writeBoolean(worker.isAvail);
+      out.writeInt(worker.currReq == null ? -1 : requests.get(worker.currReq));
+      writeString(out, worker.replenisherReq);
+      out.writeInt(worker.currIndex);
+      if (worker instanceof Picker) {
+        Picker picker = (Picker) worker;
+        out.writeBoolean(picker.getDonePicking());
+        out.writeInt(picker.getPosition());
+        out.writeLong(picker.getWalkedDistance());
+        if (picker instanceof BatchPicker) {
+          writeRequests(((BatchPicker) picker).getBatch());
+        } else if (picker instanceof ZonePicker) {
+          ZoneTask task = ((ZonePicker) picker).getTask();
+          writeStrings(out, task == null ? null : task.getPickingOrder());
+        }
+      } else if (worker instanceof BatchReplenisher) {
+        writeStrings(out, ((BatchReplenisher) worker).getTrip());
+      } else if (worker instanceof CheckerWorker) {
+        ArrayList<Boolean> validFascias = ((CheckerWorker) worker).validFascias;
+        out.writeInt(validFascias.size());
+        for (Boolean valid : validFascias) {
+          out.writeByte(valid == null ? 0 : valid ? 2 : 1);
+        }
+      }
+    }
+
+    private void writeWorkerIds(ArrayDeque<? extends Worker> workers) throws IOException {
+      out.writeInt(workers.size());
+      for (Worker worker : workers) {
+        writeString(out, worker.identity);
+      }
+    }
+
+    private void writeCounts(HashMap<String, Integer> counts) throws IOException {
+      out.writeInt(counts.size());
+      for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeInt(entry.getValue());
+      }
+    }
+
+    private void writeMap(HashMap<String, String> map) throws IOException {
+      out.writeInt(map.size());
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        writeString(out, entry.getKey());
+        writeString(out, entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Restores the state written by <code>Encoder</code> into a new simulation.
+   */
+  private static class Decoder {
+    private final DataInputStream in;
+    private final ArrayList<PickingRequest> requestTable = new ArrayList<>();
+
+    Decoder(DataInputStream in) {
+      this.in = in;
+    }
+
+    void read(Simulator simulator) throws IOException {
+      RequestManager rm = simulator.getRequestManager();
+      WorkerManager wm = rm.getWorkerManager();
+      SimulationContext context = simulator.getContext();
+
+      context.setNextOrderId(in.readInt());
+      context.setNextRequestId(in.readInt());
+
+      int requests = in.readInt();
+      for (int i = 0; i < requests; i++) {
+        int id = in.readInt();
+        int orderCount = in.readInt();
+        ArrayList<Order> orders = null;
+        if (orderCount >= 0) {
+          orders = new ArrayList<>(orderCount);
+          for (int j = 0; j < orderCount; j++) {
+            orders.add(readOrder(in));
+          }
+        }
+        requestTable.add(new PickingRequest(id, orders, readStrings(in), readStrings(in),
+            readStrings(in)));
+      }
+
+      readRequests(rm.getLoadingOrder());
+      readRequests(rm.getPickingQueue());
+      readRequests(rm.getSequencingQueue());
+      readRequests(rm.getLoadingQueue());
+      rm.getReplenishQueue().clear();
+      rm.getReplenishQueue().addAll(readStrings(in));
+
+      HashMap<String, Worker> directory = simulator.getDirectory();
+      directory.clear();
+      int workers = in.readInt();
+      for (int i = 0; i < workers; i++) {
+        readWorker(simulator);
+      }
+      readWorkers(wm.getAvailablePickers(), directory);
+      readWorkers(wm.getAvailableSequencers(), directory);
+      readWorkers(wm.getAvailableLoaders(), directory);
+      readWorkers(wm.getAvailableReplenishers(), directory);
+      readZoneDispatcher(simulator);
+
+      InventoryManager im = simulator.getInventoryManager();
+      readCounts(im.getInventory());
+      readCounts(im.getStock());
+      readMap(im.getSkus());
+      readMap(im.getLocations());
+
+      OrderManager om = simulator.getOrderManager();
+      om.clearQueuedOrders();
+      int queuedOrders = in.readInt();
+      for (int i = 0; i < queuedOrders; i++) {
+        Order order = readOrder(in);
+        order.queuedAt = in.readLong();
+        om.getQueuedOrders().add(order);
+      }
+      om.restoreClock(in.readLong(), in.readLong(), in.readLong());
+      om.restoreBatchMetrics(in.readLong(), in.readLong(), in.readLong(), in.readLong());
+      readWavePlanner(om);
+      om.getIntake().clear();
+      int intakeOrders = in.readInt();
+      for (int i = 0; i < intakeOrders; i++) {
+        om.submit(readOrder(in));
+      }
+    }
+
+    /**
+     * Restores zone picking as it was when the snapshot was taken, turning it on or off.
+     */
+    private void readZoneDispatcher(Simulator simulator) throws IOException {
+      RequestManager rm = simulator.getRequestManager();
+      if (!in.readBoolean()) {
+        rm.setZoneDispatcher(null);
+        return;
+      }
+      ZoneDispatcher zoneDispatcher = rm.getZoneDispatcher();
+      if (zoneDispatcher == null) {
+        zoneDispatcher = new ZoneDispatcher(simulator.getContext());
+        rm.setZoneDispatcher(zoneDispatcher);
+      }
+      int zones = in.readInt();
+      for (int i = 0; i < zones; i++) {
+        String zone = readString(in);
+        if (!zoneDispatcher.getZones().contains(zone)) {
+          throw new IOException(String.format("Zone %s is not in the traversal table", zone));
+        }
+        zoneDispatcher.setPickerCount(zone, in.readInt());
+        PriorityQueue<ZoneTask> tasks = zoneDispatcher.getTasks(zone);
+        tasks.clear();
+        int size = in.readInt();
+        for (int j = 0; j < size; j++) {
+          tasks.add(new ZoneTask(requestTable.get(in.readInt()), zone, readStrings(in)));
+        }
+        readWorkers(zoneDispatcher.getWaitingPickers(zone), simulator.getDirectory());
+      }
+      zoneDispatcher.getOutstandingParts().clear();
+      int outstanding = in.readInt();
+      for (int i = 0; i < outstanding; i++) {
+        zoneDispatcher.getOutstandingParts().put(requestTable.get(in.readInt()), in.readInt());
+      }
+    }
+
+    /**
+     * Restores the totals of wave planning, if it was on when the snapshot was taken and is on in
+     * the new simulation.
+     */
+    private void readWavePlanner(OrderManager om) throws IOException {
+      if (!in.readBoolean()) {
+        return;
+      }
+      long waveCount = in.readLong();
+      long waveLength = in.readLong();
+      long baselineLength = in.readLong();
+      long baselineWait = in.readLong();
+      ArrayList<String> baselineSkus = readStrings(in);
+      int baselineCount = in.readInt();
+      long baselineOldestQueuedAt = in.readLong();
+      long baselineQueuedAtSum = in.readLong();
+      WavePlanner planner = om.getWavePlanner();
+      if (planner != null) {
+        planner.restoreTotals(waveCount, waveLength, baselineLength, baselineWait);
+        planner.restoreBaselineGroup(baselineSkus, baselineCount, baselineOldestQueuedAt,
+            baselineQueuedAtSum);
+      }
+    }
+
+    private void readRequests(AbstractCollection<PickingRequest> queue) throws IOException {
+      queue.clear();
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        queue.add(requestTable.get(in.readInt()));
+      }
+    }
+
+    private void readWorker(Simulator simulator) throws IOException {
+      String type = readString(in);
+      String id = readString(in);
+      if (type.equals("Picker")) {
+        // pickers are restored as they were, whatever the batch size or zones of the new
+        // simulation
+        int batchSize = in.readInt();
+        String zone = readString(in);
+        RequestManager rm = simulator.getRequestManager();
+        InventoryManager im = simulator.getInventoryManager();
+        simulator.getDirectory().put(id, zone != null ? new ZonePicker(id, rm, im, zone)
+            : batchSize > 1 ? new BatchPicker(id, rm, im, batchSize) : new Picker(id, rm, im));
+      } else if (type.equals("Replenisher")) {
+        // replenishers too keep the batch size they were created with
+        int batchSize = in.readInt();
+        RequestManager rm = simulator.getRequestManager();
+        InventoryManager im = simulator.getInventoryManager();
+        simulator.getDirectory().put(id, batchSize > 1
+            ? new BatchReplenisher(id, rm, im, batchSize) : new Replenisher(id, rm, im));
+      } else {
+        simulator.createWorker(id, type);
+      }
+      Worker worker = simulator.getDirectory().get(id);
+      worker.isAvail = in.readBoolean();
+      int request = in.readInt();
+      worker.currReq = request < 0 ? null : requestTable.get(request);
+      worker.replenisherReq = readString(in);
+      worker.currIndex = in.readInt();
+      if (worker instanceof Picker) {
+        Picker picker = (Picker) worker;
+        picker.setDonePicking(in.readBoolean());
+        picker.setPosition(in.readInt());
+        picker.setWalkedDistance(in.readLong());
+        if (picker instanceof BatchPicker) {
+          readRequests(((BatchPicker) picker).getBatch());
+        } else if (picker instanceof ZonePicker) {
+          ArrayList<String> pickingOrder = readStrings(in);
+          if (pickingOrder != null) {
+            ZonePicker zonePicker = (ZonePicker) picker;
+            zonePicker.setTask(new ZoneTask(worker.currReq, zonePicker.getZone(), pickingOrder));
+          }
+        }
+      } else if (worker instanceof BatchReplenisher) {
+        ArrayList<String> trip = ((BatchReplenisher) worker).getTrip();
+        trip.clear();
+        trip.addAll(readStrings(in));
+      } else if (worker instanceof CheckerWorker) {
+        ArrayList<Boolean> validFascias = ((CheckerWorker) worker).validFascias;
+        int size = in.readInt();
+        validFascias.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+          byte valid = in.readByte();
+          validFascias.add(valid == 0 ? null : valid == 2);
+        }
+      }
+      if (worker.currReq != null) {
+        // the working lists of pickers and checkers are views of their current request
+        worker.process();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Worker> void readWorkers(ArrayDeque<T> queue,
+        HashMap<String, Worker> directory) throws IOException {
+      queue.clear();
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        queue.add((T) directory.get(readString(in)));
+      }
+    }
+
+    private void readCounts(HashMap<String, Integer> counts) throws IOException {
+      counts.clear();
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        counts.put(readString(in), in.readInt());
+      }
+    }
+
+    private void readMap(HashMap<String, String> map) throws IOException {
+      map.clear();
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        map.put(readString(in), readString(in));
+      }
+    }
+  }
+}
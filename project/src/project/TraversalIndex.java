@@ -0,0 +1,103 @@
+package project;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Scanner;
+
+/**
+ * An in-memory copy of the traversal table, associating the SKU of every fascia on the picking
+ * floor with its rank (row number) in the picking route.
+ *
+ *
+ * <p>The table is read once when the index is created. Sorting the SKUs of a request afterwards
+ * needs no file I/O and no scan of the table rows.
+ *
+ *
+ * <p>As a <code>PickRouter</code>, the index routes pickers along the rows of the table.
+ */
+public class TraversalIndex implements PickRouter {
+
+  /** The standard name of the traversal table. */
+  static final String DEFAULT_TABLE = "traversal_table.csv";
+
+  /** SKUs as keys and their 0-based row in the traversal table as the value. */
+  private HashMap<String, Integer> ranks = new HashMap<>(80);
+
+  /**
+   * Reads the provided traversal table into memory.
+   *
+   *
+   * <p>Precondition: each line of the CSV file has the format
+   * <code>Zone,Aisle,Rack,Level,SKU</code>. If a SKU appears on more than one line, its first
+   * line is used.
+   *
+   * @param traversalTable - The CSV file listing fascia locations in picking order.
+   * @throws FileNotFoundException if <code>traversalTable</code> does not exist.
+   */
+  public TraversalIndex(String traversalTable) throws FileNotFoundException {
+    Scanner scanner = new Scanner(new FileInputStream(traversalTable));
+    int rank = 0;
+    while (scanner.hasNextLine()) {
+      String[] lineList = scanner.nextLine().split(",");
+      if (lineList.length > 4 && !ranks.containsKey(lineList[4])) {
+        ranks.put(lineList[4], rank);
+      }
+      rank++;
+    }
+    scanner.close();
+  }
+
+  /**
+   * @return The 0-based position of <code>sku</code> in the picking route, or -1 if the SKU is not
+   *         stocked on the picking floor.
+   */
+  int getRank(String sku) {
+    Integer rank = ranks.get(sku);
+    return rank == null ? -1 : rank;
+  }
+
+  /**
+   * @return The number of distinct SKUs in the traversal table.
+   */
+  int size() {
+    return ranks.size();
+  }
+
+  /**
+   * Arranges SKUs in the order they are reached along the picking route. Repeated SKUs are kept
+   * next to each other and SKUs missing from the traversal table are dropped.
+   *
+   * @param skus - The SKUs of the fascia to be picked.
+   * @return A new list holding the stocked SKUs of <code>skus</code> in picking order.
+   */
+  public ArrayList<String> sort(ArrayList<String> skus) {
+    ArrayList<String> sorted = new ArrayList<>(skus.size());
+    int[] sortedRanks = new int[skus.size()];
+
+    // insertion sort: requests hold 8 fascia, and equal SKUs keep their relative order
+    for (String sku : skus) {
+      int rank = getRank(sku);
+      if (rank < 0) {
+        continue;
+      }
+      int i = sorted.size();
+      while (i > 0 && sortedRanks[i - 1] > rank) {
+        sortedRanks[i] = sortedRanks[i - 1];
+        i--;
+      }
+      sortedRanks[i] = rank;
+      sorted.add(i, sku);
+    }
+    return sorted;
+  }
+
+  /**
+   * Routes pickers in traversal table order; same as <code>sort</code>.
+   */
+  @Override
+  public ArrayList<String> route(ArrayList<String> skus) {
+    return sort(skus);
+  }
+}
@@ -0,0 +1,236 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Groups pending orders into picking requests with short tours, instead of strictly by arrival,
+ * and measures the result against grouping the same orders by arrival.
+ *
+ *
+ * <p>A wave is planned over a window of the oldest pending orders. It always holds the oldest
+ * order, so no order waits for more than one window, and is filled greedily: the order whose
+ * fascia add the least to the tour of the wave so far joins it next, the oldest order winning a
+ * tie. Tours are measured with a <code>RouteEngine</code> of this planner, from and back to the
+ * marshalling area, whatever router the pickers use.
+ *
+ *
+ * <p>The planner also follows the orders as if they were grouped by arrival, with the same batch
+ * size and maximum wait (<code>arrived</code>, <code>tick</code> and <code>flush</code>). The
+ * tours of those groups and the time their orders would have waited are the baseline of
+ * <code>getDistanceSaved</code> and <code>getBaselineWait</code>.
+ */
+public class WavePlanner {
+
+  private final RouteEngine engine;
+
+  /** The total length of the tours of the waves planned so far. */
+  private long waveLength;
+
+  /** The number of waves planned so far. */
+  private long waveCount;
+
+  /** The SKUs of the baseline group being filled. */
+  private final ArrayList<String> baselineSkus = new ArrayList<>();
+
+  /** The number of orders of the baseline group being filled. */
+  private int baselineCount;
+
+  /** The time the oldest order of the baseline group was queued at. */
+  private long baselineOldestQueuedAt;
+
+  /** The sum of the times the orders of the baseline group were queued at. */
+  private long baselineQueuedAtSum;
+
+  /** The total length of the tours of the full baseline groups. */
+  private long baselineLength;
+
+  /** The total time the orders of the full baseline groups waited, in commands. */
+  private long baselineWait;
+
+  /**
+   * @param catalog - The locations and walking distances of the picking floor.
+   */
+  public WavePlanner(LocationCatalog catalog) {
+    this.engine = new RouteEngine(catalog);
+  }
+
+  /**
+   * Chooses the orders of the next wave.
+   *
+   * @param window - The SKUs of the fascia of each pending order of the window, oldest first.
+   * @param groupSize - The number of orders per wave.
+   * @return The indexes in <code>window</code> of the orders of the wave, in increasing order. The
+   *         first one is always 0.
+   */
+  public int[] plan(List<? extends List<String>> window, int groupSize) {
+    int size = Math.min(groupSize, window.size());
+    boolean[] taken = new boolean[window.size()];
+    taken[0] = true;
+    ArrayList<String> skus = new ArrayList<>(window.get(0));
+    int length = tourLength(skus);
+    for (int k = 1; k < size; k++) {
+      int best = -1;
+      for (int i = 1; i < window.size(); i++) {
+        if (taken[i]) {
+          continue;
+        }
+        ArrayList<String> candidate = new ArrayList<>(skus);
+        candidate.addAll(window.get(i));
+        int candidateLength = tourLength(candidate);
+        if (best < 0 || candidateLength < length) {
+          best = i;
+          length = candidateLength;
+        }
+      }
+      taken[best] = true;
+      skus.addAll(window.get(best));
+    }
+    waveLength += length;
+    waveCount++;
+
+    int[] chosen = new int[size];
+    int next = 0;
+    for (int i = 0; i < taken.length; i++) {
+      if (taken[i]) {
+        chosen[next++] = i;
+      }
+    }
+    return chosen;
+  }
+
+  /**
+   * @return The length of the shortest tour found picking <code>skus</code>.
+   */
+  int tourLength(ArrayList<String> skus) {
+    return engine.length(engine.route(skus));
+  }
+
+  /**
+   * Adds an order to the baseline, grouping the orders by arrival.
+   *
+   * @param skus - The SKUs of the fascia of the order.
+   * @param clock - The time the order was queued at.
+   * @param batchSize - The number of orders per request.
+   */
+  void arrived(List<String> skus, long clock, int batchSize) {
+    if (baselineCount == 0) {
+      baselineOldestQueuedAt = clock;
+    }
+    baselineSkus.addAll(skus);
+    baselineCount++;
+    baselineQueuedAtSum += clock;
+    if (baselineCount >= batchSize) {
+      flush(clock);
+    }
+  }
+
+  /**
+   * Closes the baseline group if its oldest order has waited <code>maxWait</code> commands.
+   */
+  void tick(long clock, long maxWait) {
+    if (maxWait > 0 && baselineCount > 0 && clock - baselineOldestQueuedAt >= maxWait) {
+      flush(clock);
+    }
+  }
+
+  /**
+   * Closes the baseline group, if it holds any order, as if it was sent for picking.
+   */
+  void flush(long clock) {
+    if (baselineCount == 0) {
+      return;
+    }
+    baselineLength += tourLength(baselineSkus);
+    baselineWait += baselineCount * clock - baselineQueuedAtSum;
+    baselineSkus.clear();
+    baselineCount = 0;
+    baselineQueuedAtSum = 0;
+  }
+
+  /**
+   * @return The number of waves planned so far.
+   */
+  public long getWaveCount() {
+    return waveCount;
+  }
+
+  /**
+   * @return The total length of the tours of the waves planned so far.
+   */
+  public long getWaveLength() {
+    return waveLength;
+  }
+
+  /**
+   * @return The total length of the tours of the orders grouped by arrival so far.
+   */
+  public long getBaselineLength() {
+    return baselineLength;
+  }
+
+  /**
+   * @return The total number of commands the orders grouped by arrival so far would have waited.
+   */
+  public long getBaselineWait() {
+    return baselineWait;
+  }
+
+  /**
+   * @return The SKUs of the baseline group being filled.
+   */
+  ArrayList<String> getBaselineSkus() {
+    return baselineSkus;
+  }
+
+  /**
+   * @return The number of orders of the baseline group being filled.
+   */
+  int getBaselineCount() {
+    return baselineCount;
+  }
+
+  /**
+   * @return The time the oldest order of the baseline group was queued at.
+   */
+  long getBaselineOldestQueuedAt() {
+    return baselineOldestQueuedAt;
+  }
+
+  /**
+   * @return The sum of the times the orders of the baseline group were queued at.
+   */
+  long getBaselineQueuedAtSum() {
+    return baselineQueuedAtSum;
+  }
+
+  /**
+   * Sets the totals of the waves and of the baseline, such as when restoring a snapshot.
+   */
+  void restoreTotals(long waveCount, long waveLength, long baselineLength, long baselineWait) {
+    this.waveCount = waveCount;
+    this.waveLength = waveLength;
+    this.baselineLength = baselineLength;
+    this.baselineWait = baselineWait;
+  }
+
+  /**
+   * Sets the baseline group being filled, such as when restoring a snapshot.
+   */
+  void restoreBaselineGroup(List<String> skus, int count, long oldestQueuedAt,
+      long queuedAtSum) {
+    baselineSkus.clear();
+    baselineSkus.addAll(skus);
+    baselineCount = count;
+    baselineOldestQueuedAt = oldestQueuedAt;
+    baselineQueuedAtSum = queuedAtSum;
+  }
+
+  /**
+   * @return The distance saved by the waves over grouping by arrival. Only comparable once both
+   *         have grouped the same orders, such as after <code>flush</code>.
+   */
+  public long getDistanceSaved() {
+    return baselineLength - waveLength;
+  }
+}
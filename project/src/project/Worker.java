@@ -1,5 +1,7 @@
 package project;
 
+import java.io.FileNotFoundException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,11 +78,11 @@ public abstract class Worker {
     currReq = (PickingRequest) getRequest();
 
     if (currReq != null) {
-      logAssignedTask("PickingRequest #" + currReq.getId());
+      logAssignedTask("PickingRequest #", currReq.getId());
       isAvail = false;
       process();
     } else {
-      logSys(String.format("%s %s requests a new task", type, identity));
+      logSys("{} {} requests a new task", type, identity);
       rm.queueWorker(this);
     }
   }
@@ -131,8 +133,12 @@ public abstract class Worker {
     }
   }
 
-  protected void logAssignedTask(String task) {
-    logger.info("{} {} is assigned task: {}", type, identity, task);
+  /**
+   * Logs the task assigned to this worker, described by <code>task</code> followed by
+   * <code>detail</code>.
+   */
+  protected void logAssignedTask(String task, Object detail) {
+    logger.info("{} {} is assigned task: {}{}", type, identity, task, detail);
   }
 
   protected void logNoTask() {
@@ -144,6 +150,37 @@ public abstract class Worker {
     logger.warn("{} {} reporting an error: {}", type, identity, error);
   }
 
+  /**
+   * Logs an error reported by this worker. The message is only formatted if it is logged.
+   *
+   * @param format - The error, with a <code>{}</code> for each argument.
+   * @param args - The arguments replacing the <code>{}</code>s of <code>format</code>.
+   */
+  protected void logError(String format, Object... args) {
+    if (logger.isWarnEnabled()) {
+      logger.warn("{} {} reporting an error: " + format, prepend(type, identity, args));
+    }
+  }
+
+  /**
+   * @return <code>first</code> and <code>second</code> followed by <code>args</code>.
+   */
+  private static Object[] prepend(Object first, Object second, Object[] args) {
+    Object[] all = new Object[args.length + 2];
+    all[0] = first;
+    all[1] = second;
+    System.arraycopy(args, 0, all, 2, args.length);
+    return all;
+  }
+
+  /**
+   * Logs that the traversal table of the simulation could not be read.
+   */
+  protected void logMissingTraversalTable(FileNotFoundException e) {
+    logger.error("The traversal table '{}' was not found.", rm.getContext().getTraversalTable(),
+        e);
+  }
+
   protected void logScan(String fasciaSku) {
     logger.info("{} {} scanned fascia with SKU# {}", type, identity, fasciaSku);
   }
@@ -157,8 +194,16 @@ public abstract class Worker {
         request, currReq.getId());
   }
 
-  protected void logSys(String m) {
-    logger.info("System: {}", m);
+  /**
+   * Logs a system message. The message is only formatted if it is logged.
+   *
+   * @param format - The message, with a <code>{}</code> for each argument.
+   * @param args - The arguments replacing the <code>{}</code>s of <code>format</code>.
+   */
+  protected void logSys(String format, Object... args) {
+    if (logger.isInfoEnabled()) {
+      logger.info("System: " + format, args);
+    }
   }
 
   /**
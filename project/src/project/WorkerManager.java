@@ -38,13 +38,28 @@ public class WorkerManager {
     } else if (w instanceof Replenisher) {
       availableReplenishers.add((Replenisher) w);
     } else {
-      logger.info(String.format("Worker %s could not be queued since they are not "
-          + "a Picker, Sequencer, Loader, or Replenisher", w.identity));
+      logger.info("Worker {} could not be queued since they are not "
+          + "a Picker, Sequencer, Loader, or Replenisher", w.identity);
       return;
     }
     
-    logger.info(String.format("%s %s is placed in the %s queue",
-                                         w.getType(), w.identity, w.getType()));
+    logger.info("{} {} is placed in the {} queue", w.getType(), w.identity, w.getType());
+  }
+
+  ArrayDeque<Picker> getAvailablePickers() {
+    return availablePickers;
+  }
+
+  ArrayDeque<Sequencer> getAvailableSequencers() {
+    return availableSequencers;
+  }
+
+  ArrayDeque<Loader> getAvailableLoaders() {
+    return availableLoaders;
+  }
+
+  ArrayDeque<Replenisher> getAvailableReplenishers() {
+    return availableReplenishers;
   }
 
   Picker nextPicker() {
@@ -0,0 +1,558 @@
+package project;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Generates command files of any length for load tests and large replays.
+ *
+ *
+ * <p>The generator keeps its own model of the warehouse queues: the picking, sequencing and
+ * loading queues, the loading order, the queues of waiting workers, and the inventory. It only
+ * writes commands that the simulator accepts at that point of the simulation, so every picker
+ * picks along the route of its request, sequencers and loaders only scan requests they hold, and
+ * loaders load in the order the orders were received. The same data files, settings and seed
+ * always produce the same command file.
+ *
+ *
+ * <p>Errors, rescans and rejections are mixed in at configurable rates, and the interleaving
+ * setting controls how often consecutive commands come from different workers. The memory used
+ * is bounded by the maximum backlog of requests, not by the number of commands generated.
+ *
+ *
+ * <p>Usage: <code>WorkloadGenerator commands outputFile [setting=value...]</code>, with the
+ * settings <code>seed</code>, <code>directory</code>, <code>pickers</code>,
+ * <code>sequencers</code>, <code>loaders</code>, <code>replenishers</code>,
+ * <code>orderRate</code>, <code>maxBacklog</code>, <code>errorRate</code>,
+ * <code>rescanRate</code>, <code>rejectRate</code> and <code>interleaving</code>.
+ */
+public class WorkloadGenerator {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** What a modelled worker is doing. */
+  private enum State {
+    /** Not working and not queued; the next command is "ready". */
+    OFF,
+    /** Queued in the worker manager until a task is available. */
+    WAITING,
+    /** Working on a task. */
+    BUSY
+  }
+
+  /** A picking request as the generator sees it. */
+  private static class Request implements Comparable<Request> {
+    private final int id;
+    private final ArrayList<String> pickingOrder;
+
+    Request(int id, ArrayList<String> pickingOrder) {
+      this.id = id;
+      this.pickingOrder = pickingOrder;
+    }
+
+    @Override
+    public int compareTo(Request other) {
+      return Integer.compare(id, other.id);
+    }
+  }
+
+  /** A worker as the generator sees it. */
+  private static class SimulatedWorker {
+    private final Command.Role role;
+    private final String id;
+    private State state = State.OFF;
+    private Request request;
+    private String location;
+    private int index;
+    /** The position of this worker in <code>active</code>, or -1. */
+    private int activeIndex = -1;
+
+    SimulatedWorker(Command.Role role, String id) {
+      this.role = role;
+      this.id = id;
+    }
+  }
+
+  private final Random random;
+  private final TraversalIndex traversalIndex;
+  private final PickRouter router;
+  private final InventoryManager inventory;
+
+  /** The <code>Colour,Model,FrontSKU,RearSKU</code> rows whose fascia are both stocked. */
+  private final ArrayList<String[]> fascia = new ArrayList<>();
+  private final ArrayList<String> stockedSkus = new ArrayList<>();
+
+  private int pickers = 4;
+  private int sequencers = 2;
+  private int loaders = 2;
+  private int replenishers = 1;
+  private double orderRate = 0.15;
+  private int maxBacklog = 64;
+  private double errorRate = 0.0;
+  private double rescanRate = 0.0;
+  private double rejectRate = 0.0;
+  private double interleaving = 0.5;
+
+  private final PriorityQueue<Request> pickingQueue = new PriorityQueue<>();
+  private final ArrayDeque<Request> sequencingQueue = new ArrayDeque<>();
+  private final PriorityQueue<Request> loadingQueue = new PriorityQueue<>();
+  private final ArrayDeque<Request> loadingOrder = new ArrayDeque<>();
+  private final ArrayDeque<String> replenishQueue = new ArrayDeque<>();
+  private final ArrayDeque<SimulatedWorker> waitingPickers = new ArrayDeque<>();
+  private final ArrayDeque<SimulatedWorker> waitingSequencers = new ArrayDeque<>();
+  private final ArrayDeque<SimulatedWorker> waitingLoaders = new ArrayDeque<>();
+  private final ArrayDeque<SimulatedWorker> waitingReplenishers = new ArrayDeque<>();
+
+  /** The workers with a next command: those that are off or busy. */
+  private final ArrayList<SimulatedWorker> active = new ArrayList<>();
+  private SimulatedWorker current;
+
+  /** The number of orders grouped into one picking request, as in the simulation. */
+  private final int ordersPerRequest;
+
+  private final ArrayList<String[]> pendingOrders = new ArrayList<>();
+  private int requestCount;
+  private int backlog;
+  private long completedRequests;
+
+  /**
+   * Creates a generator for a warehouse described by the data files of <code>context</code>.
+   *
+   * @param context - The simulation whose translation table, traversal table and initial
+   *        inventory are used. Picks follow the router and orders are grouped by the batch size the
+   *        context uses at this point.
+   * @param seed - The seed of all random choices.
+   * @throws FileNotFoundException if one of the data files does not exist.
+   */
+  public WorkloadGenerator(SimulationContext context, long seed) throws FileNotFoundException {
+    this.random = new Random(seed);
+    this.ordersPerRequest = context.getOrderBatchSize();
+    this.traversalIndex = context.getTraversalIndex();
+    this.router = context.getPickRouter();
+    readTranslationTable(context.getTranslationTable());
+
+    // the real inventory manager, reporting replenishing requests to this generator
+    RequestManager replenishing = new RequestManager(new WorkerManager(), context) {
+      @Override
+      void sendToReplenish(String location) {
+        WorkloadGenerator.this.sendToReplenish(location);
+      }
+    };
+    this.inventory = new InventoryManager(context.getInitialInventory(), replenishing, true,
+        context);
+  }
+
+  private void readTranslationTable(String translationTable) throws FileNotFoundException {
+    Scanner scanner = new Scanner(new FileInputStream(translationTable));
+    scanner.nextLine(); // skip the header
+    while (scanner.hasNextLine()) {
+      String[] row = scanner.nextLine().split(",");
+      // orders for fascia missing from the picking floor could never be picked in full
+      if (row.length == 4 && traversalIndex.getRank(row[2]) >= 0
+          && traversalIndex.getRank(row[3]) >= 0) {
+        fascia.add(row);
+        stockedSkus.add(row[2]);
+        stockedSkus.add(row[3]);
+      }
+    }
+    scanner.close();
+    if (fascia.isEmpty()) {
+      throw new IllegalArgumentException(
+          "No fascia of the translation table are in the traversal table");
+    }
+  }
+
+  public void setPickers(int pickers) {
+    this.pickers = pickers;
+  }
+
+  public void setSequencers(int sequencers) {
+    this.sequencers = sequencers;
+  }
+
+  public void setLoaders(int loaders) {
+    this.loaders = loaders;
+  }
+
+  public void setReplenishers(int replenishers) {
+    this.replenishers = replenishers;
+  }
+
+  /**
+   * @param orderRate - The probability that the next command is an order, while the backlog is
+   *        below its maximum.
+   */
+  public void setOrderRate(double orderRate) {
+    this.orderRate = orderRate;
+  }
+
+  /**
+   * @param maxBacklog - The maximum number of requests created but not yet loaded. No orders are
+   *        placed while it is reached.
+   */
+  public void setMaxBacklog(int maxBacklog) {
+    this.maxBacklog = maxBacklog;
+  }
+
+  /**
+   * @param errorRate - The probability that a picker first picks a wrong fascia.
+   */
+  public void setErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+  }
+
+  /**
+   * @param rescanRate - The probability that a sequencer or loader starts over after a scan.
+   */
+  public void setRescanRate(double rescanRate) {
+    this.rescanRate = rescanRate;
+  }
+
+  /**
+   * @param rejectRate - The probability that a sequencer or loader rejects a fully scanned
+   *        request, sending it back to picking.
+   */
+  public void setRejectRate(double rejectRate) {
+    this.rejectRate = rejectRate;
+  }
+
+  /**
+   * @param interleaving - The probability that a command is followed by a command of another
+   *        worker. At 0, a worker keeps going until it is done or has to wait.
+   */
+  public void setInterleaving(double interleaving) {
+    this.interleaving = interleaving;
+  }
+
+  /**
+   * @return The number of requests loaded by the commands generated so far.
+   */
+  public long getCompletedRequests() {
+    return completedRequests;
+  }
+
+  /**
+   * Writes <code>commands</code> commands to <code>out</code>, one per line, continuing the
+   * simulation of any earlier call.
+   *
+   * @param commands - The number of commands to write.
+   * @param out - The destination of the commands.
+   * @throws IOException if writing to <code>out</code> fails.
+   */
+  public void generate(long commands, Writer out) throws IOException {
+    if (active.isEmpty() && current == null) {
+      if (pickers < 1 || sequencers < 1 || loaders < 1) {
+        throw new IllegalStateException(
+            "At least one picker, sequencer and loader is needed to complete requests");
+      }
+      hire(Command.Role.PICKER, "P", pickers);
+      hire(Command.Role.SEQUENCER, "S", sequencers);
+      hire(Command.Role.LOADER, "L", loaders);
+      hire(Command.Role.REPLENISHER, "R", replenishers);
+    }
+    StringBuilder line = new StringBuilder(64);
+    for (long i = 0; i < commands; i++) {
+      line.setLength(0);
+      nextCommand(line);
+      line.append('\n');
+      out.append(line);
+    }
+  }
+
+  private void hire(Command.Role role, String prefix, int count) {
+    for (int i = 1; i <= count; i++) {
+      activate(new SimulatedWorker(role, prefix + i));
+    }
+  }
+
+  private void nextCommand(StringBuilder line) {
+    boolean canOrder = backlog < maxBacklog;
+    if ((canOrder && random.nextDouble() < orderRate) || (active.isEmpty() && canOrder)) {
+      order(line);
+      return;
+    }
+    if (active.isEmpty()) {
+      throw new IllegalStateException("Every worker is waiting and the backlog is full");
+    }
+    if (current == null || current.activeIndex < 0 || random.nextDouble() < interleaving) {
+      current = active.get(random.nextInt(active.size()));
+    }
+    line.append(current.role.word).append(' ').append(current.id).append(' ');
+    if (current.state == State.OFF) {
+      line.append(Command.Verb.READY.word);
+      requestTask(current);
+    } else if (current.role == Command.Role.PICKER) {
+      pick(current, line);
+    } else if (current.role == Command.Role.REPLENISHER) {
+      line.append(Command.Verb.REPLENISHES.word);
+      inventory.replenish(current.location);
+      finishTask(current);
+    } else {
+      scan(current, line);
+    }
+  }
+
+  private void order(StringBuilder line) {
+    String[] row = fascia.get(random.nextInt(fascia.size()));
+    line.append("Order ").append(row[1]).append(' ').append(row[0]);
+    pendingOrders.add(row);
+    if (pendingOrders.size() == ordersPerRequest) {
+      // Proper loading order: (truck front) --> [R1, R2, R3, R4] [F1, F2, F3, F4] <-- (truck rear)
+      ArrayList<String> skus = new ArrayList<>(2 * ordersPerRequest);
+      for (String[] pending : pendingOrders) {
+        skus.add(pending[3]);
+      }
+      for (String[] pending : pendingOrders) {
+        skus.add(pending[2]);
+      }
+      pendingOrders.clear();
+      Request request = new Request(++requestCount, router.route(skus));
+      backlog++;
+      loadingOrder.add(request);
+      sendToPicking(request);
+    }
+  }
+
+  private void pick(SimulatedWorker picker, StringBuilder line) {
+    ArrayList<String> route = picker.request.pickingOrder;
+    if (picker.index == route.size()) {
+      line.append(Command.Verb.TO_MARSHALING.word);
+      Request request = picker.request;
+      finishTask(picker);
+      sendToSequencing(request);
+      return;
+    }
+    String sku = route.get(picker.index);
+    line.append(Command.Verb.PICKS.word).append(' ');
+    if (random.nextDouble() < errorRate) {
+      String wrong = stockedSkus.get(random.nextInt(stockedSkus.size()));
+      if (!wrong.equals(sku)) {
+        line.append(wrong);
+        return;
+      }
+    }
+    line.append(sku);
+    inventory.decrement(sku);
+    picker.index++;
+  }
+
+  private void scan(SimulatedWorker checker, StringBuilder line) {
+    if (checker.index > 0 && random.nextDouble() < rescanRate) {
+      line.append(Command.Verb.RESCANS.word);
+      checker.index = 0;
+    } else if (checker.index < checker.request.pickingOrder.size()) {
+      line.append(checker.role == Command.Role.LOADER ? Command.Verb.LOADS.word
+          : Command.Verb.SEQUENCES.word);
+      checker.index++;
+    } else {
+      Request request = checker.request;
+      finishTask(checker);
+      if (random.nextDouble() < rejectRate) {
+        line.append(Command.Verb.REJECTS.word);
+        sendToPicking(request);
+      } else {
+        line.append(Command.Verb.APPROVES.word);
+        if (checker.role == Command.Role.SEQUENCER) {
+          sendToLoading(request);
+        } else {
+          loadingOrder.poll();
+          backlog--;
+          completedRequests++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gives <code>worker</code> the next task of its queue, or queues the worker, the way
+   * <code>Worker.requestTask</code> does.
+   */
+  private void requestTask(SimulatedWorker worker) {
+    switch (worker.role) {
+      case PICKER:
+        worker.request = pickingQueue.poll();
+        break;
+      case SEQUENCER:
+        worker.request = sequencingQueue.poll();
+        break;
+      case LOADER:
+        worker.request = readyToLoad() ? loadingQueue.poll() : null;
+        break;
+      default:
+        worker.location = replenishQueue.poll();
+        break;
+    }
+    if (worker.request != null || worker.location != null) {
+      worker.state = State.BUSY;
+      worker.index = 0;
+      activate(worker);
+    } else {
+      worker.state = State.WAITING;
+      deactivate(worker);
+      waitingWorkers(worker.role).add(worker);
+    }
+  }
+
+  private void finishTask(SimulatedWorker worker) {
+    worker.state = State.OFF;
+    worker.request = null;
+    worker.location = null;
+    worker.index = 0;
+  }
+
+  private boolean readyToLoad() {
+    Request nextInLine = loadingOrder.peek();
+    return nextInLine != null && nextInLine == loadingQueue.peek();
+  }
+
+  private void sendToPicking(Request request) {
+    pickingQueue.add(request);
+    notifyNext(waitingPickers);
+  }
+
+  private void sendToSequencing(Request request) {
+    sequencingQueue.add(request);
+    notifyNext(waitingSequencers);
+  }
+
+  private void sendToLoading(Request request) {
+    loadingQueue.add(request);
+    notifyNext(waitingLoaders);
+  }
+
+  private void sendToReplenish(String location) {
+    replenishQueue.add(location);
+    notifyNext(waitingReplenishers);
+  }
+
+  private void notifyNext(ArrayDeque<SimulatedWorker> waiting) {
+    SimulatedWorker next = waiting.poll();
+    if (next != null) {
+      requestTask(next);
+    }
+  }
+
+  private ArrayDeque<SimulatedWorker> waitingWorkers(Command.Role role) {
+    switch (role) {
+      case PICKER:
+        return waitingPickers;
+      case SEQUENCER:
+        return waitingSequencers;
+      case LOADER:
+        return waitingLoaders;
+      default:
+        return waitingReplenishers;
+    }
+  }
+
+  private void activate(SimulatedWorker worker) {
+    if (worker.activeIndex < 0) {
+      worker.activeIndex = active.size();
+      active.add(worker);
+    }
+  }
+
+  private void deactivate(SimulatedWorker worker) {
+    int index = worker.activeIndex;
+    if (index >= 0) {
+      SimulatedWorker last = active.remove(active.size() - 1);
+      if (last != worker) {
+        active.set(index, last);
+        last.activeIndex = index;
+      }
+      worker.activeIndex = -1;
+    }
+  }
+
+  /**
+   * Writes a generated command file.
+   *
+   * @param args - The number of commands, the output file, then any <code>setting=value</code>
+   *        pairs.
+   * @throws IOException if a data file cannot be read or the output cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: WorkloadGenerator <commands> <outputFile> [setting=value...]");
+      System.exit(1);
+    }
+    long commands = Long.parseLong(args[0]);
+    long seed = 42;
+    String directory = "";
+    for (int i = 2; i < args.length; i++) {
+      if (args[i].startsWith("seed=")) {
+        seed = Long.parseLong(args[i].substring(5));
+      } else if (args[i].startsWith("directory=")) {
+        directory = args[i].substring(10);
+      }
+    }
+
+    WorkloadGenerator generator =
+        new WorkloadGenerator(new SimulationContext(Paths.get(directory)), seed);
+    for (int i = 2; i < args.length; i++) {
+      String[] setting = args[i].split("=", 2);
+      if (setting.length != 2) {
+        System.err.println("Settings must have the form setting=value: " + args[i]);
+        System.exit(1);
+      }
+      String value = setting[1];
+      switch (setting[0]) {
+        case "seed":
+        case "directory":
+          break;
+        case "pickers":
+          generator.setPickers(Integer.parseInt(value));
+          break;
+        case "sequencers":
+          generator.setSequencers(Integer.parseInt(value));
+          break;
+        case "loaders":
+          generator.setLoaders(Integer.parseInt(value));
+          break;
+        case "replenishers":
+          generator.setReplenishers(Integer.parseInt(value));
+          break;
+        case "orderRate":
+          generator.setOrderRate(Double.parseDouble(value));
+          break;
+        case "maxBacklog":
+          generator.setMaxBacklog(Integer.parseInt(value));
+          break;
+        case "errorRate":
+          generator.setErrorRate(Double.parseDouble(value));
+          break;
+        case "rescanRate":
+          generator.setRescanRate(Double.parseDouble(value));
+          break;
+        case "rejectRate":
+          generator.setRejectRate(Double.parseDouble(value));
+          break;
+        case "interleaving":
+          generator.setInterleaving(Double.parseDouble(value));
+          break;
+        default:
+          System.err.println("Unknown setting: " + setting[0]);
+          System.exit(1);
+      }
+    }
+
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(
+        Files.newOutputStream(Paths.get(args[1])), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      generator.generate(commands, out);
+    }
+    System.out.println(String.format("%d commands written to %s (%d requests loaded)", commands,
+        args[1], generator.getCompletedRequests()));
+  }
+}
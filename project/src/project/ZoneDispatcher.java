@@ -0,0 +1,201 @@
+package project;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs zone picking: splits picking requests into one <code>ZoneTask</code> per zone of the
+ * picking floor, hands each task to the pickers of its zone, and consolidates the parts of a
+ * request at Marshaling.
+ *
+ *
+ * <p>Each zone has its own queue of tasks, ordered like the requests, and its own queue of
+ * waiting <code>ZonePicker</code>s. A new picker is bound to the zone with the fewest pickers for
+ * its share of the staffing (<code>SimulationContext.getZoneStaffing</code>), so the number of
+ * pickers of each zone grows with its share. A request is only complete once every one of its
+ * parts has been dropped off at Marshaling.
+ *
+ *
+ * <p>SKUs that are not on the picking floor are picked as part of the first zone.
+ */
+public class ZoneDispatcher {
+
+  private final LocationCatalog catalog;
+  private final SimulationContext context;
+
+  /** The tasks waiting for a picker, for each zone in the order of the traversal table. */
+  private final LinkedHashMap<String, PriorityQueue<ZoneTask>> tasks = new LinkedHashMap<>();
+
+  /** The pickers waiting for a task, for each zone. */
+  private final HashMap<String, ArrayDeque<ZonePicker>> waitingPickers = new HashMap<>();
+
+  /** The number of pickers bound to each zone. */
+  private final HashMap<String, Integer> pickers = new HashMap<>();
+
+  /** The requests split into zone tasks, and how many of their parts are not at Marshaling. */
+  private final HashMap<PickingRequest, Integer> outstandingParts = new HashMap<>();
+
+  private static final Logger logger = LoggerFactory.getLogger(ZoneDispatcher.class);
+
+  /**
+   * Creates a dispatcher for the zones of the traversal table of <code>context</code>.
+   *
+   * @throws FileNotFoundException if the traversal table of <code>context</code> does not exist.
+   */
+  public ZoneDispatcher(SimulationContext context) throws FileNotFoundException {
+    this.context = context;
+    this.catalog = context.getLocationCatalog();
+    for (String zone : catalog.getZones()) {
+      tasks.put(zone, new PriorityQueue<>());
+      waitingPickers.put(zone, new ArrayDeque<>());
+      pickers.put(zone, 0);
+    }
+  }
+
+  /**
+   * @return The zones of the picking floor.
+   */
+  List<String> getZones() {
+    return catalog.getZones();
+  }
+
+  /**
+   * Binds a new picker to the zone with the fewest pickers for its staffing share; ties go to the
+   * zone listed first in the traversal table.
+   *
+   * @return The zone of the new picker.
+   */
+  String assignZone() {
+    String best = null;
+    for (String zone : tasks.keySet()) {
+      // pickers / share, compared without dividing
+      if (best == null || (long) pickers.get(zone) * context.getZoneStaffing(best)
+          < (long) pickers.get(best) * context.getZoneStaffing(zone)) {
+        best = zone;
+      }
+    }
+    pickers.put(best, pickers.get(best) + 1);
+    return best;
+  }
+
+  /**
+   * @return The number of pickers bound to <code>zone</code>.
+   */
+  int getPickerCount(String zone) {
+    return pickers.get(zone);
+  }
+
+  void setPickerCount(String zone, int count) {
+    pickers.put(zone, count);
+  }
+
+  /**
+   * Splits <code>request</code> into one task for each zone holding some of its fascia, and
+   * queues the tasks in their zones.
+   *
+   * @return The new tasks, in the order of the zones.
+   */
+  ArrayList<ZoneTask> split(PickingRequest request) {
+    LinkedHashMap<String, ArrayList<String>> parts = new LinkedHashMap<>();
+    for (String zone : tasks.keySet()) {
+      parts.put(zone, new ArrayList<>());
+    }
+    String firstZone = catalog.getZones().get(0);
+    for (String sku : request.getPickingOrder()) {
+      int location = catalog.getCodeOfSku(sku);
+      parts.get(location < 0 ? firstZone : catalog.getZone(location)).add(sku);
+    }
+
+    ArrayList<ZoneTask> split = new ArrayList<>(parts.size());
+    for (String zone : parts.keySet()) {
+      if (!parts.get(zone).isEmpty()) {
+        ZoneTask task = new ZoneTask(request, zone, parts.get(zone));
+        tasks.get(zone).add(task);
+        split.add(task);
+      }
+    }
+    outstandingParts.put(request, split.size());
+    logger.info("PickingRequest #{} split into {} zone tasks", request.getId(), split.size());
+    return split;
+  }
+
+  /**
+   * @return The first task of <code>zone</code>, or <code>null</code> if it has none.
+   */
+  ZoneTask getTask(String zone) {
+    return tasks.get(zone).poll();
+  }
+
+  PriorityQueue<ZoneTask> getTasks(String zone) {
+    return tasks.get(zone);
+  }
+
+  /**
+   * Records that <code>task</code> was dropped off at Marshaling.
+   *
+   * @return <code>true</code> if it was the last part of its request still being picked.
+   */
+  boolean consolidate(ZoneTask task) {
+    PickingRequest request = task.getRequest();
+    int outstanding = outstandingParts.get(request) - 1;
+    if (outstanding > 0) {
+      outstandingParts.put(request, outstanding);
+      logger.info("PickingRequest #{}: zone {} part at Marshaling, waiting for {} more",
+          request.getId(), task.getZone(), outstanding);
+      return false;
+    }
+    outstandingParts.remove(request);
+    logger.info("PickingRequest #{}: zone {} part at Marshaling, all parts consolidated",
+        request.getId(), task.getZone());
+    return true;
+  }
+
+  /**
+   * @return The requests with parts still being picked, and the number of those parts.
+   */
+  HashMap<PickingRequest, Integer> getOutstandingParts() {
+    return outstandingParts;
+  }
+
+  /**
+   * Places <code>picker</code> at the end of the queue of waiting pickers of its zone.
+   */
+  void queuePicker(ZonePicker picker) {
+    waitingPickers.get(picker.getZone()).add(picker);
+    logger.info("{} {} is placed in the zone {} {} queue", picker.getType(), picker.identity,
+        picker.getZone(), picker.getType());
+  }
+
+  /**
+   * @return The first waiting picker of <code>zone</code>, or <code>null</code> if none is waiting.
+   */
+  ZonePicker nextPicker(String zone) {
+    return waitingPickers.get(zone).poll();
+  }
+
+  /**
+   * @return The first waiting picker of the first zone with one, or <code>null</code> if no picker
+   *         is waiting.
+   */
+  ZonePicker nextPicker() {
+    for (String zone : tasks.keySet()) {
+      ZonePicker picker = waitingPickers.get(zone).poll();
+      if (picker != null) {
+        return picker;
+      }
+    }
+    return null;
+  }
+
+  ArrayDeque<ZonePicker> getWaitingPickers(String zone) {
+    return waitingPickers.get(zone);
+  }
+}
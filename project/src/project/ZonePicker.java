@@ -0,0 +1,85 @@
+package project;
+
+/**
+ * A <code>Picker</code> bound to one zone of the picking floor, which only picks the part of each
+ * picking request stocked in its zone (a <code>ZoneTask</code>).
+ *
+ *
+ * <p>The parts of a request are picked at the same time by the pickers of the different zones and
+ * dropped off at Marshaling, where the request waits until its last part is in before it is sent
+ * to sequencing.
+ */
+public class ZonePicker extends Picker {
+
+  /** The zone this picker works in. */
+  private final String zone;
+
+  /** The part of the current request picked by this picker, or <code>null</code>. */
+  private ZoneTask task;
+
+  /**
+   * Instantiates a Picker working in <code>zone</code>.
+   */
+  public ZonePicker(String identity, RequestManager rm, InventoryManager im, String zone) {
+    super(identity, rm, im);
+    this.zone = zone;
+  }
+
+  @Override
+  protected PickingRequest getRequest() {
+    task = rm.getZoneTask(zone);
+    return task == null ? null : task.getRequest();
+  }
+
+  @Override
+  protected void process() {
+    optPath = task.getPickingOrder();
+    trackRoute();
+    logSys("{} {} picks the zone {} part of PickingRequest #{}: {} fascia", type, identity, zone,
+        currReq.getId(), optPath.size());
+  }
+
+  @Override
+  protected int fasciaToPick() {
+    return optPath.size();
+  }
+
+  @Override
+  protected String locationToPick(String sku) {
+    return im.locationToPick(sku, getPosition(), nextCode(), zone, congestionCost());
+  }
+
+  @Override
+  protected void sendNextRequest() {
+    if (currReq == null) {
+      logError("I don't need to go to Marshaling without a PickingRequest");
+
+    } else if (getDonePicking()) { // dropping off the zone's part for consolidation
+      logRequesting("Consolidation");
+      walkTo(-1);
+      rm.consolidate(task);
+      finishTask();
+      task = null;
+      optPath = null;
+      setDonePicking(false);
+    } else {
+      logError("I haven't finished picking my zone's fascias yet, so I shouldn't go to Marshaling"
+          + " area");
+    }
+  }
+
+  /**
+   * @return The zone this picker works in.
+   */
+  public String getZone() {
+    return zone;
+  }
+
+  ZoneTask getTask() {
+    return task;
+  }
+
+  void setTask(ZoneTask task) {
+    this.task = task;
+  }
+}
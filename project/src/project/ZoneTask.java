@@ -0,0 +1,47 @@
+package project;
+
+import java.util.ArrayList;
+
+/**
+ * The part of a <code>PickingRequest</code> stocked in one zone of the picking floor, picked by a
+ * <code>ZonePicker</code> of that zone. Parts of the same request can be picked at the same time
+ * in different zones.
+ */
+public class ZoneTask implements Comparable<ZoneTask> {
+
+  private final PickingRequest request;
+  private final String zone;
+
+  /** The SKUs of the request stocked in the zone, in the picking order of the request. */
+  private final ArrayList<String> pickingOrder;
+
+  /**
+   * @param request - The request this task is a part of.
+   * @param zone - The zone of every fascia of the task.
+   * @param pickingOrder - The SKUs to pick, in order.
+   */
+  public ZoneTask(PickingRequest request, String zone, ArrayList<String> pickingOrder) {
+    this.request = request;
+    this.zone = zone;
+    this.pickingOrder = pickingOrder;
+  }
+
+  PickingRequest getRequest() {
+    return request;
+  }
+
+  String getZone() {
+    return zone;
+  }
+
+  ArrayList<String> getPickingOrder() {
+    return pickingOrder;
+  }
+
+  /**
+   * Orders the tasks of a zone like the requests they are part of.
+   */
+  public int compareTo(ZoneTask other) {
+    return request.compareTo(other.request);
+  }
+}
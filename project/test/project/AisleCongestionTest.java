@@ -0,0 +1,135 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AisleCongestionTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private Path directory;
+  private Simulator simulator;
+  private LocationCatalog catalog;
+  private Picker alice;
+  private Picker bob;
+
+  /**
+   * Stocks SKU 47 at the front of aisle 0 as well, in a copy of the data files, and creates
+   * pickers Alice and Bob at the marshalling area.
+   */
+  @Before
+  public void setUp() throws IOException {
+    directory = dataDirectory.create();
+    Files.write(directory.resolve("traversal_table.csv"), Arrays.asList("A,0,0,4,47"),
+        StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    simulator = new Simulator(new SimulationContext(directory));
+    catalog = simulator.getContext().getLocationCatalog();
+    alice = new Picker("Alice", simulator.getRequestManager(), simulator.getInventoryManager());
+    bob = new Picker("Bob", simulator.getRequestManager(), simulator.getInventoryManager());
+  }
+
+  @Test
+  public void testOccupancy() {
+    // SKUs 1 and 2 are in aisle 0 of zone A, SKU 22 in aisle 1
+    AisleCongestion congestion = new AisleCongestion(catalog, 5);
+    congestion.addRoute(alice, Arrays.asList("1", "2", "22"));
+    assertEquals(1, congestion.getOccupancy(0));
+    assertEquals(0, congestion.getOccupancy(1));
+
+    alice.setPosition(catalog.getCodeOfSku("1"));
+    congestion.advance(alice);
+    assertEquals(1, congestion.getOccupancy(0));
+    alice.setPosition(catalog.getCodeOfSku("2"));
+    congestion.advance(alice);
+    assertEquals(1, congestion.getOccupancy(0));
+    assertEquals(1, congestion.getOccupancy(1));
+
+    congestion.removeRoute(alice);
+    assertEquals(0, congestion.getOccupancy(0));
+    assertEquals(0, congestion.getOccupancy(1));
+    assertEquals(0, congestion.getPickerCount());
+  }
+
+  @Test
+  public void testPenalty() {
+    AisleCongestion congestion = new AisleCongestion(catalog, 5);
+    congestion.addRoute(bob, Arrays.asList("22"));
+    int depot = catalog.getDepot();
+    assertEquals(5, congestion.penalty(alice, depot, catalog.getCodeOfSku("23")));
+    // pickers do not get in their own way, and walking within an aisle costs nothing
+    assertEquals(0, congestion.penalty(bob, depot, catalog.getCodeOfSku("23")));
+    assertEquals(0, congestion.penalty(alice, catalog.getCodeOfSku("22"),
+        catalog.getCodeOfSku("23")));
+    assertEquals(0, congestion.penalty(alice, depot, catalog.getCodeOfSku("1")));
+  }
+
+  @Test
+  public void testRouteAroundCrowdedAisle() {
+    List<String> skus = Arrays.asList("1", "1", "22");
+    AisleCongestion congestion = new AisleCongestion(catalog, 100);
+    assertEquals(skus, congestion.route(alice, skus, -1));
+
+    bob.setPosition(catalog.getCodeOfSku("2"));
+    congestion.addRoute(bob, Arrays.asList("3"));
+    assertEquals(Arrays.asList("22", "1", "1"), congestion.route(alice, skus, -1));
+    assertEquals(Arrays.asList("1", "1", "22"),
+        new AisleCongestion(catalog, 0).route(alice, skus, -1));
+  }
+
+  @Test
+  public void testPickAtLessCrowdedLocation() {
+    InventoryManager im = simulator.getInventoryManager();
+    AisleCongestion congestion = new AisleCongestion(catalog, 100);
+    assertEquals("A,0,0,4", im.locationToPick("47", -1, -1, null,
+        code -> congestion.penalty(alice, -1, code)));
+
+    bob.setPosition(catalog.getCodeOfSku("1"));
+    congestion.addRoute(bob, Arrays.asList("2"));
+    assertEquals("B,1,2,2", im.locationToPick("47", -1, -1, null,
+        code -> congestion.penalty(alice, -1, code)));
+  }
+
+  @Test
+  public void testPickersAreTracked() throws IOException {
+    SimulationContext context = new SimulationContext(directory);
+    context.setCongestionPenalty(4);
+    Simulator simulator = new Simulator(context);
+    simulator.runSimulation(Arrays.asList("Order S Blue", "Order SE Blue", "Order S White",
+        "Order SES Red", "Order SE White", "Order S Red", "Order SES Blue", "Order S Beige",
+        "Picker Alice ready", "Picker Bob ready"));
+    AisleCongestion congestion = context.getAisleCongestion();
+    assertEquals(2, congestion.getPickerCount());
+
+    Picker alice = (Picker) simulator.getDirectory().get("Alice");
+    PickingRequest request = alice.getCurrReq();
+    for (int i = 0; i < 8; i++) {
+      alice.pick(alice.getPickingOrder().get(alice.getCurrIndex()));
+    }
+    // the fascia may be picked in another order, but they are all picked
+    ArrayList<String> picked = new ArrayList<>(request.getFasciaState());
+    ArrayList<String> ordered = new ArrayList<>(request.getLoadingOrder());
+    Collections.sort(picked);
+    Collections.sort(ordered);
+    assertEquals(ordered, picked);
+    alice.sendNextRequest();
+    assertEquals(1, congestion.getPickerCount());
+
+    SimulationContext restoreContext = new SimulationContext(directory);
+    restoreContext.setCongestionPenalty(4);
+    Snapshot.capture(simulator).restore(restoreContext);
+    assertEquals(1, restoreContext.getAisleCongestion().getPickerCount());
+  }
+}
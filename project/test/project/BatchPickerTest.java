@@ -0,0 +1,105 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static project.PickerFixture.ORDERS;
+import static project.PickerFixture.pickAll;
+import static project.PickerFixture.sorted;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class BatchPickerTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = dataDirectory.create();
+  }
+
+  /**
+   * @return A simulation of the two requests of <code>ORDERS</code> and a ready picker Alice.
+   */
+  private Simulator simulate(int batchSize) throws IOException {
+    SimulationContext context = new SimulationContext(directory);
+    context.setPickingBatchSize(batchSize);
+    Simulator simulator = new Simulator(context);
+    simulator.runSimulation(ORDERS);
+    simulator.runSimulation(Arrays.asList("Picker Alice ready"));
+    return simulator;
+  }
+
+  @Test
+  public void testBatchIsPickedInOneTrip() throws IOException {
+    Simulator simulator = simulate(2);
+    BatchPicker alice = (BatchPicker) simulator.getDirectory().get("Alice");
+    assertEquals(2, alice.getBatch().size());
+    assertEquals(16, alice.getPickingOrder().size());
+    assertTrue(simulator.getRequestManager().getPickingQueue().isEmpty());
+
+    pickAll(simulator, "Alice");
+    assertNull(alice.getCurrReq());
+    assertTrue(alice.getIsAvail());
+    ArrayList<PickingRequest> sequencing =
+        new ArrayList<>(simulator.getRequestManager().getSequencingQueue());
+    assertEquals(2, sequencing.size());
+    for (PickingRequest request : sequencing) {
+      assertEquals(sorted(request.getLoadingOrder()), sorted(request.getFasciaState()));
+    }
+  }
+
+  @Test
+  public void testBatchWalksNoFurtherThanSeparateTrips() throws IOException {
+    Simulator separate = simulate(1);
+    pickAll(separate, "Alice");
+    pickAll(separate, "Alice");
+    Simulator batch = simulate(2);
+    pickAll(batch, "Alice");
+
+    long separateDistance = ((Picker) separate.getDirectory().get("Alice")).getWalkedDistance();
+    long batchDistance = ((Picker) batch.getDirectory().get("Alice")).getWalkedDistance();
+    assertEquals(2, separate.getRequestManager().getSequencingQueue().size());
+    assertTrue(batchDistance > 0);
+    assertTrue(batchDistance <= separateDistance);
+  }
+
+  @Test
+  public void testWrongFasciaIsNotPicked() throws IOException {
+    Simulator simulator = simulate(2);
+    BatchPicker alice = (BatchPicker) simulator.getDirectory().get("Alice");
+    String next = alice.getPickingOrder().get(0);
+    simulator.runSimulation(Arrays.asList("Picker Alice picks 48", "Picker Alice to Marshaling"));
+    assertEquals(0, (int) alice.getCurrIndex());
+    assertEquals(next, alice.getPickingOrder().get(0));
+    assertEquals(2, alice.getBatch().size());
+  }
+
+  @Test
+  public void testRestoredBatchContinues() throws IOException {
+    Simulator simulator = simulate(2);
+    BatchPicker alice = (BatchPicker) simulator.getDirectory().get("Alice");
+    List<String> route = new ArrayList<>(alice.getPickingOrder());
+    alice.pick(route.get(0));
+    alice.pick(route.get(1));
+
+    // restored into a simulation that does not batch, the picker still finishes its batch
+    Simulator restored = Snapshot.capture(simulator).restore(new SimulationContext(directory));
+    BatchPicker restoredAlice = (BatchPicker) restored.getDirectory().get("Alice");
+    assertEquals(route, restoredAlice.getPickingOrder());
+    assertEquals(2, (int) restoredAlice.getCurrIndex());
+    assertEquals(alice.getWalkedDistance(), restoredAlice.getWalkedDistance());
+    pickAll(restored, "Alice");
+    assertEquals(2, restored.getRequestManager().getSequencingQueue().size());
+  }
+}
@@ -0,0 +1,116 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchReplenisherTest {
+  /** Locations of SKUs 47, 1 and 13, out of traversal order. */
+  private static final String[] LOW = {"B,1,2,2", "A,0,0,0", "A,1,0,0"};
+
+  private SimulationContext context;
+  private Simulator simulator;
+  private InventoryManager im;
+
+  /**
+   * Creates a simulation whose replenishers restock up to 2 locations per trip, with the locations
+   * of <code>LOW</code> holding 3 fascia and an empty replenishing queue.
+   */
+  @Before
+  public void setUp() throws IOException {
+    context = new SimulationContext(Paths.get(""));
+    context.setReplenishingBatchSize(2);
+    simulator = new Simulator(context);
+    im = simulator.getInventoryManager();
+    for (String location : LOW) {
+      im.getInventory().put(im.getSkus().get(location), 3);
+    }
+    // the locations low in initial.csv are queued from the start
+    simulator.getRequestManager().getReplenishQueue().clear();
+  }
+
+  private void queue(String... locations) {
+    for (String location : locations) {
+      simulator.getRequestManager().sendToReplenish(location);
+    }
+  }
+
+  @Test
+  public void testTripInTraversalOrder() throws IOException {
+    queue(LOW[0], LOW[0], LOW[1], LOW[2]);
+    simulator.runSimulation(Arrays.asList("Replenisher Ruby ready"));
+    BatchReplenisher ruby = (BatchReplenisher) simulator.getDirectory().get("Ruby");
+    // the repeated location is claimed once, and the third location waits for the next trip
+    assertEquals(Arrays.asList(LOW[1], LOW[0]), ruby.getTrip());
+    assertEquals(LOW[1], ruby.getReplenisherReq());
+    assertEquals(Collections.singletonList(LOW[2]),
+        Arrays.asList(simulator.getRequestManager().getReplenishQueue().toArray()));
+
+    simulator.runSimulation(Arrays.asList("Replenisher Ruby replenishes"));
+    assertEquals(28, (int) im.getAmount("1"));
+    assertEquals(LOW[0], ruby.getReplenisherReq());
+    assertTrue(!ruby.getIsAvail());
+
+    simulator.runSimulation(Arrays.asList("Replenisher Ruby replenishes"));
+    assertEquals(28, (int) im.getAmount("47"));
+    assertTrue(ruby.getIsAvail());
+    assertTrue(ruby.getTrip().isEmpty());
+  }
+
+  @Test
+  public void testRestockedLocationsArePassedOver() throws IOException {
+    // a location that was already restocked is not claimed
+    im.getInventory().put("13", 30);
+    queue(LOW[2], LOW[0], LOW[1]);
+    simulator.runSimulation(Arrays.asList("Replenisher Ruby ready"));
+    BatchReplenisher ruby = (BatchReplenisher) simulator.getDirectory().get("Ruby");
+    assertEquals(Arrays.asList(LOW[1], LOW[0]), ruby.getTrip());
+
+    // nor restocked again if it was restocked during the trip
+    im.getInventory().put("1", 30);
+    simulator.runSimulation(Arrays.asList("Replenisher Ruby replenishes",
+        "Replenisher Ruby replenishes"));
+    assertEquals(30, (int) im.getAmount("1"));
+    assertEquals(28, (int) im.getAmount("47"));
+    assertTrue(ruby.getIsAvail());
+  }
+
+  @Test
+  public void testSnapshotKeepsTrip() throws IOException {
+    queue(LOW);
+    List<String> commands = Arrays.asList("Replenisher Ruby ready",
+        "Replenisher Ruby replenishes", "Replenisher Ruby replenishes");
+    simulator.runSimulation(commands.subList(0, 2));
+    SimulationContext restoreContext = new SimulationContext(Paths.get(""));
+    Simulator restored = Snapshot.capture(simulator).restore(restoreContext);
+    BatchReplenisher ruby = (BatchReplenisher) restored.getDirectory().get("Ruby");
+    assertEquals(2, ruby.getBatchSize());
+    assertEquals(Collections.singletonList(LOW[0]), ruby.getTrip());
+    assertEquals(LOW[0], ruby.getReplenisherReq());
+
+    // the restored simulation carries on after the commands already simulated
+    restored.runSimulation(commands);
+    assertEquals(28, (int) restored.getInventoryManager().getAmount("47"));
+    assertTrue(ruby.getIsAvail());
+  }
+
+  @Test
+  public void testOneLocationPerTripByDefault() throws IOException {
+    context.setReplenishingBatchSize(1);
+    simulator.runSimulation(Arrays.asList("Replenisher Ruby ready"));
+    assertTrue(!(simulator.getDirectory().get("Ruby") instanceof BatchReplenisher));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchSizeMustBePositive() {
+    context.setReplenishingBatchSize(0);
+  }
+}
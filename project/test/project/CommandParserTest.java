@@ -0,0 +1,103 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class CommandParserTest {
+
+  /** The regular expressions the simulator used to validate commands. */
+  private static final List<Pattern> ORIGINAL_PATTERNS = Arrays.asList(
+      Pattern.compile("^Order \\w+ \\w+$"),
+      Pattern.compile("^(Picker|Sequencer|Loader|Replenisher) \\w+ ready$"),
+      Pattern.compile("^Picker \\w+ picks \\w+$"), Pattern.compile("^Picker \\w+ to Marshaling$"),
+      Pattern.compile("^Sequencer \\w+ sequences$"), Pattern.compile("^Sequencer \\w+ rescans$"),
+      Pattern.compile("^Sequencer \\w+ rejects$"), Pattern.compile("^Sequencer \\w+ approves$"),
+      Pattern.compile("^Loader \\w+ loads$"), Pattern.compile("^Loader \\w+ rescans$"),
+      Pattern.compile("^Loader \\w+ rejects$"), Pattern.compile("^Loader \\w+ approves$"),
+      Pattern.compile("^Replenisher \\w+ replenishes$"));
+
+  private static final String[] LINES = {
+      "Order SES Blue", "Order S_1 Red9", "Order SES", "Order SES Blue Red", "Order  SES Blue",
+      "Order SES Blue ", "Order SES-Blue", "Order SES ready", "Order Ready ready", "order SES Blue",
+      "Picker Alice ready", "Picker Alice ready ", "Picker Alice readyy", "Picker  Alice ready",
+      "Picker Alice picks 37", "Picker Alice picks", "Picker Alice picks ", "Picker Alice pick 1",
+      "Picker Alice picks 3 7", "Picker Alice picks37", "Picker Alice picks \u00e9",
+      "Picker Alice to Marshaling", "Picker Alice to Marshalling", "Picker Alice to  Marshaling",
+      "Picker Alice sequences", "Picker ready", "Picker", "Picker ", "",
+      "Sequencer Sue sequences", "Sequencer Sue rescans", "Sequencer Sue rejects",
+      "Sequencer Sue approves", "Sequencer Sue approve", "Sequencer Sue loads",
+      "Sequencer Sue ready", "Sequencer Sue eats a burger",
+      "Loader Larry loads", "Loader Larry rescans", "Loader Larry rejects", "Loader Larry approves",
+      "Loader Larry sequences", "LoaderLarry loads", "Loader Larryloads", "LoaderLarryloads",
+      "Loader Larry ready", "Loader Larry takes a nap",
+      "Replenisher Ruby replenishes", "Replenisher Ruby ready", "Replenisher Ruby replenish",
+      "Replenisher Ruby makes a personal call on company time", "Worker Bob ready",
+      "Picker Alice ready\n", "Picker Al\tice ready", "Picker Alice picks 37\n"};
+
+  @Test
+  public void testAcceptsExactlyTheOriginalCommands() {
+    for (String line : LINES) {
+      boolean expected = false;
+      for (Pattern p : ORIGINAL_PATTERNS) {
+        expected |= p.matcher(line).matches();
+      }
+      assertEquals(line, expected, CommandParser.parse(line, new Command()));
+    }
+  }
+
+  @Test
+  public void testParseOrder() {
+    Command command = new Command();
+    assertTrue(CommandParser.parse("Order SES Blue", command));
+    assertEquals(Command.Role.ORDER, command.getRole());
+    assertEquals(Command.Verb.ORDER, command.getVerb());
+    assertEquals("SES", command.getId());
+    assertEquals("Blue", command.getArgument());
+  }
+
+  @Test
+  public void testParsePicks() {
+    Command command = new Command();
+    assertTrue(CommandParser.parse("Picker Alice picks 37", command));
+    assertEquals(Command.Role.PICKER, command.getRole());
+    assertEquals(Command.Verb.PICKS, command.getVerb());
+    assertEquals("Alice", command.getId());
+    assertEquals("37", command.getArgument());
+  }
+
+  @Test
+  public void testParseWorkerVerb() {
+    Command command = new Command();
+    assertTrue(CommandParser.parse("Loader Larry rescans", command));
+    assertEquals(Command.Role.LOADER, command.getRole());
+    assertEquals(Command.Verb.RESCANS, command.getVerb());
+    assertEquals("Larry", command.getId());
+    assertNull(command.getArgument());
+  }
+
+  @Test
+  public void testInvalidLineLeavesCommandUnchanged() {
+    Command command = new Command();
+    assertTrue(CommandParser.parse("Picker Alice to Marshaling", command));
+    assertFalse(CommandParser.parse("Picker Bob to Marshalling", command));
+    assertEquals("Alice", command.getId());
+  }
+
+  @Test
+  public void testToStringRoundTrip() {
+    for (String line : LINES) {
+      Command command = new Command();
+      if (CommandParser.parse(line, command)) {
+        assertEquals(line, command.toString());
+      }
+    }
+  }
+}
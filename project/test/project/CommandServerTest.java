@@ -0,0 +1,182 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class CommandServerTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private Simulator sim;
+  private CommandServer server;
+  private Thread serverThread;
+
+  @Before
+  public void setUp() throws IOException {
+    sim = new Simulator();
+    server = new CommandServer(sim, 0);
+    serverThread = new Thread(server);
+    serverThread.start();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    server.close();
+    serverThread.join();
+  }
+
+  private Socket connect() throws IOException {
+    return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  @Test
+  public void testAcknowledgesEveryCommandInOrder() throws Exception {
+    try (Socket socket = connect()) {
+      OutputStream out = socket.getOutputStream();
+      out.write("Picker Rock ready\nPicker Rock dances\r\nOrder SES Blue\n"
+          .getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.UTF_8));
+      assertEquals("OK", in.readLine());
+      assertEquals("INVALID", in.readLine());
+      assertEquals("OK", in.readLine());
+    }
+    server.close();
+    serverThread.join();
+    assertTrue(sim.getDirectory().get("Rock") instanceof Picker);
+    assertEquals(3, server.getCommandCount());
+  }
+
+  @Test
+  public void testCommandsSplitAcrossWrites() throws Exception {
+    try (Socket first = connect(); Socket second = connect()) {
+      first.getOutputStream().write("Loader La".getBytes(StandardCharsets.UTF_8));
+      first.getOutputStream().flush();
+      second.getOutputStream().write("Sequencer Sue ready\n".getBytes(StandardCharsets.UTF_8));
+      BufferedReader secondIn = new BufferedReader(new InputStreamReader(
+          second.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals("OK", secondIn.readLine());
+
+      first.getOutputStream().write("rry ready\n".getBytes(StandardCharsets.UTF_8));
+      BufferedReader firstIn = new BufferedReader(new InputStreamReader(
+          first.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals("OK", firstIn.readLine());
+    }
+    server.close();
+    serverThread.join();
+    assertTrue(sim.getDirectory().get("Larry") instanceof Loader);
+    assertTrue(sim.getDirectory().get("Sue") instanceof Sequencer);
+  }
+
+  @Test
+  public void testLastCommandWithoutNewline() throws Exception {
+    try (Socket socket = connect()) {
+      OutputStream out = socket.getOutputStream();
+      out.write("Picker Rock ready\nPicker Alice ready".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      socket.shutdownOutput();
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.UTF_8));
+      assertEquals("OK", in.readLine());
+      assertEquals("OK", in.readLine());
+      // the server closes the connection once the last command is acknowledged
+      assertEquals(null, in.readLine());
+    }
+    server.close();
+    serverThread.join();
+    assertTrue(sim.getDirectory().get("Alice") instanceof Picker);
+    assertEquals(2, server.getCommandCount());
+  }
+
+  @Test
+  public void testCommandsAreCheckpointed() throws Exception {
+    Path directory = dataDirectory.create();
+    Checkpointer checkpointer = new Checkpointer(directory, 2);
+    sim.setCheckpointer(checkpointer);
+    try (Socket socket = connect()) {
+      socket.getOutputStream().write("Picker Rock ready\nPicker Rock dances\n"
+          .getBytes(StandardCharsets.UTF_8));
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.UTF_8));
+      assertEquals("OK", in.readLine());
+      assertEquals("INVALID", in.readLine());
+    }
+    server.close();
+    serverThread.join();
+    checkpointer.close();
+    assertEquals(2, sim.getOffset());
+    Path checkpoint = Checkpointer.checkpointFile(directory, 2);
+    assertTrue(Files.isRegularFile(checkpoint));
+  }
+
+  @Test
+  public void testOverlongLineIsAnsweredOnce() throws Exception {
+    byte[] line = new byte[100_000];
+    Arrays.fill(line, (byte) 'x');
+    line[line.length - 1] = '\n';
+    try (Socket socket = connect()) {
+      OutputStream out = socket.getOutputStream();
+      out.write(line);
+      out.write("Picker Rock ready\n".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.UTF_8));
+      assertEquals("INVALID", in.readLine());
+      // the rest of the long line is skipped, not taken for another command
+      assertEquals("OK", in.readLine());
+    }
+    server.close();
+    serverThread.join();
+    assertEquals(1, server.getCommandCount());
+  }
+
+  @Test
+  public void testClientNotReadingIsNotReadFrom() throws Exception {
+    try (Socket socket = new Socket()) {
+      // a small window, so the acknowledgements not read soon pile up in the server
+      socket.setReceiveBufferSize(1024);
+      socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+      Thread sender = new Thread(() -> {
+        byte[] newlines = new byte[1 << 12];
+        Arrays.fill(newlines, (byte) '\n');
+        try {
+          OutputStream out = socket.getOutputStream();
+          for (int sent = 0; sent < 1 << 21; sent += newlines.length) {
+            out.write(newlines);
+          }
+        } catch (IOException e) {
+          // the test closed the connection
+        }
+      });
+      sender.setDaemon(true);
+      sender.start();
+      long deadline = System.currentTimeMillis() + 60_000;
+      while (server.getMaxPendingAcks() < CommandServer.OUT_LIMIT
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertTrue(server.getMaxPendingAcks() >= CommandServer.OUT_LIMIT);
+      // the server stops reading: at most one more buffer of lines is acknowledged
+      Thread.sleep(1500);
+      assertTrue(server.getMaxPendingAcks() <= CommandServer.OUT_LIMIT + 8 * (1 << 16));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * A rule giving tests new directories holding copies of the data files of the working directory,
+ * which they may change and run simulations in. The directories are deleted after each test.
+ */
+public class DataDirectory implements TestRule {
+  private static final String[] DATA_FILES = {"translation.csv", "initial.csv",
+      "traversal_table.csv"};
+
+  private final List<Path> directories = new ArrayList<>();
+
+  @Override
+  public Statement apply(final Statement base, Description description) {
+    return new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        try {
+          base.evaluate();
+        } finally {
+          deleteAll();
+        }
+      }
+    };
+  }
+
+  /**
+   * @return A new directory holding copies of translation.csv, initial.csv and
+   *         traversal_table.csv.
+   */
+  public Path create() throws IOException {
+    Path directory = Files.createTempDirectory("simulation");
+    directories.add(directory);
+    for (String file : DATA_FILES) {
+      Files.copy(Paths.get(file), directory.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return directory;
+  }
+
+  /**
+   * Deletes the directories created during the test, with everything written in them.
+   */
+  private void deleteAll() throws IOException {
+    for (Path directory : directories) {
+      List<Path> paths;
+      try (Stream<Path> walk = Files.walk(directory)) {
+        paths = walk.collect(Collectors.toList());
+      }
+      Collections.reverse(paths);
+      for (Path path : paths) {
+        Files.delete(path);
+      }
+    }
+    directories.clear();
+  }
+}
@@ -0,0 +1,111 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class EventLogTest {
+
+  private static byte[] encode(List<String> lines) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    EventLogWriter writer = new EventLogWriter(bytes);
+    for (String line : lines) {
+      writer.write(line);
+    }
+    writer.close();
+    return bytes.toByteArray();
+  }
+
+  private static List<String> decode(byte[] log) throws IOException {
+    ArrayList<String> lines = new ArrayList<>();
+    EventLogReader reader = new EventLogReader(new ByteArrayInputStream(log));
+    Command command = new Command();
+    while (reader.next(command)) {
+      String raw = reader.getRawLine();
+      lines.add(raw != null ? raw : command.toString());
+    }
+    reader.close();
+    return lines;
+  }
+
+  @Test
+  public void testRoundTripCommandFiles() throws IOException {
+    for (String file : Arrays.asList("16orders.txt", "zmd_cmd_err.txt", "zmd_std.txt")) {
+      List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+      assertEquals(file, lines, decode(encode(lines)));
+    }
+  }
+
+  @Test
+  public void testLogIsSmallerThanText() throws IOException {
+    List<String> lines = Files.readAllLines(Paths.get("zmd_std.txt"), StandardCharsets.UTF_8);
+    int textSize = 0;
+    for (String line : lines) {
+      textSize += line.length() + 1;
+    }
+    assertTrue(encode(lines).length < textSize / 3);
+  }
+
+  @Test
+  public void testDecodedCommands() throws IOException {
+    byte[] log = encode(Arrays.asList("Order SES Blue", "Picker Alice picks 37", "bad line"));
+    EventLogReader reader = new EventLogReader(new ByteArrayInputStream(log));
+    Command command = new Command();
+
+    assertTrue(reader.next(command));
+    assertNull(reader.getRawLine());
+    assertEquals(Command.Verb.ORDER, command.getVerb());
+    assertEquals("SES", command.getId());
+    assertEquals("Blue", command.getArgument());
+
+    assertTrue(reader.next(command));
+    assertEquals(Command.Verb.PICKS, command.getVerb());
+    assertEquals("37", command.getArgument());
+
+    assertTrue(reader.next(command));
+    assertEquals("bad line", reader.getRawLine());
+    assertFalse(reader.next(command));
+    reader.close();
+  }
+
+  @Test
+  public void testRepeatedStringsAreInterned() throws IOException {
+    byte[] log = encode(Arrays.asList("Picker Alice picks 37", "Picker Alice picks 37"));
+    EventLogReader reader = new EventLogReader(new ByteArrayInputStream(log));
+    Command first = new Command();
+    Command second = new Command();
+    reader.next(first);
+    reader.next(second);
+    assertTrue(first.getId() == second.getId());
+    assertTrue(first.getArgument() == second.getArgument());
+    reader.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsTextFile() throws IOException {
+    new EventLogReader(new ByteArrayInputStream("Order SES Blue".getBytes("UTF-8")));
+  }
+
+  @Test
+  public void testIsEventLog() throws IOException {
+    Path log = Files.createTempFile("events", ".whel");
+    Files.write(log, encode(Arrays.asList("Order SES Blue")));
+    assertTrue(EventLog.isEventLog(log));
+    assertFalse(EventLog.isEventLog(Paths.get("16orders.txt")));
+    Files.delete(log);
+  }
+}
@@ -0,0 +1,93 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FasciaCatalogTest {
+  private FasciaCatalog catalog;
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    catalog = new FasciaCatalog("translation.csv");
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testTranslationTableFileNotFound() throws FileNotFoundException {
+    catalog = new FasciaCatalog("afilenamelikethisshouldnt.existinthedirectory");
+  }
+
+  @Test
+  public void testCodesFollowTableRows() {
+    assertEquals(12, catalog.getColourCount());
+    assertEquals(4, catalog.getModelCount());
+    assertEquals(96, catalog.getSkuCount());
+    // White is the first colour, S the first model and SES the third
+    assertEquals(0, catalog.getCode("White", "S"));
+    assertEquals(2, catalog.getCode("White", "SES"));
+    assertEquals(14, catalog.getCode("Green", "SES"));
+    assertEquals("29", catalog.getFrontSku(14));
+    assertEquals("30", catalog.getRearSku(14));
+    assertEquals("29", catalog.getSku(catalog.getFrontOrdinal(14)));
+  }
+
+  @Test
+  public void testUnknownCombinations() {
+    assertEquals(-1, catalog.getCode("Purple", "S"));
+    assertEquals(-1, catalog.getCode("Green", "XL"));
+    assertEquals(-1, catalog.getCode("SES", "Green"));
+  }
+
+  @Test
+  public void testMissingCombinationOfKnownNames() throws IOException {
+    Path table = Files.createTempFile("translation", ".csv");
+    try {
+      Files.write(table, Arrays.asList("Colour,Model,SKU (front),SKU (back)", "Red,S,1,2",
+          "Blue,SE,3,4", "short,line", "Red,S,5,6"), StandardCharsets.UTF_8);
+      FasciaCatalog sparse = new FasciaCatalog(table.toString());
+      assertEquals(-1, sparse.getCode("Red", "SE"));
+      assertEquals(-1, sparse.getCode("Blue", "S"));
+      // the last line of a combination is used
+      assertEquals("5", sparse.getFrontSku(sparse.getCode("Red", "S")));
+      assertEquals("4", sparse.getRearSku(sparse.getCode("Blue", "SE")));
+    } finally {
+      Files.delete(table);
+    }
+  }
+
+  @Test
+  public void testThousandsOfCombinations() throws IOException {
+    Path table = Files.createTempFile("translation", ".csv");
+    ArrayList<String> lines = new ArrayList<>();
+    lines.add("Colour,Model,SKU (front),SKU (back)");
+    for (int colour = 0; colour < 500; colour++) {
+      for (int model = 0; model < 10; model++) {
+        int combination = colour * 10 + model;
+        lines.add(String.join(",", "C" + colour, "M" + model, "" + (2 * combination + 1),
+            "" + (2 * combination + 2)));
+      }
+    }
+    try {
+      Files.write(table, lines, StandardCharsets.UTF_8);
+      FasciaCatalog large = new FasciaCatalog(table.toString());
+      assertEquals(500, large.getColourCount());
+      assertEquals(10, large.getModelCount());
+      assertEquals(10_000, large.getSkuCount());
+      int code = large.getCode("C321", "M7");
+      assertEquals(3217, code);
+      assertEquals("6435", large.getFrontSku(code));
+      assertEquals("6436", large.getRearSku(code));
+    } finally {
+      Files.delete(table);
+    }
+  }
+}
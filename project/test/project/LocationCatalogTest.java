@@ -0,0 +1,78 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocationCatalogTest {
+  private LocationCatalog catalog;
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    catalog = new LocationCatalog("traversal_table.csv");
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testTraversalTableFileNotFound() throws FileNotFoundException {
+    catalog = new LocationCatalog("afilenamelikethisshouldnt.existinthedirectory");
+  }
+
+  @Test
+  public void testCodesFollowTableRows() {
+    assertEquals(48, catalog.size());
+    assertEquals(48, catalog.getDepot());
+    assertEquals(0, catalog.getCode("A,0,0,0"));
+    assertEquals(47, catalog.getCode("B,1,2,3"));
+    assertEquals(-1, catalog.getCode("C,0,0,0"));
+    assertEquals(20, catalog.getCodeOfSku("21"));
+    assertEquals(-1, catalog.getCodeOfSku("ABC"));
+    assertEquals("A,1,2,0", catalog.getLocation(20));
+    assertEquals("21", catalog.getSku(20));
+  }
+
+  @Test
+  public void testDistances() {
+    int depot = catalog.getDepot();
+    // same rack on another level
+    assertEquals(0, catalog.distance(catalog.getCode("A,0,0,0"), catalog.getCode("A,0,0,3")));
+    // along an aisle
+    assertEquals(2, catalog.distance(catalog.getCode("A,0,0,0"), catalog.getCode("A,0,2,1")));
+    // to the next aisle through the front and through the back
+    assertEquals(5, catalog.distance(catalog.getCode("A,0,0,0"), catalog.getCode("A,1,0,0")));
+    assertEquals(5, catalog.distance(catalog.getCode("A,0,2,0"), catalog.getCode("A,1,2,0")));
+    // to the next zone
+    assertEquals(8, catalog.distance(catalog.getCode("A,1,0,0"), catalog.getCode("B,0,0,0")));
+    assertEquals(2, catalog.distance(depot, catalog.getCode("A,0,0,0")));
+    assertEquals(0, catalog.distance(depot, depot));
+  }
+
+  @Test
+  public void testDistancesAreSymmetricAndShortest() {
+    int codes = catalog.size() + 1;
+    for (int a = 0; a < codes; a++) {
+      for (int b = 0; b < codes; b++) {
+        assertEquals(catalog.distance(a, b), catalog.distance(b, a));
+        for (int c = 0; c < codes; c++) {
+          assertTrue(catalog.distance(a, c) <= catalog.distance(a, b) + catalog.distance(b, c));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOffHeapMatrixMatchesHeapMatrix() throws FileNotFoundException {
+    LocationCatalog offHeap = new LocationCatalog("traversal_table.csv", 10);
+    assertFalse(catalog.isOffHeap());
+    assertTrue(offHeap.isOffHeap());
+    for (int a = 0; a <= catalog.size(); a++) {
+      for (int b = 0; b <= catalog.size(); b++) {
+        assertEquals(catalog.distance(a, b), offHeap.distance(a, b));
+      }
+    }
+  }
+}
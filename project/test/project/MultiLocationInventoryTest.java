@@ -0,0 +1,129 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class MultiLocationInventoryTest {
+  /** The location of SKU 47 (Black SEL) in the traversal table, at the back of zone B. */
+  private static final String BACK = "B,1,2,2";
+
+  /** A second location of SKU 47, at the front of zone A. */
+  private static final String FRONT = "A,0,0,4";
+
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private Path directory;
+
+  /**
+   * Stocks SKU 47 at a second location holding 10 fascia, in a copy of the data files.
+   */
+  @Before
+  public void setUp() throws IOException {
+    directory = dataDirectory.create();
+    Files.write(directory.resolve("traversal_table.csv"), Arrays.asList(FRONT + ",47"),
+        StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    Files.write(directory.resolve("initial.csv"), Arrays.asList("", FRONT + ",10"),
+        StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+  }
+
+  private InventoryManager inventory(RequestManager rm) throws IOException {
+    SimulationContext context = new SimulationContext(directory);
+    return new InventoryManager(context.getInitialInventory(), rm, false, context);
+  }
+
+  @Test
+  public void testSkuStockedAtSeveralLocations() throws IOException {
+    InventoryManager im = inventory(null);
+    assertEquals(Arrays.asList(BACK, FRONT), im.getLocationsOf("47"));
+    assertEquals(BACK, im.getLocation("47"));
+    assertEquals(30, (int) im.getAmountAt(BACK));
+    assertEquals(10, (int) im.getAmountAt(FRONT));
+    assertEquals(40, (int) im.getAmount("47"));
+    assertEquals(Collections.singletonList("B,1,2,3"), im.getLocationsOf("48"));
+  }
+
+  @Test
+  public void testPickAtClosestStockedLocation() throws IOException {
+    InventoryManager im = inventory(null);
+    LocationCatalog catalog = im.getCatalog();
+    assertEquals(FRONT, im.locationToPick("47", -1, -1));
+    assertEquals(BACK, im.locationToPick("47", catalog.getCodeOfSku("46"),
+        catalog.getCodeOfSku("48")));
+    assertEquals(BACK, im.locationToPick("47", -1, -1, "B"));
+
+    // an empty location is only picked at if no location of the SKU has fascia left
+    im.getStock().put(FRONT, 0);
+    assertEquals(BACK, im.locationToPick("47", -1, -1));
+    im.getStock().put(BACK, 0);
+    assertEquals(FRONT, im.locationToPick("47", -1, -1));
+  }
+
+  @Test
+  public void testReplenishPerLocation() throws IOException {
+    RequestManager rm = new RequestManager(new WorkerManager());
+    InventoryManager im = inventory(rm);
+    for (int i = 0; i < 5; i++) {
+      im.decrement("47", FRONT);
+    }
+    assertEquals(Collections.singletonList(FRONT), Arrays.asList(
+        rm.getReplenishQueue().toArray()));
+    assertEquals(35, (int) im.getAmount("47"));
+
+    assertTrue(!im.replenish(BACK));
+    assertTrue(im.replenish(FRONT));
+    assertEquals(30, (int) im.getAmountAt(FRONT));
+    assertEquals(30, (int) im.getAmountAt(BACK));
+    assertEquals(60, (int) im.getAmount("47"));
+  }
+
+  @Test
+  public void testSaveInventoryPerLocation() throws IOException {
+    InventoryManager im = inventory(null);
+    im.decrement("47", BACK);
+    im.saveInventory();
+    Files.copy(directory.resolve("final.csv"), directory.resolve("initial.csv"),
+        StandardCopyOption.REPLACE_EXISTING);
+
+    InventoryManager saved = inventory(null);
+    assertEquals(29, (int) saved.getAmountAt(BACK));
+    assertEquals(10, (int) saved.getAmountAt(FRONT));
+    assertEquals(39, (int) saved.getAmount("47"));
+  }
+
+  @Test
+  public void testPickerSkipsEmptyLocations() throws IOException {
+    Simulator simulator = new Simulator(new SimulationContext(directory));
+    InventoryManager im = simulator.getInventoryManager();
+    im.getStock().put(BACK, 2);
+    im.getInventory().put("47", 12);
+    simulator.runSimulation(Arrays.asList("Order SEL Black", "Order SEL Black",
+        "Order SEL Black", "Order SEL Black", "Picker Alice ready"));
+    Picker alice = (Picker) simulator.getDirectory().get("Alice");
+    for (String sku : alice.getPickingOrder()) {
+      alice.pick(sku);
+    }
+    // SKU 47 is picked on the way to SKU 48 until its location there runs out
+    assertEquals(0, (int) im.getAmountAt(BACK));
+    assertEquals(8, (int) im.getAmountAt(FRONT));
+    assertEquals(26, (int) im.getAmount("48"));
+    assertTrue(simulator.getRequestManager().getReplenishQueue().contains(BACK));
+
+    Simulator restored = Snapshot.capture(simulator).restore(new SimulationContext(directory));
+    assertEquals(8, (int) restored.getInventoryManager().getAmountAt(FRONT));
+    assertEquals(8, (int) restored.getInventoryManager().getAmount("47"));
+  }
+}
@@ -1,9 +1,17 @@
 package project;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -46,7 +54,19 @@ public class OrderManagerTest {
     ArrayList<String> r = om.generateLoadingOrder(orders);
     assertEquals(r.size(), 8);
   }
-  
+
+  @Test
+  public void testLoadingOrderRearFirst() {
+    ArrayList<Order> orders = new ArrayList<>();
+    orders.add(new Order("Green", "SES"));
+    orders.add(new Order("Red", "S"));
+    orders.add(new Order("Graphite", "SEL"));
+    assertEquals(Arrays.asList("30", "18", "88", "29", "17", "87"),
+        om.generateLoadingOrder(orders));
+    // the orders keep their code in the catalog
+    assertEquals(om.getFasciaCatalog().getCode("Red", "S"), orders.get(1).fascia);
+  }
+
   @Test
   public void testQueuedOrdersEmptyingAtCapacity() {
     om.enqueue(new Order("Green", "SES"));
@@ -66,5 +86,216 @@ public class OrderManagerTest {
     int finalSize = rm.getPickingQueue().size();
     assertEquals(initialSize + 1, finalSize);
   }
-    
+
+  @Test
+  public void testConfigurableBatchSize() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setOrderBatchSize(2);
+    RequestManager rm = new RequestManager(new WorkerManager(), context);
+    OrderManager om = new OrderManager("translation.csv", rm, context);
+    om.enqueue(new Order("Green", "SES", context));
+    assertEquals(0, rm.getPickingQueue().size());
+    om.enqueue(new Order("Red", "S", context));
+    assertEquals(1, rm.getPickingQueue().size());
+    assertEquals(4, rm.getPickingQueue().peek().getLoadingOrder().size());
+    assertEquals(0, om.getPartialBatchCount());
+  }
+
+  @Test
+  public void testMaxWaitFlushesPartialBatch() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setOrderMaxWait(3);
+    Simulator simulator = new Simulator(context);
+    OrderManager om = simulator.getOrderManager();
+    simulator.simulate("Order S Blue");
+    simulator.simulate("Order SE Blue");
+    simulator.simulate("Picker Alice ready");
+    assertEquals(2, om.getQueuedOrders().size());
+    // the first order has now waited 3 commands
+    simulator.simulate("Picker Bob ready");
+    assertEquals(0, om.getQueuedOrders().size());
+    assertEquals(1, om.getPartialBatchCount());
+    assertEquals(2, om.getBatchedOrderCount());
+    assertEquals(3, om.getMaxBatchWait());
+    assertEquals(5, om.getTotalBatchWait());
+    assertEquals(2.5, om.getMeanBatchWait(), 1e-9);
+    // Alice was waiting for a request and takes the new one at once
+    assertEquals(4, simulator.getDirectory().get("Alice").getCurrReq().getFasciaCount());
+  }
+
+  @Test
+  public void testRunFlushesPartialBatch() throws IOException {
+    Simulator simulator = new Simulator(new SimulationContext(Paths.get("")));
+    simulator.runSimulation(Arrays.asList("Order S Blue", "Order SE Blue", "Order S White",
+        "Order SES Red", "Order S Red", "Order SE White"));
+    OrderManager om = simulator.getOrderManager();
+    assertEquals(0, om.getQueuedOrders().size());
+    assertEquals(6, om.getBatchedOrderCount());
+    assertEquals(1, om.getPartialBatchCount());
+    // the orders of the full batch waited 3, 2, 1 and 0 commands, the last two 1 and 0
+    assertEquals(7, om.getTotalBatchWait());
+
+    simulator.runSimulation(Arrays.asList("Picker Alice ready"));
+    Picker alice = (Picker) simulator.getDirectory().get("Alice");
+    for (String sku : new ArrayList<>(alice.getPickingOrder())) {
+      alice.pick(sku);
+    }
+    alice.sendNextRequest();
+    alice.doNextTask();
+    PickingRequest partial = alice.getCurrReq();
+    assertEquals(2, partial.getId());
+    assertEquals(4, partial.getFasciaCount());
+    for (String sku : new ArrayList<>(alice.getPickingOrder())) {
+      alice.pick(sku);
+    }
+    assertTrue(alice.getDonePicking());
+    alice.sendNextRequest();
+
+    simulator.runSimulation(Arrays.asList("Sequencer Sue ready"));
+    CheckerWorker sue = (CheckerWorker) simulator.getDirectory().get("Sue");
+    sue.sendNextRequest();
+    sue.doNextTask();
+    for (int i = 0; i < 5; i++) {
+      sue.check();
+    }
+    // the fifth check is refused: the request has 4 fascia
+    assertEquals(Arrays.asList(true, true, true, true), sue.getValidFascias());
+  }
+
+  @Test
+  public void testSnapshotKeepsWaitingTime() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setOrderMaxWait(3);
+    Simulator simulator = new Simulator(context);
+    simulator.simulate("Order S Blue");
+    simulator.simulate("Picker Alice ready");
+
+    Simulator restored = Snapshot.capture(simulator).restore(context);
+    OrderManager om = restored.getOrderManager();
+    assertEquals(1, om.getQueuedOrders().size());
+    restored.simulate("Picker Bob ready");
+    assertEquals(1, om.getQueuedOrders().size());
+    restored.simulate("Picker Carol ready");
+    assertEquals(0, om.getQueuedOrders().size());
+    assertEquals(3, om.getMaxBatchWait());
+  }
+
+  @Test
+  public void testSnapshotKeepsBatchMetrics() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setOrderMaxWait(2);
+    Simulator simulator = new Simulator(context);
+    simulator.simulate("Order S Blue");
+    simulator.simulate("Picker Alice ready");
+    simulator.simulate("Picker Bob ready");
+
+    OrderManager om = Snapshot.capture(simulator).restore(context).getOrderManager();
+    assertEquals(1, om.getBatchedOrderCount());
+    assertEquals(1, om.getPartialBatchCount());
+    assertEquals(2, om.getTotalBatchWait());
+    assertEquals(2, om.getMaxBatchWait());
+  }
+
+  @Test
+  public void testEnqueueAllGroupsLikeEnqueue() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    RequestManager rm = new RequestManager(new WorkerManager(), context);
+    OrderManager om = new OrderManager("translation.csv", rm, context);
+    om.enqueue(new Order("Green", "SES", context));
+    ArrayList<Order> orders = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      orders.add(new Order("Red", "S", context));
+    }
+    om.enqueueAll(orders);
+    assertEquals(2, rm.getPickingQueue().size());
+    assertEquals(2, om.getQueuedOrders().size());
+    assertEquals(8, om.getBatchedOrderCount());
+    // the order queued before the bulk is grouped with the first bulk orders
+    ArrayList<PickingRequest> requests = new ArrayList<>(rm.getLoadingOrder());
+    assertEquals("1, 2, 3, 4", requests.get(0).getOrderString());
+    assertEquals("5, 6, 7, 8", requests.get(1).getOrderString());
+  }
+
+  @Test
+  public void testConcurrentSubmitLosesNothing() throws Exception {
+    final int producers = 16;
+    final int ordersEach = 500;
+    final SimulationContext context = new SimulationContext(Paths.get(""));
+    RequestManager rm = new RequestManager(new WorkerManager(), context);
+    final OrderManager om = new OrderManager("translation.csv", rm, context);
+    final int[][] submitted = new int[producers][ordersEach];
+    final CountDownLatch start = new CountDownLatch(1);
+    ArrayList<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < ordersEach; i++) {
+          Order order = new Order(i % 2 == 0 ? "Red" : "Blue", "S", context);
+          submitted[producer][i] = order.getId();
+          om.submit(order);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    // the simulation keeps grouping orders while they are submitted
+    start.countDown();
+    boolean submitting = true;
+    while (submitting) {
+      om.tick();
+      submitting = false;
+      for (Thread thread : threads) {
+        submitting |= thread.isAlive();
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    om.flush();
+
+    ArrayList<PickingRequest> requests = new ArrayList<>(rm.getPickingQueue());
+    requests.sort(Comparator.comparingInt(PickingRequest::getId));
+    HashMap<Integer, Integer> positions = new HashMap<>();
+    for (PickingRequest request : requests) {
+      assertEquals(4, request.getOrders().size());
+      for (Order order : request.getOrders()) {
+        assertNull("order grouped twice", positions.put(order.getId(), positions.size()));
+      }
+    }
+    assertEquals(producers * ordersEach, positions.size());
+    for (int[] ids : submitted) {
+      for (int i = 1; i < ordersEach; i++) {
+        assertTrue(positions.get(ids[i - 1]) < positions.get(ids[i]));
+      }
+    }
+    assertEquals(0, om.getPartialBatchCount());
+  }
+
+  @Test
+  public void testSnapshotKeepsSubmittedOrders() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    Simulator simulator = new Simulator(context);
+    assertTrue(simulator.submitOrder("Blue", "S"));
+    assertTrue(!simulator.submitOrder("Blue", "XL"));
+    simulator.submitOrder("Red", "SE");
+
+    Simulator restored = Snapshot.capture(simulator).restore(context);
+    OrderManager om = restored.getOrderManager();
+    assertEquals(2, om.getIntake().size());
+    assertEquals(0, om.getQueuedOrders().size());
+    restored.simulate("Picker Alice ready");
+    assertEquals(0, om.getIntake().size());
+    assertEquals("Order #1: Blue, S", om.getQueuedOrders().peek().toString());
+    assertEquals(2, om.getQueuedOrders().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchSizeMustBePositive() {
+    new SimulationContext(Paths.get("")).setOrderBatchSize(0);
+  }
 }
@@ -0,0 +1,38 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Orders and helpers shared by the tests of the ways pickers take requests.
+ */
+final class PickerFixture {
+  /** The orders of two picking requests. */
+  static final List<String> ORDERS = Arrays.asList("Order S Blue", "Order SE Blue",
+      "Order S White", "Order SES Red", "Order SE White", "Order S Red", "Order SES Blue",
+      "Order S Beige");
+
+  private PickerFixture() {}
+
+  /**
+   * Picks the fascia the picker is told to pick, then sends them to Marshaling and has them
+   * ready for their next task.
+   */
+  static void pickAll(Simulator simulator, String id) {
+    Picker picker = (Picker) simulator.getDirectory().get(id);
+    for (String sku : new ArrayList<>(picker.getPickingOrder().subList(picker.getCurrIndex(),
+        picker.getPickingOrder().size()))) {
+      picker.pick(sku);
+    }
+    picker.sendNextRequest();
+    picker.doNextTask();
+  }
+
+  static List<String> sorted(List<String> skus) {
+    ArrayList<String> sorted = new ArrayList<>(skus);
+    Collections.sort(sorted);
+    return sorted;
+  }
+}
@@ -122,6 +122,25 @@ public class PickerTest {
     assertTrue(p1.getIsAvail());
   }
 
+  @Test
+  public final void testWalkedDistance() {
+    rm.sendToPicking(pr1);
+    p1.doNextTask();
+    // SKU 0 is not on the picking floor; 1 to 4 share the first rack, 5 to 7 the next one
+    p1.pick("0");
+    p1.pick("1");
+    assertEquals(2, p1.getWalkedDistance());
+    p1.pick("2");
+    p1.pick("3");
+    p1.pick("4");
+    p1.pick("5");
+    p1.pick("6");
+    p1.pick("7");
+    assertEquals(3, p1.getWalkedDistance());
+    p1.sendNextRequest(); // back to the marshalling area
+    assertEquals(6, p1.getWalkedDistance());
+  }
+
   @Test
   public final void testSendNextRequestWithoutTask() {
     p1.currIndex = 2;
@@ -1,6 +1,14 @@
 package project;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -28,4 +36,48 @@ public class PickingRequestTest {
     assertEquals(0, finalSize);
   }
 
+  @Test
+  public void testRoutedInBackground() throws FileNotFoundException, InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    SimulationContext context = new SimulationContext(Paths.get("")) {
+      @Override
+      synchronized PickRouter getPickRouter() {
+        return skus -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          ArrayList<String> route = new ArrayList<>(skus);
+          route.sort(null);
+          return route;
+        };
+      }
+    };
+    context.setRoutingThreads(2);
+    ArrayList<String> skus = new ArrayList<>(Arrays.asList("9", "1", "5"));
+    PickingRequest routed = new PickingRequest(new ArrayList<Order>(), skus, context);
+
+    // created before its route is known
+    assertFalse(routed.isRouted());
+    release.countDown();
+    assertEquals(Arrays.asList("1", "5", "9"), routed.getPickingOrder());
+    assertTrue(routed.isRouted());
+    context.setRoutingThreads(0);
+  }
+
+  @Test
+  public void testBackgroundRoutesMatch() throws FileNotFoundException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setDistanceRouting(true);
+    ArrayList<String> skus =
+        new ArrayList<>(Arrays.asList("21", "9", "13", "1", "40", "2", "40", "37"));
+    ArrayList<String> expected = context.getRouteEngine().route(skus);
+    context.setRoutingThreads(4);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(expected,
+          new PickingRequest(new ArrayList<Order>(), skus, context).getPickingOrder());
+    }
+    context.setRoutingThreads(0);
+  }
 }
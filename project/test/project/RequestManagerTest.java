@@ -134,6 +134,13 @@ public class RequestManagerTest {
     assertFalse(rm.readyToLoad()); // req2 cannot be loaded before req1
   }
   
+  @Test
+  public void testReadyToLoadNothingSequencedYet() {
+    rm.addRequest(new PickingRequest(1)); // req1 waiting to be picked
+    assertFalse(rm.readyToLoad());
+    assertNull(rm.getLoadingRequest());
+  }
+
   @Test
   public void testReadyToLoadNextRequestToLoadInLoadingQueue() {
     PickingRequest req1 = new PickingRequest(1);
@@ -0,0 +1,121 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RouteCacheTest {
+  private RouteEngine engine;
+  private AtomicInteger routed;
+  private PickRouter counting;
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    engine = new RouteEngine("traversal_table.csv");
+    routed = new AtomicInteger();
+    counting = skus -> {
+      routed.incrementAndGet();
+      return engine.route(skus);
+    };
+  }
+
+  private static ArrayList<String> skus(String... skus) {
+    return new ArrayList<>(Arrays.asList(skus));
+  }
+
+  @Test
+  public void testSameSkusInAnyOrderHit() {
+    RouteCache cache = new RouteCache(counting, 4);
+    ArrayList<String> first = cache.route(skus("21", "9", "13", "1"));
+    ArrayList<String> second = cache.route(skus("1", "13", "21", "9"));
+    assertEquals(Arrays.asList("1", "9", "21", "13"), first);
+    assertEquals(first, second);
+    assertNotSame(first, second);
+    assertEquals(1, routed.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testRepeatedSkusAreNotTheSameKey() {
+    RouteCache cache = new RouteCache(counting, 4);
+    assertEquals(Arrays.asList("1", "1", "2"), cache.route(skus("1", "2", "1")));
+    assertEquals(Arrays.asList("1", "2", "2"), cache.route(skus("2", "1", "2")));
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedRouteIsDropped() {
+    RouteCache cache = new RouteCache(counting, 2);
+    cache.route(skus("1"));
+    cache.route(skus("2"));
+    cache.route(skus("1"));
+    cache.route(skus("3")); // drops 2, used less recently than 1
+    assertEquals(2, cache.size());
+    cache.route(skus("1"));
+    assertEquals(3, routed.get());
+    cache.route(skus("2"));
+    assertEquals(4, routed.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCapacityMustBePositive() {
+    new RouteCache(counting, 0);
+  }
+
+  @Test
+  public void testSharedByThreads() throws InterruptedException {
+    final RouteCache cache = new RouteCache(counting, 16);
+    final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final Random random = new Random(t);
+      Thread thread = new Thread(() -> {
+        try {
+          for (int r = 0; r < 2000; r++) {
+            ArrayList<String> skus = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+              skus.add(Integer.toString(1 + random.nextInt(6)));
+            }
+            assertEquals(engine.route(skus), cache.route(skus));
+          }
+        } catch (Throwable e) {
+          failures.add(e);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(new ArrayList<Throwable>(), failures);
+    assertEquals(16000, cache.getHits() + cache.getMisses());
+    assertTrue(cache.size() <= 16);
+  }
+
+  @Test
+  public void testContextCachesItsRouter() throws FileNotFoundException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    assertSame(context.getTraversalIndex(), context.getPickRouter());
+    context.setDistanceRouting(true);
+    RouteCache cache = (RouteCache) context.getPickRouter();
+    assertSame(context.getRouteEngine(), cache.getRouter());
+    assertSame(cache, context.getPickRouter());
+    context.setRouteCacheSize(0);
+    assertSame(context.getRouteEngine(), context.getPickRouter());
+  }
+}
@@ -0,0 +1,89 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RouteEngineTest {
+  private RouteEngine engine;
+  private TraversalIndex index;
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    engine = new RouteEngine("traversal_table.csv");
+    index = new TraversalIndex("traversal_table.csv");
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testTraversalTableFileNotFound() throws FileNotFoundException {
+    engine = new RouteEngine("afilenamelikethisshouldnt.existinthedirectory");
+  }
+
+  @Test
+  public void testLength() {
+    // to the first rack of the first aisle and back
+    assertEquals(4, engine.length(Arrays.asList("1")));
+    // 1 and 9 are at the front and back of aisle A0; 13 and 21 of aisle A1
+    assertEquals(20, engine.length(Arrays.asList("1", "9", "13", "21")));
+    assertEquals(16, engine.length(Arrays.asList("1", "9", "21", "13")));
+    assertEquals(0, engine.length(new ArrayList<String>()));
+  }
+
+  @Test
+  public void testRouteLeavesAisleByTheBack() {
+    ArrayList<String> skus = new ArrayList<>(Arrays.asList("21", "9", "13", "1"));
+    assertEquals(Arrays.asList("1", "9", "21", "13"), engine.route(skus));
+    assertEquals(1, engine.getRouteCount());
+    assertEquals(16, engine.getTotalLength());
+  }
+
+  @Test
+  public void testRouteKeepsRepeatedSkusAndDropsUnknownSkus() {
+    ArrayList<String> skus = new ArrayList<>(Arrays.asList("40", "ABC", "2", "40", "2", "2"));
+    assertEquals(Arrays.asList("2", "2", "2", "40", "40"), engine.route(skus));
+  }
+
+  @Test
+  public void testRouteIsNeverLongerThanTraversalOrder() {
+    Random random = new Random(5);
+    for (int r = 0; r < 500; r++) {
+      ArrayList<String> skus = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        skus.add(Integer.toString(1 + random.nextInt(48)));
+      }
+      ArrayList<String> route = engine.route(skus);
+      assertTrue(engine.length(route) <= engine.length(index.sort(skus)));
+
+      ArrayList<String> sorted = new ArrayList<>(skus);
+      Collections.sort(sorted);
+      ArrayList<String> routed = new ArrayList<>(route);
+      Collections.sort(routed);
+      assertEquals(sorted, routed);
+
+      Collections.shuffle(skus, random);
+      assertEquals(route, engine.route(skus));
+    }
+  }
+
+  @Test
+  public void testRouteWithoutBudgetIsComplete() {
+    engine.setBudgetMicros(0);
+    ArrayList<String> skus = new ArrayList<>();
+    for (int sku = 48; sku > 0; sku--) {
+      skus.add(Integer.toString(sku));
+    }
+    for (int r = 0; r < 20; r++) {
+      Collections.shuffle(skus, new Random(r));
+      assertEquals(48, engine.route(skus).size());
+    }
+    assertTrue(engine.getOutOfBudgetCount() <= 20);
+  }
+}
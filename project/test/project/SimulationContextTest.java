@@ -0,0 +1,70 @@
+package project;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SimulationContextTest {
+
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  @Test
+  public void testDataFilesInDirectory() {
+    SimulationContext context = new SimulationContext(Paths.get("day1"));
+    assertEquals(Paths.get("day1", "translation.csv").toString(), context.getTranslationTable());
+    assertEquals(Paths.get("day1", "orders.csv").toString(), context.getCompletedOrders());
+    assertEquals(Paths.get("day1", "final.csv").toString(), context.getFinalInventory());
+  }
+
+  @Test
+  public void testDefaultContextUsesWorkingDirectory() {
+    assertEquals("traversal_table.csv", SimulationContext.getDefault().getTraversalTable());
+  }
+
+  @Test
+  public void testIdsAreCountedPerContext() {
+    SimulationContext first = new SimulationContext(Paths.get(""));
+    SimulationContext second = new SimulationContext(Paths.get(""));
+    assertEquals(1, new Order("Red", "S", first).getId());
+    assertEquals(2, new Order("Red", "S", first).getId());
+    assertEquals(1, new Order("Red", "S", second).getId());
+    assertEquals(1, first.nextRequestId());
+    assertEquals(1, second.nextRequestId());
+  }
+
+  @Test
+  public void testParallelSimulationsMatchSequentialRun() throws IOException {
+    Path sequential = dataDirectory.create();
+    new Simulator(new SimulationContext(sequential)).runSimulation(Paths.get("zmd_std.txt"));
+    byte[] expectedOrders = Files.readAllBytes(sequential.resolve("orders.csv"));
+    byte[] expectedInventory = Files.readAllBytes(sequential.resolve("final.csv"));
+
+    List<SimulationRunner.Scenario> scenarios = new ArrayList<>();
+    List<Path> directories = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Path directory = dataDirectory.create();
+      directories.add(directory);
+      scenarios.add(new SimulationRunner.Scenario(new SimulationContext(directory),
+          Paths.get("zmd_std.txt")));
+    }
+    new SimulationRunner().runAll(scenarios);
+
+    for (int i = 0; i < 4; i++) {
+      assertNull(scenarios.get(i).getFailure());
+      Path directory = directories.get(i);
+      assertArrayEquals(expectedOrders, Files.readAllBytes(directory.resolve("orders.csv")));
+      assertArrayEquals(expectedInventory, Files.readAllBytes(directory.resolve("final.csv")));
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package project;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -9,7 +10,13 @@ import static org.mockito.Mockito.when;
 import ch.qos.logback.classic.Level;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.junit.Before;
@@ -245,6 +252,19 @@ public class SimulatorTest {
     logbackVerifier.expectMessage(Level.WARN);
   }
   
+  @Test
+  public void testRunSimulationReader() throws IOException {
+    sim.runSimulation(new StringReader("Picker Rock ready\nOrder SES Blue\n"));
+    assertTrue(sim.getDirectory().get("Rock") instanceof Picker);
+  }
+
+  @Test
+  public void testRunSimulationIterator() throws IOException {
+    sim.runSimulation(Arrays.asList("Order New Colour", "Loader Larry ready").iterator());
+    logbackVerifier.expectMessage(Level.WARN);
+    assertTrue(sim.getDirectory().get("Larry") instanceof Loader);
+  }
+
   @Test
   public void testSimulator() throws FileNotFoundException {
     WorkerManager wm = new WorkerManager();
@@ -270,6 +290,31 @@ public class SimulatorTest {
     assertTrue(sim.getDirectory().get("Rock").getIsAvail());
   }
   
+  @Test
+  public void testImportOrders() throws IOException {
+    Path orderFile = Files.createTempFile("orders", ".csv");
+    try {
+      Files.write(orderFile, Arrays.asList("Colour,Model", "Blue,S", "Red,SE", "Purple,S",
+          "White,SES", "Red,S", "Blue,SEL", ""), StandardCharsets.UTF_8);
+      SimulationContext context = new SimulationContext(Paths.get(""));
+      Simulator simulator = new Simulator(context);
+      simulator.runSimulation(Arrays.asList("Picker Alice ready", "Picker Bob ready"));
+      logbackVerifier.expectMessage(Level.WARN, "Invalid order on line 4");
+      assertEquals(5, simulator.importOrders(orderFile));
+
+      // one full request, taken by Alice, and the fifth order waiting for its batch
+      PickingRequest request = simulator.getDirectory().get("Alice").getCurrReq();
+      assertEquals("1, 2, 3, 4", request.getOrderString());
+      assertEquals(Arrays.asList("34", "20", "6", "18", "33", "19", "5", "17"),
+          request.getLoadingOrder());
+      assertTrue(simulator.getDirectory().get("Bob").getIsAvail());
+      assertEquals(1, simulator.getRequestManager().getLoadingOrder().size());
+      assertEquals(1, simulator.getOrderManager().getQueuedOrders().size());
+    } finally {
+      Files.delete(orderFile);
+    }
+  }
+
   @Test
   public void testParseWorkerCommandWorkerHasNoTask() {
     sim.addWorker("Alice", mockPicker);
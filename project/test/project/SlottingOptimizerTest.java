@@ -0,0 +1,148 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SlottingOptimizerTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private Path directory;
+  private Path output;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = dataDirectory.create();
+    output = directory.resolve("slotted");
+  }
+
+  /**
+   * @return An optimizer whose history mostly orders Black SEL (SKUs 47 and 48, at the back of
+   *         zone B) and White SE.
+   */
+  private SlottingOptimizer optimizer() throws IOException {
+    SlottingOptimizer optimizer = new SlottingOptimizer(new SimulationContext(directory));
+    for (int i = 0; i < 40; i++) {
+      optimizer.addOrder("Black", "SEL");
+      optimizer.addOrder(i % 2 == 0 ? "White" : "Black", i % 2 == 0 ? "SE" : "SEL");
+      optimizer.addOrder("Red", "S");
+      optimizer.addOrder("Black", "SEL");
+    }
+    return optimizer;
+  }
+
+  @Test
+  public void testFrequencyAndCoOccurrence() throws IOException {
+    SlottingOptimizer optimizer = optimizer();
+    assertEquals(160, optimizer.getOrderCount());
+    assertEquals(40, optimizer.getRequestCount());
+    assertEquals(100, optimizer.getFrequency("47"));
+    assertEquals(40, optimizer.getFrequency("17"));
+    assertEquals(40, optimizer.getCoOccurrence("47", "48"));
+    assertEquals(20, optimizer.getCoOccurrence("3", "47"));
+    // orders for colours off the picking floor are read, but picked nowhere
+    assertTrue(optimizer.addOrder("Gold", "S"));
+    assertEquals(0, optimizer.getFrequency("65"));
+  }
+
+  @Test
+  public void testReadHistory() throws IOException {
+    Path history = directory.resolve("orders.csv");
+    // completed orders are written without line breaks
+    Files.write(history, Arrays.asList("Order #1: Black, SELOrder #2: White, SOrder #3: Red, SE"
+        + "Order #4: Beige, SES", "Order SEL Black", "Picker Alice ready"),
+        StandardCharsets.UTF_8);
+    SlottingOptimizer optimizer = new SlottingOptimizer(new SimulationContext(directory));
+    assertEquals(5, optimizer.readHistory(history));
+    assertEquals(1, optimizer.getRequestCount());
+    assertEquals(1, optimizer.getFrequency("47"));
+    assertEquals(1, optimizer.getFrequency("14"));
+  }
+
+  @Test
+  public void testFrequentSkusMoveCloser() throws IOException {
+    SlottingOptimizer optimizer = optimizer();
+    String[] slotting = optimizer.optimize();
+    double before = optimizer.expectedRouteLength(optimizer.getSlotting());
+    double after = optimizer.expectedRouteLength(slotting);
+    assertTrue(after < before);
+
+    LocationCatalog catalog = new SimulationContext(directory).getLocationCatalog();
+    List<String> newSlotting = Arrays.asList(slotting);
+    int depot = catalog.getDepot();
+    assertTrue(catalog.distance(depot, newSlotting.indexOf("47"))
+        < catalog.distance(depot, catalog.getCodeOfSku("47")));
+    // the same SKUs, each in one location
+    ArrayList<String> skus = new ArrayList<>(newSlotting);
+    Collections.sort(skus);
+    ArrayList<String> oldSkus = new ArrayList<>(Arrays.asList(optimizer.getSlotting()));
+    Collections.sort(oldSkus);
+    assertEquals(oldSkus, skus);
+  }
+
+  @Test
+  public void testEmptyHistoryKeepsTheSlotting() throws IOException {
+    SlottingOptimizer optimizer = new SlottingOptimizer(new SimulationContext(directory));
+    assertEquals(Arrays.asList(optimizer.getSlotting()), Arrays.asList(optimizer.optimize()));
+    assertTrue(optimizer.migrationPlan(optimizer.getSlotting()).isEmpty());
+  }
+
+  @Test
+  public void testMigrationPlan() throws IOException {
+    SlottingOptimizer optimizer = optimizer();
+    String[] slotting = optimizer.optimize();
+    LocationCatalog catalog = new SimulationContext(directory).getLocationCatalog();
+
+    // carrying out the plan fascia by fascia gives the new slotting
+    HashMap<String, String> stock = new HashMap<>();
+    for (int code = 0; code < catalog.size(); code++) {
+      stock.put(catalog.getLocation(code), catalog.getSku(code));
+    }
+    for (String[] move : optimizer.migrationPlan(slotting)) {
+      assertEquals(move[0], stock.remove(move[1]));
+      assertEquals(null, stock.put(move[2], move[0]));
+    }
+    assertTrue(!stock.containsKey(SlottingOptimizer.STAGING));
+    for (int code = 0; code < catalog.size(); code++) {
+      assertEquals(slotting[code], stock.get(catalog.getLocation(code)));
+    }
+  }
+
+  @Test
+  public void testWriteAndCompare() throws IOException {
+    SlottingOptimizer optimizer = optimizer();
+    String[] slotting = optimizer.optimize();
+    optimizer.write(slotting, output);
+
+    SimulationContext after = new SimulationContext(output);
+    LocationCatalog catalog = after.getLocationCatalog();
+    for (int code = 0; code < slotting.length; code++) {
+      assertEquals(slotting[code], catalog.getSku(code));
+    }
+    // quantities follow their SKU: SKU 2 starts with 12 fascia
+    InventoryManager inventory =
+        new InventoryManager(after.getInitialInventory(), null, false, after);
+    assertEquals(12, (int) inventory.getAmount("2"));
+    List<String> migration = Files.readAllLines(output.resolve("migration.csv"));
+    assertEquals(optimizer.migrationPlan(slotting).size() + 1, migration.size());
+
+    long[][] picked = optimizer.compare(output);
+    assertEquals(320, picked[0][1]);
+    assertEquals(320, picked[1][1]);
+    assertTrue(picked[1][0] < picked[0][0]);
+  }
+}
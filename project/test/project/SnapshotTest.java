@@ -0,0 +1,160 @@
+package project;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SnapshotTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  /**
+   * @return A generated command file in <code>directory</code>.
+   */
+  private Path generateCommands(Path directory, long commands) throws IOException {
+    WorkloadGenerator generator = new WorkloadGenerator(new SimulationContext(directory), 11);
+    generator.setRescanRate(0.05);
+    generator.setRejectRate(0.05);
+    generator.setErrorRate(0.05);
+    StringWriter out = new StringWriter();
+    generator.generate(commands, out);
+    Path commandFile = directory.resolve("commands.txt");
+    Files.write(commandFile, out.toString().getBytes(StandardCharsets.UTF_8));
+    return commandFile;
+  }
+
+  @Test
+  public void testCaptureAfterRestoreIsUnchanged() throws IOException {
+    Path directory = dataDirectory.create();
+    Path commandFile = generateCommands(directory, 3000);
+    Simulator simulator = new Simulator(new SimulationContext(directory));
+    List<String> lines = Files.readAllLines(commandFile, StandardCharsets.UTF_8);
+    simulator.runSimulation(lines.subList(0, 1234));
+
+    Snapshot snapshot = Snapshot.capture(simulator);
+    assertEquals(1234, snapshot.getOffset());
+    Path file = directory.resolve("state.snap");
+    snapshot.write(file);
+    Snapshot read = Snapshot.read(file);
+    assertEquals(1234, read.getOffset());
+
+    Simulator restored = read.restore(new SimulationContext(directory));
+    assertEquals(1234, restored.getOffset());
+    assertEquals(simulator.getDirectory().keySet(), restored.getDirectory().keySet());
+    Path again = directory.resolve("again.snap");
+    Snapshot.capture(restored).write(again);
+    assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(again));
+  }
+
+  @Test
+  public void testCaptureRecordsBufferedOrders() throws IOException {
+    Path directory = dataDirectory.create();
+    Path commandFile = generateCommands(directory, 1000);
+    Simulator simulator = new Simulator(new SimulationContext(directory));
+    // outside a run, so the completed orders stay in the buffer until the capture
+    for (String line : Files.readAllLines(commandFile, StandardCharsets.UTF_8)) {
+      simulator.simulate(line);
+    }
+
+    Snapshot snapshot = Snapshot.capture(simulator);
+    assertTrue(snapshot.getCompletedOrdersLength() > 0);
+    assertEquals(snapshot.getCompletedOrdersLength(), Files.size(directory.resolve("orders.csv")));
+    simulator.finishRun();
+  }
+
+  @Test
+  public void testRestoredRequestsAreShared() throws IOException {
+    Path directory = dataDirectory.create();
+    Simulator simulator = new Simulator(new SimulationContext(directory));
+    simulator.runSimulation(Arrays.asList("Order S Blue", "Order SE Blue", "Order S White",
+        "Order SES Red", "Picker Alice ready", "Picker Alice picks 1"));
+    // outside a run, so the order is not flushed when the run ends
+    simulator.simulate("Order S Blue");
+
+    Simulator restored = Snapshot.capture(simulator).restore(new SimulationContext(directory));
+    PickingRequest request = restored.getDirectory().get("Alice").getCurrReq();
+    assertSame(request, restored.getRequestManager().getLoadingOrder().peek());
+    assertEquals(1, (int) restored.getDirectory().get("Alice").getCurrIndex());
+    assertEquals(Arrays.asList("1"), request.getFasciaState());
+    assertEquals(1, restored.getOrderManager().getQueuedOrders().size());
+    assertEquals(6, restored.getContext().getNextOrderId());
+    assertEquals(2, restored.getContext().getNextRequestId());
+  }
+
+  @Test
+  public void testResumeFromCheckpointMatchesUninterruptedRun() throws IOException {
+    Path full = dataDirectory.create();
+    Path commandFile = generateCommands(full, 6000);
+    Checkpointer checkpointer = new Checkpointer(full, 2000);
+    Simulator simulator = new Simulator(new SimulationContext(full));
+    simulator.setCheckpointer(checkpointer);
+    simulator.runSimulation(commandFile);
+    checkpointer.close();
+    assertEquals(3, checkpointer.getWrittenCount());
+    assertTrue(Files.isRegularFile(Checkpointer.checkpointFile(full, 4000)));
+
+    // the orders completed before the checkpoint, as left by a run stopped there
+    Path partial = dataDirectory.create();
+    List<String> lines = Files.readAllLines(commandFile, StandardCharsets.UTF_8);
+    new Simulator(new SimulationContext(partial)).runSimulation(lines.subList(0, 4000));
+
+    Simulator resumed = Snapshot.read(Checkpointer.checkpointFile(full, 4000))
+        .restore(new SimulationContext(partial));
+    resumed.runSimulation(commandFile);
+    assertEquals(6000, resumed.getOffset());
+    assertArrayEquals(Files.readAllBytes(full.resolve("orders.csv")),
+        Files.readAllBytes(partial.resolve("orders.csv")));
+    assertArrayEquals(Files.readAllBytes(full.resolve("final.csv")),
+        Files.readAllBytes(partial.resolve("final.csv")));
+  }
+
+  @Test
+  public void testCheckpointsFasterThanWritesAreReplaced() throws IOException {
+    Path directory = dataDirectory.create();
+    Path commandFile = generateCommands(directory, 300);
+    Checkpointer checkpointer = new Checkpointer(directory, 1);
+    Simulator simulator = new Simulator(new SimulationContext(directory));
+    simulator.setCheckpointer(checkpointer);
+    simulator.runSimulation(commandFile);
+    checkpointer.close();
+    // every checkpoint is written or replaced by a later one, and the last one is written
+    assertEquals(300, checkpointer.getWrittenCount() + checkpointer.getReplacedCount());
+    assertEquals(300, Snapshot.read(Checkpointer.checkpointFile(directory, 300)).getOffset());
+  }
+
+  @Test
+  public void testResumeAfterStopDoesNotRepeatCompletedOrders() throws IOException {
+    Path full = dataDirectory.create();
+    Path commandFile = generateCommands(full, 6000);
+    new Simulator(new SimulationContext(full)).runSimulation(commandFile);
+
+    // a run that took a checkpoint at 2000 and went on until it was stopped at 2500
+    Path stopped = dataDirectory.create();
+    List<String> lines = Files.readAllLines(commandFile, StandardCharsets.UTF_8);
+    Checkpointer checkpointer = new Checkpointer(stopped, 2000);
+    Simulator simulator = new Simulator(new SimulationContext(stopped));
+    simulator.setCheckpointer(checkpointer);
+    simulator.runSimulation(lines.subList(0, 2500));
+    checkpointer.close();
+    Snapshot snapshot = Snapshot.read(Checkpointer.checkpointFile(stopped, 2000));
+    assertTrue(Files.size(stopped.resolve("orders.csv")) > snapshot.getCompletedOrdersLength());
+
+    Simulator resumed = snapshot.restore(new SimulationContext(stopped));
+    assertEquals(snapshot.getCompletedOrdersLength(), Files.size(stopped.resolve("orders.csv")));
+    resumed.runSimulation(commandFile);
+    assertArrayEquals(Files.readAllBytes(full.resolve("orders.csv")),
+        Files.readAllBytes(stopped.resolve("orders.csv")));
+  }
+}
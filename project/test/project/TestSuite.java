@@ -6,20 +6,38 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 
 @Suite.SuiteClasses({
+    AisleCongestionTest.class,
+    BatchPickerTest.class,
+    BatchReplenisherTest.class,
     CheckerWorkerTest.class,
+    CommandParserTest.class,
+    CommandServerTest.class,
+    EventLogTest.class,
+    FasciaCatalogTest.class,
     InventoryManagerTest.class,
     LoaderTest.class,    
+    LocationCatalogTest.class,
+    MultiLocationInventoryTest.class,
     OrderManagerTest.class,
     OrderTest.class,
     PickerTest.class,
     PickingRequestTest.class,
     ReplenisherTest.class,
     RequestManagerTest.class,
+    RouteCacheTest.class,
+    RouteEngineTest.class,
     SequencerTest.class,
+    SimulationContextTest.class,
     SimulatorTest.class,
+    SlottingOptimizerTest.class,
+    SnapshotTest.class,
+    TraversalIndexTest.class,
+    WavePlannerTest.class,
     WarehousePickingTest.class,
     WorkerManagerTest.class,
     WorkerTest.class,
+    WorkloadGeneratorTest.class,
+    ZonePickerTest.class,
 })
 
 public class TestSuite {   
@@ -0,0 +1,57 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TraversalIndexTest {
+  private TraversalIndex index;
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    index = new TraversalIndex("traversal_table.csv");
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testTraversalTableFileNotFound() throws FileNotFoundException {
+    index = new TraversalIndex("afilenamelikethisshouldnt.existinthedirectory");
+  }
+
+  @Test
+  public void testRanksFollowTableRows() {
+    assertEquals(48, index.size());
+    assertEquals(0, index.getRank("1"));
+    assertEquals(47, index.getRank("48"));
+    assertEquals(-1, index.getRank("ABC"));
+  }
+
+  @Test
+  public void testSortMatchesOptimize() {
+    ArrayList<String> skus = new ArrayList<>(Arrays.asList("37", "5", "21", "5", "1", "48", "2"));
+    ArrayList<String> expected = new ArrayList<>(
+        Arrays.asList("1", "2", "5", "5", "21", "37", "48"));
+    assertEquals(expected, index.sort(skus));
+    assertEquals(expected, WarehousePicking.optimize(skus));
+  }
+
+  @Test
+  public void testSortDropsUnknownSkus() {
+    ArrayList<String> skus = new ArrayList<>(Arrays.asList("ABC", "9", "XYZ"));
+    ArrayList<String> sorted = index.sort(skus);
+    assertEquals(1, sorted.size());
+    assertTrue(sorted.contains("9"));
+  }
+
+  @Test
+  public void testSortLeavesInputUnchanged() {
+    ArrayList<String> skus = new ArrayList<>(Arrays.asList("9", "1"));
+    index.sort(skus);
+    assertEquals(Arrays.asList("9", "1"), skus);
+  }
+}
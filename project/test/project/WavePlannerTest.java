@@ -0,0 +1,151 @@
+package project;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WavePlannerTest {
+  /** Orders of White fascia, picked at the front of zone A, and Black, at the back of zone B. */
+  private static final List<String> ORDERS = Arrays.asList("Order S White", "Order S Black",
+      "Order SE White", "Order SE Black", "Order SES White", "Order SES Black",
+      "Order SEL White", "Order SEL Black");
+
+  private WavePlanner planner;
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    planner = new WavePlanner(new LocationCatalog("traversal_table.csv"));
+  }
+
+  @Test
+  public void testWaveKeepsOldestAndNearestOrders() {
+    List<List<String>> window = Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("47", "48"),
+        Arrays.asList("3", "4"), Arrays.asList("45", "46"), Arrays.asList("5", "6"));
+    assertArrayEquals(new int[] {0, 2, 4}, planner.plan(window, 3));
+    assertEquals(planner.tourLength(new ArrayList<>(Arrays.asList("1", "2", "3", "4", "5", "6"))),
+        planner.getWaveLength());
+
+    // the oldest order is always in the wave, however far it is
+    window = Arrays.asList(Arrays.asList("47", "48"), Arrays.asList("1", "2"),
+        Arrays.asList("45", "46"));
+    assertArrayEquals(new int[] {0, 2}, planner.plan(window, 2));
+    assertEquals(2, planner.getWaveCount());
+  }
+
+  @Test
+  public void testBaselineGroupsByArrival() {
+    planner.arrived(Arrays.asList("1", "2"), 0, 2);
+    planner.arrived(Arrays.asList("47", "48"), 3, 2);
+    planner.arrived(Arrays.asList("3", "4"), 4, 2);
+    assertEquals(planner.tourLength(new ArrayList<>(Arrays.asList("1", "2", "47", "48"))),
+        planner.getBaselineLength());
+    assertEquals(3, planner.getBaselineWait());
+
+    // the last order is sent once it has waited 2 commands, or at the end of the run
+    planner.tick(5, 2);
+    assertEquals(3, planner.getBaselineWait());
+    planner.tick(6, 2);
+    assertEquals(5, planner.getBaselineWait());
+    planner.flush(10);
+    assertEquals(5, planner.getBaselineWait());
+  }
+
+  @Test
+  public void testOrdersGroupedInWaves() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setWaveWindow(8);
+    Simulator simulator = new Simulator(context);
+    OrderManager om = simulator.getOrderManager();
+    for (String order : ORDERS.subList(0, 7)) {
+      simulator.simulate(order);
+    }
+    assertEquals(7, om.getQueuedOrders().size());
+    simulator.simulate(ORDERS.get(7));
+    // the White orders are picked together, and the Black ones wait for the next wave
+    ArrayDeque<PickingRequest> loadingOrder = simulator.getRequestManager().getLoadingOrder();
+    assertEquals(1, loadingOrder.size());
+    assertEquals("1, 3, 5, 7", loadingOrder.peek().getOrderString());
+    assertEquals(4, om.getQueuedOrders().size());
+    assertEquals(2, om.getQueuedOrders().peek().queuedAt);
+
+    om.flush();
+    ArrayList<PickingRequest> requests = new ArrayList<>(loadingOrder);
+    assertEquals("2, 4, 6, 8", requests.get(1).getOrderString());
+    assertTrue(om.getWaveDistanceSaved() > 0);
+    // order i is queued at time i; the waves are sent at time 8, while orders 1 to 4 would have
+    // been sent at time 4 and orders 5 to 8 at time 8
+    assertEquals(28, om.getTotalBatchWait());
+    assertEquals((28 - 12) / 8.0, om.getWaveExtraWait(), 1e-9);
+  }
+
+  @Test
+  public void testSnapshotKeepsQueueTimes() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setWaveWindow(8);
+    Simulator simulator = new Simulator(context);
+    for (String order : ORDERS.subList(0, 6)) {
+      simulator.simulate(order);
+    }
+
+    Simulator restored = Snapshot.capture(simulator).restore(context);
+    restored.simulate(ORDERS.get(6));
+    restored.simulate(ORDERS.get(7));
+    OrderManager om = restored.getOrderManager();
+    assertEquals("1, 3, 5, 7", restored.getRequestManager().getLoadingOrder().peek()
+        .getOrderString());
+    // orders 1, 3 and 5 were queued at times 1, 3 and 5, before the snapshot
+    assertEquals(7 + 5 + 3 + 1, om.getTotalBatchWait());
+  }
+
+  @Test
+  public void testSnapshotKeepsWaveTotals() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setWaveWindow(8);
+    Simulator simulator = new Simulator(context);
+    for (String order : ORDERS) {
+      simulator.simulate(order);
+    }
+    simulator.simulate(ORDERS.get(0));
+    simulator.simulate(ORDERS.get(1));
+
+    Simulator restored = Snapshot.capture(simulator).restore(context);
+    simulator.getOrderManager().flush();
+    restored.getOrderManager().flush();
+    WavePlanner expected = simulator.getOrderManager().getWavePlanner();
+    WavePlanner planner = restored.getOrderManager().getWavePlanner();
+    assertEquals(expected.getWaveCount(), planner.getWaveCount());
+    assertEquals(expected.getWaveLength(), planner.getWaveLength());
+    assertEquals(expected.getBaselineLength(), planner.getBaselineLength());
+    assertEquals(expected.getBaselineWait(), planner.getBaselineWait());
+    assertEquals(simulator.getOrderManager().getWaveExtraWait(),
+        restored.getOrderManager().getWaveExtraWait(), 1e-9);
+  }
+
+  @Test
+  public void testSmallWindowGroupsByArrival() throws IOException {
+    SimulationContext context = new SimulationContext(Paths.get(""));
+    context.setWaveWindow(4);
+    Simulator simulator = new Simulator(context);
+    simulator.runSimulation(ORDERS.subList(0, 4));
+    assertNull(simulator.getOrderManager().getWavePlanner());
+    assertEquals("1, 2, 3, 4",
+        simulator.getRequestManager().getLoadingOrder().peek().getOrderString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWindowCannotBeNegative() {
+    new SimulationContext(Paths.get("")).setWaveWindow(-1);
+  }
+}
@@ -5,10 +5,17 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.slf4j.LoggerFactory;
 
 public class WorkerTest { // since
   private InventoryManager im;
@@ -87,6 +94,27 @@ public class WorkerTest { // since
   }
 
 
+  @Test
+  public final void testErrorArgumentsAfterWorkerId() {
+    final List<String> messages = new ArrayList<>();
+    AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+      @Override
+      protected void append(ILoggingEvent event) {
+        messages.add(event.getFormattedMessage());
+      }
+    };
+    Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    appender.start();
+    root.addAppender(appender);
+    try {
+      new Picker("{}", rm, im).logError("Already done picking {} fascias", 8);
+    } finally {
+      root.detachAppender(appender);
+    }
+    assertEquals("Picker {} reporting an error: Already done picking 8 fascias",
+        messages.get(messages.size() - 1));
+  }
+
   /**
    * Sets up the things that is always used before running each test.
    */
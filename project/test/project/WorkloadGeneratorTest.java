@@ -0,0 +1,116 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+public class WorkloadGeneratorTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private SimulationContext context;
+
+  @Before
+  public void setUp() throws IOException {
+    context = new SimulationContext(dataDirectory.create());
+  }
+
+  private String generate(long seed, long commands, double rescanRate, double rejectRate)
+      throws IOException {
+    WorkloadGenerator generator = new WorkloadGenerator(context, seed);
+    generator.setRescanRate(rescanRate);
+    generator.setRejectRate(rejectRate);
+    StringWriter out = new StringWriter();
+    generator.generate(commands, out);
+    return out.toString();
+  }
+
+  @Test
+  public void testSameSeedSameCommands() throws IOException {
+    assertEquals(generate(7, 2000, 0.05, 0.05), generate(7, 2000, 0.05, 0.05));
+    assertNotEquals(generate(7, 2000, 0.05, 0.05), generate(8, 2000, 0.05, 0.05));
+  }
+
+  @Test
+  public void testEveryCommandIsValid() throws IOException {
+    String[] lines = generate(1, 5000, 0.05, 0.05).split("\n");
+    assertEquals(5000, lines.length);
+    Command command = new Command();
+    for (String line : lines) {
+      assertTrue(line, CommandParser.parse(line, command));
+    }
+  }
+
+  /**
+   * @return The warnings and errors logged while simulating <code>commands</code>.
+   */
+  private List<ILoggingEvent> simulate(String commands) throws IOException {
+    final List<ILoggingEvent> warnings = new ArrayList<>();
+    AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+      @Override
+      protected void append(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+          warnings.add(event);
+        }
+      }
+    };
+    Logger root = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    appender.start();
+    root.addAppender(appender);
+    try {
+      new Simulator(context).runSimulation(new StringReader(commands));
+    } finally {
+      root.detachAppender(appender);
+    }
+    return warnings;
+  }
+
+  @Test
+  public void testSimulationOfGeneratedCommandsHasNoWarnings() throws IOException {
+    WorkloadGenerator generator = new WorkloadGenerator(context, 3);
+    generator.setPickers(3);
+    generator.setSequencers(2);
+    generator.setLoaders(3);
+    generator.setRescanRate(0.05);
+    generator.setRejectRate(0.05);
+    generator.setInterleaving(0.9);
+    StringWriter out = new StringWriter();
+    generator.generate(4000, out);
+
+    assertEquals(new ArrayList<ILoggingEvent>(), simulate(out.toString()));
+    assertTrue(generator.getCompletedRequests() > 0);
+    String orders = new String(Files.readAllBytes(Paths.get(context.getCompletedOrders())),
+        StandardCharsets.UTF_8);
+    assertEquals(4 * generator.getCompletedRequests(), orders.split("Order #").length - 1);
+  }
+
+  @Test
+  public void testGeneratedPicksFollowDistanceRouting() throws IOException {
+    context.setDistanceRouting(true);
+    WorkloadGenerator generator = new WorkloadGenerator(context, 4);
+    StringWriter out = new StringWriter();
+    generator.generate(3000, out);
+
+    assertEquals(new ArrayList<ILoggingEvent>(), simulate(out.toString()));
+    assertTrue(generator.getCompletedRequests() > 0);
+  }
+}
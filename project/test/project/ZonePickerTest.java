@@ -0,0 +1,144 @@
+package project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static project.PickerFixture.ORDERS;
+import static project.PickerFixture.pickAll;
+import static project.PickerFixture.sorted;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ZonePickerTest {
+  @Rule
+  public DataDirectory dataDirectory = new DataDirectory();
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = dataDirectory.create();
+  }
+
+  /**
+   * @return A zone picking simulation with ready pickers Alice (zone A) and Bob (zone B), then
+   *         the two requests of <code>ORDERS</code>.
+   */
+  private Simulator simulate() throws IOException {
+    SimulationContext context = new SimulationContext(directory);
+    context.setZonePicking(true);
+    Simulator simulator = new Simulator(context);
+    simulator.runSimulation(Arrays.asList("Picker Alice ready", "Picker Bob ready"));
+    simulator.runSimulation(ORDERS);
+    return simulator;
+  }
+
+  @Test
+  public void testRequestIsSplitByZone() throws IOException {
+    Simulator simulator = simulate();
+    ZonePicker alice = (ZonePicker) simulator.getDirectory().get("Alice");
+    ZonePicker bob = (ZonePicker) simulator.getDirectory().get("Bob");
+    assertEquals("A", alice.getZone());
+    assertEquals("B", bob.getZone());
+
+    // both parts of the first request are picked at the same time
+    PickingRequest first = alice.getCurrReq();
+    assertSame(first, bob.getCurrReq());
+    LocationCatalog catalog = simulator.getContext().getLocationCatalog();
+    for (String sku : alice.getPickingOrder()) {
+      assertEquals("A", catalog.getZone(catalog.getCodeOfSku(sku)));
+    }
+    for (String sku : bob.getPickingOrder()) {
+      assertEquals("B", catalog.getZone(catalog.getCodeOfSku(sku)));
+    }
+    ArrayList<String> parts = new ArrayList<>(alice.getPickingOrder());
+    parts.addAll(bob.getPickingOrder());
+    assertEquals(sorted(first.getPickingOrder()), sorted(parts));
+  }
+
+  @Test
+  public void testRequestWaitsForAllParts() throws IOException {
+    Simulator simulator = simulate();
+    RequestManager rm = simulator.getRequestManager();
+    PickingRequest first = simulator.getDirectory().get("Alice").getCurrReq();
+
+    pickAll(simulator, "Alice");
+    assertTrue(rm.getSequencingQueue().isEmpty());
+    // Alice goes on with her part of the next request
+    assertEquals(first.getId() + 1, simulator.getDirectory().get("Alice").getCurrReq().getId());
+
+    pickAll(simulator, "Bob");
+    assertEquals(1, rm.getSequencingQueue().size());
+    assertSame(first, rm.getSequencingQueue().peek());
+    assertEquals(sorted(first.getLoadingOrder()), sorted(first.getFasciaState()));
+    assertTrue(rm.getZoneDispatcher().getOutstandingParts().containsKey(
+        simulator.getDirectory().get("Bob").getCurrReq()));
+  }
+
+  @Test
+  public void testPickersReadyAfterTheOrders() throws IOException {
+    SimulationContext context = new SimulationContext(directory);
+    context.setZonePicking(true);
+    Simulator simulator = new Simulator(context);
+    simulator.runSimulation(ORDERS);
+    simulator.runSimulation(Arrays.asList("Picker Alice ready", "Picker Bob ready"));
+
+    // Alice split the first request looking for zone A work, and Bob took its zone B part
+    assertEquals(1, simulator.getRequestManager().getPickingQueue().size());
+    assertSame(simulator.getDirectory().get("Alice").getCurrReq(),
+        simulator.getDirectory().get("Bob").getCurrReq());
+    pickAll(simulator, "Alice");
+    pickAll(simulator, "Bob");
+    pickAll(simulator, "Alice");
+    pickAll(simulator, "Bob");
+    assertEquals(2, simulator.getRequestManager().getSequencingQueue().size());
+    assertNull(simulator.getDirectory().get("Alice").getCurrReq());
+    assertEquals(1, simulator.getRequestManager().getZoneDispatcher().getWaitingPickers("A")
+        .size());
+  }
+
+  @Test
+  public void testZoneStaffing() throws IOException {
+    SimulationContext context = new SimulationContext(directory);
+    context.setZonePicking(true);
+    context.setZoneStaffing("A", 3);
+    Simulator simulator = new Simulator(context);
+    simulator.runSimulation(Arrays.asList("Picker P1 ready", "Picker P2 ready",
+        "Picker P3 ready", "Picker P4 ready", "Picker P5 ready"));
+    ZoneDispatcher zoneDispatcher = simulator.getRequestManager().getZoneDispatcher();
+    assertEquals(4, zoneDispatcher.getPickerCount("A"));
+    assertEquals(1, zoneDispatcher.getPickerCount("B"));
+    assertEquals("B", ((ZonePicker) simulator.getDirectory().get("P2")).getZone());
+  }
+
+  @Test
+  public void testRestoredZonePickingContinues() throws IOException {
+    Simulator simulator = simulate();
+    ZonePicker alice = (ZonePicker) simulator.getDirectory().get("Alice");
+    List<String> part = new ArrayList<>(alice.getPickingOrder());
+    pickAll(simulator, "Alice");
+    alice.pick(alice.getPickingOrder().get(0));
+
+    // restored into a simulation without zone picking, the zones carry on
+    Simulator restored = Snapshot.capture(simulator).restore(new SimulationContext(directory));
+    ZonePicker restoredAlice = (ZonePicker) restored.getDirectory().get("Alice");
+    assertEquals("A", restoredAlice.getZone());
+    assertEquals(1, (int) restoredAlice.getCurrIndex());
+    assertEquals(alice.getPickingOrder(), restoredAlice.getPickingOrder());
+    assertTrue(!part.equals(restoredAlice.getPickingOrder()));
+    pickAll(restored, "Bob");
+    assertEquals(1, restored.getRequestManager().getSequencingQueue().size());
+    pickAll(restored, "Alice");
+    pickAll(restored, "Bob");
+    assertEquals(2, restored.getRequestManager().getSequencingQueue().size());
+  }
+}